@@ -0,0 +1,65 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.veos;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time for a van der Waals pressure isotherm from Ushcats with
+ * MyBigDecimal (arbitrary precision) and DoubleDouble (~32 digits) values.
+ */
+@State(Scope.Benchmark)
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 3, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1)
+public class BenchUshcats {
+
+    @Param({"50", "200"})
+    public int N;
+
+    @Param({"BigDecimal", "DoubleDouble"})
+    public String type;
+
+    private Ushcats ushcats;
+    private double T;
+    private final double[] rho = new double[10];
+
+    @Setup
+    public void setUp() {
+        T = 0.8 * 8.0 / 27.0;
+        ushcats = new Ushcats(new VanderWaals(T, 4), N);
+        if (type.equals("DoubleDouble")) {
+            ushcats.setBigValueFactory(DoubleDouble::new);
+        }
+        for (int i = 0; i < rho.length; i++) {
+            rho[i] = 0.09 * (i + 1);
+        }
+    }
+
+    @Benchmark
+    public double isotherm() {
+        double sum = 0;
+        for (double r : rho) {
+            sum += ushcats.pCalc(r, T);
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opts = new OptionsBuilder()
+                .include(BenchUshcats.class.getSimpleName())
+                .build();
+
+        new Runner(opts).run();
+    }
+}
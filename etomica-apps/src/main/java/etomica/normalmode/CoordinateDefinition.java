@@ -7,6 +7,7 @@ package etomica.normalmode;
 import etomica.action.MoleculeActionTranslateTo;
 import etomica.atom.AtomLeafAgentManager;
 import etomica.atom.IAtom;
+import etomica.atom.IAtomList;
 import etomica.box.Box;
 import etomica.lattice.BravaisLatticeCrystal;
 import etomica.lattice.IndexIteratorRectangular;
@@ -21,6 +22,8 @@ import etomica.space.Space;
 import etomica.space.Vector;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * An abstract class that defines the real-space generalized coordinates that are
@@ -195,20 +198,41 @@ public abstract class CoordinateDefinition {
             realT[i] = 0;
             imaginaryT[i] = 0;
         }
-        
-        // sum T over atoms
-        for (int iCell = 0; iCell<cells.length; iCell++) {
-        	
-            BasisCell cell = cells[iCell];
-            IMoleculeList molecules = cell.molecules;
-            double[] u = calcU(molecules);
-            Vector latticePosition = cell.cellPosition;
-            double kR = k.dot(latticePosition);
-            double coskR = Math.cos(kR);
-            double sinkR = Math.sin(kR);
-            for (int i = 0; i < coordinateDim; i++) {
-                realT[i] += coskR * u[i];
-                imaginaryT[i] -= sinkR * u[i];
+
+        PhaseTable table = null;
+        int iVector = -1;
+        for (int iTable = 0; iTable < phaseTables.size() && iVector < 0; iTable++) {
+            table = phaseTables.get(iTable);
+            iVector = table.indexOf(k);
+        }
+        if (iVector > -1 && table.isValid()) {
+            double[] cosRow = table.cos[iVector];
+            double[] sinRow = table.sin[iVector];
+            for (int iCell = 0; iCell<cells.length; iCell++) {
+                double[] u = calcU(cells[iCell].molecules);
+                double coskR = cosRow[iCell];
+                double sinkR = sinRow[iCell];
+                for (int i = 0; i < coordinateDim; i++) {
+                    realT[i] += coskR * u[i];
+                    imaginaryT[i] -= sinkR * u[i];
+                }
+            }
+        }
+        else {
+            // sum T over atoms
+            for (int iCell = 0; iCell<cells.length; iCell++) {
+
+                BasisCell cell = cells[iCell];
+                IMoleculeList molecules = cell.molecules;
+                double[] u = calcU(molecules);
+                Vector latticePosition = cell.cellPosition;
+                double kR = k.dot(latticePosition);
+                double coskR = Math.cos(kR);
+                double sinkR = Math.sin(kR);
+                for (int i = 0; i < coordinateDim; i++) {
+                    realT[i] += coskR * u[i];
+                    imaginaryT[i] -= sinkR * u[i];
+                }
             }
         }
         
@@ -220,6 +244,123 @@ public abstract class CoordinateDefinition {
 
     }
 
+    /**
+     * Calculates the T vector (see calcT(Vector, double[], double[])) for
+     * each of the given wave vectors.  The generalized coordinates of each
+     * cell are calculated only once, and cos(k.R) and sin(k.R) are taken from
+     * a table built the first time this array of wave vectors is seen, so
+     * this is much faster than calling calcT for each wave vector.
+     * <p>
+     * The table assumes the lattice is fixed.  It is rebuilt if the cells are
+     * reinitialized or if the wave vectors are changed.  Once a table exists
+     * for the array, calcT(Vector, double[], double[]) also uses it for wave
+     * vectors in the array.
+     *
+     * @param realT
+     *            outputs the real component of the T vector for each wave vector
+     * @param imaginaryT
+     *            outputs the imaginary component of the T vector for each wave vector
+     */
+    public void calcT(Vector[] waveVectors, double[][] realT, double[][] imaginaryT) {
+        PhaseTable table = getPhaseTable(waveVectors);
+        int numWaveVectors = waveVectors.length;
+        for (int iVector = 0; iVector < numWaveVectors; iVector++) {
+            for (int i = 0; i < coordinateDim; i++) {
+                realT[iVector][i] = 0;
+                imaginaryT[iVector][i] = 0;
+            }
+        }
+
+        for (int iCell = 0; iCell<cells.length; iCell++) {
+            double[] u = calcU(cells[iCell].molecules);
+            for (int iVector = 0; iVector < numWaveVectors; iVector++) {
+                double coskR = table.cos[iVector][iCell];
+                double sinkR = table.sin[iVector][iCell];
+                double[] realTk = realT[iVector];
+                double[] imaginaryTk = imaginaryT[iVector];
+                for (int i = 0; i < coordinateDim; i++) {
+                    realTk[i] += coskR * u[i];
+                    imaginaryTk[i] -= sinkR * u[i];
+                }
+            }
+        }
+
+        double sqrtCells = Math.sqrt(cells.length);
+        for (int iVector = 0; iVector < numWaveVectors; iVector++) {
+            for (int i = 0; i < coordinateDim; i++) {
+                realT[iVector][i] /= sqrtCells;
+                imaginaryT[iVector][i] /= sqrtCells;
+            }
+        }
+    }
+
+    /**
+     * Updates the T vectors (as calculated by calcT(Vector[], double[][], double[][]))
+     * after the generalized coordinates of a single cell have changed from
+     * uOld to uNew.  This is much cheaper than recalculating T when only one
+     * cell has changed, but roundoff accumulates, so T should be recalculated
+     * now and then.
+     *
+     * @param iCell
+     *            the index of the cell that changed (see getCellIndex)
+     */
+    public void updateT(Vector[] waveVectors, int iCell, double[] uOld, double[] uNew, double[][] realT, double[][] imaginaryT) {
+        PhaseTable table = getPhaseTable(waveVectors);
+        double sqrtCells = Math.sqrt(cells.length);
+        for (int iVector = 0; iVector < waveVectors.length; iVector++) {
+            double coskR = table.cos[iVector][iCell] / sqrtCells;
+            double sinkR = table.sin[iVector][iCell] / sqrtCells;
+            for (int i = 0; i < coordinateDim; i++) {
+                double du = uNew[i] - uOld[i];
+                realT[iVector][i] += coskR * du;
+                imaginaryT[iVector][i] -= sinkR * du;
+            }
+        }
+    }
+
+    /**
+     * Returns the index (in the array returned by getBasisCells) of the cell
+     * containing the given leaf atom.
+     */
+    public int getCellIndex(IAtom atom) {
+        if (leafCells == null || leafCellsCells != cells) {
+            leafCells = new int[box.getLeafList().size()];
+            for (int iCell = 0; iCell<cells.length; iCell++) {
+                IMoleculeList molecules = cells[iCell].molecules;
+                for (int i = 0; i<molecules.size(); i++) {
+                    IAtomList childList = molecules.get(i).getChildList();
+                    for (int j = 0; j<childList.size(); j++) {
+                        leafCells[childList.get(j).getLeafIndex()] = iCell;
+                    }
+                }
+            }
+            leafCellsCells = cells;
+        }
+        return leafCells[atom.getLeafIndex()];
+    }
+
+    /**
+     * Returns the phase table for the given wave vectors, building it (or
+     * rebuilding it, if the cells or the wave vectors have changed) as needed.
+     */
+    protected PhaseTable getPhaseTable(Vector[] waveVectors) {
+        PhaseTable table = null;
+        for (int iTable = 0; iTable < phaseTables.size(); iTable++) {
+            if (phaseTables.get(iTable).waveVectors == waveVectors) {
+                table = phaseTables.get(iTable);
+                break;
+            }
+        }
+        if (table == null) {
+            table = new PhaseTable(waveVectors);
+            phaseTables.add(table);
+        }
+        if (!table.isValid()) {
+            table.build();
+        }
+        return table;
+    }
+
     public Box getBox() {
         return box;
     }
@@ -255,6 +396,75 @@ public abstract class CoordinateDefinition {
     protected final MoleculeActionTranslateTo atomActionTranslateTo;
     protected BasisCell[] cells;
     protected final Space space;
+    protected final List<PhaseTable> phaseTables = new ArrayList<PhaseTable>();
+    protected BasisCell[] leafCellsCells;
+    protected int[] leafCells;
+
+    /**
+     * Holds cos(k.R) and sin(k.R) for each wave vector k of an array and each
+     * cell position R.
+     */
+    protected class PhaseTable {
+        public PhaseTable(Vector[] waveVectors) {
+            this.waveVectors = waveVectors;
+        }
+
+        /**
+         * Returns the index of k in the wave vectors, or -1 if k is not one of
+         * them.
+         */
+        public int indexOf(Vector k) {
+            // callers generally loop over the wave vectors in order
+            int iVector = lastIndex + 1;
+            if (iVector < waveVectors.length && waveVectors[iVector] == k) {
+                lastIndex = iVector;
+                return iVector;
+            }
+            for (iVector = 0; iVector < waveVectors.length; iVector++) {
+                if (waveVectors[iVector] == k) {
+                    lastIndex = iVector;
+                    return iVector;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns true if the table was built for the current cells and the
+         * current wave vectors.
+         */
+        public boolean isValid() {
+            if (tableCells == null || tableCells != cells) return false;
+            for (int iVector = 0; iVector < waveVectors.length; iVector++) {
+                if (!waveVectors[iVector].equals(waveVectorCopies[iVector])) return false;
+            }
+            return true;
+        }
+
+        public void build() {
+            int numWaveVectors = waveVectors.length;
+            cos = new double[numWaveVectors][cells.length];
+            sin = new double[numWaveVectors][cells.length];
+            waveVectorCopies = new Vector[numWaveVectors];
+            for (int iVector = 0; iVector < numWaveVectors; iVector++) {
+                Vector k = waveVectors[iVector];
+                waveVectorCopies[iVector] = space.makeVector();
+                waveVectorCopies[iVector].E(k);
+                for (int iCell = 0; iCell<cells.length; iCell++) {
+                    double kR = k.dot(cells[iCell].cellPosition);
+                    cos[iVector][iCell] = Math.cos(kR);
+                    sin[iVector][iCell] = Math.sin(kR);
+                }
+            }
+            tableCells = cells;
+        }
+
+        public final Vector[] waveVectors;
+        public double[][] cos, sin;
+        protected Vector[] waveVectorCopies;
+        protected BasisCell[] tableCells;
+        protected int lastIndex = -1;
+    }
     
     protected static class SiteSource implements AtomLeafAgentManager.AgentSource<Vector> {
         
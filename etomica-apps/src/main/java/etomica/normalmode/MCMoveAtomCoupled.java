@@ -41,6 +41,11 @@ public class MCMoveAtomCoupled extends MCMoveBoxStep {
     protected boolean doExcludeNonNeighbors;
     protected int pairPotentialIndex;
     protected IPotentialAtomic constraintPotential;
+    protected CoordinateDefinition coordinateDefinition;
+    protected Vector[] waveVectors;
+    protected double[][] realT, imaginaryT;
+    protected double[] uOld0, uOld1;
+    protected int cell0, cell1, numUpdates;
 
     public MCMoveAtomCoupled(PotentialMaster potentialMaster, MeterPotentialEnergy energyMeter,
                              IRandom random, Space _space) {
@@ -83,6 +88,61 @@ public class MCMoveAtomCoupled extends MCMoveBoxStep {
         constraintPotential = newConstraintPotential;
     }
 
+    /**
+     * Configures the move to keep track of the collective coordinates (T
+     * vectors, see CoordinateDefinition.calcT) for the given wave vectors.
+     * After each accepted move, T is updated for the cells of the two atoms
+     * that moved, so that it need not be recalculated from all cells.  T is
+     * only correct if this move is the only thing changing the configuration;
+     * otherwise call resetT after the configuration is changed.
+     *
+     * @param newCoordinateDefinition the coordinate definition, or null to
+     *                                stop tracking T
+     */
+    public void setCoordinateDefinition(CoordinateDefinition newCoordinateDefinition, Vector[] newWaveVectors) {
+        coordinateDefinition = newCoordinateDefinition;
+        waveVectors = newWaveVectors;
+        resetT();
+    }
+
+    /**
+     * Causes T to be recalculated from all cells before the next trial.
+     */
+    public void resetT() {
+        realT = null;
+        imaginaryT = null;
+    }
+
+    /**
+     * Returns the real component of T for each wave vector, as of the last
+     * accepted (or rejected) trial.
+     */
+    public double[][] getRealT() {
+        if (realT == null) calcT();
+        return realT;
+    }
+
+    /**
+     * Returns the imaginary component of T for each wave vector, as of the
+     * last accepted (or rejected) trial.
+     */
+    public double[][] getImaginaryT() {
+        if (realT == null) calcT();
+        return imaginaryT;
+    }
+
+    protected void calcT() {
+        int coordinateDim = coordinateDefinition.getCoordinateDim();
+        realT = new double[waveVectors.length][coordinateDim];
+        imaginaryT = new double[waveVectors.length][coordinateDim];
+        coordinateDefinition.calcT(waveVectors, realT, imaginaryT);
+        if (uOld0 == null || uOld0.length != coordinateDim) {
+            uOld0 = new double[coordinateDim];
+            uOld1 = new double[coordinateDim];
+        }
+        numUpdates = 0;
+    }
+
     /**
      * Method to perform trial move.
      */
@@ -91,6 +151,14 @@ public class MCMoveAtomCoupled extends MCMoveBoxStep {
         if (atom0 == null) return false;
         atom1 = atomSource.getAtom();
         if (atom1 == null || atom0 == atom1) return false;
+        if (coordinateDefinition != null) {
+            if (realT == null) calcT();
+            CoordinateDefinition.BasisCell[] cells = coordinateDefinition.getBasisCells();
+            cell0 = coordinateDefinition.getCellIndex(atom0);
+            cell1 = coordinateDefinition.getCellIndex(atom1);
+            System.arraycopy(coordinateDefinition.calcU(cells[cell0].molecules), 0, uOld0, 0, uOld0.length);
+            System.arraycopy(coordinateDefinition.calcU(cells[cell1].molecules), 0, uOld1, 0, uOld1.length);
+        }
         energyMeter.setTarget(atom0);
         uOld = energyMeter.getDataAsScalar();
         energyMeter.setTarget(atom1);
@@ -156,7 +224,23 @@ public class MCMoveAtomCoupled extends MCMoveBoxStep {
     /**
      * Method called by IntegratorMC in the event that the most recent trial is accepted.
      */
-    public void acceptNotify() {  /* do nothing */
+    public void acceptNotify() {
+        if (coordinateDefinition == null) return;
+        CoordinateDefinition.BasisCell[] cells = coordinateDefinition.getBasisCells();
+        // recalculate now and then so that roundoff doesn't accumulate
+        if (++numUpdates > cells.length) {
+            calcT();
+            return;
+        }
+        if (cell0 == cell1) {
+            double[] uNew = coordinateDefinition.calcU(cells[cell0].molecules);
+            coordinateDefinition.updateT(waveVectors, cell0, uOld0, uNew, realT, imaginaryT);
+            return;
+        }
+        double[] uNew = coordinateDefinition.calcU(cells[cell0].molecules);
+        coordinateDefinition.updateT(waveVectors, cell0, uOld0, uNew, realT, imaginaryT);
+        uNew = coordinateDefinition.calcU(cells[cell1].molecules);
+        coordinateDefinition.updateT(waveVectors, cell1, uOld1, uNew, realT, imaginaryT);
     }
     
     /**
@@ -178,6 +262,7 @@ public class MCMoveAtomCoupled extends MCMoveBoxStep {
     
     public void setBox(Box p) {
         super.setBox(p);
+        resetT();
         energyMeter.setBox(p);
         atomSource.setBox(p);
         for(int i=0; i< pairPotential.length; i++){
@@ -129,6 +129,7 @@ public class MCMoveHarmonic extends MCMoveBox {
         }
         
         double normalization = 1/Math.sqrt(cells.length);
+        CoordinateDefinition.PhaseTable phaseTable = coordinateDefinition.getPhaseTable(waveVectors);
         for (int iCell = 0; iCell<cells.length; iCell++) {
             if (isRejectable) {
                 double[] uNow = coordinateDefinition.calcU(cells[iCell].molecules);
@@ -140,9 +141,8 @@ public class MCMoveHarmonic extends MCMoveBox {
             }
             //loop over wavevectors and sum contribution of each to the generalized coordinates
             for (int iVector=0; iVector<waveVectors.length; iVector++) {
-                double kR = waveVectors[iVector].dot(cell.cellPosition);
-                double coskR = Math.cos(kR);
-                double sinkR = Math.sin(kR);
+                double coskR = phaseTable.cos[iVector][iCell];
+                double sinkR = phaseTable.sin[iVector][iCell];
                 
                 if(isSelectMode){
                     for (int i=0; i<modeNum.length; i++) {
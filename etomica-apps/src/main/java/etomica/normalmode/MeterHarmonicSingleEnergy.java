@@ -41,12 +41,18 @@ public class MeterHarmonicSingleEnergy implements IDataSource {
 
     public IData getData() {
         double[] x = data.getData();
+        int coordinateDim = coordinateDefinition.getCoordinateDim();
+        if (realTAll == null || realTAll.length != waveVectors.length) {
+            realTAll = new double[waveVectors.length][coordinateDim];
+            imaginaryTAll = new double[waveVectors.length][coordinateDim];
+        }
+        coordinateDefinition.calcT(waveVectors, realTAll, imaginaryTAll);
         
         for (int iVector = 0; iVector < waveVectors.length; iVector++) {
-            coordinateDefinition.calcT(waveVectors[iVector], realT, imaginaryT);
+            double[] realT = realTAll[iVector];
+            double[] imaginaryT = imaginaryTAll[iVector];
             // we want to calculate Q = A T
             // where A is made up of eigenvectors as columns
-            int coordinateDim = coordinateDefinition.getCoordinateDim();
             for (int i=0; i<coordinateDim; i++) {
                 if (Double.isInfinite(omegaSquared[iVector][i])) {
                     continue;
@@ -117,6 +123,7 @@ public class MeterHarmonicSingleEnergy implements IDataSource {
     protected DataDoubleArray data;
     private final DataTag tag;
     protected double[] realT, imaginaryT;
+    protected double[][] realTAll, imaginaryTAll;
     protected Vector[] waveVectors;
     protected double[] waveVectorCoefficients;
     protected double[][][] eigenvectors;
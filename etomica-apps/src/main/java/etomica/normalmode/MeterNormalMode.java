@@ -72,6 +72,8 @@ public class MeterNormalMode implements IDataSource, IAction, Serializable {
         numWaveVectors = waveVectors.length;
 
         int coordinateDim = coordinateDefinition.getCoordinateDim();
+        realTAll = new double[numWaveVectors][coordinateDim];
+        imaginaryTAll = new double[numWaveVectors][coordinateDim];
         DataDoubleArray[] S = new DataDoubleArray[numWaveVectors];
         for (int i=0; i<S.length; i++) {
             // real and imaginary parts
@@ -106,10 +108,11 @@ public class MeterNormalMode implements IDataSource, IAction, Serializable {
         int coordinateDim = coordinateDefinition.getCoordinateDim();
 
         // |data.E(0)| here to calculate the current value rather than the sum
+        coordinateDefinition.calcT(waveVectors, realTAll, imaginaryTAll);
         // loop over wave vectors
         for (int iVector = 0; iVector < numWaveVectors; iVector++) {
-
-            coordinateDefinition.calcT(waveVectors[iVector], realT, imaginaryT);
+            double[] realT = realTAll[iVector];
+            double[] imaginaryT = imaginaryTAll[iVector];
             
             // add to S(k).  imaginary part of S is 0
             double[] sValues = ((DataDoubleArray)data.getData(iVector)).getData();
@@ -165,4 +168,5 @@ public class MeterNormalMode implements IDataSource, IAction, Serializable {
     private int callCount;
 
     protected double[] realT, imaginaryT;
+    protected double[][] realTAll, imaginaryTAll;
 }
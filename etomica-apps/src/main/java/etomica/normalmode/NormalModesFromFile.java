@@ -4,6 +4,9 @@
 
 package etomica.normalmode;
 
+import etomica.space.Vector;
+
+import java.io.*;
 
 /**
  * Provides normal-mode information as obtained from a file read at
@@ -19,11 +22,30 @@ public class NormalModesFromFile implements NormalModes {
     /**
      * @param filename
      *            Root of file name where normal mode information may be found.
-     *            Wavevectors will be taken filename.k, eigenvalues from
-     *            filename.val, and eigenvectors from filename.vec.
+     *            If filename.nm exists, everything is read from that binary
+     *            file (see writeBinary).  Otherwise wavevectors will be taken
+     *            filename.k, eigenvalues from filename.val, and eigenvectors
+     *            from filename.vec.
      * @param D spatial dimension of the system (not necessarily coordinate dimension).
      */
     public NormalModesFromFile(String filename, int D) {
+        harmonicFudge = 1;
+        temperature = 1;
+        // like the text files, the binary file is looked up as a resource,
+        // but it may also just be a file
+        InputStream binaryStream = NormalModesFromFile.class.getResourceAsStream(filename + ".nm");
+        try {
+            if (binaryStream == null && new File(filename + ".nm").exists()) {
+                binaryStream = new FileInputStream(filename + ".nm");
+            }
+            if (binaryStream != null) {
+                readBinary(binaryStream, filename + ".nm", D);
+                return;
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
         double[][] eigenvalues = ArrayReader1D.getFromFile(filename + ".val");
         omega2 = new double[eigenvalues.length][eigenvalues[0].length];
         for (int i=0; i<omega2.length; i++) {
@@ -33,8 +55,85 @@ public class NormalModesFromFile implements NormalModes {
         }
         eigenvectors = ArrayReader2D.getFromFile(filename + ".vec");
         waveVectorFactory = new WaveVectorFactoryFromFile(filename, D);
-        harmonicFudge = 1;
-        temperature = 1;
+    }
+
+    /**
+     * Writes the wave vectors (and coefficients), omega^2 and eigenvectors to
+     * filename.nm in a binary format read by the constructor.  This is much
+     * faster to write and read than the text files for large systems.  The
+     * file holds (big-endian) the int magic number, D, the number of wave
+     * vectors and the coordinate dimension, followed by, for each wave vector,
+     * the coefficient, the D components of the wave vector, omega^2 for each
+     * mode (infinity for modes to be ignored), and then the eigenvectors
+     * (eigenvectors[k][mode][coordinate]).
+     */
+    public static void writeBinary(String filename, WaveVectorFactory waveVectorFactory,
+                                   double[][] omega2, double[][][] eigenvectors) throws IOException {
+        Vector[] waveVectors = waveVectorFactory.getWaveVectors();
+        double[] coefficients = waveVectorFactory.getCoefficients();
+        int D = waveVectors.length > 0 ? waveVectors[0].getD() : 0;
+        int eDim = omega2.length > 0 ? omega2[0].length : 0;
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename + ".nm")));
+        try {
+            out.writeInt(BINARY_MAGIC);
+            out.writeInt(D);
+            out.writeInt(waveVectors.length);
+            out.writeInt(eDim);
+            for (int k = 0; k < waveVectors.length; k++) {
+                out.writeDouble(coefficients[k]);
+                for (int i = 0; i < D; i++) {
+                    out.writeDouble(waveVectors[k].getX(i));
+                }
+                for (int j = 0; j < eDim; j++) {
+                    out.writeDouble(omega2[k][j]);
+                }
+                for (int j = 0; j < eDim; j++) {
+                    for (int m = 0; m < eDim; m++) {
+                        out.writeDouble(eigenvectors[k][j][m]);
+                    }
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    protected void readBinary(InputStream stream, String file, int D) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        try {
+            if (in.readInt() != BINARY_MAGIC) {
+                throw new RuntimeException(file + " is not a normal modes file");
+            }
+            int fileD = in.readInt();
+            if (fileD != D) {
+                throw new RuntimeException(file + " has wave vectors for D=" + fileD + ", not " + D);
+            }
+            int kDim = in.readInt();
+            int eDim = in.readInt();
+            Vector[] waveVectors = new Vector[kDim];
+            double[] coefficients = new double[kDim];
+            omega2 = new double[kDim][eDim];
+            eigenvectors = new double[kDim][eDim][eDim];
+            double[] k = new double[D];
+            for (int iVector = 0; iVector < kDim; iVector++) {
+                coefficients[iVector] = in.readDouble();
+                for (int i = 0; i < D; i++) {
+                    k[i] = in.readDouble();
+                }
+                waveVectors[iVector] = Vector.of(k);
+                for (int j = 0; j < eDim; j++) {
+                    omega2[iVector][j] = in.readDouble();
+                }
+                for (int j = 0; j < eDim; j++) {
+                    for (int m = 0; m < eDim; m++) {
+                        eigenvectors[iVector][j][m] = in.readDouble();
+                    }
+                }
+            }
+            waveVectorFactory = new WaveVectorFactoryFromFile(waveVectors, coefficients);
+        } finally {
+            in.close();
+        }
     }
 
     public double[][] getOmegaSquared() {
@@ -63,6 +162,8 @@ public class NormalModesFromFile implements NormalModes {
         temperature = newTemperature;
     }
 
+    // "ENM1"
+    protected static final int BINARY_MAGIC = 0x454e4d31;
     double[][] omega2;
     double[][][] eigenvectors;
     WaveVectorFactory waveVectorFactory;
@@ -7,6 +7,7 @@ package etomica.normalmode;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.stream.IntStream;
 
 import Jama.EigenvalueDecomposition;
 import Jama.Matrix;
@@ -39,13 +40,16 @@ public class NormalModesPotential implements NormalModes {
         this.space = space;
         needToCalculateModes = true;
         
+        this.primitive = primitive;
+        this.basis = basis;
         lattice = new BravaisLatticeCrystal(primitive, basis);
         setPotential(potential);
+        isParallel = true;
         
         int nSites = nCells[0]*nCells[1]*nCells[2];
         Boundary boundary = new BoundaryDeformableLattice(primitive, nCells);
         
-        Box box = new Box(boundary, space);
+        box = new Box(boundary, space);
 
         System.out.println("Cell Density: "+nSites/boundary.volume());
         System.out.println("Site Density: "+nSites/boundary.volume()*basis.getScaledCoordinates().length);
@@ -62,151 +66,65 @@ public class NormalModesPotential implements NormalModes {
     }
     
     public void calculateModes() {
-        int kDim = kFactory.getWaveVectors().length;
+        Vector[] waveVectors = kFactory.getWaveVectors();
+        int kDim = waveVectors.length;
         int spaceDim = lattice.getSpace().D();
         int basisDim = lattice.getBasis().getScaledCoordinates().length;
         int eDim = basisDim * spaceDim;
         omega2 = new double[kDim][eDim];
         eigenvectors = new double[kDim][eDim][eDim];
-        //this function returns phi_{alpha,beta}, as defined in Dove Eq. 6.15
-        FunctionData<Object> function = new FunctionData<Object>() {
-            public IData f(Object obj) {
-                Vector r = (Vector)obj;
-                tensor.x.Ev1v2(r, r);
-                double r2 = r.squared();
-                double dW = potential.du(r2);
-                double d2W = potential.d2u(r2);
-                tensor.TE(1.0/(r2*r2)*(dW - d2W));
-                tensor.x.PEa1Tt1(-dW/r2,identity);
-                return tensor;
-            }
-            public IDataInfo getDataInfo() {
-                return dataInfo;
-            }
-            final DataTensor tensor = new DataTensor(space);
-            final DataInfo dataInfo = new DataTensor.DataInfoTensor("", Dimension.MIXED, space);
-            final Tensor identity = new Tensor3D(new double[][] {{1.0,0.0,0.0}, {0.0,1.0,0.0}, {0.0,0.0,1.0}});
-        };
-        
-        LatticeSumCrystal summer = new LatticeSumCrystal(lattice);
-        summer.setMaxLatticeShell(maxLatticeShell);
-        Vector kVector = lattice.getSpace().makeVector();
-        
-        
-        
-   
-        	
+        double[][] eigenvalues = new double[kDim][];
+
         //calculation of self term
+        Vector kVector = lattice.getSpace().makeVector();
         kVector.E(0.0);
-        summer.setK(kVector);
         System.out.println("\n k:"+kVector.toString()+"   in NormalModesPotential");
-        DataGroupLSC sum0 = (DataGroupLSC)summer.calculateSum(function);
-        Function chopper = new Function.Chop(1e-9);
-        sum0.map(chopper);
+        DataGroupLSC sum0 = calculateSum(lattice, kVector);
 //        System.out.println(sum0.toString());
-        double[][] array = new double[eDim][eDim];
-        
-        try{
-
-        	FileWriter fileWriterK = null;
-        	FileWriter fileWriterVal = null;
-        	FileWriter fileWriterVec = null;
 
-        	if (fileName != null) {
-        	    fileWriterK = new FileWriter(getFileName()+".k");
-                fileWriterVal = new FileWriter(getFileName()+".val");
-                fileWriterVec = new FileWriter(getFileName()+".vec");
-        	}
-        	
-        	
-        double[] kCoefficients = kFactory.getCoefficients();	
-        	
-        for(int k=0; k<kDim; k++) {
-            kVector.E(kFactory.getWaveVectors()[k]);
-            
-            // output .k file
-            if (fileName != null) {
-                fileWriterK.write(Double.toString(kCoefficients[k]));
-                for (int n=0; n< kFactory.getWaveVectors()[k].getD(); n++){
-                	fileWriterK.write(" "+ kFactory.getWaveVectors()[k].getX(n));
-                }
-                fileWriterK.write("\n");
-            }
-            
-            
-            summer.setK(kVector);
-            System.out.println("k:"+kVector.toString());
-            DataGroupLSC sum = (DataGroupLSC)summer.calculateSum(function);
-            sum.map(chopper);
+        // each wave vector is independent.  The lattice (whose site method
+        // returns the same Vector each time) and the summer are not
+        // thread-safe, so each wave vector gets its own.
+        IntStream range = IntStream.range(0, kDim);
+        if (isParallel) {
+            range = range.parallel();
+        }
+        range.forEach(k -> {
+            BravaisLatticeCrystal kLattice = isParallel ? new BravaisLatticeCrystal(primitive, basis) : lattice;
+            Vector kv = kLattice.getSpace().makeVector();
+            kv.E(waveVectors[k]);
+            DataGroupLSC sum = calculateSum(kLattice, kv);
             for(int j=0; j<basisDim; j++) {
                 for(int jp=0; jp<basisDim; jp++) {
                     sum.getDataReal(j,j).ME(sum0.getDataReal(j, jp));
                 }
             }
-            // impose symmetry on the matrix.  elements of the tensor can have elements that are different
-            // only in the last digit (due numerical precision issues).  With a not exactly symmetric
-            // matrix Jama assumes it's asymmetric and finds not-orthogonal eigenvectors.
+            double[][] array = new double[eDim][eDim];
             for(int j=0; j<basisDim; j++) {
-                for(int jp=j+1; jp<basisDim; jp++) {
-                    // grab mirror blocks for j,jp and jp,j
-                    Tensor tensorj_jp = ((DataTensor)sum.getDataReal(j,jp)).x;
-                    Tensor tensorjp_j = ((DataTensor)sum.getDataReal(j,jp)).x;
+                for(int jp=0; jp<basisDim; jp++) {
+                    Tensor tensor = ((DataTensor)sum.getDataReal(j,jp)).x;
                     for(int alpha=0; alpha<spaceDim; alpha++) {
                         for(int beta=0; beta<spaceDim; beta++) {
-                            // average opposite components from opposite blocks
-                            double v = 0.5*(tensorj_jp.component(alpha, beta) + tensorjp_j.component(beta, alpha));
-                            array[spaceDim*j+alpha][spaceDim*jp+beta] = v;
-                            array[spaceDim*jp+beta][spaceDim*j+alpha] = v;
+                            array[spaceDim*j+alpha][spaceDim*jp+beta] = tensor.component(alpha, beta);
                         }
                     }
                 }
-                // grab diagonal block
-                Tensor tensor = ((DataTensor)sum.getDataReal(j,j)).x;
-                for(int alpha=0; alpha<spaceDim; alpha++) {
-                    for(int beta=alpha+1; beta<spaceDim; beta++) {
-                        // average opposite components
-                        double v = 0.5*(tensor.component(alpha, beta) + tensor.component(beta, alpha));
-                        array[spaceDim*j+alpha][spaceDim*j+beta] = v;
-                        array[spaceDim*j+beta][spaceDim*j+alpha] = v;
-                    }
-                    // grab diagonal component
-                    array[spaceDim*j+alpha][spaceDim*j+alpha] = tensor.component(alpha, alpha);
-                }
             }
 
-            Matrix matrix = new Matrix(array);
-            EigenvalueDecomposition ed = matrix.eig();
+            // elements of the matrix that should be equal can differ in the
+            // last digit (due to numerical precision).  Jama would then treat
+            // the matrix as asymmetric and find not-orthogonal eigenvectors,
+            // so the lower triangle is copied into the upper one.
+            for(int i=0; i<eDim; i++) {
+                for(int ip=0; ip<i; ip++) {
+                    array[ip][i] = array[i][ip];
+                }
+            }
+            EigenvalueDecomposition ed = new Matrix(array).eig();
             double[] eVals = ed.getRealEigenvalues();
             double[][] eVecs = ed.getV().getArray();
-            
-            System.out.println("Real eigenvalues: " + Arrays.toString(eVals));
-            
-            if (fileName != null) {
-                // output .val file
-                for (int ival=0; ival<eVals.length; ival++){
-                	if (eVals[ival] < 1E-10){
-                		fileWriterVal.write("0.0 ");
-                	} else {
-                		fileWriterVal.write(1/eVals[ival]+ " ");
-                	}
-                }
-                fileWriterVal.write("\n");
+            eigenvalues[k] = eVals;
 
-                // output .vec file
-                for (int ivec=0; ivec<eDim; ivec++ ){
-                	for(int jvec=0; jvec<eDim; jvec++){
-                		if (Math.abs(eVecs[jvec][ivec])<1e-10){
-                			fileWriterVec.write("0.0 ");
-                		} else {
-                			fileWriterVec.write(eVecs[jvec][ivec] + " ");
-                		}
-                	}
-                	fileWriterVec.write("\n");
-                }
-            }
-            
-//            System.out.println("Imag eigenvalues: " + Arrays.toString(ed.getImagEigenvalues()));
-            
             for(int j=0; j<eDim; j++) {
                 if (eVals[j] < 1E-12) {
                     omega2[k][j] = Double.POSITIVE_INFINITY;
@@ -215,25 +133,112 @@ public class NormalModesPotential implements NormalModes {
                     omega2[k][j] = eVals[j];
                 }
                 for(int m=0; m<eDim; m++) {
-                    eigenvectors[k][j][m] = eVecs[m][j];//need to check if indexes are right
+                    eigenvectors[k][j][m] = eVecs[m][j];
                 }
             }
-//            System.out.println(sum[0].toString());
-//            System.out.println();
-//            System.out.println(sum[1].toString());
+        });
+
+        for(int k=0; k<kDim; k++) {
+            System.out.println("k:"+waveVectors[k].toString());
+            System.out.println("Real eigenvalues: " + Arrays.toString(eigenvalues[k]));
         }
+
         if (fileName != null) {
-            fileWriterK.close();
-            fileWriterVal.close();
-            fileWriterVec.close();
-        }
-    }
-        catch (IOException e) {
-            throw new RuntimeException(e);
+            try {
+                if (isBinaryOutput) {
+                    NormalModesFromFile.writeBinary(getFileName(), kFactory, omega2, eigenvectors);
+                }
+                else {
+                    writeText(eigenvalues);
+                }
+            }
+            catch (IOException e) {
+                throw new RuntimeException(e);
+            }
         }
         
         needToCalculateModes = false;
     }
+
+    /**
+     * Returns the lattice sum of phi_{alpha,beta} (as defined in Dove Eq. 6.15)
+     * for the given wave vector, with elements smaller than 1e-9 set to 0.
+     */
+    protected DataGroupLSC calculateSum(BravaisLatticeCrystal sumLattice, Vector kVector) {
+        //this function returns phi_{alpha,beta}, as defined in Dove Eq. 6.15
+        FunctionData<Object> function = new FunctionData<Object>() {
+            public IData f(Object obj) {
+                Vector r = (Vector)obj;
+                tensor.x.Ev1v2(r, r);
+                double r2 = r.squared();
+                double dW = potential.du(r2);
+                double d2W = potential.d2u(r2);
+                tensor.TE(1.0/(r2*r2)*(dW - d2W));
+                tensor.x.PEa1Tt1(-dW/r2,identity);
+                return tensor;
+            }
+            public IDataInfo getDataInfo() {
+                return dataInfo;
+            }
+            final DataTensor tensor = new DataTensor(space);
+            final DataInfo dataInfo = new DataTensor.DataInfoTensor("", Dimension.MIXED, space);
+            final Tensor identity = new Tensor3D(new double[][] {{1.0,0.0,0.0}, {0.0,1.0,0.0}, {0.0,0.0,1.0}});
+        };
+
+        LatticeSumCrystal summer = new LatticeSumCrystal(sumLattice);
+        summer.setMaxLatticeShell(maxLatticeShell);
+        summer.setK(kVector);
+        DataGroupLSC sum = (DataGroupLSC)summer.calculateSum(function);
+        sum.map(new Function.Chop(1e-9));
+        return sum;
+    }
+
+    /**
+     * Writes the wave vectors, eigenvalues and eigenvectors to the .k, .val
+     * and .vec text files read by NormalModesFromFile.
+     */
+    protected void writeText(double[][] eigenvalues) throws IOException {
+        FileWriter fileWriterK = new FileWriter(getFileName()+".k");
+        FileWriter fileWriterVal = new FileWriter(getFileName()+".val");
+        FileWriter fileWriterVec = new FileWriter(getFileName()+".vec");
+        double[] kCoefficients = kFactory.getCoefficients();
+        Vector[] waveVectors = kFactory.getWaveVectors();
+        for(int k=0; k<waveVectors.length; k++) {
+            // output .k file
+            fileWriterK.write(Double.toString(kCoefficients[k]));
+            for (int n=0; n< waveVectors[k].getD(); n++){
+                fileWriterK.write(" "+ waveVectors[k].getX(n));
+            }
+            fileWriterK.write("\n");
+
+            // output .val file
+            double[] eVals = eigenvalues[k];
+            for (int ival=0; ival<eVals.length; ival++){
+                if (eVals[ival] < 1E-10){
+                    fileWriterVal.write("0.0 ");
+                } else {
+                    fileWriterVal.write(1/eVals[ival]+ " ");
+                }
+            }
+            fileWriterVal.write("\n");
+
+            // output .vec file
+            int eDim = eVals.length;
+            for (int ivec=0; ivec<eDim; ivec++ ){
+                for(int jvec=0; jvec<eDim; jvec++){
+                    if (Math.abs(eigenvectors[k][ivec][jvec])<1e-10){
+                        fileWriterVec.write("0.0 ");
+                    } else {
+                        fileWriterVec.write(eigenvectors[k][ivec][jvec] + " ");
+                    }
+                }
+                fileWriterVec.write("\n");
+            }
+        }
+        fileWriterK.close();
+        fileWriterVal.close();
+        fileWriterVec.close();
+    }
         
     public void setPotential(Potential2SoftSpherical potential) {
         needToCalculateModes = true;
@@ -258,6 +263,41 @@ public class NormalModesPotential implements NormalModes {
         return kFactory;
     }
 
+    /**
+     * Sets the factory used to make the wave vectors (WaveVectorFactorySimple
+     * by default), and makes the wave vectors for this lattice.
+     */
+    public void setWaveVectorFactory(WaveVectorFactory newWaveVectorFactory) {
+        kFactory = newWaveVectorFactory;
+        kFactory.makeWaveVectors(box);
+        needToCalculateModes = true;
+    }
+
+    /**
+     * Sets whether the dynamical matrices for the wave vectors are calculated
+     * and diagonalized in parallel (true by default).
+     */
+    public void setParallel(boolean newIsParallel) {
+        isParallel = newIsParallel;
+    }
+
+    public boolean isParallel() {
+        return isParallel;
+    }
+
+    /**
+     * Sets whether the modes are written to a single binary file (fileName.nm)
+     * instead of the .k, .val and .vec text files.  NormalModesFromFile reads
+     * either.
+     */
+    public void setBinaryOutput(boolean newIsBinaryOutput) {
+        isBinaryOutput = newIsBinaryOutput;
+    }
+
+    public boolean isBinaryOutput() {
+        return isBinaryOutput;
+    }
+
     public int getMaxLatticeShell() {
         return maxLatticeShell;
     }
@@ -283,6 +323,9 @@ public class NormalModesPotential implements NormalModes {
 	}
 
     protected final Space space;
+    private final Primitive primitive;
+    private final Basis basis;
+    private final Box box;
     private final BravaisLatticeCrystal lattice;
     private Potential2SoftSpherical potential;
     private WaveVectorFactory kFactory;
@@ -291,4 +334,5 @@ public class NormalModesPotential implements NormalModes {
     private double[][][] eigenvectors;
     private boolean needToCalculateModes;
     private String fileName;
+    private boolean isParallel, isBinaryOutput;
 }
@@ -40,6 +40,15 @@ public class WaveVectorFactoryFromFile implements WaveVectorFactory {
 
     }
 
+    /**
+     * Uses the given wave vectors and coefficients, as read from a file by
+     * the caller.
+     */
+    public WaveVectorFactoryFromFile(Vector[] waveVectors, double[] coefficients) {
+        this.waveVectors = waveVectors;
+        this.coefficients = coefficients;
+    }
+
     public double[] getCoefficients() {
         return coefficients;
     }
@@ -0,0 +1,309 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.veos;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * Data class to handle operations involving large numbers with about 32
+ * significant digits.  The value is held as an unevaluated sum of two doubles
+ * (hi + lo, with |lo| at most half an ulp of hi) times a power of 2, so the
+ * range is not limited to that of a double.  Arithmetic uses only double
+ * operations, which makes it much faster than MyBigDecimal when ~30 digits are
+ * enough.
+ *
+ * The exponent is only renormalized when hi drifts out of [2^-256, 2^256], so
+ * most operations do not touch it.
+ *
+ * Each operation is accurate to ~1e-32, but a computation that cancels more
+ * than ~30 digits will still lose all accuracy (Ushcats for hard rods with
+ * N=100 at intermediate densities, for example), so results should be checked
+ * against MyBigDecimal for new systems.
+ */
+public class DoubleDouble implements IBigValue {
+
+    private static final DoubleDouble ZERO = new DoubleDouble(0.0);
+    private static final double SPLITTER = 134217729.0; // 2^27 + 1
+    private static final int MAX_EXPONENT = 256;
+    private static final double LN2 = Math.log(2);
+
+    // value is (hi + lo) * 2^exp
+    private double hi, lo;
+    private int exp;
+
+    /**
+     * Default constructor sets value to 0.0
+     */
+    public DoubleDouble() {
+        this(0.0);
+    }
+
+    /**
+     * Constructs using the given value.
+     */
+    public DoubleDouble(double value) {
+        this.E(value);
+    }
+
+    /**
+     * Copy constructor.
+     */
+    public DoubleDouble(IBigValue v) {
+        this.E(v);
+    }
+
+    public IBigValue getZero() {
+        return ZERO;
+    }
+
+    public boolean isZero() {
+        return hi == 0;
+    }
+
+    /**
+     * Returns the value held by the instance (in true form, not as log, and with sign applied).
+     */
+    public double value() {
+        return Math.scalb(hi + lo, exp);
+    }
+
+    public boolean isPositive() {
+        return hi > 0;
+    }
+
+    /**
+     * Returns logarithm of the value represented by the instance. Returns NaN if the
+     * value is negative.
+     */
+    public double lnValue() {
+        return Math.log(hi) + Math.log1p(lo / hi) + exp * LN2;
+    }
+
+    /**
+     * Returns the value as a BigDecimal (exactly).
+     */
+    public BigDecimal toBigDecimal() {
+        BigDecimal v = new BigDecimal(hi).add(new BigDecimal(lo));
+        BigDecimal scale = new BigDecimal(2).pow(Math.abs(exp));
+        return exp >= 0 ? v.multiply(scale) : v.divide(scale);
+    }
+
+    /**
+     * Equals (=) operation.  Assigns the given value to this instance, replacing current value.
+     */
+    public final void E(double value) {
+        hi = value;
+        lo = 0;
+        exp = 0;
+        normalize();
+    }
+
+    /**
+     * Equals (=) operation. Assigns given value (specified via another instance of DoubleDouble) to this instance,
+     * replacing current value.
+     */
+    public final void E(IBigValue v) {
+        DoubleDouble x = (DoubleDouble) v;
+        hi = x.hi;
+        lo = x.lo;
+        exp = x.exp;
+    }
+
+    /**
+     * Plus-equals (+=) operation.  Replaces the current value with the one obtained by adding
+     * the given value, considering signs of both.
+     */
+    public void PE(IBigValue v) {
+        DoubleDouble x = (DoubleDouble) v;
+        PE(x.hi, x.lo, x.exp);
+    }
+
+    /**
+     * Plus-equals (+=) a1 times v1.
+     */
+    public void PEa1Tv1(double a1, IBigValue v1) {
+        DoubleDouble x = (DoubleDouble) v1;
+        if (a1 == 0 || x.hi == 0) return;
+        // (x.hi + x.lo) * a1, as in TE(double)
+        int ea = exponentOf(a1);
+        a1 = Math.scalb(a1, -ea);
+        double p = x.hi * a1;
+        double e = twoProdErr(x.hi, a1, p) + x.lo * a1;
+        double s = p + e;
+        PE(s, e - (s - p), x.exp + ea);
+    }
+
+    /**
+     * Adds (bh + bl) * 2^be.
+     */
+    private void PE(double bh, double bl, int be) {
+        if (bh == 0) return;
+        if (hi == 0) {
+            hi = bh;
+            lo = bl;
+            exp = be;
+            return;
+        }
+        int d = be - exp;
+        if (d > 0) {
+            if (d > 1000) {
+                hi = bh;
+                lo = bl;
+                exp = be;
+                return;
+            }
+            hi = Math.scalb(hi, -d);
+            lo = Math.scalb(lo, -d);
+            exp = be;
+        }
+        else if (d < 0) {
+            if (d < -1000) return;
+            bh = Math.scalb(bh, d);
+            bl = Math.scalb(bl, d);
+        }
+        // two-sum of the high parts and of the low parts
+        double s = hi + bh;
+        double bb = s - hi;
+        double e = (hi - (s - bb)) + (bh - bb);
+        double t = lo + bl;
+        bb = t - lo;
+        double f = (lo - (t - bb)) + (bl - bb);
+        e += t;
+        double s2 = s + e;
+        e = e - (s2 - s);
+        e += f;
+        hi = s2 + e;
+        lo = e - (hi - s2);
+        normalize();
+    }
+
+    /**
+     * Times-equals (*=) operation.  Replaces the current value with the one obtained by multiplying
+     * the given value, considering signs of both.
+     */
+    public void TE(IBigValue v) {
+        DoubleDouble x = (DoubleDouble) v;
+        double p = hi * x.hi;
+        double e = twoProdErr(hi, x.hi, p) + (hi * x.lo + lo * x.hi);
+        hi = p + e;
+        lo = e - (hi - p);
+        exp += x.exp;
+        normalize();
+    }
+
+    /**
+     * Divide-equals (/=) operation.  Replaces the current value with the one obtained by dividing
+     * the given value, considering signs of both.
+     */
+    public void DE(IBigValue v) {
+        DoubleDouble x = (DoubleDouble) v;
+        if (x.hi == 0) {
+            hi = Double.NaN;
+            lo = 0;
+            return;
+        }
+        // long division: q1 + q2 + q3, with the remainders computed in
+        // double-double
+        int e = exp - x.exp;
+        double q1 = hi / x.hi;
+        DoubleDouble r = new DoubleDouble();
+        r.hi = hi;
+        r.lo = lo;
+        DoubleDouble t = new DoubleDouble();
+        t.hi = x.hi;
+        t.lo = x.lo;
+        t.TE(-q1);
+        r.PE(t);
+        double q2 = r.value() / x.hi;
+        t.hi = x.hi;
+        t.lo = x.lo;
+        t.exp = 0;
+        t.TE(-q2);
+        r.PE(t);
+        double q3 = r.value() / x.hi;
+        hi = q1;
+        lo = 0;
+        exp = 0;
+        PE(q2, 0, 0);
+        PE(q3, 0, 0);
+        exp += e;
+        normalize();
+    }
+
+    /**
+     * Times-equals (*=). Replaces current value by multiplying it by the given value.
+     * @param a1
+     */
+    public void TE(double a1) {
+        int ea = exponentOf(a1);
+        a1 = Math.scalb(a1, -ea);
+        double p = hi * a1;
+        double e = twoProdErr(hi, a1, p) + lo * a1;
+        hi = p + e;
+        lo = e - (hi - p);
+        exp += ea;
+        normalize();
+    }
+
+    /**
+     * Returns the power of 2 that a must be scaled by to bring it within the
+     * range that hi is kept in (0 if it is already in range).
+     */
+    private static int exponentOf(double a) {
+        int e = Math.getExponent(a);
+        return (e > MAX_EXPONENT && e <= Double.MAX_EXPONENT) || (e < -MAX_EXPONENT && a != 0) ? e : 0;
+    }
+
+    /**
+     * Returns the error in the floating point product p = a*b (Dekker's algorithm).
+     */
+    private static double twoProdErr(double a, double b, double p) {
+        double t = SPLITTER * a;
+        double ah = t - (t - a);
+        double al = a - ah;
+        t = SPLITTER * b;
+        double bh = t - (t - b);
+        double bl = b - bh;
+        return ((ah * bh - p) + ah * bl + al * bh) + al * bl;
+    }
+
+    private void normalize() {
+        if (hi == 0) {
+            lo = 0;
+            exp = 0;
+            return;
+        }
+        int e = Math.getExponent(hi);
+        if ((e > MAX_EXPONENT || e < -MAX_EXPONENT) && e <= Double.MAX_EXPONENT) {
+            if (e < Double.MIN_EXPONENT) {
+                // subnormal; scale up in two steps
+                hi = Math.scalb(hi, 2 * MAX_EXPONENT);
+                lo = Math.scalb(lo, 2 * MAX_EXPONENT);
+                exp -= 2 * MAX_EXPONENT;
+                e = Math.getExponent(hi);
+            }
+            hi = Math.scalb(hi, -e);
+            lo = Math.scalb(lo, -e);
+            exp += e;
+        }
+    }
+
+    public String toString() {
+        return toBigDecimal().round(new MathContext(32)).toString();
+    }
+
+    public static void main(String[] arg) {
+        DoubleDouble third = new DoubleDouble(1.0);
+        third.DE(new DoubleDouble(3.0));
+        System.out.println("1/3 = " + third);
+        DoubleDouble big = new DoubleDouble(1e300);
+        big.TE(new DoubleDouble(1e300));
+        DoubleDouble small = new DoubleDouble(1e290);
+        small.TE(new DoubleDouble(1e300));
+        big.PE(small);
+        System.out.println("1e600 + 1e590 = " + big + "  ln = " + big.lnValue());
+    }
+}
@@ -5,6 +5,7 @@
 package etomica.veos;
 
 import java.math.BigDecimal;
+import java.util.function.DoubleFunction;
 
 import etomica.math.SpecialFunctions;
 
@@ -15,20 +16,31 @@ public class Ushcats {
     IBigValue[] M;
     IBigValue[] dMdV;
     private double rhoLast;
+    private DoubleFunction<IBigValue> bigValueFactory = MyBigDecimal::new;
     
     public Ushcats(BetaSource bs, int N) {
         betaSource = bs;
         setN(N);
     }
+
+    /**
+     * Sets the factory used to make the values for the computation, for
+     * example MyBigDecimal::new (the default, arbitrary precision),
+     * DoubleDouble::new (~32 digits, much faster) or BigValue::new.
+     */
+    public void setBigValueFactory(DoubleFunction<IBigValue> newBigValueFactory) {
+        bigValueFactory = newBigValueFactory;
+        rhoLast = -1.;
+    }
     
     protected IBigValue makeBigValue(double value) {
-//        return new BigValue(value);
-        return new MyBigDecimal(value);
+        return bigValueFactory.apply(value);
     }
     
     protected IBigValue makeBigValue(IBigValue value) {
-//        return new BigValue(value);
-        return new MyBigDecimal(value);
+        IBigValue v = bigValueFactory.apply(0);
+        v.E(value);
+        return v;
     }
     
     public final void setN(int n) {
@@ -186,6 +198,7 @@ public class Ushcats {
         boolean doP = !doQ;
         boolean doSeries = (N < 0);
         boolean dovdW = false;
+        boolean doubleDouble = false;//~32 digits instead of BigDecimal
         int outputIndex = maxIndex;//used to writing identifying parameter value on output
 
         BetaSource betaSource;
@@ -198,6 +211,7 @@ public class Ushcats {
             betaSource = new HardRods(maxIndex);
         }
         Ushcats ush = new Ushcats(betaSource,N);
+        if(doubleDouble) ush.setBigValueFactory(DoubleDouble::new);
         double[] rho = new double[nRho];
         for(int i=0; i<rho.length; i++) {
             rho[i] = (i)*0.9/(rho.length-1);
@@ -6,6 +6,7 @@ package etomica.virial;
 
 import etomica.atom.IAtomList;
 import etomica.box.Box;
+import etomica.molecule.IMolecule;
 import etomica.molecule.IMoleculeList;
 import etomica.space.BoundaryRectangularNonperiodic;
 import etomica.space.BoundaryRectangularPeriodic;
@@ -56,12 +57,34 @@ public class BoxCluster extends Box {
 
     /**
      * Inform the box that a trial move has been made so it can update
-     * the coordinate pairs.  If molecule is not null, only coordinate pairs 
-     * containing that atom are updated.
+     * the coordinate pairs.  Any or all molecules may have moved.
      */
     public void trialNotify() {
+        trialNotify(-1L);
+    }
+
+    /**
+     * Inform the box that a trial move has been made in which only the given
+     * molecule moved (in addition to any molecules moved earlier in the same
+     * trial).  Clusters can use this (via getMovedMask) to recompute only the
+     * pairs involving that molecule.
+     */
+    public void trialNotify(IMolecule molecule) {
+        IMoleculeList molecules = getMoleculeList();
+        long mask = -1L;
+        for (int i = 0; i < molecules.size() && i < 64; i++) {
+            if (molecules.get(i) == molecule) {
+                mask = 1L << i;
+                break;
+            }
+        }
+        trialNotify(mask);
+    }
+
+    protected void trialNotify(long mask) {
         // atom(s) have been moved.  leave cPairSet as is and update
         // cPairTrialSet and set a flag to use it.
+        boolean newTrial = !isTrial;
         isTrial = true;
         // increase ID to notify clusters to recalculate value
         if(cPairSet == null) {
@@ -79,10 +102,34 @@ public class BoxCluster extends Box {
             aPairSet = new AtomPairSet(molecules);
         }
 
+        if (newTrial) {
+            baseID = cPairSet.getID();
+            movedMask = mask;
+        }
+        else {
+            movedMask |= mask;
+        }
         cPairID++;
         cPairTrialSet.reset(cPairID);
     }
 
+    /**
+     * Returns a mask of the molecules (bit i for molecule i) that have moved
+     * in the current trial, relative to the configuration with ID getBaseID().
+     * All bits are set if the molecules that moved are not known.
+     */
+    public long getMovedMask() {
+        return movedMask;
+    }
+
+    /**
+     * Returns the ID of the configuration from which the current trial
+     * started, or -1 if there is no trial.
+     */
+    public long getBaseID() {
+        return isTrial ? baseID : -1;
+    }
+
     /**
      * Informs the box that the trial was accepted so it will keep the new 
      * coordinate pairs.
@@ -115,6 +162,7 @@ public class BoxCluster extends Box {
 	protected CoordinatePairSet cPairSet, cPairTrialSet, cPairSetTmp;
     protected AtomPairSet aPairSet;
     protected long cPairID;
+    protected long baseID = -1, movedMask = -1L;
 	protected final ClusterWeight sampleCluster;
 	protected final Space space;
 }
@@ -92,6 +92,20 @@ public class ClusterSum implements ClusterAbstract, java.io.Serializable {
         this.doCaching = doCaching;
     }
 
+    /**
+     * Sets whether the sum is evaluated with a ClusterSumPlan, which shares
+     * partial products between diagrams.  The plan is only used if all of the
+     * clusters are plain ClusterBonds.  Default is true.
+     */
+    public void setUsePlan(boolean newUsePlan) {
+        usePlan = newUsePlan;
+        plan = null;
+    }
+
+    public boolean isUsePlan() {
+        return usePlan;
+    }
+
     // equal point count enforced in constructor 
     public int pointCount() {
         return clusters[0].pointCount();
@@ -101,6 +115,7 @@ public class ClusterSum implements ClusterAbstract, java.io.Serializable {
         ClusterSum copy = new ClusterSum(clusters,clusterWeights,f);
         copy.setTemperature(1/beta);
         copy.setCaching(doCaching);
+        copy.setUsePlan(usePlan);
         return copy;
     }
 
@@ -141,6 +156,13 @@ public class ClusterSum implements ClusterAbstract, java.io.Serializable {
     }
     
     protected void calcValue() {
+        if (usePlan && plan == null && ClusterSumPlan.canCompile(clusters)) {
+            plan = new ClusterSumPlan(clusters, clusterWeights);
+        }
+        if (usePlan && plan != null && !debug) {
+            value = plan.value(fValues);
+            return;
+        }
         value = 0.0;
         for(int i=0; i<clusters.length; i++) {
             double v = clusters[i].value(fValues);
@@ -165,16 +187,29 @@ public class ClusterSum implements ClusterAbstract, java.io.Serializable {
         for (int k=0; k<f.length; k++) {
             f[k].setBox(box);
         }
-        // recalculate all f values for all pairs
+        // with caching, recalculate f values only for pairs involving
+        // molecules that moved since the cache was last updated
+        long moved = -1L;
+        if (doCaching) {
+            if (fCache == null) fCache = new MayerFunctionCache(nPoints, f.length);
+            moved = fCache.prepare(box, beta);
+        }
         for(int i=0; i<nPoints-1; i++) {
             for(int j=i+1; j<nPoints; j++) {
+                boolean recalc = MayerFunctionCache.isMoved(moved, i, j);
                 // only update the mayer functions that we'll need for this pair
                 int[] fij = fullBondIndexArray[i][j];
                 for(int k=0; k<fij.length; k++) {
                     int fk = fij[k];
                     if (fk < f.length) {
                         // we want the real fBond
-                        fValues[i][j][fk] = f[fk].f(aPairs.getAPair(i,j),cPairs.getr2(i,j), beta);
+                        if (recalc) {
+                            fValues[i][j][fk] = f[fk].f(aPairs.getAPair(i,j),cPairs.getr2(i,j), beta);
+                            if (doCaching) fCache.set(i, j, fk, fValues[i][j][fk]);
+                        }
+                        else {
+                            fValues[i][j][fk] = fCache.get(i, j, fk);
+                        }
                     }
                     else {
                         // we want an eBond
@@ -220,4 +255,7 @@ public class ClusterSum implements ClusterAbstract, java.io.Serializable {
     protected double value, lastValue;
     protected double beta;
     protected boolean doCaching = true;
+    protected boolean usePlan = true;
+    protected transient ClusterSumPlan plan;
+    protected transient MayerFunctionCache fCache;
 }
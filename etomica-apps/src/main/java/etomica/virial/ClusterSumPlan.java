@@ -0,0 +1,260 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.virial;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Evaluation plan for a weighted sum of ClusterBonds diagrams.  Each diagram
+ * (or each permutation, for diagrams that use permutations) is a product of
+ * bond values; the products are arranged in a prefix tree so that partial
+ * products shared by several diagrams are computed once.  Bonds that appear
+ * in more diagrams are placed earlier in each product, which maximizes the
+ * sharing.  Diagrams with identical bonds are merged.
+ *
+ * The tree is stored in depth-first order in flat arrays.  Evaluation is a
+ * single pass in which each node multiplies its parent's value by one bond
+ * value; if the product is zero, the node's whole subtree is skipped.
+ *
+ * The bond values are read from a flat array holding only the (pair, bond)
+ * values used by the diagrams; see getFactorPair and getFactorBond for the
+ * layout.
+ */
+public class ClusterSumPlan implements java.io.Serializable {
+
+    /**
+     * Returns true if the value of each of the clusters is just the product
+     * of its bonds (i.e. the cluster is a plain ClusterBonds), so that a plan
+     * can be made for them.
+     */
+    public static boolean canCompile(ClusterBonds[] clusters) {
+        for (ClusterBonds c : clusters) {
+            if (c.getClass() != ClusterBonds.class) return false;
+        }
+        return true;
+    }
+
+    public ClusterSumPlan(ClusterBonds[] clusters, double[] weights) {
+        if (!canCompile(clusters)) {
+            throw new IllegalArgumentException("clusters must be plain ClusterBonds");
+        }
+        int nPoints = clusters[0].pointCount();
+
+        // each term is a product of factors, with factors identified by
+        // (i*nPoints + j)*nBonds + bond for pair i<j
+        int nBonds = 0;
+        for (ClusterBonds c : clusters) {
+            for (int[] row : c.getBondIndexArray()) {
+                for (int b : row) {
+                    nBonds = Math.max(nBonds, b + 1);
+                }
+            }
+        }
+        int nTerms = 0;
+        for (ClusterBonds c : clusters) {
+            nTerms += c.usePermutations ? c.nPermutations : 1;
+        }
+        int[][] termKeys = new int[nTerms][];
+        double[] termWeights = new double[nTerms];
+        int iTerm = 0;
+        int[] identity = new int[nPoints];
+        for (int i = 0; i < nPoints; i++) {
+            identity[i] = i;
+        }
+        for (int c = 0; c < clusters.length; c++) {
+            ClusterBonds cluster = clusters[c];
+            int[][] bondIndexArray = cluster.getBondIndexArray();
+            int nPerm = cluster.usePermutations ? cluster.nPermutations : 1;
+            for (int s = 0; s < nPerm; s++) {
+                int[] p = cluster.usePermutations ? cluster.permutations[s] : identity;
+                int nFactors = 0;
+                int[] keys = new int[nPoints * (nPoints - 1) / 2];
+                for (int i = 0; i < nPoints - 1; i++) {
+                    for (int j = i + 1; j < nPoints; j++) {
+                        int b = bondIndexArray[i][j];
+                        if (b < 0) continue;
+                        int ip = Math.min(p[i], p[j]), jp = Math.max(p[i], p[j]);
+                        keys[nFactors++] = (ip * nPoints + jp) * nBonds + b;
+                    }
+                }
+                termKeys[iTerm] = Arrays.copyOf(keys, nFactors);
+                termWeights[iTerm] = cluster.usePermutations ? weights[c] * cluster.rPermutations : weights[c];
+                iTerm++;
+            }
+        }
+
+        // rank the factors by how many terms use them
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int[] keys : termKeys) {
+            for (int k : keys) {
+                counts.merge(k, 1, Integer::sum);
+            }
+        }
+        Integer[] sortedKeys = counts.keySet().toArray(new Integer[0]);
+        Arrays.sort(sortedKeys, (a, b) -> {
+            int ca = counts.get(a), cb = counts.get(b);
+            return ca != cb ? Integer.compare(cb, ca) : Integer.compare(a, b);
+        });
+        Map<Integer, Integer> rank = new HashMap<>();
+        factorI = new int[sortedKeys.length];
+        factorJ = new int[sortedKeys.length];
+        factorK = new int[sortedKeys.length];
+        for (int m = 0; m < sortedKeys.length; m++) {
+            int key = sortedKeys[m];
+            rank.put(key, m);
+            factorK[m] = key % nBonds;
+            int pair = key / nBonds;
+            factorI[m] = pair / nPoints;
+            factorJ[m] = pair % nPoints;
+        }
+        for (int[] keys : termKeys) {
+            for (int f = 0; f < keys.length; f++) {
+                keys[f] = rank.get(keys[f]);
+            }
+            Arrays.sort(keys);
+        }
+
+        // sort the terms so that terms sharing a prefix are adjacent; the
+        // prefix tree is then built in depth-first order
+        Integer[] order = new Integer[nTerms];
+        for (int t = 0; t < nTerms; t++) {
+            order[t] = t;
+        }
+        Arrays.sort(order, (a, b) -> compareKeys(termKeys[a], termKeys[b]));
+
+        int[] parentList = new int[16], factorList = new int[16], depthList = new int[16];
+        double[] weightList = new double[16];
+        int nNodes = 0;
+        // path[d] is the node at depth d on the path to the previous term
+        int[] path = new int[nPoints * (nPoints - 1) / 2];
+        int[] prevKeys = new int[0];
+        double constantSum = 0;
+        for (int t = 0; t < nTerms; t++) {
+            int[] keys = termKeys[order[t]];
+            double w = termWeights[order[t]];
+            if (keys.length == 0) {
+                constantSum += w;
+                continue;
+            }
+            int common = 0;
+            while (common < keys.length && common < prevKeys.length && keys[common] == prevKeys[common]) {
+                common++;
+            }
+            for (int d = common; d < keys.length; d++) {
+                if (nNodes == parentList.length) {
+                    parentList = Arrays.copyOf(parentList, 2 * nNodes);
+                    factorList = Arrays.copyOf(factorList, 2 * nNodes);
+                    depthList = Arrays.copyOf(depthList, 2 * nNodes);
+                    weightList = Arrays.copyOf(weightList, 2 * nNodes);
+                }
+                parentList[nNodes] = d == 0 ? -1 : path[d - 1];
+                factorList[nNodes] = keys[d];
+                depthList[nNodes] = d;
+                path[d] = nNodes;
+                nNodes++;
+            }
+            weightList[path[keys.length - 1]] += w;
+            prevKeys = keys;
+        }
+        constant = constantSum;
+        parent = Arrays.copyOf(parentList, nNodes);
+        factor = Arrays.copyOf(factorList, nNodes);
+        weight = Arrays.copyOf(weightList, nNodes);
+        // the subtree of node x is contiguous, ending at the next node that
+        // is no deeper than x
+        skip = new int[nNodes];
+        int[] open = new int[path.length];
+        int nOpen = 0;
+        for (int x = 0; x < nNodes; x++) {
+            while (nOpen > 0 && depthList[open[nOpen - 1]] >= depthList[x]) {
+                skip[open[--nOpen]] = x;
+            }
+            open[nOpen++] = x;
+        }
+        while (nOpen > 0) {
+            skip[open[--nOpen]] = nNodes;
+        }
+        nodeValue = new double[nNodes];
+        fFlat = new double[factorI.length];
+    }
+
+    private static int compareKeys(int[] a, int[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            if (a[i] != b[i]) return Integer.compare(a[i], b[i]);
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    /**
+     * Returns the value of the sum, taking bond values from fValues, indexed
+     * as in ClusterSum ([i][j][bond]).
+     */
+    public double value(double[][][] fValues) {
+        for (int m = 0; m < fFlat.length; m++) {
+            fFlat[m] = fValues[factorI[m]][factorJ[m]][factorK[m]];
+        }
+        return value(fFlat);
+    }
+
+    /**
+     * Returns the value of the sum, taking bond values from f, where f[m] is
+     * the value of bond getFactorBond(m) for pair getFactorPair(m).
+     */
+    public double value(double[] f) {
+        double sum = constant;
+        int nNodes = factor.length;
+        int x = 0;
+        while (x < nNodes) {
+            int p = parent[x];
+            double v = (p < 0 ? 1.0 : nodeValue[p]) * f[factor[x]];
+            if (v == 0.0) {
+                x = skip[x];
+                continue;
+            }
+            nodeValue[x] = v;
+            if (weight[x] != 0) {
+                sum += weight[x] * v;
+            }
+            x++;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the number of distinct (pair, bond) values used by the plan.
+     */
+    public int getFactorCount() {
+        return factorI.length;
+    }
+
+    /**
+     * Returns the pair {i, j} (i < j) for factor m.
+     */
+    public int[] getFactorPair(int m) {
+        return new int[]{factorI[m], factorJ[m]};
+    }
+
+    public int getFactorBond(int m) {
+        return factorK[m];
+    }
+
+    /**
+     * Returns the number of multiplications needed to evaluate the plan
+     * (when no partial product is zero).
+     */
+    public int getNodeCount() {
+        return factor.length;
+    }
+
+    private static final long serialVersionUID = 1L;
+    protected final int[] factorI, factorJ, factorK;
+    protected final int[] parent, factor, skip;
+    protected final double[] weight;
+    protected final double constant;
+    protected final double[] nodeValue, fFlat;
+}
@@ -103,13 +103,21 @@ public class ClusterSumPolarizable implements ClusterAbstract, java.io.Serializa
             return value;
         }
 
-        for(int i=0; i<clusters.length; i++) {
-            //System.out.println("clusters.length = " + clusters.length);
-            // clusters.length = 1 for B3
-            double v = clusters[i].value(fValues);
-            value += clusterWeights[i] * v;
-            //System.out.println("value = " + value);
-            //System.out.println("clusterWeights["+i+"] = " + clusterWeights[i]);
+        if (plan == null && ClusterSumPlan.canCompile(clusters)) {
+            plan = new ClusterSumPlan(clusters, clusterWeights);
+        }
+        if (plan != null) {
+            value = plan.value(fValues);
+        }
+        else {
+            for(int i=0; i<clusters.length; i++) {
+                //System.out.println("clusters.length = " + clusters.length);
+                // clusters.length = 1 for B3
+                double v = clusters[i].value(fValues);
+                value += clusterWeights[i] * v;
+                //System.out.println("value = " + value);
+                //System.out.println("clusterWeights["+i+"] = " + clusterWeights[i]);
+            }
         }
         
         if (truncateDelta) {
@@ -740,4 +748,5 @@ public class ClusterSumPolarizable implements ClusterAbstract, java.io.Serializa
     protected final double[][] uijPol;
     public double pushR2 = 0;
     protected boolean doCaching;
+    protected transient ClusterSumPlan plan;
 }
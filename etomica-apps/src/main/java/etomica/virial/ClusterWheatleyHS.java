@@ -464,6 +464,7 @@ public class ClusterWheatleyHS implements ClusterWheatley {
     }
 
     protected long total, notzero, screened;
+    protected MayerFunctionCache fCache;
     protected int edgeCount;
     HashSet<String> zeroMaps = new HashSet<String>();
 
@@ -472,10 +473,16 @@ public class ClusterWheatleyHS implements ClusterWheatley {
         AtomPairSet aPairs = box.getAPairSet();
 
         f.setBox(box);
-        // recalculate all f values for all pairs
+        // recalculate f values only for pairs involving molecules that moved
+        // since the cache was last updated
+        if (fCache == null) fCache = new MayerFunctionCache(n, 1);
+        long moved = fCache.prepare(box, beta);
         for(int i=0; i<n-1; i++) {
             for(int j=i+1; j<n; j++) {
-                fQ[(1<<i)|(1<<j)] = f.f(aPairs.getAPair(i,j),cPairs.getr2(i,j), beta)+1;
+                if (MayerFunctionCache.isMoved(moved, i, j)) {
+                    fCache.set(i, j, 0, f.f(aPairs.getAPair(i,j),cPairs.getr2(i,j), beta));
+                }
+                fQ[(1<<i)|(1<<j)] = fCache.get(i, j, 0)+1;
             }
         }
     }
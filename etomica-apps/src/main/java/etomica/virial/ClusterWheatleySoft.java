@@ -28,6 +28,7 @@ public class ClusterWheatleySoft implements ClusterAbstract {
     protected ClusterWheatleySoftBD clusterBD;
     protected boolean debug = false;
     protected boolean doCaching = true;
+    protected MayerFunctionCache fCache;
 
     public ClusterWheatleySoft(int nPoints, MayerFunction f, double tol) {
         this.n = nPoints;
@@ -286,6 +287,21 @@ public class ClusterWheatleySoft implements ClusterAbstract {
         AtomPairSet aPairs = box.getAPairSet();
 
         f.setBox(box);
+        if (doCaching && !debug) {
+            // recalculate f values only for pairs involving molecules that
+            // moved since the cache was last updated
+            if (fCache == null) fCache = new MayerFunctionCache(n, 1);
+            long moved = fCache.prepare(box, beta);
+            for(int i=0; i<n-1; i++) {
+                for(int j=i+1; j<n; j++) {
+                    if (MayerFunctionCache.isMoved(moved, i, j)) {
+                        fCache.set(i, j, 0, f.f(aPairs.getAPair(i,j),cPairs.getr2(i,j), beta));
+                    }
+                    fQ[(1<<i)|(1<<j)] = fCache.get(i, j, 0)+1;
+                }
+            }
+            return;
+        }
         // recalculate all f values for all pairs
         for(int i=0; i<n-1; i++) {
             for(int j=i+1; j<n; j++) {
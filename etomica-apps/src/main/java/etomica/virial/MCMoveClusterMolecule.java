@@ -36,7 +36,7 @@ public class MCMoveClusterMolecule extends MCMoveMolecule {
         groupTranslationVector.setRandomCube(random);
         groupTranslationVector.TE(stepSize);
         moveMoleculeAction.actionPerformed(molecule);
-        ((BoxCluster)box).trialNotify();
+        ((BoxCluster)box).trialNotify(molecule);
         uNew = ((BoxCluster)box).getSampleCluster().value((BoxCluster)box);
         return true;
     }
@@ -0,0 +1,107 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.virial;
+
+/**
+ * Holds Mayer function values for all pairs of molecules in a BoxCluster,
+ * for the current configuration and the one before it, so that a cluster
+ * only needs to recompute the pairs involving molecules that moved.  When a
+ * trial is rejected, the values for the previous configuration are swapped
+ * back in without any recalculation.
+ * <p>
+ * Usage: call prepare(box, beta) and recompute (via set) every pair that
+ * involves a molecule in the returned mask; all other values are already
+ * correct for the box's current configuration.
+ * <p>
+ * The cache assumes that the f values depend only on the configuration (as
+ * identified by the CoordinatePairSet ID) and beta.
+ */
+public class MayerFunctionCache {
+
+    protected final int n, nFunctions;
+    protected double[][] values, prevValues;
+    protected long id = -1, prevID = -1;
+    protected BoxCluster box;
+    protected double beta = Double.NaN;
+
+    public MayerFunctionCache(int nPoints, int nFunctions) {
+        n = nPoints;
+        this.nFunctions = nFunctions;
+        values = new double[nFunctions][n * n];
+        prevValues = new double[nFunctions][n * n];
+    }
+
+    /**
+     * Makes the cache current for the box's configuration and returns a mask
+     * of the molecules (bit i for molecule i) whose pairs need to be
+     * recomputed.  The mask has all bits set if everything needs to be
+     * recomputed and is 0 if nothing does.
+     */
+    public long prepare(BoxCluster newBox, double newBeta) {
+        long thisID = newBox.getCPairSet().getID();
+        if (newBox != box || newBeta != beta) {
+            box = newBox;
+            beta = newBeta;
+            prevID = -1;
+            id = thisID;
+            return -1L;
+        }
+        if (thisID == id) return 0;
+        if (thisID == prevID) {
+            // back to the previous configuration (a rejected trial)
+            swap();
+            return 0;
+        }
+        long moved = box.getMovedMask();
+        long baseID = box.getBaseID();
+        if (baseID == id) {
+            // start from the current values and keep them as the previous
+            copy(values, prevValues);
+            swap();
+        }
+        else if (baseID == prevID) {
+            // the current values are for a rejected trial; start from the
+            // previous ones and keep those
+            copy(prevValues, values);
+        }
+        else {
+            swap();
+            moved = -1L;
+        }
+        id = thisID;
+        return moved;
+    }
+
+    /**
+     * Returns true if any of the molecules i and j are in the mask returned
+     * by prepare.
+     */
+    public static boolean isMoved(long moved, int i, int j) {
+        return moved == -1L || (((moved >>> i) | (moved >>> j)) & 1) != 0;
+    }
+
+    public double get(int i, int j, int k) {
+        return values[k][i * n + j];
+    }
+
+    public void set(int i, int j, int k, double f) {
+        values[k][i * n + j] = f;
+    }
+
+    protected void swap() {
+        double[][] t = values;
+        values = prevValues;
+        prevValues = t;
+        long tID = id;
+        id = prevID;
+        prevID = tID;
+    }
+
+    protected void copy(double[][] src, double[][] dst) {
+        for (int k = 0; k < nFunctions; k++) {
+            System.arraycopy(src[k], 0, dst[k], 0, n * n);
+        }
+    }
+}
@@ -606,7 +606,7 @@ public class WertheimDiagrams3SiteRho {
                 lnfXi.addAll(fXipow);
                 if (i>1) lnfXi = isoFree.apply(lnfXi, null);
                 msp = new MulScalarParameters(new CoefficientImpl(-i,(i+1)));
-                fXipow = mulScalar.apply(mulFlex.apply(fXipow, fXi, mfp), msp);
+                fXipow = mulScalar.apply(mulFlex.applyIsoFree(fXipow, fXi, mfp), msp);
             }
             fXipow = null;
             fXi.clear();
@@ -986,13 +986,13 @@ public class WertheimDiagrams3SiteRho {
                 zPow[1].addAll(z);
                 for (int j=2; j<i+1; j++) {
                     zPow[j] = new HashSet<Graph>();
-                    zPow[j] = isoFree.apply(mulFlex.apply(zPow[j-1], z, mfpnm1), null);
+                    zPow[j] = mulFlex.applyIsoFree(zPow[j-1], z, mfpnm1);
                 }
                 z = new HashSet<Graph>();
                 z.addAll(allRho[1]);
                 msp = new MulScalarParameters(new CoefficientImpl(-1,1));
                 for (int j=2; j<i+1; j++) {
-                    z.addAll(mulScalar.apply(mulFlex.apply(allRho[j], zPow[j], mfpnm1), msp));
+                    z.addAll(mulScalar.apply(mulFlex.applyIsoFree(allRho[j], zPow[j], mfpnm1), msp));
                 }
             }
    
@@ -1016,12 +1016,12 @@ public class WertheimDiagrams3SiteRho {
                 zPow[1].addAll(zWertheim);
                 for (int j=2; j<i+1; j++) {
                     zPow[j] = new HashSet<Graph>();
-                    zPow[j] = isoFree.apply(mulFlex.apply(zPow[j-1], zWertheim, mfpnm1zWertheim), null);
+                    zPow[j] = mulFlex.applyIsoFree(zPow[j-1], zWertheim, mfpnm1zWertheim);
                 }
                 zWertheim = new HashSet<Graph>();
                 zWertheim.addAll(allRho0[1]);
                 for (int j=2; j<i+1; j++) {
-                    zWertheim.addAll(mulScalar.apply(mulFlex.apply(allRho0[j], zPow[j], mfpnm1zWertheim), msp));
+                    zWertheim.addAll(mulScalar.apply(mulFlex.applyIsoFree(allRho0[j], zPow[j], mfpnm1zWertheim), msp));
                 }
             }
    
@@ -0,0 +1,68 @@
+package etomica.normalmode;
+
+import etomica.space.Vector;
+import etomica.space3d.Space3D;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CoordinateDefinitionTest {
+    private SimCalcSMorse sim;
+    private CoordinateDefinition coordinateDefinition;
+    private Vector[] waveVectors;
+    private int coordinateDim;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        sim = new SimCalcSMorse(Space3D.getInstance(), 32, 1.3, 1.0);
+        coordinateDefinition = sim.coordinateDefinition;
+        WaveVectorFactorySimple waveVectorFactory = new WaveVectorFactorySimple(sim.primitive, sim.getSpace());
+        waveVectorFactory.makeWaveVectors(sim.box);
+        waveVectors = waveVectorFactory.getWaveVectors();
+        coordinateDim = coordinateDefinition.getCoordinateDim();
+    }
+
+    @Test
+    public void calcTAllWaveVectors() throws Exception {
+        sim.integrator.reset();
+        for (int i = 0; i < 1000; i++) {
+            sim.integrator.doStep();
+        }
+        double[][] realTAll = new double[waveVectors.length][coordinateDim];
+        double[][] imaginaryTAll = new double[waveVectors.length][coordinateDim];
+        coordinateDefinition.calcT(waveVectors, realTAll, imaginaryTAll);
+
+        double[] realT = new double[coordinateDim];
+        double[] imaginaryT = new double[coordinateDim];
+        for (int iVector = 0; iVector < waveVectors.length; iVector++) {
+            // a copy of the wave vector isn't in the phase table
+            Vector k = sim.getSpace().makeVector();
+            k.E(waveVectors[iVector]);
+            coordinateDefinition.calcT(k, realT, imaginaryT);
+            for (int i = 0; i < coordinateDim; i++) {
+                assertEquals(realT[i], realTAll[iVector][i], 1e-12);
+                assertEquals(imaginaryT[i], imaginaryTAll[iVector][i], 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void incrementalT() throws Exception {
+        MCMoveAtomCoupled move = (MCMoveAtomCoupled) sim.integrator.getMoveManager().getMCMoves().get(0);
+        move.setCoordinateDefinition(coordinateDefinition, waveVectors);
+        sim.integrator.reset();
+        for (int i = 0; i < 1000; i++) {
+            sim.integrator.doStep();
+        }
+        double[][] realT = new double[waveVectors.length][coordinateDim];
+        double[][] imaginaryT = new double[waveVectors.length][coordinateDim];
+        coordinateDefinition.calcT(waveVectors, realT, imaginaryT);
+        for (int iVector = 0; iVector < waveVectors.length; iVector++) {
+            for (int i = 0; i < coordinateDim; i++) {
+                assertEquals(realT[iVector][i], move.getRealT()[iVector][i], 1e-12);
+                assertEquals(imaginaryT[iVector][i], move.getImaginaryT()[iVector][i], 1e-12);
+            }
+        }
+    }
+}
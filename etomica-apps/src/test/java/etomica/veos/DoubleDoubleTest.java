@@ -0,0 +1,74 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.veos;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+
+public class DoubleDoubleTest {
+
+    private static double relErr(DoubleDouble x, BigDecimal exact) {
+        return x.toBigDecimal().subtract(exact).abs().divide(exact.abs(), new MathContext(5)).doubleValue();
+    }
+
+    @Test
+    public void testOperations() {
+        Random random = new Random(1);
+        for (int t = 0; t < 1000; t++) {
+            DoubleDouble x = new DoubleDouble(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20));
+            DoubleDouble y = new DoubleDouble((random.nextBoolean() ? -1 : 1) * random.nextDouble() * Math.pow(10, random.nextInt(40) - 20));
+            // give both a nonzero low part
+            x.DE(new DoubleDouble(3));
+            y.DE(new DoubleDouble(7));
+            BigDecimal bx = x.toBigDecimal(), by = y.toBigDecimal();
+            double a = random.nextInt(200) - 100 + 0.37;
+
+            DoubleDouble z = new DoubleDouble(x);
+            z.TE(y);
+            Assertions.assertTrue(relErr(z, bx.multiply(by)) < 1e-30);
+            z.E(x);
+            z.DE(y);
+            Assertions.assertTrue(relErr(z, bx.divide(by, new MathContext(50))) < 1e-30);
+            z.E(x);
+            z.TE(a);
+            Assertions.assertTrue(relErr(z, bx.multiply(new BigDecimal(a))) < 1e-30);
+            z.E(x);
+            z.PE(y);
+            BigDecimal sum = bx.add(by);
+            // relative to the larger operand, since the sum might cancel
+            double scale = bx.abs().max(by.abs()).divide(sum.abs(), new MathContext(5)).doubleValue();
+            Assertions.assertTrue(relErr(z, sum) < 1e-30 * scale);
+        }
+    }
+
+    @Test
+    public void testRange() {
+        DoubleDouble x = new DoubleDouble(1e300);
+        x.TE(new DoubleDouble(1e300));
+        x.TE(1e300);
+        Assertions.assertEquals(900 * Math.log(10), x.lnValue(), 1e-12);
+        x.DE(new DoubleDouble(1e300));
+        x.DE(new DoubleDouble(1e300));
+        Assertions.assertEquals(1e300, x.value(), 1e285);
+    }
+
+    @Test
+    public void testUshcats() {
+        double T = 0.8 * 8.0 / 27.0;
+        BetaSource betaSource = new VanderWaals(T, 4);
+        Ushcats bd = new Ushcats(betaSource, 100);
+        Ushcats dd = new Ushcats(betaSource, 100);
+        dd.setBigValueFactory(DoubleDouble::new);
+        for (int i = 1; i <= 9; i++) {
+            double rho = 0.1 * i;
+            double p = bd.pCalc(rho, T);
+            Assertions.assertEquals(p, dd.pCalc(rho, T), 1e-12 * Math.abs(p));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.virial;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class ClusterSumPlanTest {
+
+    @Test
+    public void testAgreesWithClusterBonds() {
+        Random random = new Random(5);
+        int nPoints = 5;
+        for (int usePerm = 0; usePerm < 2; usePerm++) {
+            ClusterBonds[] clusters = new ClusterBonds[40];
+            double[] weights = new double[clusters.length];
+            for (int c = 0; c < clusters.length; c++) {
+                int[][] bonds = new int[nPoints][nPoints];
+                for (int i = 0; i < nPoints; i++) {
+                    bonds[i][i] = -1;
+                    for (int j = i + 1; j < nPoints; j++) {
+                        // mostly f-bonds, some e-bonds, some missing
+                        int r = random.nextInt(6);
+                        bonds[i][j] = bonds[j][i] = r < 4 ? 0 : (r == 4 ? 1 : -1);
+                    }
+                }
+                clusters[c] = new ClusterBonds(bonds, usePerm == 1);
+                weights[c] = random.nextInt(11) - 5;
+            }
+            ClusterSumPlan plan = new ClusterSumPlan(clusters, weights);
+            double[][][] fValues = new double[nPoints][nPoints][2];
+            for (int trial = 0; trial < 100; trial++) {
+                for (int i = 0; i < nPoints - 1; i++) {
+                    for (int j = i + 1; j < nPoints; j++) {
+                        // include overlaps (f=-1, e=0) and zero f-bonds
+                        int r = random.nextInt(5);
+                        double f = r == 0 ? -1 : (r == 1 ? 0 : 2 * random.nextDouble() - 1);
+                        fValues[i][j][0] = fValues[j][i][0] = f;
+                        fValues[i][j][1] = fValues[j][i][1] = f + 1;
+                    }
+                }
+                double expected = 0;
+                for (int c = 0; c < clusters.length; c++) {
+                    expected += weights[c] * clusters[c].value(fValues);
+                }
+                Assertions.assertEquals(expected, plan.value(fValues), 1e-12 * (1 + Math.abs(expected)));
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.virial;
+
+import etomica.chem.elements.ElementSimple;
+import etomica.molecule.IMolecule;
+import etomica.potential.P2LennardJones;
+import etomica.simulation.Simulation;
+import etomica.space.Space;
+import etomica.species.Species;
+import etomica.species.SpeciesSpheresMono;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class MayerFunctionCacheTest {
+
+    @Test
+    public void testMovesWithRejection() {
+        int nPoints = 5;
+        Space space = Space.getInstance(3);
+        Species species = new SpeciesSpheresMono(space, new ElementSimple(""));
+        MayerFunction f = new MayerGeneralSpherical(new P2LennardJones(space));
+
+        ClusterWheatleySoft cached = new ClusterWheatleySoft(nPoints, f, 0);
+        cached.setTemperature(1.2);
+        ClusterWheatleySoft uncached = new ClusterWheatleySoft(nPoints, f, 0);
+        uncached.setTemperature(1.2);
+        uncached.setDoCaching(false);
+        // ring diagram with one e-bond
+        int[][] bonds = new int[nPoints][nPoints];
+        for (int i = 0; i < nPoints; i++) {
+            for (int j = 0; j < nPoints; j++) {
+                bonds[i][j] = -1;
+            }
+        }
+        for (int i = 0; i < nPoints; i++) {
+            int j = (i + 1) % nPoints;
+            bonds[i][j] = bonds[j][i] = i == 0 ? 1 : 0;
+        }
+        ClusterBonds ring = new ClusterBonds(bonds, false);
+        ClusterSum sumCached = new ClusterSum(new ClusterBonds[]{ring}, new double[]{1}, new MayerFunction[]{f});
+        sumCached.setTemperature(1.2);
+        ClusterSum sumUncached = new ClusterSum(new ClusterBonds[]{ring}, new double[]{1}, new MayerFunction[]{f});
+        sumUncached.setTemperature(1.2);
+        sumUncached.setCaching(false);
+
+        Simulation sim = new Simulation(space);
+        sim.addSpecies(species);
+        BoxCluster box = new BoxCluster(new ClusterWeightAbs(cached), space);
+        sim.addBox(box);
+        box.setNMolecules(species, nPoints);
+        for (int i = 0; i < nPoints; i++) {
+            box.getLeafList().get(i).getPosition().setX(0, i);
+        }
+        box.trialNotify();
+        box.acceptNotify();
+
+        Random random = new Random(3);
+        double[][] oldPositions = new double[nPoints][3];
+        boolean inTrial = false;
+        for (int step = 0; step < 500; step++) {
+            if (!inTrial) {
+                for (int i = 0; i < nPoints; i++) {
+                    box.getLeafList().get(i).getPosition().assignTo(oldPositions[i]);
+                }
+            }
+            int nMoved = 1 + random.nextInt(2);
+            for (int m = 0; m < nMoved; m++) {
+                IMolecule molecule = box.getMoleculeList().get(random.nextInt(nPoints));
+                molecule.getChildList().get(0).getPosition().setX(random.nextInt(3), 2 * random.nextDouble() - 1);
+                box.trialNotify(molecule);
+            }
+            inTrial = true;
+            Assertions.assertEquals(uncached.value(box), cached.value(box), 1e-12);
+            Assertions.assertEquals(sumUncached.value(box), sumCached.value(box), 1e-12);
+            // sometimes move more molecules within the same trial
+            if (random.nextInt(4) == 0) continue;
+            if (random.nextBoolean()) {
+                box.acceptNotify();
+            }
+            else {
+                for (int i = 0; i < nPoints; i++) {
+                    box.getLeafList().get(i).getPosition().E(oldPositions[i]);
+                }
+                box.rejectNotify();
+            }
+            inTrial = false;
+            // the clusters are not necessarily evaluated for every configuration
+            if (random.nextBoolean()) {
+                Assertions.assertEquals(uncached.value(box), cached.value(box), 1e-12);
+                Assertions.assertEquals(sumUncached.value(box), sumCached.value(box), 1e-12);
+            }
+        }
+    }
+}
@@ -48,6 +48,10 @@ public class ActivityIntegrate extends Activity {
             }
         }
         integrator.resetStepCount();
+        if (checkInterval > 1 && sleepPeriod == 0 && !Debug.ON) {
+            runHeadless();
+            return;
+        }
         for (stepCount = 0; stepCount < maxSteps; stepCount++) {
             if (Debug.ON) {
                 if (stepCount == Debug.START) Debug.DEBUG_NOW = true;
@@ -64,6 +68,46 @@ public class ActivityIntegrate extends Activity {
         }
 	}
 
+    /**
+     * Integration loop used when checkInterval > 1.  Pause and halt requests
+     * are checked (which requires synchronization) only once every
+     * checkInterval steps, and stepCount is only updated then.
+     */
+    protected void runHeadless() {
+        stepCount = 0;
+        while (stepCount < maxSteps) {
+            if (!doContinue()) break;
+            long n = maxSteps - stepCount;
+            if (n > checkInterval) n = checkInterval;
+            for (long i = 0; i < n; i++) {
+                integrator.doStep();
+            }
+            stepCount += n;
+        }
+    }
+
+    /**
+     * Returns the number of steps taken between checks for pause or halt
+     * requests.
+     */
+    public int getCheckInterval() {
+        return checkInterval;
+    }
+
+    /**
+     * Sets the number of steps taken between checks for pause or halt
+     * requests.  With the default of 1, every step checks for requests and
+     * handles Debug and sleepPeriod.  A larger value is meant for runs without
+     * a graphical interface: the integrator's doStep is then called in a
+     * tight loop, and pause, halt and urgent actions (Controller.doActionNow)
+     * take effect only at the end of a block of steps.  The larger value is
+     * ignored if sleepPeriod is nonzero or Debug is on.
+     */
+    public void setCheckInterval(int checkInterval) {
+        if (checkInterval < 1) throw new IllegalArgumentException("check interval must be positive");
+        this.checkInterval = checkInterval;
+    }
+
 	/**
 	 * Amount of time that thread is kept in sleep state after
 	 * each doStep done on integrator.  If doSleep is false, this no sleep
@@ -102,6 +146,14 @@ public class ActivityIntegrate extends Activity {
 		this.maxSteps = maxSteps;
 	}
     
+    /**
+     * Returns true if an overlap found when the integrator is reset at the
+     * start of the run is ignored.
+     */
+    public boolean isIgnoreOverlap() {
+        return ignoreOverlap;
+    }
+
     public long getCurrentStep() {
         return stepCount;
     }
@@ -117,5 +169,6 @@ public class ActivityIntegrate extends Activity {
 	private final Integrator integrator;
     private boolean ignoreOverlap;
 	private int sleepPeriod;
+    private int checkInterval = 1;
 	protected long maxSteps, stepCount;
 }
@@ -50,6 +50,7 @@ public final class Controller extends ActivityGroupSeries {
     private final Map<IAction, Throwable> actionExceptionMap;
     private final EventManager<ControllerEvent> eventManager;
     private boolean repeatCurrentAction = false;
+    private boolean headless = false;
 
     public Controller() {
         super();
@@ -108,7 +109,16 @@ public final class Controller extends ActivityGroupSeries {
                 actionStatusMap.put(currentAction, ActionStatus.CURRENT);
             }
             eventManager.fireEvent(new ControllerEvent(this, START_ACTION, currentAction));
-            if (currentAction instanceof Activity) {
+            if (currentAction instanceof Activity && headless) {
+                waitObject.currentActionDone = false;
+                waitObject.actionException = null;
+                try {
+                    currentAction.actionPerformed();
+                } catch (Throwable e) {
+                    waitObject.actionException = e;
+                }
+                waitObject.currentActionDone = true;
+            } else if (currentAction instanceof Activity) {
                 waitObject.currentActionDone = false;
                 waitObject.actionException = null;
                 //define a thread to run the activity
@@ -284,6 +294,27 @@ public final class Controller extends ActivityGroupSeries {
         }
     }
 
+    /**
+     * Returns value of the headless flag.
+     */
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * Flag indicating whether Activities should be run on the Controller's own
+     * thread rather than on a new thread for each.  Pause, halt and urgent
+     * actions still work from other threads, but there is no separate
+     * thread to idle on while the Activity runs.  This is meant for runs
+     * without a graphical interface, typically together with
+     * ActivityIntegrate.setCheckInterval.
+     * <p>
+     * Default is false.
+     */
+    public synchronized void setHeadless(boolean headless) {
+        this.headless = headless;
+    }
+
     public String toString() {
         return "Controller";
     }
@@ -0,0 +1,247 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.box;
+
+import etomica.atom.IAtomList;
+import etomica.integrator.IntegratorEvent;
+import etomica.integrator.IntegratorListener;
+import etomica.space.Vector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes copies of the positions of a box's atoms so that other threads
+ * (displays, servers, monitors) can read a consistent configuration without
+ * pausing the integrator.  The publisher is added as a listener to the
+ * integrator; at the end of a step, if it is time for a new snapshot, the
+ * positions are copied into one of a ring of preallocated buffers, which is
+ * then published through a volatile reference.
+ * <p>
+ * Readers must acquire a snapshot and release it when done:
+ * <pre>
+ * BoxSnapshotPublisher.Snapshot s = publisher.acquire();
+ * if (s != null) {
+ *     try {
+ *         ... read s.getPositions() ...
+ *     }
+ *     finally {
+ *         s.release();
+ *     }
+ * }
+ * </pre>
+ * A snapshot does not change while it is held.  The integrator never waits
+ * for readers: if every buffer other than the latest one is held, the
+ * snapshot is skipped and taken at the next opportunity.
+ */
+public class BoxSnapshotPublisher implements IntegratorListener {
+
+    protected final Box box;
+    protected final Snapshot[] ring;
+    protected volatile Snapshot latest;
+    protected int interval;
+    protected long minPeriodNanos;
+    protected int intervalCount;
+    protected long lastNanos;
+    protected long count;
+
+    /**
+     * Creates a publisher with 3 buffers, which is enough for one reader
+     * to always find a free buffer.
+     */
+    public BoxSnapshotPublisher(Box box) {
+        this(box, 3);
+    }
+
+    /**
+     * @param nBuffers number of buffers in the ring; more buffers let more
+     *                 readers hold snapshots at once without causing skips.
+     */
+    public BoxSnapshotPublisher(Box box, int nBuffers) {
+        if (nBuffers < 2) throw new IllegalArgumentException("need at least 2 buffers");
+        this.box = box;
+        ring = new Snapshot[nBuffers];
+        for (int i = 0; i < nBuffers; i++) {
+            ring[i] = new Snapshot(box.getSpace().D());
+        }
+        interval = 1;
+    }
+
+    public Box getBox() {
+        return box;
+    }
+
+    /**
+     * Sets the number of integrator steps (more precisely, step events)
+     * between snapshots.  Default is 1.
+     */
+    public void setInterval(int newInterval) {
+        if (newInterval < 1) throw new IllegalArgumentException("interval must be positive");
+        interval = newInterval;
+        intervalCount = 0;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Sets the minimum time between snapshots, in milliseconds.  When
+     * positive, a snapshot is taken only when both the step interval and
+     * this much time have passed, which bounds the cost of copying when
+     * steps are fast and readers only need frames at display rates.
+     * Default is 0.
+     */
+    public void setMinPeriod(long millis) {
+        minPeriodNanos = millis * 1000000L;
+    }
+
+    public long getMinPeriod() {
+        return minPeriodNanos / 1000000L;
+    }
+
+    public void integratorInitialized(IntegratorEvent e) {
+        publish(e.getIntegrator().getStepCount());
+    }
+
+    public void integratorStepStarted(IntegratorEvent e) {}
+
+    public void integratorStepFinished(IntegratorEvent e) {
+        if (++intervalCount < interval) return;
+        if (minPeriodNanos > 0) {
+            long now = System.nanoTime();
+            if (now - lastNanos < minPeriodNanos) return;
+            lastNanos = now;
+        }
+        intervalCount = 0;
+        publish(e.getIntegrator().getStepCount());
+    }
+
+    /**
+     * Copies the current positions into a free buffer and publishes it.
+     * This must be called from the thread that moves the atoms (it is
+     * called by the integrator events).  Returns false if no buffer was
+     * free.
+     */
+    public boolean publish(long stepCount) {
+        Snapshot current = latest;
+        for (Snapshot s : ring) {
+            if (s != current && s.holders.compareAndSet(0, Snapshot.WRITING)) {
+                s.copyFrom(box, stepCount, ++count);
+                s.holders.set(0);
+                latest = s;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the most recent snapshot, which the caller must release when
+     * finished, or null if none has been taken yet.
+     */
+    public Snapshot acquire() {
+        while (true) {
+            Snapshot s = latest;
+            if (s == null) return null;
+            int h = s.holders.get();
+            // if the buffer is being overwritten, latest has moved on
+            if (h != Snapshot.WRITING && s.holders.compareAndSet(h, h + 1)) {
+                return s;
+            }
+        }
+    }
+
+    /**
+     * Returns the sequence number of the latest snapshot (0 if none), so
+     * that readers can cheaply check whether there is anything new.
+     */
+    public long getLatestSequence() {
+        Snapshot s = latest;
+        return s == null ? 0 : s.sequence;
+    }
+
+    /**
+     * A copy of the positions of all leaf atoms in the box, packed so that
+     * coordinate d of atom i is at i*D+d.
+     */
+    public static class Snapshot {
+        static final int WRITING = -1;
+
+        protected final int D;
+        protected final AtomicInteger holders = new AtomicInteger();
+        protected double[] positions;
+        protected final double[] boxSize;
+        protected int atomCount;
+        protected long stepCount, sequence;
+
+        protected Snapshot(int D) {
+            this.D = D;
+            positions = new double[0];
+            boxSize = new double[D];
+        }
+
+        protected void copyFrom(Box box, long newStepCount, long newSequence) {
+            IAtomList leafList = box.getLeafList();
+            atomCount = leafList.size();
+            if (positions.length != atomCount * D) {
+                positions = new double[atomCount * D];
+            }
+            for (int i = 0; i < atomCount; i++) {
+                Vector p = leafList.get(i).getPosition();
+                for (int d = 0; d < D; d++) {
+                    positions[i * D + d] = p.getX(d);
+                }
+            }
+            box.getBoundary().getBoxSize().assignTo(boxSize);
+            stepCount = newStepCount;
+            sequence = newSequence;
+        }
+
+        /**
+         * Returns the packed positions.  The array must not be modified.
+         */
+        public double[] getPositions() {
+            return positions;
+        }
+
+        public int getAtomCount() {
+            return atomCount;
+        }
+
+        public int getD() {
+            return D;
+        }
+
+        /**
+         * Returns the edge lengths of the box's boundary.  The array must not
+         * be modified.
+         */
+        public double[] getBoxSize() {
+            return boxSize;
+        }
+
+        /**
+         * Returns the integrator's step count when the snapshot was taken.
+         */
+        public long getStepCount() {
+            return stepCount;
+        }
+
+        /**
+         * Returns the number of this snapshot; snapshots from a publisher are
+         * numbered 1, 2, 3...
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Releases the snapshot, allowing its buffer to be reused.
+         */
+        public void release() {
+            holders.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.config;
+
+import etomica.atom.IAtomList;
+import etomica.box.Box;
+import etomica.space.Vector;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a trajectory from an XYZ file holding a sequence of frames, such as
+ * the file written by XYZWriter with append turned on.  Each frame is
+ * returned as a Configuration that assigns the frame's coordinates to the
+ * leaf atoms in a box.  Frames are read as the iteration proceeds, so the
+ * trajectory need not fit in memory.
+ */
+public class ConfigurationFileXYZTrajectory implements Iterable<Configuration> {
+
+    public ConfigurationFileXYZTrajectory(String aFileName) {
+        fileName = aFileName;
+    }
+
+    public Iterator<Configuration> iterator() {
+        BufferedReader bufReader;
+        try {
+            bufReader = new BufferedReader(new FileReader(fileName));
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot open " + fileName + ", caught IOException: " + e.getMessage());
+        }
+        return new FrameIterator(bufReader);
+    }
+
+    private class FrameIterator implements Iterator<Configuration> {
+        private final BufferedReader bufReader;
+        private String countLine;
+        private boolean done;
+
+        FrameIterator(BufferedReader bufReader) {
+            this.bufReader = bufReader;
+        }
+
+        public boolean hasNext() {
+            if (countLine != null) return true;
+            if (done) return false;
+            try {
+                // skip blank lines between frames
+                do {
+                    countLine = bufReader.readLine();
+                } while (countLine != null && countLine.trim().isEmpty());
+                if (countLine == null) {
+                    done = true;
+                    bufReader.close();
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Problem reading from " + fileName + ", caught IOException: " + e.getMessage());
+            }
+            return countLine != null;
+        }
+
+        public Configuration next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int nAtoms = Integer.parseInt(countLine.trim());
+            countLine = null;
+            double[][] x = new double[nAtoms][];
+            try {
+                // comment line
+                bufReader.readLine();
+                for (int i = 0; i < nAtoms; i++) {
+                    String line = bufReader.readLine();
+                    if (line == null) {
+                        throw new RuntimeException(fileName + " ended in the middle of a frame");
+                    }
+                    String[] coordStr = line.trim().split("[ \t]+");
+                    // the first column is the element symbol, if present
+                    int offset = coordStr.length > 3 ? 1 : 0;
+                    x[i] = new double[coordStr.length - offset];
+                    for (int j = 0; j < x[i].length; j++) {
+                        x[i][j] = Double.parseDouble(coordStr[j + offset]);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Problem reading from " + fileName + ", caught IOException: " + e.getMessage());
+            }
+            return new Frame(x);
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * One frame of the trajectory.
+     */
+    protected static class Frame implements Configuration {
+        protected final double[][] x;
+
+        public Frame(double[][] x) {
+            this.x = x;
+        }
+
+        public void initializeCoordinates(Box box) {
+            IAtomList leafList = box.getLeafList();
+            if (leafList.size() != x.length) {
+                throw new RuntimeException("frame has " + x.length + " atoms, but the box has " + leafList.size());
+            }
+            for (int iLeaf = 0; iLeaf < x.length; iLeaf++) {
+                Vector p = leafList.get(iLeaf).getPosition();
+                for (int i = 0; i < p.getD(); i++) {
+                    p.setX(i, x[iLeaf][i]);
+                }
+            }
+        }
+    }
+
+    protected final String fileName;
+}
@@ -161,6 +161,22 @@ public class MeterRDF implements IAction, IDataSource, DataSourceIndependent {
             }
         }
         final double[] y = data.getData();
+        long numAtomPairs = countAtomPairs();
+	    double norm = numAtomPairs * callCount / box.getBoundary().volume();
+	    double[] r = rData.getData();
+	    double dx2 = 0.5*(xMax - xDataSource.getXMin())/r.length;
+	    for(int i=0;i<r.length; i++) {
+	        double vShell = space.sphereVolume(r[i]+dx2)-space.sphereVolume(r[i]-dx2);
+	        y[i] = gSum[i] / (norm*vShell);
+	    }
+	    return data;
+	}
+
+    /**
+     * Returns the number of pairs of atoms in the box that contribute to the
+     * RDF (all pairs, or those matching the atom types).
+     */
+    protected long countAtomPairs() {
         long numAtomPairs = 0;
         if (type1 == null) {
             long numAtoms = box.getLeafList().size();
@@ -174,15 +190,8 @@ public class MeterRDF implements IAction, IDataSource, DataSourceIndependent {
                 numAtomPairs++;
             }
         }
-	    double norm = numAtomPairs * callCount / box.getBoundary().volume();
-	    double[] r = rData.getData();
-	    double dx2 = 0.5*(xMax - xDataSource.getXMin())/r.length;
-	    for(int i=0;i<r.length; i++) {
-	        double vShell = space.sphereVolume(r[i]+dx2)-space.sphereVolume(r[i]-dx2);
-	        y[i] = gSum[i] / (norm*vShell);
-	    }
-	    return data;
-	}
+        return numAtomPairs;
+    }
 
     public DataSourceUniform getXDataSource() {
         return xDataSource;
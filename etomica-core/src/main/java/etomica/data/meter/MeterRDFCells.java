@@ -0,0 +1,347 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.data.meter;
+
+import etomica.atom.AtomType;
+import etomica.atom.IAtom;
+import etomica.atom.IAtomList;
+import etomica.box.Box;
+import etomica.data.*;
+import etomica.data.types.DataDoubleArray;
+import etomica.data.types.DataDoubleArray.DataInfoDoubleArray;
+import etomica.data.types.DataFunction;
+import etomica.data.types.DataFunction.DataInfoFunction;
+import etomica.lattice.CellLattice;
+import etomica.nbr.cell.Cell;
+import etomica.nbr.cell.NeighborCellManager;
+import etomica.space.Boundary;
+import etomica.space.Space;
+import etomica.space.Vector;
+import etomica.units.dimensions.Null;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Meter for tabulation of the atomic radial distribution function (RDF) that
+ * only visits pairs of atoms in neighboring cells, with cells sized by the
+ * RDF range (xMax).  The meter maintains its own NeighborCellManager, so the
+ * cost of each sample scales as N rather than N^2 and does not depend on the
+ * PotentialMaster used by the simulation.  The cell manager listens to the
+ * box, so call dispose when the meter is no longer needed.
+ * <p>
+ * Cells are split into chunks, each of which is binned into its own histogram
+ * (in parallel by default) and then merged.  Histograms are kept for each
+ * pair of atom types, so the RDF for any pair of types is available (via
+ * makeTypePairRDF) from the same pass.
+ */
+public class MeterRDFCells extends MeterRDF {
+
+    protected NeighborCellManager cellManager;
+    protected Box cellManagerBox;
+    protected boolean isParallel;
+    protected int nTypes;
+    protected long[] gSumTypes;
+    protected long[][] chunkSums;
+    protected Vector[] chunkDr;
+
+    public MeterRDFCells(Space space) {
+        this(space, false);
+    }
+
+    public MeterRDFCells(Space space, boolean singleSample) {
+        super(space, singleSample);
+        isParallel = true;
+        gSumTypes = new long[0];
+        chunkSums = new long[0][];
+        chunkDr = new Vector[0];
+    }
+
+    /**
+     * Sets whether the cells are binned in parallel using the common
+     * fork-join pool.  Default is true.
+     */
+    public void setParallel(boolean newIsParallel) {
+        isParallel = newIsParallel;
+    }
+
+    public boolean isParallel() {
+        return isParallel;
+    }
+
+    /**
+     * Sets the box.  The cell manager for the previous box (which listens to
+     * that box and its boundary) is disposed.
+     */
+    public void setBox(Box box) {
+        if (box != cellManagerBox) {
+            dispose();
+        }
+        super.setBox(box);
+    }
+
+    /**
+     * Disposes the meter's cell manager, so that it stops listening to the
+     * box.  A new one is made if the meter is used again.
+     */
+    public void dispose() {
+        if (cellManager != null) {
+            cellManager.dispose();
+            cellManager = null;
+            cellManagerBox = null;
+        }
+    }
+
+    public void reset() {
+        super.reset();
+        if (cellManager != null) {
+            cellManager.setPotentialRange(xMax);
+        }
+    }
+
+    public void zeroData() {
+        super.zeroData();
+        Arrays.fill(gSumTypes, 0);
+    }
+
+    /**
+     * Takes the RDF for the current configuration of the given box.
+     */
+    public void actionPerformed() {
+        if (rData != xDataSource.getData() ||
+                data.getLength() != rData.getLength() ||
+                xDataSource.getXMax() != xMax) {
+            reset();
+        }
+        if (cellManager == null) {
+            cellManager = new NeighborCellManager(box, xMax);
+            cellManager.setSuppressBoxLengthWarning(true);
+            cellManager.setDoApplyPBC(true);
+            cellManagerBox = box;
+        }
+        cellManager.assignCellAll();
+
+        IAtomList leafList = box.getLeafList();
+        int maxType = 0;
+        for (int i = 0; i < leafList.size(); i++) {
+            maxType = Math.max(maxType, leafList.get(i).getType().getIndex());
+        }
+        ensureTypes(maxType + 1);
+
+        final int nBins = gSum.length;
+        final int histLength = nTypes * nTypes * nBins;
+        final double xMaxSquared = xMax * xMax;
+        final Boundary boundary = box.getBoundary();
+        CellLattice lattice = cellManager.getLattice();
+        final Object[] sites = lattice.sites();
+        final int[][] nbrCells = lattice.getUpNeighbors();
+
+        // a few chunks per worker lets the pool balance dense and sparse regions
+        final int nChunks = isParallel ? Math.max(1, Math.min(sites.length, 4 * ForkJoinPool.getCommonPoolParallelism())) : 1;
+        if (chunkSums.length < nChunks || (nChunks > 0 && chunkSums[0].length != histLength)) {
+            chunkSums = new long[nChunks][histLength];
+            chunkDr = new Vector[nChunks];
+            for (int i = 0; i < nChunks; i++) {
+                chunkDr[i] = space.makeVector();
+            }
+        }
+
+        IntStream range = IntStream.range(0, nChunks);
+        if (nChunks > 1) {
+            range = range.parallel();
+        }
+        range.forEach(iChunk -> {
+            long[] hist = chunkSums[iChunk];
+            Arrays.fill(hist, 0);
+            Vector drChunk = chunkDr[iChunk];
+            int start = (int) (((long) sites.length * iChunk) / nChunks);
+            int end = (int) (((long) sites.length * (iChunk + 1)) / nChunks);
+            for (int iCell = start; iCell < end; iCell++) {
+                IAtomList cellAtoms = ((Cell) sites[iCell]).occupants();
+                if (cellAtoms.isEmpty()) continue;
+                for (int i = 0; i < cellAtoms.size(); i++) {
+                    IAtom atom0 = cellAtoms.get(i);
+                    for (int j = i + 1; j < cellAtoms.size(); j++) {
+                        binPair(atom0, cellAtoms.get(j), drChunk, boundary, xMaxSquared, nBins, hist);
+                    }
+                }
+                for (int iNbr : nbrCells[iCell]) {
+                    IAtomList nbrAtoms = ((Cell) sites[iNbr]).occupants();
+                    for (int i = 0; i < cellAtoms.size(); i++) {
+                        IAtom atom0 = cellAtoms.get(i);
+                        for (int j = 0; j < nbrAtoms.size(); j++) {
+                            binPair(atom0, nbrAtoms.get(j), drChunk, boundary, xMaxSquared, nBins, hist);
+                        }
+                    }
+                }
+            }
+        });
+
+        // merge the chunks into the first one
+        long[] sampleSum = chunkSums[0];
+        for (int iChunk = 1; iChunk < nChunks; iChunk++) {
+            long[] hist = chunkSums[iChunk];
+            for (int i = 0; i < histLength; i++) {
+                sampleSum[i] += hist[i];
+            }
+        }
+        for (int i = 0; i < histLength; i++) {
+            gSumTypes[i] += sampleSum[i];
+        }
+        for (int t0 = 0; t0 < nTypes; t0++) {
+            for (int t1 = t0; t1 < nTypes; t1++) {
+                if (type1 != null && !isSelectedPair(t0, t1)) continue;
+                int offset = (t0 * nTypes + t1) * nBins;
+                for (int i = 0; i < nBins; i++) {
+                    gSum[i] += sampleSum[offset + i];
+                }
+            }
+        }
+        callCount++;
+    }
+
+    protected boolean isSelectedPair(int t0, int t1) {
+        int i1 = type1.getIndex(), i2 = type2.getIndex();
+        return (t0 == i1 && t1 == i2) || (t0 == i2 && t1 == i1);
+    }
+
+    protected final void binPair(IAtom atom0, IAtom atom1, Vector drPair, Boundary boundary, double xMaxSquared, int nBins, long[] hist) {
+        drPair.Ev1Mv2(atom1.getPosition(), atom0.getPosition());
+        boundary.nearestImage(drPair);
+        double r2 = drPair.squared();
+        if (r2 >= xMaxSquared) return;
+        int t0 = atom0.getType().getIndex();
+        int t1 = atom1.getType().getIndex();
+        if (t0 > t1) {
+            int t = t0;
+            t0 = t1;
+            t1 = t;
+        }
+        hist[(t0 * nTypes + t1) * nBins + xDataSource.getIndex(Math.sqrt(r2))]++;
+    }
+
+    /**
+     * Resizes the per-type-pair sums to handle the given number of atom
+     * types, keeping the sums collected so far.
+     */
+    protected void ensureTypes(int newNTypes) {
+        int nBins = gSum.length;
+        if (newNTypes <= nTypes && gSumTypes.length == nTypes * nTypes * nBins) return;
+        newNTypes = Math.max(newNTypes, nTypes);
+        long[] newSums = new long[newNTypes * newNTypes * nBins];
+        if (gSumTypes.length == nTypes * nTypes * nBins) {
+            for (int t0 = 0; t0 < nTypes; t0++) {
+                for (int t1 = 0; t1 < nTypes; t1++) {
+                    System.arraycopy(gSumTypes, (t0 * nTypes + t1) * nBins, newSums, (t0 * newNTypes + t1) * nBins, nBins);
+                }
+            }
+        }
+        nTypes = newNTypes;
+        gSumTypes = newSums;
+    }
+
+    protected long countAtomPairs() {
+        long numAtoms = box.getLeafList().size();
+        if (type1 == null) {
+            return numAtoms * (numAtoms - 1) / 2;
+        }
+        return countTypePairs(type1, type2);
+    }
+
+    /**
+     * Returns the number of (unordered) pairs of atoms with the given types.
+     */
+    protected long countTypePairs(AtomType t0, AtomType t1) {
+        IAtomList leafList = box.getLeafList();
+        long n0 = 0, n1 = 0;
+        for (int i = 0; i < leafList.size(); i++) {
+            AtomType t = leafList.get(i).getType();
+            if (t == t0) n0++;
+            if (t == t1) n1++;
+        }
+        return t0 == t1 ? n0 * (n0 - 1) / 2 : n0 * n1;
+    }
+
+    /**
+     * Returns a data source for the RDF between atoms of the given types,
+     * taken from the same samples as this meter.  The returned source does
+     * not take samples on its own.
+     */
+    public TypePairRDF makeTypePairRDF(AtomType t0, AtomType t1) {
+        return new TypePairRDF(t0, t1);
+    }
+
+    public class TypePairRDF implements IDataSource, DataSourceIndependent {
+        protected final AtomType t0, t1;
+        protected final DataTag pairTag;
+        protected DataFunction pairData;
+        protected IDataInfo pairDataInfo;
+
+        public TypePairRDF(AtomType t0, AtomType t1) {
+            this.t0 = t0;
+            this.t1 = t1;
+            pairTag = new DataTag();
+            makeData();
+        }
+
+        protected void makeData() {
+            pairData = new DataFunction(new int[]{rData.getLength()});
+            pairDataInfo = new DataInfoFunction("g(r)", Null.DIMENSION, this);
+            pairDataInfo.addTag(pairTag);
+        }
+
+        public IData getData() {
+            if (pairData.getLength() != rData.getLength()) {
+                makeData();
+            }
+            double[] y = pairData.getData();
+            int i0 = t0.getIndex(), i1 = t1.getIndex();
+            if (i0 > i1) {
+                int t = i0;
+                i0 = i1;
+                i1 = t;
+            }
+            int nBins = gSum.length;
+            if (i1 >= nTypes || callCount == 0 || gSumTypes.length != nTypes * nTypes * nBins) {
+                Arrays.fill(y, 0);
+                return pairData;
+            }
+            double norm = countTypePairs(t0, t1) * callCount / box.getBoundary().volume();
+            double[] r = rData.getData();
+            double dx2 = 0.5 * (xMax - xDataSource.getXMin()) / r.length;
+            int offset = (i0 * nTypes + i1) * nBins;
+            for (int i = 0; i < r.length; i++) {
+                double vShell = space.sphereVolume(r[i] + dx2) - space.sphereVolume(r[i] - dx2);
+                y[i] = gSumTypes[offset + i] / (norm * vShell);
+            }
+            return pairData;
+        }
+
+        public IDataInfo getDataInfo() {
+            return pairDataInfo;
+        }
+
+        public DataTag getTag() {
+            return pairTag;
+        }
+
+        public DataDoubleArray getIndependentData(int i) {
+            return (DataDoubleArray) xDataSource.getData();
+        }
+
+        public DataInfoDoubleArray getIndependentDataInfo(int i) {
+            return (DataInfoDoubleArray) xDataSource.getDataInfo();
+        }
+
+        public DataTag getIndependentTag() {
+            return xDataSource.getTag();
+        }
+
+        public int getIndependentArrayDimension() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,411 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.data.meter;
+
+import etomica.atom.AtomType;
+import etomica.atom.IAtom;
+import etomica.atom.IAtomList;
+import etomica.box.Box;
+import etomica.data.DataSourceIndependent;
+import etomica.data.DataTag;
+import etomica.data.IData;
+import etomica.data.IDataInfo;
+import etomica.data.IDataSource;
+import etomica.data.types.DataDoubleArray;
+import etomica.data.types.DataDoubleArray.DataInfoDoubleArray;
+import etomica.data.types.DataFunction;
+import etomica.data.types.DataFunction.DataInfoFunction;
+import etomica.lattice.crystal.PrimitiveGeneral;
+import etomica.math.numerical.FastFourierTransform;
+import etomica.space.Space;
+import etomica.space.Vector;
+import etomica.units.dimensions.Null;
+
+import java.util.Arrays;
+
+/**
+ * Meter for the spherically-averaged structure factor of atoms for all wave
+ * vectors less than a cutoff, computed by spreading the (weighted) atom
+ * density onto a mesh and taking its FFT.  The cost is O(N + M log M) for a
+ * mesh of M points, rather than the O(N Nk) of MeterStructureFactor, so it is
+ * suitable for large systems and small wave vectors.
+ * <p>
+ * Atoms are assigned to the mesh with cloud-in-cell weights, and the
+ * assignment window is divided out of the result.  The mesh spacing is
+ * chosen so that the cutoff is below the Nyquist limit divided by the
+ * oversampling factor; aliasing errors are largest near the cutoff and
+ * decrease with oversampling.  Normalization matches MeterStructureFactor
+ * (|sum_j f_j exp(-i k.r_j)|^2/N^2), averaged over wave vectors within each
+ * shell of |k|.
+ * <p>
+ * The shells depend on the box shape.  If a change of the box changes the
+ * number of shells, the meter's Data and DataInfo are replaced, so that a
+ * DataPump passes the new DataInfo to its sinks; otherwise only the shell
+ * positions (the independent data) are updated.
+ */
+public class MeterStructureFactorFFT implements IDataSource, DataSourceIndependent {
+
+    protected final Space space;
+    protected Box box;
+    protected IAtomList atomList;
+    protected double cutoff;
+    protected double binWidth;
+    protected double oversample;
+    protected boolean isParallel;
+    protected double[] atomTypeSignal;
+    protected final DataTag tag, xTag;
+    protected DataFunction data;
+    protected DataInfoFunction dataInfo;
+    protected DataDoubleArray xData;
+    protected DataInfoDoubleArray xDataInfo;
+
+    // mesh layout, valid for boxEdges
+    protected double[] boxEdges;
+    protected Vector[] recip;
+    protected final int[] meshSize;
+    protected double[] mesh, meshReal, meshImaginary;
+    protected int[] vecMeshIndex, vecShell;
+    protected double[] vecDeconvolution;
+    protected double[] shellSum;
+    protected int[] shellCount;
+
+    /**
+     * Creates meter with default to compute the structure factor for all atoms
+     * in the box.  All wave vectors consistent with the box shape and with
+     * magnitude less than cutoff are included.
+     */
+    public MeterStructureFactorFFT(Space space, Box box, double cutoff) {
+        this.space = space;
+        this.box = box;
+        atomList = box.getLeafList();
+        tag = new DataTag();
+        xTag = new DataTag();
+        atomTypeSignal = new double[0];
+        meshSize = new int[3];
+        oversample = 2;
+        isParallel = true;
+        setCutoff(cutoff);
+    }
+
+    /**
+     * Sets the wave vector cutoff.  All wave vectors consistent with the box
+     * shape that have a magnitude less than the cutoff will be computed.
+     */
+    public void setCutoff(double newCutoff) {
+        cutoff = newCutoff;
+        boxEdges = null;
+        checkMesh();
+    }
+
+    public double getCutoff() {
+        return cutoff;
+    }
+
+    /**
+     * Sets the width of the |k| shells used for the spherical average.  If
+     * 0 (the default), the length of the shortest reciprocal lattice vector
+     * of the box is used.
+     */
+    public void setBinWidth(double newBinWidth) {
+        binWidth = newBinWidth;
+        boxEdges = null;
+        checkMesh();
+    }
+
+    public double getBinWidth() {
+        return binWidth;
+    }
+
+    /**
+     * Sets the factor by which the mesh resolution exceeds the minimum
+     * needed to reach the cutoff.  Default is 2, which puts the cutoff at no
+     * more than half of the Nyquist limit; smaller values (down to 1) give
+     * noticeable aliasing errors near the cutoff, while larger values reduce
+     * them further at the cost of a bigger mesh.
+     */
+    public void setOversample(double newOversample) {
+        if (newOversample < 1) {
+            throw new IllegalArgumentException("oversample must be at least 1");
+        }
+        oversample = newOversample;
+        boxEdges = null;
+        checkMesh();
+    }
+
+    public double getOversample() {
+        return oversample;
+    }
+
+    /**
+     * Sets whether the FFT is performed using the common fork-join pool.
+     * Default is true.
+     */
+    public void setParallel(boolean newIsParallel) {
+        isParallel = newIsParallel;
+    }
+
+    public boolean isParallel() {
+        return isParallel;
+    }
+
+    /**
+     * @param atomList Sets the list of atoms for factor calculation.
+     */
+    public void setAtoms(IAtomList atomList) {
+        this.atomList = atomList;
+    }
+
+    /**
+     * Sets the given atom type to have the given form factor
+     * https://en.wikipedia.org/wiki/Structure_factor
+     */
+    public void setAtomTypeFactor(AtomType atomType, double factor) {
+        int idx = atomType.getIndex();
+        if (idx >= atomTypeSignal.length) {
+            int oldLength = atomTypeSignal.length;
+            atomTypeSignal = Arrays.copyOf(atomTypeSignal, atomType.getIndex() + 1);
+            for (int i = oldLength; i < idx; i++) atomTypeSignal[i] = 1;
+        }
+        atomTypeSignal[idx] = factor;
+    }
+
+    /**
+     * Returns the size of the mesh along each of the 3 dimensions (lower
+     * dimensional boxes use a size of 1 for the leading dimensions).
+     */
+    public int[] getMeshSize() {
+        checkMesh();
+        return meshSize.clone();
+    }
+
+    /**
+     * Rebuilds the mesh and the wave vector tables if the box shape has
+     * changed.
+     */
+    protected void checkMesh() {
+        int D = space.D();
+        double[] edges = new double[D * D];
+        for (int i = 0; i < D; i++) {
+            Vector e = box.getBoundary().getEdgeVector(i);
+            for (int j = 0; j < D; j++) {
+                edges[i * D + j] = e.getX(j);
+            }
+        }
+        if (Arrays.equals(edges, boxEdges)) return;
+        boxEdges = edges;
+
+        Vector[] edgeVectors = new Vector[D];
+        for (int i = 0; i < D; i++) {
+            edgeVectors[i] = box.getBoundary().getEdgeVector(i);
+        }
+        recip = new PrimitiveGeneral(space, edgeVectors).makeReciprocal().vectors();
+
+        // box dimension i maps onto mesh dimension 3-D+i, so the last box
+        // dimension lies along the mesh dimension that is stored contiguously
+        Arrays.fill(meshSize, 1);
+        int[] mMax = new int[D];
+        for (int i = 0; i < D; i++) {
+            // k.a_i = 2 pi m_i, so |m_i| <= cutoff |a_i| / (2 pi)
+            mMax[i] = (int) (cutoff * Math.sqrt(edgeVectors[i].squared()) / (2 * Math.PI));
+            int n = 2;
+            while (n < 2 * Math.ceil(oversample * (mMax[i] + 1))) {
+                n *= 2;
+            }
+            meshSize[3 - D + i] = n;
+        }
+        int nx = meshSize[0], ny = meshSize[1], nz = meshSize[2];
+        int nzOut = nz / 2 + 1;
+        mesh = new double[nx * ny * nz];
+        meshReal = new double[nx * ny * nzOut];
+        meshImaginary = new double[nx * ny * nzOut];
+
+        double dk = binWidth;
+        if (dk <= 0) {
+            dk = Double.POSITIVE_INFINITY;
+            for (Vector b : recip) {
+                dk = Math.min(dk, Math.sqrt(b.squared()));
+            }
+        }
+        int nShells = (int) (cutoff / dk) + 1;
+        double[] kSum = new double[nShells];
+        int[] count = new int[nShells];
+
+        // enumerate the half of the wave vectors with m_last > 0 or with
+        // m_last = 0 and the leading non-zero index positive; S(-k) = S(k)
+        int nVec = 0;
+        int[] meshIdx = new int[0];
+        int[] shell = new int[0];
+        double[] deconvolution = new double[0];
+        int[] m = new int[D];
+        Vector k = space.makeVector();
+        for (int i = 0; i < D - 1; i++) {
+            m[i] = -mMax[i];
+        }
+        double cutoff2 = cutoff * cutoff;
+        while (true) {
+            if (isHalfSpace(m)) {
+                k.E(0);
+                for (int i = 0; i < D; i++) {
+                    k.PEa1Tv1(m[i], recip[i]);
+                }
+                double k2 = k.squared();
+                if (k2 <= cutoff2) {
+                    if (nVec == meshIdx.length) {
+                        int newLength = Math.max(16, 2 * nVec);
+                        meshIdx = Arrays.copyOf(meshIdx, newLength);
+                        shell = Arrays.copyOf(shell, newLength);
+                        deconvolution = Arrays.copyOf(deconvolution, newLength);
+                    }
+                    int idx = 0;
+                    double w = 1;
+                    for (int i = 0; i < D; i++) {
+                        int n = meshSize[3 - D + i];
+                        int wrapped = i == D - 1 ? m[i] : (m[i] + n) % n;
+                        idx = idx * (i == D - 1 ? nzOut : n) + wrapped;
+                        // cloud-in-cell assignment window: sinc^2 along each axis
+                        double x = Math.PI * m[i] / n;
+                        double sinc = m[i] == 0 ? 1 : Math.sin(x) / x;
+                        w *= sinc * sinc;
+                    }
+                    double kMag = Math.sqrt(k2);
+                    int iShell = Math.min((int) (kMag / dk), nShells - 1);
+                    meshIdx[nVec] = idx;
+                    shell[nVec] = iShell;
+                    deconvolution[nVec] = 1 / (w * w);
+                    kSum[iShell] += kMag;
+                    count[iShell]++;
+                    nVec++;
+                }
+            }
+            int i = D - 1;
+            for (; i >= 0; i--) {
+                m[i]++;
+                if (m[i] <= mMax[i]) break;
+                m[i] = i == D - 1 ? 0 : -mMax[i];
+            }
+            if (i < 0) break;
+        }
+
+        // drop empty shells
+        int[] shellMap = new int[nShells];
+        int nNonEmpty = 0;
+        for (int i = 0; i < nShells; i++) {
+            shellMap[i] = nNonEmpty;
+            if (count[i] > 0) nNonEmpty++;
+        }
+        vecMeshIndex = Arrays.copyOf(meshIdx, nVec);
+        vecShell = new int[nVec];
+        vecDeconvolution = Arrays.copyOf(deconvolution, nVec);
+        for (int i = 0; i < nVec; i++) {
+            vecShell[i] = shellMap[shell[i]];
+        }
+        shellSum = new double[nNonEmpty];
+        shellCount = new int[nNonEmpty];
+        if (data == null || data.getLength() != nNonEmpty) {
+            // new DataInfo, which a DataPump will notice and pass along
+            xData = new DataDoubleArray(nNonEmpty);
+            xDataInfo = new DataInfoDoubleArray("q", Null.DIMENSION, new int[]{nNonEmpty});
+            xDataInfo.addTag(xTag);
+            data = new DataFunction(new int[]{nNonEmpty});
+            dataInfo = new DataInfoFunction("Structure Factor", Null.DIMENSION, this);
+            dataInfo.addTag(tag);
+        }
+        double[] x = xData.getData();
+        for (int i = 0; i < nShells; i++) {
+            if (count[i] == 0) continue;
+            shellCount[shellMap[i]] = count[i];
+            x[shellMap[i]] = kSum[i] / count[i];
+        }
+    }
+
+    /**
+     * Returns true if the wave vector with the given indices is in the half
+     * of k-space that is tabulated (excluding k=0).
+     */
+    protected static boolean isHalfSpace(int[] m) {
+        if (m[m.length - 1] > 0) return true;
+        for (int i = 0; i < m.length - 1; i++) {
+            if (m[i] != 0) return m[i] > 0;
+        }
+        return false;
+    }
+
+    public IData getData() {
+        checkMesh();
+        int D = space.D();
+        Arrays.fill(mesh, 0);
+        int nx = meshSize[0], ny = meshSize[1], nz = meshSize[2];
+        int[] i0 = new int[3];
+        double[] f = new double[3];
+        int numAtoms = atomList.size();
+        for (int iAtom = 0; iAtom < numAtoms; iAtom++) {
+            IAtom atom = atomList.get(iAtom);
+            int typeIdx = atom.getType().getIndex();
+            double signal = atomTypeSignal.length > typeIdx ? atomTypeSignal[typeIdx] : 1.0;
+            Vector r = atom.getPosition();
+            for (int i = 0; i < D; i++) {
+                // fractional coordinate along a_i, in mesh units
+                int n = meshSize[3 - D + i];
+                double u = recip[i].dot(r) / (2 * Math.PI) * n;
+                double fl = Math.floor(u);
+                f[3 - D + i] = u - fl;
+                i0[3 - D + i] = ((int) fl % n + n) % n;
+            }
+            for (int dx = 0; dx < (nx > 1 ? 2 : 1); dx++) {
+                int ix = (i0[0] + dx) % nx;
+                double wx = nx > 1 ? (dx == 0 ? 1 - f[0] : f[0]) : 1;
+                for (int dy = 0; dy < (ny > 1 ? 2 : 1); dy++) {
+                    int iy = (i0[1] + dy) % ny;
+                    double wxy = wx * (ny > 1 ? (dy == 0 ? 1 - f[1] : f[1]) : 1);
+                    int offset = (ix * ny + iy) * nz;
+                    mesh[offset + i0[2]] += signal * wxy * (1 - f[2]);
+                    mesh[offset + (i0[2] + 1) % nz] += signal * wxy * f[2];
+                }
+            }
+        }
+
+        FastFourierTransform.transformReal3D(mesh, nx, ny, nz, meshReal, meshImaginary, isParallel);
+
+        Arrays.fill(shellSum, 0);
+        for (int i = 0; i < vecMeshIndex.length; i++) {
+            int idx = vecMeshIndex[i];
+            double re = meshReal[idx], im = meshImaginary[idx];
+            shellSum[vecShell[i]] += (re * re + im * im) * vecDeconvolution[i];
+        }
+        double n2 = (double) numAtoms * numAtoms;
+        double[] y = data.getData();
+        for (int i = 0; i < y.length; i++) {
+            y[i] = shellSum[i] / (shellCount[i] * n2);
+        }
+        return data;
+    }
+
+    public DataTag getTag() {
+        return tag;
+    }
+
+    public IDataInfo getDataInfo() {
+        checkMesh();
+        return dataInfo;
+    }
+
+    public DataDoubleArray getIndependentData(int i) {
+        checkMesh();
+        return xData;
+    }
+
+    public DataInfoDoubleArray getIndependentDataInfo(int i) {
+        checkMesh();
+        return xDataInfo;
+    }
+
+    public int getIndependentArrayDimension() {
+        return 1;
+    }
+
+    public DataTag getIndependentTag() {
+        return xTag;
+    }
+}
@@ -56,6 +56,11 @@ public class DisplayBoxCanvasG3DSys extends DisplayCanvas implements
     private Vector work, work2, work3;
     private double[] planeAngles;
     private java.util.ArrayList<Object[]> pendingBonds = new java.util.ArrayList<Object[]>();
+    protected BallBatch ballBatch;
+    protected int batchThreshold = 10000;
+    protected boolean batchMode;
+    private Color lastColor;
+    private short lastColix;
 
     public DisplayBoxCanvasG3DSys(Simulation sim, DisplayBox _box, Space _space, Controller controller) {
         super(controller);
@@ -98,12 +103,36 @@ public class DisplayBoxCanvasG3DSys extends DisplayCanvas implements
         work3 = space.makeVector();
 
         pixel = new Pixel();
+        ballBatch = new BallBatch(gsys);
 	}
 
 	public G3DSys getG3DSys() {
 	    return gsys;
 	}
 
+    /**
+     * Sets the number of atoms at and above which the atoms are drawn as a
+     * single BallBatch figure (packed buffers, culling and level of detail)
+     * instead of a Ball figure per atom.  The batch is only used if no bonds
+     * or oriented sites are drawn.  Use Integer.MAX_VALUE to always draw a
+     * Ball per atom.
+     */
+    public void setBatchThreshold(int newBatchThreshold) {
+        batchThreshold = newBatchThreshold;
+    }
+
+    public int getBatchThreshold() {
+        return batchThreshold;
+    }
+
+    /**
+     * Returns the figure used to draw the atoms when there are at least
+     * batchThreshold of them; its level of detail can be adjusted.
+     */
+    public BallBatch getBallBatch() {
+        return ballBatch;
+    }
+
 	/**
 	 * Sets the display bounding box.  Atoms outside the box are not draw.  The
 	 * boundary lines are snapped inside the bounding box if they are outside.
@@ -271,99 +300,15 @@ public class DisplayBoxCanvasG3DSys extends DisplayCanvas implements
 		DiameterHash diameterHash = displayBox.getDiameterHash();
 
 		IAtomList leafList = displayBox.getBox().getLeafList();
-		int nLeaf = leafList.size();
-
-		for (int iLeaf = 0; iLeaf < nLeaf; iLeaf++) {
-		    IAtom a = null;
-		    Ball ball = null;
-		    try {
-		        a = leafList.get(iLeaf);
-	            if (a == null)
-	                continue;
-	            ball = (Ball) aam.getAgent(a);
-		    }
-		    catch (ArrayIndexOutOfBoundsException e) {
-		        System.out.println("oops, array index out of bounds");
-		        //atoms might have been removed on another thread
-		        break;
-		    }
-            catch (IndexOutOfBoundsException e) {
-                System.out.println("oops, index out of bounds");
-                //atoms might have been removed on another thread
-                break;
-            }
-			if (ball == null) {
-				continue;
-			}
-			/*
-			 * Atomfilter changes the drawable flag in spheres; bonds respect
-			 * this and will not draw themselves either. Wireframe mode, on the
-			 * other hand, tells G3DSys to ignore spheres entirely regardless of
-			 * drawable flag. This makes it possible to filter bonds in
-			 * wireframe mode as well.
-			 */
-			boolean drawable = atomTest == null || atomTest.test(a);
-            if (drawable && rMin != null) {
-			    for (int i=0; i<rMin.getD(); i++) {
-			        double x = a.getPosition().getX(i);
-			        if (x < rMin.getX(i) || x > rMax.getX(i)) {
-			            drawable = false;
-			            break;
-			        }
-			    }
-			}
-			ball.setDrawable(drawable);
-			if (drawable) {
-				a.getPosition().assignTo(coords);
-				float diameter = (float) diameterHash.getDiameter(a);
-				// default diameter
-				if (diameter == -1) diameter = 1;
-				ball.setColor(G3DSys.getColix(colorScheme.getAtomColor(a)));
-				ball.setD(diameter);
-				ball.setX((float) coords[0]);
-				ball.setY((float) coords[1]);
-				ball.setZ((float) coords[2]);
-			}
-
-			OrientedSite[] sites = atomTypeOrientedManager.get(a.getType());
-			if (sites != null) {
-			    Ball[] ballSites = aamOriented.getAgent(a);
-			    if (ballSites == null) {
-					if (!drawable) continue;
-					ballSites = new Ball[sites.length];
-		            for (int j=0; j<sites.length; j++) {
-		                ballSites[j] = new Ball(gsys, G3DSys.getColix(sites[j].color), 0, 0, 0, (float)sites[j].diameter);
-		                gsys.addFig(ballSites[j]);
-		            }
-		            aamOriented.setAgent(a, ballSites);
-			    } else {
-					for (int i = 0; i < ballSites.length; i++) {
-						ballSites[i].setDrawable(drawable);
-					}
-					if (!drawable) continue;
-				}
-				IOrientation orientation = ((IAtomOriented)a).getOrientation();
-			    Vector direction1 = orientation.getDirection();
-			    Vector direction2 = null;
-			    if (orientation instanceof IOrientationFull3D) {
-			        direction2 = ((IOrientationFull3D)orientation).getSecondaryDirection();
-	                work2.E(direction1);
-	                work2.XE(direction2);
-			    }
-
-			    for (int j=0; j<sites.length; j++) {
-			        work.E(a.getPosition());
-			        work.PEa1Tv1(sites[j].coord, direction1);
-			        if (sites[j] instanceof OrientedFullSite) {
-			            work.PEa1Tv1(((OrientedFullSite)sites[j]).coord2, direction2);
-			            work.PEa1Tv1(((OrientedFullSite)sites[j]).coord3, work2);
-			        }
-			        work.assignTo(coords);
-			        ballSites[j].setX((float) coords[0]);
-			        ballSites[j].setY((float) coords[1]);
-			        ballSites[j].setZ((float) coords[2]);
-			    }
-			}
+		boolean useBatch = leafList.size() >= batchThreshold && pendingBonds.isEmpty()
+				&& atomTypeOrientedManager.isEmpty();
+		if (useBatch != batchMode) {
+			setBatchMode(useBatch);
+		}
+		if (batchMode) {
+			updateBallBatch(leafList, atomTest, colorScheme, diameterHash);
+		} else {
+			updateBalls(leafList, atomTest, colorScheme, diameterHash);
 		}
 
         for (int i=0; i<lines.length; i++) {
@@ -475,6 +420,176 @@ public class DisplayBoxCanvasG3DSys extends DisplayCanvas implements
 		gsys.fastRefresh();
 	}
 
+	/**
+	 * Updates the Ball figure for each atom.
+	 */
+	protected void updateBalls(IAtomList leafList, AtomTest atomTest, ColorScheme colorScheme, DiameterHash diameterHash) {
+		int nLeaf = leafList.size();
+
+		for (int iLeaf = 0; iLeaf < nLeaf; iLeaf++) {
+		    IAtom a = null;
+		    Ball ball = null;
+		    try {
+		        a = leafList.get(iLeaf);
+	            if (a == null)
+	                continue;
+	            ball = (Ball) aam.getAgent(a);
+		    }
+		    catch (ArrayIndexOutOfBoundsException e) {
+		        System.out.println("oops, array index out of bounds");
+		        //atoms might have been removed on another thread
+		        break;
+		    }
+            catch (IndexOutOfBoundsException e) {
+                System.out.println("oops, index out of bounds");
+                //atoms might have been removed on another thread
+                break;
+            }
+			if (ball == null) {
+				continue;
+			}
+			/*
+			 * Atomfilter changes the drawable flag in spheres; bonds respect
+			 * this and will not draw themselves either. Wireframe mode, on the
+			 * other hand, tells G3DSys to ignore spheres entirely regardless of
+			 * drawable flag. This makes it possible to filter bonds in
+			 * wireframe mode as well.
+			 */
+			boolean drawable = atomTest == null || atomTest.test(a);
+            if (drawable && rMin != null) {
+			    for (int i=0; i<rMin.getD(); i++) {
+			        double x = a.getPosition().getX(i);
+			        if (x < rMin.getX(i) || x > rMax.getX(i)) {
+			            drawable = false;
+			            break;
+			        }
+			    }
+			}
+			ball.setDrawable(drawable);
+			if (drawable) {
+				a.getPosition().assignTo(coords);
+				float diameter = (float) diameterHash.getDiameter(a);
+				// default diameter
+				if (diameter == -1) diameter = 1;
+				ball.setColor(G3DSys.getColix(colorScheme.getAtomColor(a)));
+				ball.setD(diameter);
+				ball.setX((float) coords[0]);
+				ball.setY((float) coords[1]);
+				ball.setZ((float) coords[2]);
+			}
+
+			OrientedSite[] sites = atomTypeOrientedManager.get(a.getType());
+			if (sites != null) {
+			    Ball[] ballSites = aamOriented.getAgent(a);
+			    if (ballSites == null) {
+					if (!drawable) continue;
+					ballSites = new Ball[sites.length];
+		            for (int j=0; j<sites.length; j++) {
+		                ballSites[j] = new Ball(gsys, G3DSys.getColix(sites[j].color), 0, 0, 0, (float)sites[j].diameter);
+		                gsys.addFig(ballSites[j]);
+		            }
+		            aamOriented.setAgent(a, ballSites);
+			    } else {
+					for (int i = 0; i < ballSites.length; i++) {
+						ballSites[i].setDrawable(drawable);
+					}
+					if (!drawable) continue;
+				}
+				IOrientation orientation = ((IAtomOriented)a).getOrientation();
+			    Vector direction1 = orientation.getDirection();
+			    Vector direction2 = null;
+			    if (orientation instanceof IOrientationFull3D) {
+			        direction2 = ((IOrientationFull3D)orientation).getSecondaryDirection();
+	                work2.E(direction1);
+	                work2.XE(direction2);
+			    }
+
+			    for (int j=0; j<sites.length; j++) {
+			        work.E(a.getPosition());
+			        work.PEa1Tv1(sites[j].coord, direction1);
+			        if (sites[j] instanceof OrientedFullSite) {
+			            work.PEa1Tv1(((OrientedFullSite)sites[j]).coord2, direction2);
+			            work.PEa1Tv1(((OrientedFullSite)sites[j]).coord3, work2);
+			        }
+			        work.assignTo(coords);
+			        ballSites[j].setX((float) coords[0]);
+			        ballSites[j].setY((float) coords[1]);
+			        ballSites[j].setZ((float) coords[2]);
+			    }
+			}
+		}
+	}
+
+	/**
+	 * Switches between drawing the atoms with a Ball figure per atom and
+	 * drawing them with the BallBatch figure.
+	 */
+	protected void setBatchMode(boolean newBatchMode) {
+		batchMode = newBatchMode;
+		if (batchMode) {
+			// the balls are still there (bonds might be added later), but aren't drawn
+			IAtomList leafList = displayBox.getBox().getLeafList();
+			for (int iLeaf = 0; iLeaf < leafList.size(); iLeaf++) {
+				Ball ball = aam.getAgent(leafList.get(iLeaf));
+				if (ball != null) {
+					ball.setDrawable(false);
+				}
+			}
+			gsys.addFig(ballBatch);
+		} else {
+			// updateBalls will make the balls drawable again
+			gsys.removeFig(ballBatch);
+		}
+	}
+
+	/**
+	 * Fills the next BallBatch frame with the atoms' positions, diameters and
+	 * colors.  This is called on the integrator's thread, so the work is kept
+	 * to copying values, and is skipped entirely if the display has not drawn
+	 * the previous frame yet.
+	 */
+	protected void updateBallBatch(IAtomList leafList, AtomTest atomTest, ColorScheme colorScheme, DiameterHash diameterHash) {
+		if (ballBatch.isFramePending()) {
+			return;
+		}
+		int nLeaf = leafList.size();
+		ballBatch.beginFrame(nLeaf);
+		try {
+			for (int iLeaf = 0; iLeaf < nLeaf; iLeaf++) {
+				IAtom a = leafList.get(iLeaf);
+				if (a == null || (atomTest != null && !atomTest.test(a))) {
+					continue;
+				}
+				Vector r = a.getPosition();
+				if (rMin != null) {
+					boolean inside = true;
+					for (int i = 0; i < rMin.getD(); i++) {
+						double x = r.getX(i);
+						if (x < rMin.getX(i) || x > rMax.getX(i)) {
+							inside = false;
+							break;
+						}
+					}
+					if (!inside) continue;
+				}
+				float diameter = (float) diameterHash.getDiameter(a);
+				// default diameter
+				if (diameter == -1) diameter = 1;
+				// color schemes generally return the same Color for many atoms
+				Color color = colorScheme.getAtomColor(a);
+				if (color != lastColor) {
+					lastColix = G3DSys.getColix(color);
+					lastColor = color;
+				}
+				ballBatch.add((float) r.getX(0), (float) r.getX(1), (float) r.getX(2), diameter, lastColix);
+			}
+		}
+		catch (IndexOutOfBoundsException e) {
+			//atoms might have been removed on another thread
+		}
+		ballBatch.endFrame();
+	}
+
     public void addLine(LineSegment newLine) {
         lines = (LineSegment[])Arrays.addObject(lines, newLine);
         Vector[] endpoints = newLine.getVertices();
@@ -739,7 +854,7 @@ public class DisplayBoxCanvasG3DSys extends DisplayCanvas implements
 		if (atomFilter instanceof AtomTestCollective) {
 			((AtomTestCollective) atomFilter).resetTest();
         }
-        boolean drawable = atomFilter == null || atomFilter.test(a);
+        boolean drawable = !batchMode && (atomFilter == null || atomFilter.test(a));
         if (drawable && rMin != null) {
             for (int i=0; i<rMin.getD(); i++) {
                 double x = a.getPosition().getX(i);
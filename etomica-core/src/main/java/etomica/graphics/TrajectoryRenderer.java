@@ -0,0 +1,356 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.graphics;
+
+import etomica.atom.DiameterHash;
+import etomica.atom.DiameterHashByElement;
+import etomica.atom.DiameterHashByElementType;
+import etomica.atom.IAtom;
+import etomica.atom.IAtomList;
+import etomica.box.Box;
+import etomica.config.Configuration;
+import etomica.math.geometry.LineSegment;
+import etomica.space.Vector;
+import g3dsys.control.G3DSys;
+import g3dsys.images.BallBatch;
+import g3dsys.images.Line;
+import org.jmol.g3d.Graphics3D;
+import org.jmol.util.Matrix3f;
+import org.jmol.util.Point3f;
+
+import javax.imageio.ImageIO;
+import javax.swing.JPanel;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Renders configurations of a box to images without a display, using the
+ * g3dsys rasterizer that DisplayBoxCanvasG3DSys uses.  Atoms are colored by a
+ * ColorScheme and sized by a DiameterHash, as in DisplayBox.
+ * <p>
+ * render(frames, filePrefix) writes a trajectory (a sequence of
+ * Configurations, such as ConfigurationFiles or a
+ * ConfigurationFileXYZTrajectory) to a numbered sequence of PNG files.  Each
+ * configuration is applied to the box and the atoms are copied on the calling
+ * thread; drawing and PNG encoding, which take most of the time, are done by
+ * a pool of worker threads, each with its own rasterizer.
+ * <p>
+ * Only 3D boxes are supported.
+ */
+public class TrajectoryRenderer {
+
+    protected final Box box;
+    protected final int width, height;
+    protected ColorScheme colorScheme;
+    protected DiameterHash diameterHash;
+    protected Color backgroundColor = Color.BLACK;
+    protected Color boundaryColor = Color.WHITE;
+    protected boolean showBoundary = true;
+    protected float rotateX, rotateY, rotateZ;
+    protected int zoom;
+    protected int numThreads;
+    protected FrameRenderer localRenderer;
+    private Color lastColor;
+    private short lastColix;
+
+    public TrajectoryRenderer(Box box, int width, int height) {
+        if (box.getSpace().D() != 3) {
+            throw new IllegalArgumentException("TrajectoryRenderer only handles 3D boxes");
+        }
+        this.box = box;
+        this.width = width;
+        this.height = height;
+        colorScheme = new ColorSchemeByType();
+        diameterHash = new DiameterHashByElementType();
+        DiameterHashByElement.populateVDWDiameters(((DiameterHashByElementType) diameterHash).getDiameterHashByElement());
+        numThreads = Runtime.getRuntime().availableProcessors();
+    }
+
+    public void setColorScheme(ColorScheme colorScheme) {
+        this.colorScheme = colorScheme;
+    }
+
+    public ColorScheme getColorScheme() {
+        return colorScheme;
+    }
+
+    public void setDiameterHash(DiameterHash diameterHash) {
+        this.diameterHash = diameterHash;
+    }
+
+    public DiameterHash getDiameterHash() {
+        return diameterHash;
+    }
+
+    public void setBackgroundColor(Color backgroundColor) {
+        this.backgroundColor = backgroundColor;
+    }
+
+    public Color getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    public void setBoundaryColor(Color boundaryColor) {
+        this.boundaryColor = boundaryColor;
+    }
+
+    public Color getBoundaryColor() {
+        return boundaryColor;
+    }
+
+    public void setShowBoundary(boolean showBoundary) {
+        this.showBoundary = showBoundary;
+    }
+
+    public boolean getShowBoundary() {
+        return showBoundary;
+    }
+
+    /**
+     * Sets the rotation (in degrees) about the x, y and z axes, applied in
+     * that order, from the default view.
+     */
+    public void setRotation(float x, float y, float z) {
+        rotateX = x;
+        rotateY = y;
+        rotateZ = z;
+    }
+
+    /**
+     * Sets the zoom, as a percentage increase (or, if negative, decrease) from
+     * the zoom that fits the box in the image.
+     */
+    public void setZoom(int zoom) {
+        this.zoom = zoom;
+    }
+
+    public int getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Sets the number of worker threads used by render(frames, filePrefix).
+     * The default is the number of available processors.
+     */
+    public void setNumThreads(int numThreads) {
+        if (numThreads < 1) throw new IllegalArgumentException("numThreads must be positive");
+        this.numThreads = numThreads;
+    }
+
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    /**
+     * Renders the box's current configuration, on the calling thread.
+     */
+    public BufferedImage render() {
+        if (localRenderer == null) {
+            localRenderer = new FrameRenderer();
+        }
+        Frame frame = capture();
+        Graphics3D g3d = localRenderer.draw(frame);
+        BufferedImage image = (BufferedImage) g3d.getScreenImage();
+        ColorModel cm = image.getColorModel();
+        BufferedImage copy = new BufferedImage(cm, image.copyData(null), cm.isAlphaPremultiplied(), null);
+        g3d.releaseScreenImage();
+        return copy;
+    }
+
+    /**
+     * Applies each configuration to the box in turn and writes its image to
+     * filePrefix followed by the frame number (00000, 00001, ...) and ".png".
+     *
+     * @return the number of frames written
+     */
+    public int render(Iterable<? extends Configuration> frames, String filePrefix) {
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads, r -> {
+            Thread t = new Thread(r, "TrajectoryRenderer");
+            t.setDaemon(true);
+            return t;
+        });
+        ThreadLocal<FrameRenderer> renderers = ThreadLocal.withInitial(FrameRenderer::new);
+        // limit the number of captured frames waiting for a worker
+        Semaphore queued = new Semaphore(2 * numThreads);
+        Deque<Future<?>> pending = new ArrayDeque<>();
+        int n = 0;
+        try {
+            for (Configuration config : frames) {
+                config.initializeCoordinates(box);
+                Frame frame = capture();
+                File file = new File(String.format("%s%05d.png", filePrefix, n));
+                queued.acquire();
+                pending.add(pool.submit(() -> {
+                    try {
+                        renderers.get().write(frame, file);
+                    } finally {
+                        queued.release();
+                    }
+                    return null;
+                }));
+                n++;
+                // check finished frames as we go so that a failure stops the run
+                while (!pending.isEmpty() && pending.peek().isDone()) {
+                    pending.remove().get();
+                }
+            }
+            while (!pending.isEmpty()) {
+                pending.remove().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return n;
+    }
+
+    /**
+     * Copies what is needed to draw the box's current configuration.  The
+     * colors are converted to colixes here, since the colix table is not
+     * thread safe.
+     */
+    protected Frame capture() {
+        Frame frame = new Frame();
+        IAtomList leafList = box.getLeafList();
+        int nLeaf = leafList.size();
+        frame.xyz = new float[3 * nLeaf];
+        frame.d = new float[nLeaf];
+        frame.colix = new short[nLeaf];
+        for (int iLeaf = 0; iLeaf < nLeaf; iLeaf++) {
+            IAtom a = leafList.get(iLeaf);
+            Vector r = a.getPosition();
+            frame.xyz[3 * iLeaf] = (float) r.getX(0);
+            frame.xyz[3 * iLeaf + 1] = (float) r.getX(1);
+            frame.xyz[3 * iLeaf + 2] = (float) r.getX(2);
+            float diameter = (float) diameterHash.getDiameter(a);
+            // default diameter
+            if (diameter == -1) diameter = 1;
+            frame.d[iLeaf] = diameter;
+            Color color = colorScheme.getAtomColor(a);
+            if (color != lastColor) {
+                lastColix = G3DSys.getColix(color);
+                lastColor = color;
+            }
+            frame.colix[iLeaf] = lastColix;
+        }
+        Vector size = box.getBoundary().getBoxSize();
+        frame.size = new float[]{(float) size.getX(0), (float) size.getX(1), (float) size.getX(2)};
+        if (showBoundary) {
+            LineSegment[] edges = box.getBoundary().getShape().getEdges();
+            frame.edges = new float[6 * edges.length];
+            for (int i = 0; i < edges.length; i++) {
+                Vector[] vertices = edges[i].getVertices();
+                for (int j = 0; j < 3; j++) {
+                    frame.edges[6 * i + j] = (float) vertices[0].getX(j);
+                    frame.edges[6 * i + 3 + j] = (float) vertices[1].getX(j);
+                }
+            }
+        }
+        frame.background = backgroundColor;
+        frame.boundaryColix = G3DSys.getColix(boundaryColor);
+        return frame;
+    }
+
+    protected static class Frame {
+        public float[] xyz, d;
+        public short[] colix;
+        public float[] size;
+        public float[] edges = new float[0];
+        public Color background;
+        public short boundaryColix;
+    }
+
+    /**
+     * Draws frames with its own G3DSys; each worker thread has one.
+     */
+    protected class FrameRenderer {
+        protected final G3DSys gsys;
+        protected final BallBatch balls;
+        protected final Matrix3f m = Matrix3f.newA(new float[]{1, 0, 0, 0, 1, 0, 0, 0, 1});
+        protected Line[] lines = new Line[0];
+        protected boolean oriented;
+
+        public FrameRenderer() {
+            // G3DSys only needs a component to take its size from
+            JPanel panel = new JPanel();
+            panel.setSize(width, height);
+            gsys = new G3DSys(panel);
+            balls = new BallBatch(gsys);
+            gsys.addFig(balls);
+        }
+
+        public Graphics3D draw(Frame frame) {
+            float[] size = frame.size;
+            gsys.setBoundingBox(-size[0] * 0.5f, -size[1] * 0.5f, -size[2] * 0.5f,
+                    size[0] * 0.5f, size[1] * 0.5f, size[2] * 0.5f);
+            if (!oriented) {
+                gsys.scaleFitToScreen();
+                gsys.rotateByX(rotateX);
+                gsys.rotateByY(rotateY);
+                gsys.rotateByZ(rotateZ);
+                if (zoom > 0) gsys.zoomUp(zoom);
+                else if (zoom < 0) gsys.zoomDown(-zoom);
+                oriented = true;
+            }
+            gsys.setBGColor(frame.background);
+
+            int nLines = frame.edges.length / 6;
+            for (int i = nLines; i < lines.length; i++) {
+                gsys.removeFig(lines[i]);
+            }
+            if (nLines != lines.length) {
+                Line[] newLines = new Line[nLines];
+                System.arraycopy(lines, 0, newLines, 0, Math.min(nLines, lines.length));
+                for (int i = lines.length; i < nLines; i++) {
+                    newLines[i] = new Line(gsys, frame.boundaryColix, Point3f.new3(0, 0, 0), Point3f.new3(0, 0, 0));
+                    gsys.addFig(newLines[i]);
+                }
+                lines = newLines;
+            }
+            float[] edges = frame.edges;
+            for (int i = 0; i < nLines; i++) {
+                lines[i].setColor(frame.boundaryColix);
+                lines[i].setStart(edges[6 * i], edges[6 * i + 1], edges[6 * i + 2]);
+                lines[i].setEnd(edges[6 * i + 3], edges[6 * i + 4], edges[6 * i + 5]);
+            }
+
+            int n = frame.d.length;
+            balls.beginFrame(n);
+            for (int i = 0; i < n; i++) {
+                balls.add(frame.xyz[3 * i], frame.xyz[3 * i + 1], frame.xyz[3 * i + 2], frame.d[i], frame.colix[i]);
+            }
+            balls.endFrame();
+
+            Graphics3D g3d = gsys.getG3D();
+            g3d.beginRendering(m);
+            gsys.draw();
+            g3d.endRendering();
+            return g3d;
+        }
+
+        public void write(Frame frame, File file) throws IOException {
+            Graphics3D g3d = draw(frame);
+            try {
+                ImageIO.write((BufferedImage) g3d.getScreenImage(), "png", file);
+            } finally {
+                g3d.releaseScreenImage();
+            }
+        }
+    }
+}
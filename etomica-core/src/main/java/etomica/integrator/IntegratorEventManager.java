@@ -38,6 +38,13 @@ public class IntegratorEventManager {
         listeners.remove(listener);
     }
 
+    /**
+     * Returns true if any listeners are registered.
+     */
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
     /**
      * Returns true if the event manager is currently firing events.
      */
@@ -46,6 +53,8 @@ public class IntegratorEventManager {
     }
 
     public void stepStarted() {
+        // skip the iterator when there is nothing to notify
+        if (listeners.isEmpty()) return;
         eventing = true;
         for (IntegratorListener listener : listeners) {
             listener.integratorStepStarted(event);
@@ -54,6 +63,7 @@ public class IntegratorEventManager {
     }
 
     public void stepFinished() {
+        if (listeners.isEmpty()) return;
         eventing = true;
         for (IntegratorListener listener : listeners) {
             listener.integratorStepFinished(event);
@@ -11,6 +11,8 @@ import etomica.util.random.IRandom;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Integrator manages other Integrators which either act on a Box, or manage
@@ -31,12 +33,15 @@ public class IntegratorManagerMC extends Integrator {
     protected final List<Integrator> integrators;
     protected double temperature;
     private double globalMoveInterval;
+    protected boolean isParallel;
+    protected int blockSteps;
     
     public IntegratorManagerMC(IRandom random) {
         super();
         this.random = random;
         integrators = new ArrayList<>();
         setGlobalMoveInterval(2);
+        blockSteps = 100;
         moveManager = new MCMoveManager(random);
         eventManager = new EventManager<>();
         trialEvent = new MCMoveTrialInitiatedEvent(moveManager);
@@ -119,11 +124,13 @@ public class IntegratorManagerMC extends Integrator {
     /**
      * Performs a Monte Carlo trial that attempts to swap the configurations
      * between two "adjacent" boxes, or instructs all integrators to perform
-     * a single doStep.
+     * a single doStep (or, in parallel mode, a block of steps).
      */
     protected void doStepInternal() {
-        if(random.nextDouble() < globalMoveProbability) {
+        if (random.nextDouble() < (isParallel ? parallelGlobalMoveProbability() : globalMoveProbability)) {
             doGlobalMoves();
+        } else if (isParallel) {
+            doParallelBlock();
         } else {
             for (Integrator integrator : this.integrators) {
                 integrator.doStep();
@@ -131,6 +138,56 @@ public class IntegratorManagerMC extends Integrator {
         }
     }
 
+    /**
+     * Returns the probability of a global move in a parallel step.  Each
+     * parallel step without a global move advances every sub-integrator by
+     * blockSteps steps, so the probability is raised to keep the ratio of
+     * global moves to sub-integrator steps the same as in serial mode.
+     */
+    protected double parallelGlobalMoveProbability() {
+        if (globalMoveProbability == 0) return 0;
+        return 1.0 / (1.0 + (globalMoveInterval - 1) / blockSteps);
+    }
+
+    /**
+     * Has every sub-integrator take blockSteps steps, concurrently.
+     * Sub-integrators with listeners are stepped on the calling thread so
+     * that their listeners fire there; the others are handed to the common
+     * fork-join pool.
+     */
+    protected void doParallelBlock() {
+        List<Integrator> local = new ArrayList<>();
+        List<Integrator> pooled = new ArrayList<>();
+        for (Integrator integrator : integrators) {
+            if (integrator.getEventManager().hasListeners()) {
+                local.add(integrator);
+            }
+            else {
+                pooled.add(integrator);
+            }
+        }
+        if (local.isEmpty() && !pooled.isEmpty()) {
+            // keep this thread busy as well
+            local.add(pooled.remove(pooled.size() - 1));
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (Integrator integrator : pooled) {
+            tasks.add(ForkJoinPool.commonPool().submit(() -> doBlockSteps(integrator)));
+        }
+        for (Integrator integrator : local) {
+            doBlockSteps(integrator);
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    private void doBlockSteps(Integrator integrator) {
+        for (int i = 0; i < blockSteps; i++) {
+            integrator.doStep();
+        }
+    }
+
     /**
      * Method to select and perform an elementary Monte Carlo move. The type of
      * move performed is chosen from all MCMoves that have been added to the
@@ -201,6 +258,50 @@ public class IntegratorManagerMC extends Integrator {
         }
     }
 
+    /**
+     * Sets whether the sub-integrators run concurrently.  In parallel mode,
+     * each call to doStep is still one step: either a global move or a block
+     * in which every sub-integrator takes blockSteps steps, with the
+     * sub-integrators running on separate threads.  The global move
+     * probability is raised so that the average number of sub-integrator
+     * steps per global move is the same as in serial mode.  Global moves are
+     * serial and act as the only synchronization points, so any speedup is
+     * limited by the share of time spent in sub-integrator steps; with a
+     * global move interval of 2, that share can be well under half.
+     * <p>
+     * The sub-integrators must not share any mutable state: each needs its
+     * own random number generator, its own PotentialMaster and its own
+     * potential instances (and the same for their MC moves).  Listeners on
+     * the sub-integrators fire on the thread calling doStep; sub-integrators
+     * with listeners all run on that thread, one after another, so listeners
+     * for a parallel run are best added to this integrator.  The global moves
+     * may use objects shared with the sub-integrators, since nothing else
+     * runs while they are performed.
+     */
+    public void setParallel(boolean newIsParallel) {
+        isParallel = newIsParallel;
+    }
+
+    public boolean isParallel() {
+        return isParallel;
+    }
+
+    /**
+     * Sets the number of steps each sub-integrator takes in one parallel
+     * step.  Larger blocks spread the cost of handing work to other threads
+     * over more steps.  Default is 100.
+     */
+    public void setBlockSteps(int newBlockSteps) {
+        if (newBlockSteps < 1) {
+            throw new IllegalArgumentException("block steps must be positive");
+        }
+        blockSteps = newBlockSteps;
+    }
+
+    public int getBlockSteps() {
+        return blockSteps;
+    }
+
     public double getTemperature() {
         return temperature;
     }
@@ -41,6 +41,7 @@ import etomica.util.Debug;
 
 import java.awt.*;
 import java.io.Serializable;
+import java.util.function.Supplier;
 
 public class IntegratorRigidIterative extends IntegratorMD implements SpeciesAgentManager.AgentSource, MoleculeAgentSource, AtomLeafAgentManager.AgentSource<IntegratorRigidIterative.AtomForceAgent> {
 
@@ -65,6 +66,8 @@ public class IntegratorRigidIterative extends IntegratorMD implements SpeciesAge
     protected final Simulation sim;
     protected AtomLeafAgentManager<AtomForceAgent> leafAgentManager;
     protected MoleculeAgentManager moleculeAgentManager;
+    protected final ParallelMoleculeLoop<StepWorkspace> moleculeLoop;
+    protected ParallelTorqueSum<AtomForceAgent> parallelTorqueSum;
 
     public IntegratorRigidIterative(Simulation sim, PotentialMaster potentialMaster, Box box) {
         this(sim, potentialMaster, 0.05, 1.0, box);
@@ -102,6 +105,7 @@ public class IntegratorRigidIterative extends IntegratorMD implements SpeciesAge
         torqueSum.setAgentManager(leafAgentManager);
         torqueSum.setMoleculeAgentManager(moleculeAgentManager);
         ((MeterKineticEnergyRigid)meterKE).setBox(box);
+        moleculeLoop = new ParallelMoleculeLoop<>(i -> new StepWorkspace(space), ParallelMoleculeLoop.DEFAULT_PARALLEL);
     }
 
     public void setTorqueSum(PotentialCalculationTorqueSum pc) {
@@ -119,6 +123,36 @@ public class IntegratorRigidIterative extends IntegratorMD implements SpeciesAge
     public void setMaxIterations(int newMaxIterations) {
         maxIterations = newMaxIterations;
     }
+
+    /**
+     * Sets whether advanceMoleculeHalf and finishMoleculeStep, which iterate
+     * each molecule's angular velocity (up to maxIterations times) and sum its
+     * atoms' forces into a torque, run over chunks of molecules on the common
+     * fork-join pool.  Defaults to ParallelMoleculeLoop.DEFAULT_PARALLEL.
+     */
+    public void setParallel(boolean newIsParallel) {
+        moleculeLoop.setParallel(newIsParallel);
+    }
+
+    public boolean isParallel() {
+        return moleculeLoop.isParallel();
+    }
+
+    /**
+     * Sets the factory that supplies each parallel chunk with its own
+     * PotentialMaster (see ParallelTorqueSum), so that the force and torque
+     * calculation runs in parallel too when isParallel.  The chunks' forces are
+     * added into the AtomForceAgents and the molecule agents' torques; the
+     * long-range correction still comes from this integrator's PotentialMaster.
+     * With no factory (the default), or with a custom torqueSum, forces are
+     * computed serially.
+     */
+    public void setPotentialMasterFactory(Supplier<? extends PotentialMaster> potentialMasterFactory) {
+        if (parallelTorqueSum != null) {
+            parallelTorqueSum.dispose();
+        }
+        parallelTorqueSum = potentialMasterFactory == null ? null : new ParallelTorqueSum<>(sim, box, potentialMasterFactory, AtomForceAgent::force);
+    }
     
 //--------------------------------------------------------------
 // steps all particles across time interval tStep
@@ -126,9 +160,6 @@ public class IntegratorRigidIterative extends IntegratorMD implements SpeciesAge
     // assumes one box
     protected void doStepInternal() {
         super.doStepInternal();
-        currentKineticEnergy = 0;
-        int iterationsTotal = 0;
-        int numRigid = 0;
         if (Debug.ON && Debug.DEBUG_NOW) {
             IAtomList pair = Debug.getAtoms(box);
             if (pair != null) {
@@ -139,115 +170,10 @@ public class IntegratorRigidIterative extends IntegratorMD implements SpeciesAge
         }
         IMoleculeList moleculeList = box.getMoleculeList();
         int nMolecules = moleculeList.size();
-        for (int iMolecule = 0; iMolecule<nMolecules; iMolecule++) {
-            IMolecule molecule = moleculeList.get(iMolecule);
-            IAtomList children = molecule.getChildList();
-            OrientationCalc calcer = (OrientationCalc)typeAgentManager.getAgent(molecule.getType());
-            if (calcer == null) {
-                for (int iLeaf = 0; iLeaf<children.size(); iLeaf++) {
-                    IAtomKinetic a = (IAtomKinetic)children.get(iLeaf);
-                    Vector force = leafAgentManager.getAgent(a).force();
-                    Vector r = a.getPosition();
-                    Vector v = a.getVelocity();
-                    if (Debug.ON && Debug.DEBUG_NOW && Debug.anyAtom(new AtomSetSinglet(a))) {
-                        System.out.println("first "+a+" r="+r+", v="+v+", f="+force);
-                    }
-                    v.PEa1Tv1(0.5*timeStep* a.getType().rm(),force);  // p += f(old)*dt/2
-                    r.PEa1Tv1(timeStep,v);         // r += p*dt/m
-                }
-                continue;
-            }
-            
-            MoleculeAgent agent = (MoleculeAgent)moleculeAgentManager.getAgent(molecule);
-            IMoleculeOrientedKinetic orientedMolecule = (IMoleculeOrientedKinetic)molecule;
-            IOrientationFull3D orientation = (IOrientationFull3D)orientedMolecule.getOrientation();
-            Vector moment = ((ISpeciesOriented)molecule.getType()).getMomentOfInertia();
-
-            // use the angular velocity field to store angular momentum during the time step  :(
-            Vector angularMomentum = orientedMolecule.getAngularVelocity();
-//            System.out.println("angular velocity "+angularMomentum);
-            // transform to body-fixed, multiply by moment of inertia, transform back
-            tempAngularVelocity.E(orientedMolecule.getAngularVelocity());
-            if (!storeAngularMomentum) {
-                rotationTensor.setOrientation(orientation);
-                rotationTensor.transform(angularMomentum);
-                angularMomentum.TE(moment);
-                rotationTensor.invert();
-                rotationTensor.transform(angularMomentum);
-            }
-            else {
-                rotationTensor.setOrientation(orientation);
-                rotationTensor.transform(tempAngularVelocity);
-                tempAngularVelocity.DE(moment);
-                rotationTensor.invert();
-                rotationTensor.transform(tempAngularVelocity);
-            }
-            
-            // xWork = angular velocity from the previous iteration
-            // save angular velocity to see if we've converged
-            xWork.E(tempAngularVelocity);
-//            System.out.println("initial guess half-timestep angular velocity "+angularVelocity);
-            angularMomentum.PEa1Tv1(0.5*timeStep, agent.torque);
-
-            double dtheta = Math.sqrt(tempAngularVelocity.squared());
-            if (dtheta > 0) {
-                tempAngularVelocity.TE(1/dtheta);
-            }
-
-            numRigid++;
-            for (int i = 0; i<maxIterations; i++) {
-                iterationsTotal++;
-                tempOrientation.E(orientation);
-                if (dtheta > 0) {
-                    // estimate orientation at half timestep, we need this to get the moment of inertia at half timestep
-                    tempOrientation.rotateBy(0.5*dtheta*timeStep, tempAngularVelocity);
-                }
-
-                tempAngularVelocity.E(angularMomentum);
-
-                rotationTensor.setOrientation(tempOrientation);
-
-                //find body-fixed angular momentum
-                rotationTensor.transform(tempAngularVelocity);
-                //now divide out moment of inertia to get body-fixed angular velocity
-                tempAngularVelocity.DE(moment);
-                rotationTensor.invert();
-                //now rotate back to get space-fixed angular velocity
-                rotationTensor.transform(tempAngularVelocity);
-//                System.out.println("iteration "+i+" half-timestep angular velocity "+angularVelocity);
-                
-                xWork.ME(tempAngularVelocity);
-                double omegaError = xWork.squared() / tempAngularVelocity.squared();
-                xWork.E(tempAngularVelocity);
-                dtheta = Math.sqrt(tempAngularVelocity.squared());
-                if (dtheta > 0) {
-                    tempAngularVelocity.TE(1.0/dtheta);
-                }
-
-                if (omegaError < omegaTolerance) {
-                    break;
-                }
-                if (i == maxIterations-1) {
-                    System.err.println("omegaError still "+omegaError+" after "+maxIterations+" iterations");
-//                    throw new RuntimeException("omegaError still "+omegaError+" after "+maxIterations+" iterations");
-                }
-            }
-
-            if (dtheta > 0) {
-                orientation.rotateBy(timeStep*dtheta, tempAngularVelocity);
-            }
-                
-//            System.out.println("o "+orientation.getDirection()+" "+orientation.getSecondaryDirection());
-            calcer.setOrientation(molecule, orientation);
-            //advance linear velocity to half timestep
-            orientedMolecule.getVelocity().PEa1Tv1(0.5*timeStep/((ISpeciesOriented)molecule.getType()).getMass(), agent.force);
-            
-            //advance position to full timestep
-            Vector transVec = ((AtomActionTranslateBy)translator.getAtomAction()).getTranslationVector();
-            transVec.Ea1Tv1(timeStep, orientedMolecule.getVelocity());
-            orientedMolecule.getPosition().PE(transVec);
-            translator.actionPerformed(molecule);
+        for (int i = 0; i < moleculeLoop.getWorkspaceCount(); i++) {
+            moleculeLoop.getWorkspace(i).reset();
         }
+        moleculeLoop.forEach(nMolecules, (w, iMolecule) -> advanceMoleculeHalf(moleculeList.get(iMolecule), w));
 
 //        if(forceSum instanceof PotentialCalculationForcePressureSum){
 //            pressureTensor.E(((PotentialCalculationForcePressureSum)forceSum).getPressureTensor());
@@ -255,91 +181,237 @@ public class IntegratorRigidIterative extends IntegratorMD implements SpeciesAge
         
         torqueSum.reset();
         //Compute forces and torques on each atom at t+dt
-        potentialMaster.calculate(box, allAtoms, torqueSum);
+        if (parallelTorqueSum != null && isParallel() && torqueSum.getClass() == PotentialCalculationTorqueSum.class) {
+            parallelTorqueSum.calculate(leafAgentManager, moleculeAgentManager);
+            potentialMaster.lrcMaster().calculate(box, allAtoms, torqueSum);
+        }
+        else {
+            potentialMaster.calculate(box, allAtoms, torqueSum);
+        }
         
-        for (int iMolecule = 0; iMolecule<nMolecules; iMolecule++) {
-            IMolecule molecule = moleculeList.get(iMolecule);
-            IAtomList children = molecule.getChildList();
-            if (typeAgentManager.getAgent(molecule.getType()) == null) {
-                // unimolecular or at least not rigid
-                //Finish integration step
-                for (int iLeaf = 0; iLeaf<children.size(); iLeaf++) {
-                    IAtomKinetic a = (IAtomKinetic)children.get(iLeaf);
-//                    System.out.println("force: "+((MyAgent)a.ia).force.toString());
-                    Vector velocity = a.getVelocity();
-                    workTensor.Ev1v2(velocity,velocity);
-                    workTensor.TE(a.getType().getMass());
-                    pressureTensor.PE(workTensor);
-                    if (Debug.ON && Debug.DEBUG_NOW && Debug.anyAtom(new AtomSetSinglet(a))) {
-                        System.out.println("second "+a+" v="+velocity+", f="+leafAgentManager.getAgent(a));
-                    }
-                    velocity.PEa1Tv1(0.5 * timeStep * a.getType().rm(), leafAgentManager.getAgent(a).force());  //p += f(new)*dt/2
-                    currentKineticEnergy += velocity.squared()* a.getType().getMass();
+        moleculeLoop.forEach(nMolecules, (w, iMolecule) -> finishMoleculeStep(moleculeList.get(iMolecule), w));
+
+        currentKineticEnergy = 0;
+        int iterationsTotal = 0;
+        int numRigid = 0;
+        for (int i = 0; i < moleculeLoop.getWorkspaceCount(); i++) {
+            StepWorkspace w = moleculeLoop.getWorkspace(i);
+            currentKineticEnergy += w.kineticEnergy;
+            iterationsTotal += w.iterationsTotal;
+            numRigid += w.numRigid;
+            pressureTensor.PE(w.pressureTensor);
+        }
+        pressureTensor.TE(1/box.getBoundary().volume());
+
+        currentKineticEnergy *= 0.5;
+        if (printInterval > 0 && stepCount%printInterval == 0) {
+            double PE = meterPE.getDataAsScalar();
+            int moleculeCount = box.getMoleculeList().size();
+            double fac = Joule.UNIT.fromSim(1.0/moleculeCount)*Constants.AVOGADRO;
+            System.out.println(currentTime+" "+(iterationsTotal/(double)numRigid)+" "+Kelvin.UNIT.fromSim(currentKineticEnergy/moleculeCount/3)+" "
+                              +fac*currentKineticEnergy+" "+fac*PE+" "+fac*(PE+currentKineticEnergy));
+        }
+
+        if (isothermal) {
+            doThermostatInternal();
+        }
+    }
+
+    /**
+     * Advances the momenta of the given molecule to the half timestep and its
+     * position and orientation to the full timestep, using the forces and
+     * torques from the previous step.  Only the molecule's own state and the
+     * workspace are modified, so molecules can be handled concurrently.
+     */
+    protected void advanceMoleculeHalf(IMolecule molecule, StepWorkspace w) {
+        IAtomList children = molecule.getChildList();
+        OrientationCalc calcer = (OrientationCalc)typeAgentManager.getAgent(molecule.getType());
+        if (calcer == null) {
+            for (int iLeaf = 0; iLeaf<children.size(); iLeaf++) {
+                IAtomKinetic a = (IAtomKinetic)children.get(iLeaf);
+                Vector force = leafAgentManager.getAgent(a).force();
+                Vector r = a.getPosition();
+                Vector v = a.getVelocity();
+                if (Debug.ON && Debug.DEBUG_NOW && Debug.anyAtom(new AtomSetSinglet(a))) {
+                    System.out.println("first "+a+" r="+r+", v="+v+", f="+force);
                 }
-                // skip the rotational stuff
-                continue;
+                v.PEa1Tv1(0.5*timeStep* a.getType().rm(),force);  // p += f(old)*dt/2
+                r.PEa1Tv1(timeStep,v);         // r += p*dt/m
             }
-            
-            IMoleculeOrientedKinetic orientedMolecule = (IMoleculeOrientedKinetic)molecule;
-            MoleculeAgent agent = (MoleculeAgent)moleculeAgentManager.getAgent(molecule);
-            //calc torque and linear force
-            for (int i = 0; i<children.size(); i++) {
-                IAtom atom = children.get(i);
-                Vector atomForce = leafAgentManager.getAgent(atom).force();
-                if (atomForce.isZero()) {
-                    continue;
-                }
+            return;
+        }
 
-                agent.force.PE(atomForce);
+        MoleculeAgent agent = (MoleculeAgent)moleculeAgentManager.getAgent(molecule);
+        IMoleculeOrientedKinetic orientedMolecule = (IMoleculeOrientedKinetic)molecule;
+        IOrientationFull3D orientation = (IOrientationFull3D)orientedMolecule.getOrientation();
+        Vector moment = ((ISpeciesOriented)molecule.getType()).getMomentOfInertia();
+        RotationTensor3D rotationTensor = w.rotationTensor;
+        Vector tempAngularVelocity = w.tempAngularVelocity;
+        Vector xWork = w.xWork;
+        OrientationFull3D tempOrientation = w.tempOrientation;
+
+        // use the angular velocity field to store angular momentum during the time step  :(
+        Vector angularMomentum = orientedMolecule.getAngularVelocity();
+//        System.out.println("angular velocity "+angularMomentum);
+        // transform to body-fixed, multiply by moment of inertia, transform back
+        tempAngularVelocity.E(orientedMolecule.getAngularVelocity());
+        if (!storeAngularMomentum) {
+            rotationTensor.setOrientation(orientation);
+            rotationTensor.transform(angularMomentum);
+            angularMomentum.TE(moment);
+            rotationTensor.invert();
+            rotationTensor.transform(angularMomentum);
+        }
+        else {
+            rotationTensor.setOrientation(orientation);
+            rotationTensor.transform(tempAngularVelocity);
+            tempAngularVelocity.DE(moment);
+            rotationTensor.invert();
+            rotationTensor.transform(tempAngularVelocity);
+        }
 
-                xWork.Ev1Mv2(atom.getPosition(), orientedMolecule.getPosition());
-                xWork.XE(atomForce);
-                agent.torque.PE(xWork);
+        // xWork = angular velocity from the previous iteration
+        // save angular velocity to see if we've converged
+        xWork.E(tempAngularVelocity);
+//        System.out.println("initial guess half-timestep angular velocity "+angularVelocity);
+        angularMomentum.PEa1Tv1(0.5*timeStep, agent.torque);
+
+        double dtheta = Math.sqrt(tempAngularVelocity.squared());
+        if (dtheta > 0) {
+            tempAngularVelocity.TE(1/dtheta);
+        }
+
+        w.numRigid++;
+        for (int i = 0; i<maxIterations; i++) {
+            w.iterationsTotal++;
+            tempOrientation.E(orientation);
+            if (dtheta > 0) {
+                // estimate orientation at half timestep, we need this to get the moment of inertia at half timestep
+                tempOrientation.rotateBy(0.5*dtheta*timeStep, tempAngularVelocity);
             }
-            
-            //advance linear velocity to full timestep
-            double mass = ((ISpeciesOriented)molecule.getType()).getMass();
-            orientedMolecule.getVelocity().PEa1Tv1(0.5*timeStep/mass, agent.force);
 
-            //advance momentum to full timestep
-            Vector angularVelocity = orientedMolecule.getAngularVelocity();
-            Vector moment = ((ISpeciesOriented)molecule.getType()).getMomentOfInertia();
+            tempAngularVelocity.E(angularMomentum);
 
-            // we actually stored the half-timestep angular momentum in this field...
-            // advance to full timestep
-            angularVelocity.PEa1Tv1(0.5*timeStep, agent.torque);
-            tempAngularVelocity.E(angularVelocity);
-            // we actually had this before, but we didn't save it...
-            // transform to body-fixed, multiply by moment of inertia, transform back
-            // ==> angular momentum
-            rotationTensor.setOrientation((IOrientationFull3D)orientedMolecule.getOrientation());
+            rotationTensor.setOrientation(tempOrientation);
+
+            //find body-fixed angular momentum
             rotationTensor.transform(tempAngularVelocity);
+            //now divide out moment of inertia to get body-fixed angular velocity
             tempAngularVelocity.DE(moment);
+            rotationTensor.invert();
+            //now rotate back to get space-fixed angular velocity
+            rotationTensor.transform(tempAngularVelocity);
+//            System.out.println("iteration "+i+" half-timestep angular velocity "+angularVelocity);
+
+            xWork.ME(tempAngularVelocity);
+            double omegaError = xWork.squared() / tempAngularVelocity.squared();
             xWork.E(tempAngularVelocity);
-            if (!storeAngularMomentum) {
-                rotationTensor.invert();
-                rotationTensor.transform(tempAngularVelocity);
-                angularVelocity.E(tempAngularVelocity);
+            dtheta = Math.sqrt(tempAngularVelocity.squared());
+            if (dtheta > 0) {
+                tempAngularVelocity.TE(1.0/dtheta);
             }
 
-            currentKineticEnergy += mass * orientedMolecule.getVelocity().squared();
-            xWork.TE(xWork);
-            currentKineticEnergy += xWork.dot(moment);
+            if (omegaError < omegaTolerance) {
+                break;
+            }
+            if (i == maxIterations-1) {
+                System.err.println("omegaError still "+omegaError+" after "+maxIterations+" iterations");
+//                throw new RuntimeException("omegaError still "+omegaError+" after "+maxIterations+" iterations");
+            }
         }
-        pressureTensor.TE(1/box.getBoundary().volume());
 
-        currentKineticEnergy *= 0.5;
-        if (printInterval > 0 && stepCount%printInterval == 0) {
-            double PE = meterPE.getDataAsScalar();
-            int moleculeCount = box.getMoleculeList().size();
-            double fac = Joule.UNIT.fromSim(1.0/moleculeCount)*Constants.AVOGADRO;
-            System.out.println(currentTime+" "+(iterationsTotal/(double)numRigid)+" "+Kelvin.UNIT.fromSim(currentKineticEnergy/moleculeCount/3)+" "
-                              +fac*currentKineticEnergy+" "+fac*PE+" "+fac*(PE+currentKineticEnergy));
+        if (dtheta > 0) {
+            orientation.rotateBy(timeStep*dtheta, tempAngularVelocity);
         }
 
-        if (isothermal) {
-            doThermostatInternal();
+//        System.out.println("o "+orientation.getDirection()+" "+orientation.getSecondaryDirection());
+        calcer.setOrientation(molecule, orientation);
+        //advance linear velocity to half timestep
+        orientedMolecule.getVelocity().PEa1Tv1(0.5*timeStep/((ISpeciesOriented)molecule.getType()).getMass(), agent.force);
+
+        //advance position to full timestep
+        Vector transVec = ((AtomActionTranslateBy)w.translator.getAtomAction()).getTranslationVector();
+        transVec.Ea1Tv1(timeStep, orientedMolecule.getVelocity());
+        orientedMolecule.getPosition().PE(transVec);
+        w.translator.actionPerformed(molecule);
+    }
+
+    /**
+     * Collects the atomic forces of the given molecule into its force and
+     * torque and advances its momenta to the full timestep.  The kinetic
+     * energy and pressure tensor contributions are accumulated in the
+     * workspace.
+     */
+    protected void finishMoleculeStep(IMolecule molecule, StepWorkspace w) {
+        IAtomList children = molecule.getChildList();
+        Vector xWork = w.xWork;
+        if (typeAgentManager.getAgent(molecule.getType()) == null) {
+            // unimolecular or at least not rigid
+            //Finish integration step
+            for (int iLeaf = 0; iLeaf<children.size(); iLeaf++) {
+                IAtomKinetic a = (IAtomKinetic)children.get(iLeaf);
+//                System.out.println("force: "+((MyAgent)a.ia).force.toString());
+                Vector velocity = a.getVelocity();
+                w.workTensor.Ev1v2(velocity,velocity);
+                w.workTensor.TE(a.getType().getMass());
+                w.pressureTensor.PE(w.workTensor);
+                if (Debug.ON && Debug.DEBUG_NOW && Debug.anyAtom(new AtomSetSinglet(a))) {
+                    System.out.println("second "+a+" v="+velocity+", f="+leafAgentManager.getAgent(a));
+                }
+                velocity.PEa1Tv1(0.5 * timeStep * a.getType().rm(), leafAgentManager.getAgent(a).force());  //p += f(new)*dt/2
+                w.kineticEnergy += velocity.squared()* a.getType().getMass();
+            }
+            // skip the rotational stuff
+            return;
+        }
+
+        IMoleculeOrientedKinetic orientedMolecule = (IMoleculeOrientedKinetic)molecule;
+        MoleculeAgent agent = (MoleculeAgent)moleculeAgentManager.getAgent(molecule);
+        //calc torque and linear force
+        for (int i = 0; i<children.size(); i++) {
+            IAtom atom = children.get(i);
+            Vector atomForce = leafAgentManager.getAgent(atom).force();
+            if (atomForce.isZero()) {
+                continue;
+            }
+
+            agent.force.PE(atomForce);
+
+            xWork.Ev1Mv2(atom.getPosition(), orientedMolecule.getPosition());
+            xWork.XE(atomForce);
+            agent.torque.PE(xWork);
+        }
+
+        //advance linear velocity to full timestep
+        double mass = ((ISpeciesOriented)molecule.getType()).getMass();
+        orientedMolecule.getVelocity().PEa1Tv1(0.5*timeStep/mass, agent.force);
+
+        //advance momentum to full timestep
+        Vector angularVelocity = orientedMolecule.getAngularVelocity();
+        Vector moment = ((ISpeciesOriented)molecule.getType()).getMomentOfInertia();
+        Vector tempAngularVelocity = w.tempAngularVelocity;
+        RotationTensor3D rotationTensor = w.rotationTensor;
+
+        // we actually stored the half-timestep angular momentum in this field...
+        // advance to full timestep
+        angularVelocity.PEa1Tv1(0.5*timeStep, agent.torque);
+        tempAngularVelocity.E(angularVelocity);
+        // we actually had this before, but we didn't save it...
+        // transform to body-fixed, multiply by moment of inertia, transform back
+        // ==> angular momentum
+        rotationTensor.setOrientation((IOrientationFull3D)orientedMolecule.getOrientation());
+        rotationTensor.transform(tempAngularVelocity);
+        tempAngularVelocity.DE(moment);
+        xWork.E(tempAngularVelocity);
+        if (!storeAngularMomentum) {
+            rotationTensor.invert();
+            rotationTensor.transform(tempAngularVelocity);
+            angularVelocity.E(tempAngularVelocity);
         }
+
+        w.kineticEnergy += mass * orientedMolecule.getVelocity().squared();
+        xWork.TE(xWork);
+        w.kineticEnergy += xWork.dot(moment);
     }
 
     /**
@@ -701,6 +773,39 @@ public class IntegratorRigidIterative extends IntegratorMD implements SpeciesAge
         public Vector force() {return force;}
     }
 
+    /**
+     * Scratch space and partial sums used by one chunk of molecules during a
+     * step.
+     */
+    protected static class StepWorkspace {
+        public final Vector xWork;
+        public final Vector tempAngularVelocity;
+        public final RotationTensor3D rotationTensor;
+        public final OrientationFull3D tempOrientation;
+        public final MoleculeChildAtomAction translator;
+        public final Tensor workTensor;
+        public final Tensor pressureTensor;
+        public double kineticEnergy;
+        public int iterationsTotal, numRigid;
+
+        public StepWorkspace(Space space) {
+            xWork = space.makeVector();
+            tempAngularVelocity = space.makeVector();
+            rotationTensor = (RotationTensor3D)space.makeRotationTensor();
+            tempOrientation = new OrientationFull3D(space);
+            translator = new MoleculeChildAtomAction(new AtomActionTranslateBy(space));
+            workTensor = space.makeTensor();
+            pressureTensor = space.makeTensor();
+        }
+
+        public void reset() {
+            pressureTensor.E(0);
+            kineticEnergy = 0;
+            iterationsTotal = 0;
+            numRigid = 0;
+        }
+    }
+
     public Object makeAgent(ISpecies type) {
         return null;
     }
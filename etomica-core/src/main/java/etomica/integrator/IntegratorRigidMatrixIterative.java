@@ -32,6 +32,8 @@ import etomica.units.Kelvin;
 import etomica.util.Constants;
 import etomica.util.Debug;
 
+import java.util.function.Supplier;
+
 /**
  * Integrator implementation of Omelyan's leapfrog integrator for rotational
  * motion.  Molecular Simulation, 22 (1999) 213-236.
@@ -63,6 +65,8 @@ public class IntegratorRigidMatrixIterative extends IntegratorMD implements Spec
     
     protected AtomLeafAgentManager<Vector> forces;
     protected MoleculeAgentManager moleculeAgentManager;
+    protected final ParallelMoleculeLoop<StepWorkspace> moleculeLoop;
+    protected ParallelTorqueSum<Vector> parallelTorqueSum;
 
     public IntegratorRigidMatrixIterative(Simulation sim, PotentialMaster potentialMaster, Box box) {
         this(sim, potentialMaster, 0.05, 1.0, box);
@@ -102,6 +106,7 @@ public class IntegratorRigidMatrixIterative extends IntegratorMD implements Spec
         torqueSum.setAgentManager(forces);
         torqueSum.setMoleculeAgentManager(moleculeAgentManager);
         ((MeterKineticEnergyRigid)meterKE).setBox(box);
+        moleculeLoop = new ParallelMoleculeLoop<>(i -> new StepWorkspace(this.space), ParallelMoleculeLoop.DEFAULT_PARALLEL);
     }
 
     public void setOrientationCalc(ISpecies species, OrientationCalc calcer) {
@@ -111,6 +116,34 @@ public class IntegratorRigidMatrixIterative extends IntegratorMD implements Spec
     public void setMaxIterations(int newMaxIterations) {
         maxIterations = newMaxIterations;
     }
+
+    /**
+     * Sets whether the two per-molecule halves of the leapfrog step (the
+     * iterated rotation-matrix update and the completion of the velocities)
+     * run over chunks of molecules on the common fork-join pool.  Defaults to
+     * ParallelMoleculeLoop.DEFAULT_PARALLEL.
+     */
+    public void setParallel(boolean newIsParallel) {
+        moleculeLoop.setParallel(newIsParallel);
+    }
+
+    public boolean isParallel() {
+        return moleculeLoop.isParallel();
+    }
+
+    /**
+     * Gives the force calculation a PotentialMaster per parallel chunk (see
+     * ParallelTorqueSum), so that forces are also computed in parallel when
+     * isParallel.  Forces are summed into the leaf-atom force vectors that this
+     * integrator keeps as its agents.  null (the default) or a custom torqueSum
+     * keeps the force calculation serial.
+     */
+    public void setPotentialMasterFactory(Supplier<? extends PotentialMaster> potentialMasterFactory) {
+        if (parallelTorqueSum != null) {
+            parallelTorqueSum.dispose();
+        }
+        parallelTorqueSum = potentialMasterFactory == null ? null : new ParallelTorqueSum<>(sim, box, potentialMasterFactory, v -> v);
+    }
     
 //--------------------------------------------------------------
 // steps all particles across time interval tStep
@@ -118,9 +151,6 @@ public class IntegratorRigidMatrixIterative extends IntegratorMD implements Spec
     // assumes one box
     protected void doStepInternal() {
         super.doStepInternal();
-        currentKineticEnergy = 0;
-        int iterationsTotal = 0;
-        int numRigid = 0;
         if (Debug.ON && Debug.DEBUG_NOW) {
             IAtomList pair = Debug.getAtoms(box);
             if (pair != null) {
@@ -131,130 +161,10 @@ public class IntegratorRigidMatrixIterative extends IntegratorMD implements Spec
         }
         IMoleculeList moleculeList = box.getMoleculeList();
         int nMolecules = moleculeList.size();
-        for (int iMolecule = 0; iMolecule<nMolecules; iMolecule++) {
-            IMolecule molecule = moleculeList.get(iMolecule);
-            OrientationCalc calcer = (OrientationCalc)typeAgentManager.getAgent(molecule.getType());
-            IAtomList children = molecule.getChildList();
-            if (calcer == null) {
-                for (int iLeaf = 0; iLeaf<children.size(); iLeaf++) {
-                    IAtomKinetic a = (IAtomKinetic)children.get(iLeaf);
-                    Vector force = forces.getAgent(a);
-                    Vector r = a.getPosition();
-                    Vector v = a.getVelocity();
-                    if (Debug.ON && Debug.DEBUG_NOW && Debug.anyAtom(new AtomSetSinglet(a))) {
-                        System.out.println("first "+a+" r="+r+", v="+v+", f="+ force);
-                    }
-                    v.PEa1Tv1(0.5*timeStep* a.getType().rm(), force);  // p += f(old)*dt/2
-                    r.PEa1Tv1(timeStep,v);         // r += p*dt/m
-                }
-                continue;
-            }
-
-            IntegratorRigidIterative.MoleculeAgent agent = (IntegratorRigidIterative.MoleculeAgent) moleculeAgentManager.getAgent(molecule);
-            IMoleculeOrientedKinetic orientedMolecule = (IMoleculeOrientedKinetic)molecule;
-            Vector moment = ((ISpeciesOriented)molecule.getType()).getMomentOfInertia();
-            double mass = ((ISpeciesOriented)molecule.getType()).getMass();
-            IOrientationFull3D orientation = (IOrientationFull3D)orientedMolecule.getOrientation();
-
-            // use the angular velocity field to store angular momentum during the time step  :(
-            Vector angularMomentum = orientedMolecule.getAngularVelocity();
-
-            // transform to body-fixed, multiply by moment of inertia, transform back
-            rotationTensor.setOrientation(orientation);
-            axesTensor.E(rotationTensor);
-            rotationTensor.transform(angularMomentum);
-            
-            omegaTensor.E(0);
-            omegaTensor.setComponent(0, 1, angularMomentum.getX(2));
-            omegaTensor.setComponent(0, 2, -angularMomentum.getX(1));
-            omegaTensor.setComponent(1, 0, -angularMomentum.getX(2));
-            omegaTensor.setComponent(1, 2, angularMomentum.getX(0));
-            omegaTensor.setComponent(2, 0, angularMomentum.getX(1));
-            omegaTensor.setComponent(2, 1, -angularMomentum.getX(0));
-            
-            // xWork = angular velocity from the previous iteration
-            // save angular velocity to see if we've converged
-            xWork.E(angularMomentum);
-            
-            angularMomentum.TE(moment);
-            rotationTensor.invert();
-            rotationTensor.transform(angularMomentum);
-            rotationTensor.invert();
-
-            angularMomentum.PEa1Tv1(0.5*timeStep, agent.torque);
-
-            numRigid++;
-            for (int i = 0; i<maxIterations; i++) {
-                iterationsTotal++;
-                tempAxesTensor.E(omegaTensor);
-                tempAxesTensor.TE(rotationTensor);
-                tempAxesTensor.TE(timeStep);
-                tempAxesTensor.TE(0.5);
-                tempAxesTensor.PE(axesTensor);
-                // tempAxesTensor is now our estimate of A at the half timestep
-                
-                //now find half-timestep angular velocity
-                tempAngularVelocity.E(angularMomentum);
-                // invert so we can go space -> body
-                tempAxesTensor.transform(tempAngularVelocity);
-                tempAngularVelocity.DE(moment);
-                // tempAngularVelocity is now the half-timestep angular velocity
-                xWork.ME(tempAngularVelocity);
-//                System.out.println("omegaDiff "+i+" "+xWork.squared()/tempAngularVelocity.squared());
-                if (xWork.squared()/tempAngularVelocity.squared() < omegaTolerance) {
-                    rotationTensor.ME(tempAxesTensor);
-                    double sumDiff = 0, sum = 0;
-                    for (int j=0; j<3; j++) {
-                        for (int k=0; k<3; k++) {
-                            double v = rotationTensor.component(j,k);
-                            sumDiff += v*v;
-                            v = tempAxesTensor.component(j,k);
-                            sum += v*v;
-                        }
-                    }
-//                    System.out.println("axes diff "+sum);
-                    if (sumDiff/sum < rotationTolerance) {
-                        rotationTensor.E(tempAxesTensor);
-                        break;
-                    }
-                }
-                xWork.E(tempAngularVelocity);
-                rotationTensor.E(tempAxesTensor);
-                
-                // populate omegaTensor again with our updated estimate of omega
-                omegaTensor.E(0);
-                omegaTensor.setComponent(0, 1, tempAngularVelocity.getX(2));
-                omegaTensor.setComponent(0, 2, -tempAngularVelocity.getX(1));
-                omegaTensor.setComponent(1, 0, -tempAngularVelocity.getX(2));
-                omegaTensor.setComponent(1, 2, tempAngularVelocity.getX(0));
-                omegaTensor.setComponent(2, 0, tempAngularVelocity.getX(1));
-                omegaTensor.setComponent(2, 1, -tempAngularVelocity.getX(0));
-            }
-
-            tempAxesTensor.E(omegaTensor);
-            tempAxesTensor.TE(rotationTensor);
-            tempAxesTensor.TE(timeStep);
-            tempAxesTensor.PE(axesTensor);
-            
-            xWork.setX(0, tempAxesTensor.component(0,0));
-            xWork.setX(1, tempAxesTensor.component(0,1));
-            xWork.setX(2, tempAxesTensor.component(0,2));
-            yWork.setX(0, tempAxesTensor.component(1,0));
-            yWork.setX(1, tempAxesTensor.component(1,1));
-            yWork.setX(2, tempAxesTensor.component(1,2));
-            orientation.setDirections(xWork, yWork);
-
-//            System.out.println("o "+orientation.getDirection()+" "+orientation.getSecondaryDirection());
-            calcer.setOrientation(molecule, orientation);
-            //advance linear velocity to half timestep
-            orientedMolecule.getVelocity().PEa1Tv1(0.5*timeStep/mass, agent.force);
-            
-            //advance position to full timestep
-            Vector transVec = ((AtomActionTranslateBy)translator.getAtomAction()).getTranslationVector();
-            transVec.Ea1Tv1(timeStep, orientedMolecule.getVelocity());
-            orientedMolecule.getPosition().PE(transVec);
-            translator.actionPerformed(molecule);
+        for (int i = 0; i < moleculeLoop.getWorkspaceCount(); i++) {
+            moleculeLoop.getWorkspace(i).reset();
         }
+        moleculeLoop.forEach(nMolecules, (w, iMolecule) -> advanceMoleculeHalf(moleculeList.get(iMolecule), w));
 
 //        if(forceSum instanceof PotentialCalculationForcePressureSum){
 //            pressureTensor.E(((PotentialCalculationForcePressureSum)forceSum).getPressureTensor());
@@ -265,73 +175,25 @@ public class IntegratorRigidMatrixIterative extends IntegratorMD implements Spec
         
         torqueSum.reset();
         //Compute forces and torques on each atom at t+dt
-        potentialMaster.calculate(box, allAtoms, torqueSum);
+        if (parallelTorqueSum != null && isParallel() && torqueSum.getClass() == PotentialCalculationTorqueSum.class) {
+            parallelTorqueSum.calculate(forces, moleculeAgentManager);
+            potentialMaster.lrcMaster().calculate(box, allAtoms, torqueSum);
+        }
+        else {
+            potentialMaster.calculate(box, allAtoms, torqueSum);
+        }
         
-        for (int iMolecule = 0; iMolecule<nMolecules; iMolecule++) {
-            IMolecule molecule = moleculeList.get(iMolecule);
-            IAtomList children = molecule.getChildList();
-            OrientationCalc calcer = (OrientationCalc)typeAgentManager.getAgent(molecule.getType());
-            if (calcer == null) {
-                // unimolecular or at least not rigid
-                //Finish integration step
-                for (int iLeaf = 0; iLeaf<children.size(); iLeaf++) {
-                    IAtomKinetic a = (IAtomKinetic)children.get(iLeaf);
-//                    System.out.println("force: "+((MyAgent)a.ia).force.toString());
-                    Vector velocity = a.getVelocity();
-                    workTensor.Ev1v2(velocity,velocity);
-                    workTensor.TE(a.getType().getMass());
-                    pressureTensor.PE(workTensor);
-                    if (Debug.ON && Debug.DEBUG_NOW && Debug.anyAtom(new AtomSetSinglet(a))) {
-                        System.out.println("second "+a+" v="+velocity+", f="+ forces.getAgent(a));
-                    }
-                    velocity.PEa1Tv1(0.5*timeStep* a.getType().rm(), forces.getAgent(a));  //p += f(new)*dt/2
-                    currentKineticEnergy += velocity.squared()* a.getType().getMass();
-                }
-                // skip the rotational stuff
-                continue;
-            }
-            
-            IMoleculeOrientedKinetic orientedMolecule = (IMoleculeOrientedKinetic)molecule;
-            IntegratorRigidIterative.MoleculeAgent agent = (IntegratorRigidIterative.MoleculeAgent) moleculeAgentManager.getAgent(molecule);
-            Vector moment = ((ISpeciesOriented)molecule.getType()).getMomentOfInertia();
-            double mass = ((ISpeciesOriented)molecule.getType()).getMass();
-            //calc torque and linear force
-            for (int i = 0; i<children.size(); i++) {
-                IAtom atom = children.get(i);
-                Vector atomForce = forces.getAgent(atom);
-                if (atomForce.isZero()) {
-                    continue;
-                }
-
-                agent.force.PE(atomForce);
-
-                xWork.Ev1Mv2(atom.getPosition(), orientedMolecule.getPosition());
-                xWork.XE(atomForce);
-                agent.torque.PE(xWork);
-            }
-            
-            //advance linear velocity to full timestep
-            orientedMolecule.getVelocity().PEa1Tv1(0.5*timeStep/mass, agent.force);
-
-            //advance momentum to full timestep
-            Vector angularVelocity = orientedMolecule.getAngularVelocity();
-
-            // we actually stored the half-timestep angular momentum in this field...
-            // advance to full timestep
-            angularVelocity.PEa1Tv1(0.5*timeStep, agent.torque);
-            // we actually had this before, but we didn't save it...
-            // transform to body-fixed, multiply by moment of inertia, transform back
-            // ==> angular momentum
-            rotationTensor.setOrientation((IOrientationFull3D)orientedMolecule.getOrientation());
-            rotationTensor.transform(angularVelocity);
-            angularVelocity.DE(moment);
-            xWork.E(angularVelocity);
-            rotationTensor.invert();
-            rotationTensor.transform(angularVelocity);
+        moleculeLoop.forEach(nMolecules, (w, iMolecule) -> finishMoleculeStep(moleculeList.get(iMolecule), w));
 
-            currentKineticEnergy += mass * orientedMolecule.getVelocity().squared();
-            xWork.TE(xWork);
-            currentKineticEnergy += xWork.dot(moment);
+        currentKineticEnergy = 0;
+        int iterationsTotal = 0;
+        int numRigid = 0;
+        for (int i = 0; i < moleculeLoop.getWorkspaceCount(); i++) {
+            StepWorkspace w = moleculeLoop.getWorkspace(i);
+            currentKineticEnergy += w.kineticEnergy;
+            iterationsTotal += w.iterationsTotal;
+            numRigid += w.numRigid;
+            pressureTensor.PE(w.pressureTensor);
         }
         pressureTensor.TE(1/box.getBoundary().volume());
 
@@ -346,6 +208,217 @@ public class IntegratorRigidMatrixIterative extends IntegratorMD implements Spec
 
     }
 
+    /**
+     * Advances the momenta of the given molecule to the half timestep and its
+     * position and orientation to the full timestep, using the forces and
+     * torques from the previous step.  Only the molecule's own state and the
+     * workspace are modified, so molecules can be handled concurrently.
+     */
+    protected void advanceMoleculeHalf(IMolecule molecule, StepWorkspace w) {
+        OrientationCalc calcer = (OrientationCalc)typeAgentManager.getAgent(molecule.getType());
+        IAtomList children = molecule.getChildList();
+        if (calcer == null) {
+            for (int iLeaf = 0; iLeaf<children.size(); iLeaf++) {
+                IAtomKinetic a = (IAtomKinetic)children.get(iLeaf);
+                Vector force = forces.getAgent(a);
+                Vector r = a.getPosition();
+                Vector v = a.getVelocity();
+                if (Debug.ON && Debug.DEBUG_NOW && Debug.anyAtom(new AtomSetSinglet(a))) {
+                    System.out.println("first "+a+" r="+r+", v="+v+", f="+ force);
+                }
+                v.PEa1Tv1(0.5*timeStep* a.getType().rm(), force);  // p += f(old)*dt/2
+                r.PEa1Tv1(timeStep,v);         // r += p*dt/m
+            }
+            return;
+        }
+
+        IntegratorRigidIterative.MoleculeAgent agent = (IntegratorRigidIterative.MoleculeAgent) moleculeAgentManager.getAgent(molecule);
+        IMoleculeOrientedKinetic orientedMolecule = (IMoleculeOrientedKinetic)molecule;
+        Vector moment = ((ISpeciesOriented)molecule.getType()).getMomentOfInertia();
+        double mass = ((ISpeciesOriented)molecule.getType()).getMass();
+        IOrientationFull3D orientation = (IOrientationFull3D)orientedMolecule.getOrientation();
+        RotationTensor3D rotationTensor = w.rotationTensor;
+        RotationTensor3D axesTensor = w.axesTensor;
+        RotationTensor3D tempAxesTensor = w.tempAxesTensor;
+        Tensor omegaTensor = w.omegaTensor;
+        Vector tempAngularVelocity = w.tempAngularVelocity;
+        Vector xWork = w.xWork;
+        Vector yWork = w.yWork;
+
+        // use the angular velocity field to store angular momentum during the time step  :(
+        Vector angularMomentum = orientedMolecule.getAngularVelocity();
+
+        // transform to body-fixed, multiply by moment of inertia, transform back
+        rotationTensor.setOrientation(orientation);
+        axesTensor.E(rotationTensor);
+        rotationTensor.transform(angularMomentum);
+
+        omegaTensor.E(0);
+        omegaTensor.setComponent(0, 1, angularMomentum.getX(2));
+        omegaTensor.setComponent(0, 2, -angularMomentum.getX(1));
+        omegaTensor.setComponent(1, 0, -angularMomentum.getX(2));
+        omegaTensor.setComponent(1, 2, angularMomentum.getX(0));
+        omegaTensor.setComponent(2, 0, angularMomentum.getX(1));
+        omegaTensor.setComponent(2, 1, -angularMomentum.getX(0));
+
+        // xWork = angular velocity from the previous iteration
+        // save angular velocity to see if we've converged
+        xWork.E(angularMomentum);
+
+        angularMomentum.TE(moment);
+        rotationTensor.invert();
+        rotationTensor.transform(angularMomentum);
+        rotationTensor.invert();
+
+        angularMomentum.PEa1Tv1(0.5*timeStep, agent.torque);
+
+        w.numRigid++;
+        for (int i = 0; i<maxIterations; i++) {
+            w.iterationsTotal++;
+            tempAxesTensor.E(omegaTensor);
+            tempAxesTensor.TE(rotationTensor);
+            tempAxesTensor.TE(timeStep);
+            tempAxesTensor.TE(0.5);
+            tempAxesTensor.PE(axesTensor);
+            // tempAxesTensor is now our estimate of A at the half timestep
+
+            //now find half-timestep angular velocity
+            tempAngularVelocity.E(angularMomentum);
+            // invert so we can go space -> body
+            tempAxesTensor.transform(tempAngularVelocity);
+            tempAngularVelocity.DE(moment);
+            // tempAngularVelocity is now the half-timestep angular velocity
+            xWork.ME(tempAngularVelocity);
+//            System.out.println("omegaDiff "+i+" "+xWork.squared()/tempAngularVelocity.squared());
+            if (xWork.squared()/tempAngularVelocity.squared() < omegaTolerance) {
+                rotationTensor.ME(tempAxesTensor);
+                double sumDiff = 0, sum = 0;
+                for (int j=0; j<3; j++) {
+                    for (int k=0; k<3; k++) {
+                        double v = rotationTensor.component(j,k);
+                        sumDiff += v*v;
+                        v = tempAxesTensor.component(j,k);
+                        sum += v*v;
+                    }
+                }
+//                System.out.println("axes diff "+sum);
+                if (sumDiff/sum < rotationTolerance) {
+                    rotationTensor.E(tempAxesTensor);
+                    break;
+                }
+            }
+            xWork.E(tempAngularVelocity);
+            rotationTensor.E(tempAxesTensor);
+
+            // populate omegaTensor again with our updated estimate of omega
+            omegaTensor.E(0);
+            omegaTensor.setComponent(0, 1, tempAngularVelocity.getX(2));
+            omegaTensor.setComponent(0, 2, -tempAngularVelocity.getX(1));
+            omegaTensor.setComponent(1, 0, -tempAngularVelocity.getX(2));
+            omegaTensor.setComponent(1, 2, tempAngularVelocity.getX(0));
+            omegaTensor.setComponent(2, 0, tempAngularVelocity.getX(1));
+            omegaTensor.setComponent(2, 1, -tempAngularVelocity.getX(0));
+        }
+
+        tempAxesTensor.E(omegaTensor);
+        tempAxesTensor.TE(rotationTensor);
+        tempAxesTensor.TE(timeStep);
+        tempAxesTensor.PE(axesTensor);
+
+        xWork.setX(0, tempAxesTensor.component(0,0));
+        xWork.setX(1, tempAxesTensor.component(0,1));
+        xWork.setX(2, tempAxesTensor.component(0,2));
+        yWork.setX(0, tempAxesTensor.component(1,0));
+        yWork.setX(1, tempAxesTensor.component(1,1));
+        yWork.setX(2, tempAxesTensor.component(1,2));
+        orientation.setDirections(xWork, yWork);
+
+//        System.out.println("o "+orientation.getDirection()+" "+orientation.getSecondaryDirection());
+        calcer.setOrientation(molecule, orientation);
+        //advance linear velocity to half timestep
+        orientedMolecule.getVelocity().PEa1Tv1(0.5*timeStep/mass, agent.force);
+
+        //advance position to full timestep
+        Vector transVec = ((AtomActionTranslateBy)w.translator.getAtomAction()).getTranslationVector();
+        transVec.Ea1Tv1(timeStep, orientedMolecule.getVelocity());
+        orientedMolecule.getPosition().PE(transVec);
+        w.translator.actionPerformed(molecule);
+    }
+
+    /**
+     * Collects the atomic forces of the given molecule into its force and
+     * torque and advances its momenta to the full timestep.  The kinetic
+     * energy and pressure tensor contributions are accumulated in the
+     * workspace.
+     */
+    protected void finishMoleculeStep(IMolecule molecule, StepWorkspace w) {
+        IAtomList children = molecule.getChildList();
+        OrientationCalc calcer = (OrientationCalc)typeAgentManager.getAgent(molecule.getType());
+        if (calcer == null) {
+            // unimolecular or at least not rigid
+            //Finish integration step
+            for (int iLeaf = 0; iLeaf<children.size(); iLeaf++) {
+                IAtomKinetic a = (IAtomKinetic)children.get(iLeaf);
+//                System.out.println("force: "+((MyAgent)a.ia).force.toString());
+                Vector velocity = a.getVelocity();
+                w.workTensor.Ev1v2(velocity,velocity);
+                w.workTensor.TE(a.getType().getMass());
+                w.pressureTensor.PE(w.workTensor);
+                if (Debug.ON && Debug.DEBUG_NOW && Debug.anyAtom(new AtomSetSinglet(a))) {
+                    System.out.println("second "+a+" v="+velocity+", f="+ forces.getAgent(a));
+                }
+                velocity.PEa1Tv1(0.5*timeStep* a.getType().rm(), forces.getAgent(a));  //p += f(new)*dt/2
+                w.kineticEnergy += velocity.squared()* a.getType().getMass();
+            }
+            // skip the rotational stuff
+            return;
+        }
+
+        IMoleculeOrientedKinetic orientedMolecule = (IMoleculeOrientedKinetic)molecule;
+        IntegratorRigidIterative.MoleculeAgent agent = (IntegratorRigidIterative.MoleculeAgent) moleculeAgentManager.getAgent(molecule);
+        Vector moment = ((ISpeciesOriented)molecule.getType()).getMomentOfInertia();
+        double mass = ((ISpeciesOriented)molecule.getType()).getMass();
+        Vector xWork = w.xWork;
+        RotationTensor3D rotationTensor = w.rotationTensor;
+        //calc torque and linear force
+        for (int i = 0; i<children.size(); i++) {
+            IAtom atom = children.get(i);
+            Vector atomForce = forces.getAgent(atom);
+            if (atomForce.isZero()) {
+                continue;
+            }
+
+            agent.force.PE(atomForce);
+
+            xWork.Ev1Mv2(atom.getPosition(), orientedMolecule.getPosition());
+            xWork.XE(atomForce);
+            agent.torque.PE(xWork);
+        }
+
+        //advance linear velocity to full timestep
+        orientedMolecule.getVelocity().PEa1Tv1(0.5*timeStep/mass, agent.force);
+
+        //advance momentum to full timestep
+        Vector angularVelocity = orientedMolecule.getAngularVelocity();
+
+        // we actually stored the half-timestep angular momentum in this field...
+        // advance to full timestep
+        angularVelocity.PEa1Tv1(0.5*timeStep, agent.torque);
+        // we actually had this before, but we didn't save it...
+        // transform to body-fixed, multiply by moment of inertia, transform back
+        // ==> angular momentum
+        rotationTensor.setOrientation((IOrientationFull3D)orientedMolecule.getOrientation());
+        rotationTensor.transform(angularVelocity);
+        angularVelocity.DE(moment);
+        xWork.E(angularVelocity);
+        rotationTensor.invert();
+        rotationTensor.transform(angularVelocity);
+
+        w.kineticEnergy += mass * orientedMolecule.getVelocity().squared();
+        xWork.TE(xWork);
+        w.kineticEnergy += xWork.dot(moment);
+    }
+
     /**
      * Returns the pressure tensor based on the forces calculated during the
      * last time step.
@@ -674,6 +747,43 @@ public class IntegratorRigidMatrixIterative extends IntegratorMD implements Spec
     
     public void releaseAgent(Object agent, IMolecule molecule) {}
 
+    /**
+     * Scratch space and partial sums used by one chunk of molecules during a
+     * step.
+     */
+    protected static class StepWorkspace {
+        public final Vector xWork, yWork;
+        public final Vector tempAngularVelocity;
+        public final RotationTensor3D rotationTensor;
+        public final RotationTensor3D axesTensor, tempAxesTensor;
+        public final Tensor omegaTensor;
+        public final MoleculeChildAtomAction translator;
+        public final Tensor workTensor;
+        public final Tensor pressureTensor;
+        public double kineticEnergy;
+        public int iterationsTotal, numRigid;
+
+        public StepWorkspace(Space space) {
+            xWork = space.makeVector();
+            yWork = space.makeVector();
+            tempAngularVelocity = space.makeVector();
+            rotationTensor = (RotationTensor3D)space.makeRotationTensor();
+            axesTensor = (RotationTensor3D)space.makeRotationTensor();
+            tempAxesTensor = (RotationTensor3D)space.makeRotationTensor();
+            omegaTensor = space.makeTensor();
+            translator = new MoleculeChildAtomAction(new AtomActionTranslateBy(space));
+            workTensor = space.makeTensor();
+            pressureTensor = space.makeTensor();
+        }
+
+        public void reset() {
+            pressureTensor.E(0);
+            kineticEnergy = 0;
+            iterationsTotal = 0;
+            numRigid = 0;
+        }
+    }
+
     public Object makeAgent(ISpecies type) {
         return null;
     }
@@ -0,0 +1,115 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.integrator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Splits a loop over the molecules of a box into contiguous chunks, each of
+ * which owns a private workspace (scratch vectors and partial sums).  When
+ * parallel, the chunks are handed to the common fork-join pool; otherwise a
+ * single workspace walks all molecules in order, so that serial results are
+ * identical to a plain loop.
+ * <p>
+ * The loop body must only modify state owned by the molecule it is given
+ * (and the workspace).  Reductions (kinetic energy, pressure tensor, ...) are
+ * accumulated in the workspaces and combined by the caller afterwards.
+ */
+public class ParallelMoleculeLoop<W> {
+
+    /**
+     * Default for integrators that support parallel stepping, taken from the
+     * etomica.integrator.parallel system property.
+     */
+    public static final boolean DEFAULT_PARALLEL = Boolean.parseBoolean(System.getProperty("etomica.integrator.parallel"));
+
+    public interface MoleculeAction<W> {
+        void actionPerformed(W workspace, int iMolecule);
+    }
+
+    protected final IntFunction<W> workspaceFactory;
+    protected Object[] workspaces;
+    protected boolean isParallel;
+
+    public ParallelMoleculeLoop(IntFunction<W> workspaceFactory, boolean isParallel) {
+        this.workspaceFactory = workspaceFactory;
+        setParallel(isParallel);
+    }
+
+    /**
+     * Sets whether the loop should be split across the common fork-join pool.
+     */
+    public void setParallel(boolean newIsParallel) {
+        isParallel = newIsParallel;
+        // a few chunks per worker lets the pool balance molecules that
+        // take more iterations than others
+        int nChunks = isParallel ? 4 * ForkJoinPool.getCommonPoolParallelism() : 1;
+        workspaces = new Object[Math.max(nChunks, 1)];
+        for (int i = 0; i < workspaces.length; i++) {
+            workspaces[i] = workspaceFactory.apply(i);
+        }
+    }
+
+    public boolean isParallel() {
+        return isParallel;
+    }
+
+    /**
+     * Returns the number of workspaces (and so the maximum number of chunks).
+     */
+    public int getWorkspaceCount() {
+        return workspaces.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    public W getWorkspace(int i) {
+        return (W) workspaces[i];
+    }
+
+    /**
+     * Performs the action for molecules 0..nMolecules-1.  Each chunk of
+     * molecules is processed in order by a single thread using its own
+     * workspace.
+     */
+    public void forEach(int nMolecules, MoleculeAction<W> action) {
+        int nChunks = Math.min(workspaces.length, nMolecules);
+        if (nChunks <= 1) {
+            W w = getWorkspace(0);
+            for (int i = 0; i < nMolecules; i++) {
+                action.actionPerformed(w, i);
+            }
+            return;
+        }
+        IntStream.range(0, nChunks).parallel().forEach(iChunk -> {
+            W w = getWorkspace(iChunk);
+            int start = (int) (((long) nMolecules * iChunk) / nChunks);
+            int end = (int) (((long) nMolecules * (iChunk + 1)) / nChunks);
+            for (int i = start; i < end; i++) {
+                action.actionPerformed(w, i);
+            }
+        });
+    }
+
+    /**
+     * Performs the action for molecules 0..nMolecules-1, handing molecule i
+     * to chunk i%nChunks.  This balances work that shrinks with the molecule
+     * index, such as pair loops that only look at molecules after the target.
+     */
+    public void forEachInterleaved(int nMolecules, MoleculeAction<W> action) {
+        int nChunks = Math.min(workspaces.length, nMolecules);
+        if (nChunks <= 1) {
+            forEach(nMolecules, action);
+            return;
+        }
+        IntStream.range(0, nChunks).parallel().forEach(iChunk -> {
+            W w = getWorkspace(iChunk);
+            for (int i = iChunk; i < nMolecules; i += nChunks) {
+                action.actionPerformed(w, i);
+            }
+        });
+    }
+}
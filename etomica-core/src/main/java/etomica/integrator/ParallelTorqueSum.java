@@ -0,0 +1,133 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.integrator;
+
+import etomica.atom.AtomLeafAgentManager;
+import etomica.atom.IAtom;
+import etomica.atom.IAtomList;
+import etomica.box.Box;
+import etomica.molecule.IMolecule;
+import etomica.molecule.IMoleculeList;
+import etomica.molecule.MoleculeAgentManager;
+import etomica.potential.IteratorDirective;
+import etomica.potential.PotentialCalculationTorqueSum;
+import etomica.potential.PotentialMaster;
+import etomica.simulation.Simulation;
+import etomica.space.Space;
+import etomica.space.Vector;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the forces and torques for the rigid-molecule integrators on the
+ * common fork-join pool.  Potentials keep scratch state, so each chunk of
+ * molecules evaluates its interactions with its own PotentialMaster (taken from
+ * the factory) into its own force and torque buffers.  Once all chunks are
+ * done, the buffers are summed into the integrator's agents.
+ * <p>
+ * Each chunk calculates the interactions of its molecules with the molecules
+ * that follow them in the box (IteratorDirective.Direction.UP), so the
+ * PotentialMasters should hold 1- and 2-body potentials only.  Long-range
+ * corrections are not included; the integrator applies them separately.
+ */
+public class ParallelTorqueSum<A> {
+
+    protected final Box box;
+    protected final Function<? super A, Vector> leafForce;
+    protected final ParallelMoleculeLoop<Buffer> loop;
+
+    /**
+     * @param potentialMasterFactory called once for each chunk; each call must
+     *                  return a new PotentialMaster holding its own copies of
+     *                  the integrator's 1- and 2-body potentials, since
+     *                  potentials keep scratch state and cannot be shared
+     *                  between threads
+     * @param leafForce returns the force vector held by one of the
+     *                  integrator's leaf-atom agents
+     */
+    public ParallelTorqueSum(Simulation sim, Box box, Supplier<? extends PotentialMaster> potentialMasterFactory,
+                             Function<? super A, Vector> leafForce) {
+        this.box = box;
+        this.leafForce = leafForce;
+        Space space = sim.getSpace();
+        loop = new ParallelMoleculeLoop<>(i -> new Buffer(sim, box, potentialMasterFactory.get(), space), true);
+    }
+
+    /**
+     * Adds the forces and torques from all molecules in the box to the given
+     * agents.  The agents are not zeroed first.
+     */
+    public void calculate(AtomLeafAgentManager<A> leafAgentManager, MoleculeAgentManager<?> moleculeAgentManager) {
+        IMoleculeList moleculeList = box.getMoleculeList();
+        int nMolecules = moleculeList.size();
+        int nBuffers = loop.getWorkspaceCount();
+        IntStream.range(0, nBuffers).parallel().forEach(i -> loop.getWorkspace(i).torqueSum.reset());
+
+        loop.forEachInterleaved(nMolecules, (b, iMolecule) -> {
+            b.id.setTargetMolecule(moleculeList.get(iMolecule));
+            b.potentialMaster.calculate(box, b.id, b.torqueSum);
+        });
+
+        loop.forEach(nMolecules, (unused, iMolecule) -> {
+            IMolecule molecule = moleculeList.get(iMolecule);
+            IAtomList children = molecule.getChildList();
+            for (int i = 0; i < children.size(); i++) {
+                IAtom atom = children.get(i);
+                Vector f = leafForce.apply(leafAgentManager.getAgent(atom));
+                for (int j = 0; j < nBuffers; j++) {
+                    f.PE(loop.getWorkspace(j).leafAgentManager.getAgent(atom).force);
+                }
+            }
+            Object agent = moleculeAgentManager.getAgent(molecule);
+            if (agent instanceof Integrator.Forcible) {
+                Vector f = ((Integrator.Forcible) agent).force();
+                for (int j = 0; j < nBuffers; j++) {
+                    f.PE(loop.getWorkspace(j).moleculeAgentManager.getAgent(molecule).force);
+                }
+            }
+            if (agent instanceof Integrator.Torquable) {
+                Vector t = ((Integrator.Torquable) agent).torque();
+                for (int j = 0; j < nBuffers; j++) {
+                    t.PE(loop.getWorkspace(j).moleculeAgentManager.getAgent(molecule).torque);
+                }
+            }
+        });
+    }
+
+    /**
+     * Releases the buffers' agent managers.  This object should not be used
+     * afterwards.
+     */
+    public void dispose() {
+        for (int i = 0; i < loop.getWorkspaceCount(); i++) {
+            Buffer b = loop.getWorkspace(i);
+            b.leafAgentManager.dispose();
+            b.moleculeAgentManager.dispose();
+        }
+    }
+
+    /**
+     * The PotentialMaster and force and torque buffers used by one chunk.
+     */
+    protected static class Buffer {
+        public final PotentialMaster potentialMaster;
+        public final IteratorDirective id;
+        public final PotentialCalculationTorqueSum torqueSum;
+        public final AtomLeafAgentManager<IntegratorRigidIterative.AtomForceAgent> leafAgentManager;
+        public final MoleculeAgentManager<IntegratorRigidIterative.MoleculeAgent> moleculeAgentManager;
+
+        public Buffer(Simulation sim, Box box, PotentialMaster potentialMaster, Space space) {
+            this.potentialMaster = potentialMaster;
+            id = new IteratorDirective(IteratorDirective.Direction.UP);
+            leafAgentManager = new AtomLeafAgentManager<>(a -> new IntegratorRigidIterative.AtomForceAgent(space), box);
+            moleculeAgentManager = new MoleculeAgentManager<>(sim, box, m -> new IntegratorRigidIterative.MoleculeAgent(space));
+            torqueSum = new PotentialCalculationTorqueSum();
+            torqueSum.setAgentManager(leafAgentManager);
+            torqueSum.setMoleculeAgentManager(moleculeAgentManager);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.math.numerical;
+
+/**
+ * Conjugate-gradient solver for A x = b, where A is a dense, symmetric,
+ * positive-definite matrix.  The solution vector passed in is used as the
+ * starting guess, so callers solving a sequence of similar systems (such as
+ * induced dipoles in successive configurations) can warm-start from the
+ * previous solution.  Work arrays are retained between calls.
+ */
+public class ConjugateGradient {
+
+    protected double tolerance;
+    protected int maxIterations;
+    protected double[] r, p, Ap;
+    protected int lastIterations;
+    protected double lastResidual;
+
+    public ConjugateGradient() {
+        tolerance = 1e-10;
+        maxIterations = 1000;
+        r = p = Ap = new double[0];
+    }
+
+    /**
+     * Sets the convergence tolerance, as the ratio of the norm of the
+     * residual to the norm of b.
+     */
+    public void setTolerance(double newTolerance) {
+        tolerance = newTolerance;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setMaxIterations(int newMaxIterations) {
+        maxIterations = newMaxIterations;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Returns the number of iterations taken by the last call to solve.
+     */
+    public int getLastIterations() {
+        return lastIterations;
+    }
+
+    /**
+     * Returns the relative residual norm at the end of the last call to
+     * solve.
+     */
+    public double getLastResidual() {
+        return lastResidual;
+    }
+
+    /**
+     * Solves A x = b for the leading n x n block of A.  x holds the initial
+     * guess on input and the solution on output.
+     *
+     * @return true if the solution converged within the maximum number of
+     * iterations
+     */
+    public boolean solve(double[][] A, double[] b, double[] x, int n) {
+        if (r.length < n) {
+            r = new double[n];
+            p = new double[n];
+            Ap = new double[n];
+        }
+        double bNorm2 = 0;
+        for (int i = 0; i < n; i++) {
+            bNorm2 += b[i] * b[i];
+        }
+        lastIterations = 0;
+        if (bNorm2 == 0) {
+            for (int i = 0; i < n; i++) {
+                x[i] = 0;
+            }
+            lastResidual = 0;
+            return true;
+        }
+        double tol2 = tolerance * tolerance * bNorm2;
+
+        double rr = 0;
+        for (int i = 0; i < n; i++) {
+            double[] Ai = A[i];
+            double sum = 0;
+            for (int j = 0; j < n; j++) {
+                sum += Ai[j] * x[j];
+            }
+            r[i] = b[i] - sum;
+            p[i] = r[i];
+            rr += r[i] * r[i];
+        }
+
+        while (rr > tol2 && lastIterations < maxIterations) {
+            double pAp = 0;
+            for (int i = 0; i < n; i++) {
+                double[] Ai = A[i];
+                double sum = 0;
+                for (int j = 0; j < n; j++) {
+                    sum += Ai[j] * p[j];
+                }
+                Ap[i] = sum;
+                pAp += p[i] * sum;
+            }
+            if (!(pAp > 0)) {
+                // A is not positive definite (or p is numerically zero)
+                break;
+            }
+            double alpha = rr / pAp;
+            double rrNew = 0;
+            for (int i = 0; i < n; i++) {
+                x[i] += alpha * p[i];
+                r[i] -= alpha * Ap[i];
+                rrNew += r[i] * r[i];
+            }
+            double beta = rrNew / rr;
+            for (int i = 0; i < n; i++) {
+                p[i] = r[i] + beta * p[i];
+            }
+            rr = rrNew;
+            lastIterations++;
+        }
+        lastResidual = Math.sqrt(rr / bNorm2);
+        return rr <= tol2;
+    }
+}
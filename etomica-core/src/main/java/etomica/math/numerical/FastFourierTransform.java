@@ -4,6 +4,9 @@
 
 package etomica.math.numerical;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
 /**
  *
  * This utility receives a set of data points, either Real, Imaginary or Both
@@ -160,6 +163,177 @@ public class FastFourierTransform implements java.io.Serializable {
 	 */
 	public void invert() { FFT(-1);}
 	
+	/**
+	 * Performs an (unscaled) in-place complex FFT of n points of the given
+	 * arrays, starting at offset with unit stride.  The forward transform
+	 * (inverse=false) uses exp(-2 pi i j k / n), as transform() does, but
+	 * no 1/n scaling is applied in either direction.  n must be a power of 2.
+	 */
+	public static void fft(double[] real, double[] imaginary, int offset, int n, boolean inverse) {
+		// bit reversal
+		for (int i = 1, j = 0; i < n; i++) {
+			int bit = n >> 1;
+			for (; (j & bit) != 0; bit >>= 1) {
+				j ^= bit;
+			}
+			j ^= bit;
+			if (i < j) {
+				double temp = real[offset + i];
+				real[offset + i] = real[offset + j];
+				real[offset + j] = temp;
+				temp = imaginary[offset + i];
+				imaginary[offset + i] = imaginary[offset + j];
+				imaginary[offset + j] = temp;
+			}
+		}
+		for (int mmax = 1; mmax < n; mmax <<= 1) {
+			double theta = (inverse ? Math.PI : -Math.PI) / mmax;
+			double wpr = Math.cos(theta), wpi = Math.sin(theta);
+			double wr = 1, wi = 0;
+			for (int m = 0; m < mmax; m++) {
+				for (int i = offset + m; i < offset + n; i += 2 * mmax) {
+					int i1 = i + mmax;
+					double tempr = wr * real[i1] - wi * imaginary[i1];
+					double tempi = wr * imaginary[i1] + wi * real[i1];
+					real[i1] = real[i] - tempr;
+					imaginary[i1] = imaginary[i] - tempi;
+					real[i] += tempr;
+					imaginary[i] += tempi;
+				}
+				double wtemp = wr;
+				wr = wr * wpr - wi * wpi;
+				wi = wi * wpr + wtemp * wpi;
+			}
+		}
+	}
+
+	/**
+	 * Performs an (unscaled) in-place complex FFT of an nx x ny x nz grid,
+	 * stored with z varying fastest (index (ix*ny+iy)*nz+iz).  Each dimension
+	 * must be a power of 2; dimensions of 1 are allowed, so the same method
+	 * handles 1D and 2D grids.  If parallel, the lines along each axis are
+	 * transformed in the common fork-join pool.
+	 */
+	public static void transform3D(double[] real, double[] imaginary, int nx, int ny, int nz, boolean inverse, boolean parallel) {
+		checkPowerOf2(nx);
+		checkPowerOf2(ny);
+		checkPowerOf2(nz);
+		if (real.length < nx * ny * nz || imaginary.length < nx * ny * nz) {
+			throw new IllegalArgumentException("Arrays too small for grid");
+		}
+		transformAxis(real, imaginary, nx * ny, nz, 1, inverse, parallel);
+		transformAxis(real, imaginary, nx, ny, nz, inverse, parallel);
+		transformAxis(real, imaginary, 1, nx, ny * nz, inverse, parallel);
+	}
+
+	/**
+	 * Performs an (unscaled) forward FFT of a real nx x ny x nz grid (z
+	 * varying fastest).  Since the transform of real data is Hermitian, only
+	 * the nz/2+1 non-negative z frequencies are returned, so the output
+	 * arrays hold nx*ny*(nz/2+1) values, with index (ix*ny+iy)*(nz/2+1)+iz.
+	 * Each line along z is transformed as a complex FFT of half the length,
+	 * so the cost is about half that of a complex transform of the same grid.
+	 * nx and ny must be powers of 2 (or 1) and nz a power of 2 no less than 2.
+	 */
+	public static void transformReal3D(double[] data, int nx, int ny, int nz, double[] outReal, double[] outImaginary, boolean parallel) {
+		checkPowerOf2(nx);
+		checkPowerOf2(ny);
+		checkPowerOf2(nz);
+		if (nz < 2) {
+			throw new IllegalArgumentException("nz must be at least 2");
+		}
+		int nzOut = nz / 2 + 1;
+		if (data.length < nx * ny * nz || outReal.length < nx * ny * nzOut || outImaginary.length < nx * ny * nzOut) {
+			throw new IllegalArgumentException("Arrays too small for grid");
+		}
+		int half = nz / 2;
+		double[] twr = new double[half + 1];
+		double[] twi = new double[half + 1];
+		for (int k = 0; k <= half; k++) {
+			twr[k] = Math.cos(2 * Math.PI * k / nz);
+			twi[k] = -Math.sin(2 * Math.PI * k / nz);
+		}
+		forEachLine(nx * ny, half, parallel, (zr, zi, line) -> {
+			int inOffset = line * nz;
+			int outOffset = line * nzOut;
+			// pack even and odd points as the real and imaginary parts
+			for (int j = 0; j < half; j++) {
+				zr[j] = data[inOffset + 2 * j];
+				zi[j] = data[inOffset + 2 * j + 1];
+			}
+			fft(zr, zi, 0, half, false);
+			for (int k = 0; k <= half; k++) {
+				int k1 = k == half ? 0 : k;
+				int k2 = k == 0 ? 0 : half - k;
+				// even part: (Z_k + conj(Z_{M-k}))/2, odd part: (Z_k - conj(Z_{M-k}))/2i
+				double er = 0.5 * (zr[k1] + zr[k2]);
+				double ei = 0.5 * (zi[k1] - zi[k2]);
+				double or = 0.5 * (zi[k1] + zi[k2]);
+				double oi = -0.5 * (zr[k1] - zr[k2]);
+				outReal[outOffset + k] = er + twr[k] * or - twi[k] * oi;
+				outImaginary[outOffset + k] = ei + twr[k] * oi + twi[k] * or;
+			}
+		});
+		transformAxis(outReal, outImaginary, nx, ny, nzOut, false, parallel);
+		transformAxis(outReal, outImaginary, 1, nx, ny * nzOut, false, parallel);
+	}
+
+	/**
+	 * Transforms all lines of length n along one axis of a grid.  The grid is
+	 * viewed as nOuter blocks of n*stride values; within a block, the lines
+	 * start at each of the stride leading values.
+	 */
+	private static void transformAxis(double[] real, double[] imaginary, int nOuter, int n, int stride, boolean inverse, boolean parallel) {
+		if (n == 1) return;
+		if (stride == 1) {
+			forEachLine(nOuter, 0, parallel, (zr, zi, line) -> fft(real, imaginary, line * n, n, inverse));
+			return;
+		}
+		forEachLine(nOuter * stride, n, parallel, (zr, zi, line) -> {
+			int start = (line / stride) * n * stride + (line % stride);
+			for (int j = 0; j < n; j++) {
+				zr[j] = real[start + j * stride];
+				zi[j] = imaginary[start + j * stride];
+			}
+			fft(zr, zi, 0, n, inverse);
+			for (int j = 0; j < n; j++) {
+				real[start + j * stride] = zr[j];
+				imaginary[start + j * stride] = zi[j];
+			}
+		});
+	}
+
+	private interface LineAction {
+		void transformLine(double[] scratchReal, double[] scratchImaginary, int line);
+	}
+
+	/**
+	 * Runs the action for each line, in contiguous chunks that each own a
+	 * pair of scratch arrays of length scratchLength.
+	 */
+	private static void forEachLine(int nLines, int scratchLength, boolean parallel, LineAction action) {
+		int nChunks = parallel ? Math.min(nLines, 4 * ForkJoinPool.getCommonPoolParallelism()) : 1;
+		IntStream chunks = IntStream.range(0, Math.max(nChunks, 1));
+		if (nChunks > 1) {
+			chunks = chunks.parallel();
+		}
+		chunks.forEach(iChunk -> {
+			double[] zr = new double[scratchLength];
+			double[] zi = new double[scratchLength];
+			int start = (int) (((long) nLines * iChunk) / Math.max(nChunks, 1));
+			int end = (int) (((long) nLines * (iChunk + 1)) / Math.max(nChunks, 1));
+			for (int line = start; line < end; line++) {
+				action.transformLine(zr, zi, line);
+			}
+		});
+	}
+
+	private static void checkPowerOf2(int n) {
+		if (n < 1 || (n & (n - 1)) != 0) {
+			throw new IllegalArgumentException("Grid size " + n + " is not a power of 2");
+		}
+	}
+
 	/**
 	 * array value calls
 	 */
@@ -0,0 +1,216 @@
+package etomica.meta;
+
+import io.github.lukehutch.fastclasspathscanner.FastClasspathScanner;
+import io.github.lukehutch.fastclasspathscanner.scanner.ScanResult;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Index of the etomica classes and their supertypes, used by ComponentIndex to find the
+ * classes that extend or implement a type.
+ * <p>
+ * The index is written at build time (main, run by the classIndex task of each project) to
+ * META-INF/etomica/class-index, one line per class: the class name followed by the names of
+ * all its supertypes.  Interfaces are not listed.  The index files of all projects on the
+ * classpath are read the first time the index is used.  Classpath elements that have no index
+ * (classes not built by gradle, such as test classes or classes built by an IDE) are scanned
+ * instead, which is much slower, and their classes are added to the index.
+ */
+public final class ClassIndex {
+
+    public static final String RESOURCE = "META-INF/etomica/class-index";
+
+    private ClassIndex() {}
+
+    /**
+     * Returns the names of the classes (not interfaces) that extend or implement the given type,
+     * in alphabetical order.
+     */
+    public static List<String> getNamesOfSubtypes(Class<?> type) {
+        return Holder.SUBTYPES.getOrDefault(type.getName(), Collections.emptyList());
+    }
+
+    private static class Holder {
+        // supertype name => names of its subclasses
+        static final Map<String, List<String>> SUBTYPES = read();
+    }
+
+    private static Map<String, List<String>> read() {
+        ClassLoader loader = ClassIndex.class.getClassLoader();
+        // class name => names of its supertypes
+        Map<String, Set<String>> index = new HashMap<>();
+        // classpath elements holding indexed classes
+        Set<File> indexed = new HashSet<>();
+        try {
+            Enumeration<URL> urls = loader.getResources(RESOURCE);
+            while (urls.hasMoreElements()) {
+                // one class from each package, to find where the indexed classes live
+                Map<String, String> packageClass = new HashMap<>();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(urls.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        String[] names = line.trim().split(" ");
+                        if (names[0].isEmpty()) continue;
+                        index.put(names[0], new LinkedHashSet<>(Arrays.asList(names).subList(1, names.length)));
+                        packageClass.putIfAbsent(names[0].substring(0, Math.max(names[0].lastIndexOf('.'), 0)), names[0]);
+                    }
+                }
+                for (String name : packageClass.values()) {
+                    File element = classpathElement(loader.getResource(name.replace('.', '/') + ".class"), name);
+                    if (element != null) indexed.add(element);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        // scan whatever the index files do not cover
+        List<Object> unindexed = new ArrayList<>();
+        for (File element : new FastClasspathScanner("etomica").getUniqueClasspathElements()) {
+            if (!indexed.contains(canonical(element))) unindexed.add(element);
+        }
+        if (!unindexed.isEmpty()) {
+            ScanResult scan = new FastClasspathScanner("etomica").overrideClasspath(unindexed).scan();
+            for (String name : scan.getNamesOfAllStandardClasses()) {
+                if (index.containsKey(name)) continue;
+                Class<?> cls;
+                try {
+                    cls = Class.forName(name, false, loader);
+                } catch (ClassNotFoundException | LinkageError e) {
+                    continue;
+                }
+                Set<String> supertypes = new LinkedHashSet<>();
+                addSupertypes(cls, supertypes);
+                index.put(name, supertypes);
+            }
+        }
+
+        Map<String, List<String>> subtypes = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : index.entrySet()) {
+            for (String supertype : entry.getValue()) {
+                subtypes.computeIfAbsent(supertype, k -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+        for (List<String> names : subtypes.values()) {
+            Collections.sort(names);
+        }
+        return subtypes;
+    }
+
+    /**
+     * Returns the directory or jar that the class file at the given URL came from, or null if
+     * that cannot be worked out.
+     */
+    private static File classpathElement(URL url, String className) {
+        if (url == null) return null;
+        try {
+            if (url.getProtocol().equals("jar")) {
+                String path = url.getPath();
+                int bang = path.indexOf("!/");
+                if (bang < 0) return null;
+                return canonical(new File(new URL(path.substring(0, bang)).toURI()));
+            }
+            if (url.getProtocol().equals("file")) {
+                File file = new File(url.toURI());
+                // go up one directory for each part of the class name
+                for (int i = 0; i >= 0 && file != null; i = className.indexOf('.', i + 1)) {
+                    file = file.getParentFile();
+                }
+                return file == null ? null : canonical(file);
+            }
+        } catch (MalformedURLException | URISyntaxException | IllegalArgumentException e) {
+            // not a file we can find
+        }
+        return null;
+    }
+
+    private static File canonical(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    /**
+     * Writes the index of the etomica classes in the given directories.
+     *
+     * @param args the class directories (separated by the path separator) and the file to write
+     */
+    public static void main(String[] args) throws IOException {
+        ClassLoader loader = ClassIndex.class.getClassLoader();
+        Map<String, Set<String>> index = new TreeMap<>();
+        for (String dir : args[0].split(File.pathSeparator)) {
+            Path root = new File(dir).toPath();
+            if (!Files.isDirectory(root)) continue;
+            List<String> classNames;
+            try (Stream<Path> paths = Files.walk(root)) {
+                classNames = paths.map(p -> root.relativize(p).toString())
+                        .filter(name -> name.endsWith(".class") && !name.endsWith("-info.class"))
+                        .map(name -> name.substring(0, name.length() - 6).replace(File.separatorChar, '.'))
+                        .filter(name -> name.startsWith("etomica."))
+                        .collect(Collectors.toList());
+            }
+            for (String name : classNames) {
+                Class<?> cls;
+                try {
+                    cls = Class.forName(name, false, loader);
+                } catch (ClassNotFoundException | LinkageError e) {
+                    System.err.println("class index: skipping " + name + ": " + e);
+                    continue;
+                }
+                if (cls.isInterface()) continue;
+                Set<String> supertypes = new LinkedHashSet<>();
+                addSupertypes(cls, supertypes);
+                index.put(name, supertypes);
+            }
+        }
+        File out = new File(args[1]);
+        out.getParentFile().mkdirs();
+        try (PrintWriter writer = new PrintWriter(out, "UTF-8")) {
+            for (Map.Entry<String, Set<String>> entry : index.entrySet()) {
+                writer.print(entry.getKey());
+                for (String supertype : entry.getValue()) {
+                    writer.print(' ');
+                    writer.print(supertype);
+                }
+                writer.println();
+            }
+        }
+    }
+
+    private static void addSupertypes(Class<?> cls, Set<String> supertypes) {
+        Class<?> superclass = cls.getSuperclass();
+        if (superclass != null && superclass != Object.class && supertypes.add(superclass.getName())) {
+            addSupertypes(superclass, supertypes);
+        }
+        for (Class<?> i : cls.getInterfaces()) {
+            if (supertypes.add(i.getName())) {
+                addSupertypes(i, supertypes);
+            }
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package etomica.meta;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-
-import static etomica.meta.Common.*;
 
+/**
+ * Finds the classes that extend or implement a type, using the ClassIndex.  The list is
+ * found the first time it is asked for and then kept.
+ */
 public class ComponentIndex<T> {
     private final Class<T> componentClass;
+    private volatile List<Class<?>> components;
 
 
     public ComponentIndex(Class<T> componentClass) {
@@ -14,11 +18,20 @@ public class ComponentIndex<T> {
     }
 
     public List<Class<?>> getComponentSet() {
-        if (componentClass.isInterface()) {
-            return CLASSPATH_SCAN.classNamesToClassRefs(CLASSPATH_SCAN.getNamesOfClassesImplementing(componentClass));
-        } else {
-            return CLASSPATH_SCAN.classNamesToClassRefs(CLASSPATH_SCAN.getNamesOfSubclassesOf(componentClass));
+        List<Class<?>> list = components;
+        if (list == null) {
+            list = new ArrayList<>();
+            ClassLoader loader = ComponentIndex.class.getClassLoader();
+            for (String name : ClassIndex.getNamesOfSubtypes(componentClass)) {
+                try {
+                    list.add(Class.forName(name, false, loader));
+                } catch (ClassNotFoundException | LinkageError e) {
+                    // stale index entry or missing dependency; leave it out
+                }
+            }
+            list = Collections.unmodifiableList(list);
+            components = list;
         }
-
+        return list;
     }
 }
@@ -43,17 +43,27 @@ public class WrapperIndex {
 
     @SuppressWarnings("unchecked")
     private static Wrapper getWrapper(Object o, Class cls, SimulationModel simModel) {
-        if(wrapperMap.containsKey(cls)) {
-            try {
-                return (Wrapper) wrapperMap.get(cls).newInstance(o, simModel, true);
-            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-                throw new RuntimeException(e);
-            }
-        } else {
-            return getWrapper(o, cls.getSuperclass(), simModel);
+        try {
+            return (Wrapper) constructorMap.get(cls).newInstance(o, simModel, true);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException(e);
         }
     }
 
+    /**
+     * The wrapper constructor for each class, found by walking up from the class to the nearest
+     * superclass that has a wrapper, and then kept.
+     */
+    private static final ClassValue<Constructor<?>> constructorMap = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> cls) {
+            for (Class<?> c = cls; ; c = c.getSuperclass()) {
+                Constructor<?> constructor = wrapperMap.get(c);
+                if (constructor != null) return constructor;
+            }
+        }
+    };
+
 /* from SimulationTree
     protected void findChildren(Map<Class, List<InstanceProperty>> classes) {
 
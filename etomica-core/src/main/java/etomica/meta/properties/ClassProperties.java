@@ -0,0 +1,144 @@
+package etomica.meta.properties;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import etomica.atom.IAtomList;
+import etomica.meta.annotations.IgnoreProperty;
+import etomica.molecule.IMoleculeList;
+import etomica.space.Vector;
+import org.apache.commons.lang3.reflect.MethodUtils;
+
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The properties of a class that are exposed in the simulation model.  Introspection, filtering
+ * of ignored properties and lookup of the accessor methods are done the first time a class is
+ * asked for, and the result is shared by all instances of the class; making the properties of
+ * an instance only pairs the instance with the cached accessors.
+ */
+public final class ClassProperties {
+
+    private static final ClassValue<ClassProperties> CACHE = new ClassValue<ClassProperties>() {
+        @Override
+        protected ClassProperties computeValue(Class<?> type) {
+            return new ClassProperties(type);
+        }
+    };
+
+    private enum Kind {
+        VECTOR, ATOM_LIST, MOLECULE_LIST, ARRAY, INSTANCE
+    }
+
+    private final List<Kind> kinds = new ArrayList<>();
+    private final List<PropertyDescriptor> descriptors = new ArrayList<>();
+    private final List<InstanceProperty.Accessors> accessors = new ArrayList<>();
+
+    private ClassProperties(Class<?> cls) {
+        PropertyDescriptor[] pds;
+        try {
+            pds = Introspector.getBeanInfo(cls).getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            e.printStackTrace();
+            return;
+        }
+        for (PropertyDescriptor pd : pds) {
+            if (pd.getName().equalsIgnoreCase("class")) continue;
+            Method method = propertyDescriptorMethod(pd);
+            if (method == null
+                    || hasAnnotation(method, IgnoreProperty.class)
+                    || hasAnnotation(method, JsonIgnore.class)
+                    || pd.getName().toLowerCase().endsWith("dimension")) {
+                continue;
+            }
+            Kind kind = kindOf(pd);
+            kinds.add(kind);
+            descriptors.add(pd);
+            accessors.add(kind == Kind.INSTANCE ? new InstanceProperty.Accessors(cls, pd) : null);
+        }
+    }
+
+    /**
+     * @return the (cached) properties of the given class
+     */
+    public static ClassProperties forClass(Class<?> cls) {
+        return CACHE.get(cls);
+    }
+
+    /**
+     * @return the number of properties of the class
+     */
+    public int size() {
+        return descriptors.size();
+    }
+
+    /**
+     * @return the descriptors of the class's properties
+     */
+    public List<PropertyDescriptor> getDescriptors() {
+        return Collections.unmodifiableList(descriptors);
+    }
+
+    /**
+     * @return the properties of the given instance, which must be an instance of this class
+     */
+    public List<Property> makeProperties(Object instance) {
+        List<Property> properties = new ArrayList<>(descriptors.size());
+        for (int i = 0; i < descriptors.size(); i++) {
+            PropertyDescriptor pd = descriptors.get(i);
+            switch (kinds.get(i)) {
+                case VECTOR:
+                    properties.add(new VectorProperty(instance, pd));
+                    break;
+                case ATOM_LIST:
+                    properties.add(new AtomListProperty(instance, pd));
+                    break;
+                case MOLECULE_LIST:
+                    properties.add(new MoleculeListProperty(instance, pd));
+                    break;
+                case ARRAY:
+                    properties.add(new ArrayProperty(instance, pd));
+                    break;
+                default:
+                    properties.add(new InstanceProperty(instance, accessors.get(i)));
+            }
+        }
+        return properties;
+    }
+
+    private static Kind kindOf(PropertyDescriptor propertyDescriptor) {
+        Class<?> propertyType = propertyDescriptor.getPropertyType();
+        if (propertyType != null && Vector.class.isAssignableFrom(propertyType)) {
+            return Kind.VECTOR;
+        }
+        if (propertyType != null && IAtomList.class.isAssignableFrom(propertyType)) {
+            return Kind.ATOM_LIST;
+        }
+        if (propertyType != null && IMoleculeList.class.isAssignableFrom(propertyType)) {
+            return Kind.MOLECULE_LIST;
+        }
+        if (!(propertyDescriptor instanceof IndexedPropertyDescriptor) && propertyType.isArray() &&
+                !(propertyType.getComponentType().isPrimitive() || propertyType.getComponentType().equals(String.class))) {
+            return Kind.ARRAY;
+        }
+        return Kind.INSTANCE;
+    }
+
+    private static Method propertyDescriptorMethod(PropertyDescriptor pd) {
+        if (pd instanceof IndexedPropertyDescriptor) {
+            return ((IndexedPropertyDescriptor) pd).getIndexedReadMethod();
+        } else {
+            return pd.getReadMethod();
+        }
+    }
+
+    private static boolean hasAnnotation(Method method, Class<? extends Annotation> ann) {
+        return MethodUtils.getAnnotation(method, ann, true, true) != null;
+    }
+}
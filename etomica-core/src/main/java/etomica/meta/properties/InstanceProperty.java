@@ -5,45 +5,36 @@ import etomica.units.dimensions.Dimensioned;
 
 import java.beans.IndexedPropertyDescriptor;
 import java.beans.PropertyDescriptor;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
 /**
  * Container class for mapping an instance to a property.
  * <p>
  * Also contains additional adder and remover methods for that property if they exist.
+ * The methods are looked up once per class (see ClassProperties) and invoked through
+ * MethodHandles.
  */
 public class InstanceProperty implements Property {
-    private final PropertyDescriptor descriptor;
-    private final Class<?> propertyType;
+    private final Accessors accessors;
     private final Object instance;
-    private final Method reader;
-    private final Method writer;
-    private final Method adder;
-    private final Method remover;
-    private final Method counter;
-
 
     public InstanceProperty(Object instance, PropertyDescriptor descriptor) {
-        this.descriptor = descriptor;
-        this.instance = instance;
-        this.propertyType = isIndexedProperty() ? ((IndexedPropertyDescriptor) descriptor).getIndexedPropertyType() : descriptor.getPropertyType();
-
-        reader = isIndexedProperty() ? ((IndexedPropertyDescriptor) descriptor).getIndexedReadMethod() : descriptor.getReadMethod();
-        writer = isIndexedProperty() ? ((IndexedPropertyDescriptor) descriptor).getIndexedWriteMethod() : descriptor.getWriteMethod();
-
-        String baseName = descriptor.getName().substring(0, 1).toUpperCase() + descriptor.getName().substring(1);
+        this(instance, new Accessors(instance.getClass(), descriptor));
+    }
 
-        adder = getMethod("add" + baseName, propertyType);
-        remover = getMethod("remove" + baseName, propertyType);
-        counter = getMethod("get" + baseName + "Count");
+    public InstanceProperty(Object instance, Accessors accessors) {
+        this.instance = instance;
+        this.accessors = accessors;
     }
 
     @Override
     public Object invokeReader() {
         try {
-            return reader.invoke(instance);
-        } catch(IllegalAccessException | InvocationTargetException e) {
+            return accessors.reader.invoke(instance);
+        } catch(Throwable e) {
             // @TODO: decide whether to keep this
             return null;
 //            throw new RuntimeException(e);
@@ -52,108 +43,101 @@ public class InstanceProperty implements Property {
 
     @Override
     public String getName() {
-        return descriptor.getName();
+        return accessors.descriptor.getName();
     }
 
     @Override
     public Object invokeReader(int i) {
         try {
-            return reader.invoke(instance, i);
-        } catch(IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
+            return accessors.reader.invoke(instance, i);
+        } catch(Throwable e) {
+            throw rethrow(e);
         }
     }
 
     @Override
     public void invokeWriter(Object... params) {
         try {
-            writer.invoke(instance, params);
-        } catch(IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
+            accessors.writer.invoke(instance, params[0]);
+        } catch(Throwable e) {
+            throw rethrow(e);
         }
     }
 
     @Override
     public void invokeWriter(int i, Object... params) {
         try {
-            writer.invoke(instance, i, params);
-        } catch(IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
+            accessors.writer.invoke(instance, i, params[0]);
+        } catch(Throwable e) {
+            throw rethrow(e);
         }
     }
 
     @Override
     public void invokeAdder(Object o) {
         try {
-            adder.invoke(instance, o);
-        } catch(IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
+            accessors.adder.invoke(instance, o);
+        } catch(Throwable e) {
+            throw rethrow(e);
         }
     }
 
     @Override
     public void invokeRemover(Object o) {
         try {
-            remover.invoke(instance, o);
-        } catch(IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
+            accessors.remover.invoke(instance, o);
+        } catch(Throwable e) {
+            throw rethrow(e);
         }
     }
 
     @Override
     public int invokeCount() {
         try {
-            return (int) counter.invoke(instance);
-        } catch(IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
+            return (int) accessors.counter.invoke(instance);
+        } catch(Throwable e) {
+            throw rethrow(e);
         }
 
     }
 
     @Override
     public final boolean isIndexedProperty() {
-        return descriptor instanceof IndexedPropertyDescriptor;
+        return accessors.descriptor instanceof IndexedPropertyDescriptor;
     }
 
     @Override
     public boolean canRead() {
-        return reader != null;
+        return accessors.reader != null;
     }
 
     @Override
     public boolean canWrite() {
-        return writer != null;
+        return accessors.writer != null;
     }
 
     @Override
     public boolean canAdd() {
-        return adder != null;
+        return accessors.adder != null;
     }
 
     @Override
     public boolean canRemove() {
-        return remover != null;
+        return accessors.remover != null;
     }
 
     @Override
     public boolean canCount() {
-        return counter != null;
+        return accessors.counter != null;
     }
 
     @Override
     public Class<?> getPropertyType() {
-        return propertyType;
-    }
-
-    private Method getMethod(String name, Class<?>... paramTypes) {
-        try {
-            return instance.getClass().getMethod(name, paramTypes);
-        } catch(NoSuchMethodException e) {
-            return null;
-        }
+        return accessors.propertyType;
     }
 
     public boolean isValueProperty() {
+        Class<?> propertyType = accessors.propertyType;
         return (propertyType.isPrimitive() || propertyType.equals(String.class) || propertyType.equals(Class.class)
                 || (propertyType.isArray() && (propertyType.getComponentType().isPrimitive() || propertyType.getComponentType().equals(String.class))));
     }
@@ -176,4 +160,71 @@ public class InstanceProperty implements Property {
 
         return ann.dimension();
     }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) return (RuntimeException) e;
+        if (e instanceof Error) throw (Error) e;
+        return new RuntimeException(e);
+    }
+
+    /**
+     * The methods for a property of a class, as MethodHandles taking the instance and the
+     * arguments as Objects.  These depend only on the class, so one Accessors is shared by the
+     * InstanceProperty of every instance of the class.
+     */
+    public static final class Accessors {
+        private final PropertyDescriptor descriptor;
+        private final Class<?> propertyType;
+        private final MethodHandle reader;
+        private final MethodHandle writer;
+        private final MethodHandle adder;
+        private final MethodHandle remover;
+        private final MethodHandle counter;
+
+        public Accessors(Class<?> cls, PropertyDescriptor descriptor) {
+            this.descriptor = descriptor;
+            boolean indexed = descriptor instanceof IndexedPropertyDescriptor;
+            this.propertyType = indexed ? ((IndexedPropertyDescriptor) descriptor).getIndexedPropertyType() : descriptor.getPropertyType();
+
+            reader = handle(indexed ? ((IndexedPropertyDescriptor) descriptor).getIndexedReadMethod() : descriptor.getReadMethod());
+            writer = handle(indexed ? ((IndexedPropertyDescriptor) descriptor).getIndexedWriteMethod() : descriptor.getWriteMethod());
+
+            String baseName = descriptor.getName().substring(0, 1).toUpperCase() + descriptor.getName().substring(1);
+
+            adder = handle(getMethod(cls, "add" + baseName, propertyType));
+            remover = handle(getMethod(cls, "remove" + baseName, propertyType));
+            counter = handle(getMethod(cls, "get" + baseName + "Count"));
+        }
+
+        private static Method getMethod(Class<?> cls, String name, Class<?>... paramTypes) {
+            try {
+                return cls.getMethod(name, paramTypes);
+            } catch(NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+        private static MethodHandle handle(Method method) {
+            if (method == null) return null;
+            MethodType generic = MethodType.genericMethodType(method.getParameterCount() + 1);
+            try {
+                return MethodHandles.publicLookup().unreflect(method).asType(generic);
+            } catch(IllegalAccessException e) {
+                // a public method of a class that is not public; go through Method.invoke, which
+                // fails the same way reflection always has for these
+                return METHOD_INVOKE.bindTo(method).asVarargsCollector(Object[].class).asType(generic);
+            }
+        }
+
+        private static final MethodHandle METHOD_INVOKE;
+
+        static {
+            try {
+                METHOD_INVOKE = MethodHandles.lookup().findVirtual(Method.class, "invoke",
+                        MethodType.methodType(Object.class, Object.class, Object[].class));
+            } catch(NoSuchMethodException | IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
 }
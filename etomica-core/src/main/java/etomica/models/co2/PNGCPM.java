@@ -61,6 +61,11 @@ public class PNGCPM extends PotentialMolecular implements PotentialPolarizable {
     protected Vector oldMu;
     protected Component component;
     private double UpolAtkins;
+    protected int maxIterations;
+    protected double mixIter, tolerance;
+    protected boolean warmStart;
+    protected int lastIterations;
+    protected long totalIterations, solveCount;
 
     public PNGCPM(Space space, Map<AtomType, GCPMAgent> typeManager, int nAtomTypes) {
         this(space, typeManager, nAtomTypes, Integer.MAX_VALUE);
@@ -86,6 +91,85 @@ public class PNGCPM extends PotentialMolecular implements PotentialPolarizable {
         mu = new Vector[0][0];
         component = Component.FULL;
         pairPolarization = new double[10][10];
+        maxIterations = 550;
+        mixIter = 0.9;
+        tolerance = 1e-20;
+    }
+
+    /**
+     * Sets whether the induced dipoles from the previous call are used as the
+     * starting point for the self-consistent iteration (default false).  This
+     * is useful when the potential is called for a sequence of similar
+     * configurations of the same molecules, such as an MD or MC simulation of
+     * a bulk system.
+     */
+    public void setWarmStart(boolean newWarmStart) {
+        warmStart = newWarmStart;
+    }
+
+    public boolean isWarmStart() {
+        return warmStart;
+    }
+
+    /**
+     * Sets the convergence criterion for the induced dipoles, as the sum over
+     * sites of the squared change in dipole in one iteration.
+     */
+    public void setTolerance(double newTolerance) {
+        tolerance = newTolerance;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setMaxIterations(int newMaxIterations) {
+        maxIterations = newMaxIterations;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * Sets the fraction of the new estimate of each dipole used in each
+     * iteration (the remainder is taken from the previous estimate).
+     */
+    public void setMixing(double newMixIter) {
+        mixIter = newMixIter;
+    }
+
+    public double getMixing() {
+        return mixIter;
+    }
+
+    /**
+     * Returns the number of iterations taken by the last polarization solve.
+     */
+    public int getLastIterations() {
+        return lastIterations;
+    }
+
+    /**
+     * Returns the total number of iterations since the statistics were last
+     * reset.
+     */
+    public long getTotalIterations() {
+        return totalIterations;
+    }
+
+    /**
+     * Returns the number of polarization solves since the statistics were
+     * last reset.
+     */
+    public long getSolveCount() {
+        return solveCount;
+    }
+
+    public void resetSolverStatistics() {
+        lastIterations = 0;
+        totalIterations = 0;
+        solveCount = 0;
     }
 
     public static void main2(String[] args) {
@@ -464,7 +548,7 @@ public class PNGCPM extends PotentialMolecular implements PotentialPolarizable {
             } else {
                 for (int j = 0; j < nAtoms; j++) {
                     Eq[i][j].E(0);
-                    mu[i][j].E(0);
+                    if (!warmStart) mu[i][j].E(0);
                     Ep[i][j].E(0);
                 }
             }
@@ -514,9 +598,13 @@ public class PNGCPM extends PotentialMolecular implements PotentialPolarizable {
             }
         }
 
-        int maxIter = 550;
-        double mixIter = 0.9;
-        for (int iter = 0; iter < maxIter; iter++) {
+        if (warmStart && !calcDipoleField(molecules)) {
+            return Double.NaN;
+        }
+        solveCount++;
+        lastIterations = 0;
+        for (int iter = 0; iter < maxIterations; iter++) {
+            lastIterations++;
             double sumDeltaMu = 0;
             double sumMu = 0;
             for (int i = 0; i < molecules.size(); i++) {
@@ -542,64 +630,9 @@ public class PNGCPM extends PotentialMolecular implements PotentialPolarizable {
                     sumMu += mu[i][ii].squared();
                 }
             }
-            for (int i = 0; i < molecules.size(); i++) {
-                for (int ii = 0; ii < Ep[i].length; ii++) {
-                    Ep[i][ii].E(0);
-                }
-            }
-
-            for (int i = 0; i < molecules.size(); i++) {
-                IAtomList iLeafAtoms = molecules.get(i).getChildList();
-                for (int ii = 0; ii < iLeafAtoms.size(); ii++) {
-                    GCPMAgent agenti = typeManager.get(iLeafAtoms.get(ii).getType());
-                    if (agenti.alphaPerp == 0 && agenti.alphaPar == 0) continue;
-                    Vector ri = iLeafAtoms.get(ii).getPosition();
-
-                    for (int j = i + 1; j < molecules.size(); j++) {
-                        IAtomList jLeafAtoms = molecules.get(j).getChildList();
-                        Vector rj = jLeafAtoms.get(0).getPosition();
-                        work.Ev1Mv2(ri, rj);
-                        shift.Ea1Tv1(-1, work);
-                        boundary.nearestImage(work);
-                        shift.PE(work);
-
-                        for (int jj = 0; jj < jLeafAtoms.size(); jj++) {
-                            GCPMAgent agentj = typeManager.get(jLeafAtoms.get(jj).getType());
-                            if (agentj.alphaPerp == 0 && agentj.alphaPar == 0) continue;
-
-                            GCPMAgent agentij = getPairAgent(iLeafAtoms.get(ii).getType(), jLeafAtoms.get(jj).getType());
-                            double tauij = agentij.tau;
-                            rj = jLeafAtoms.get(jj).getPosition();
-
-                            work.Ev1Mv2(ri, rj);
-                            work.PE(shift);
-                            double r2 = work.squared();
-                            double r1 = Math.sqrt(r2);
-
-                            if (r2 < coreFac * agentij.sigma) {
-                                return Double.NaN;
-                            }
-
-                            double erf = (1 - org.apache.commons.math3.special.Erf.erfc(r1 / (2 * tauij)));
-                            double exp = Math.exp(-r2 / (4 * tauij * tauij));
-
-                            double prefac = (r1 / (tauij * sqrtpi)) * exp;
-
-                            double postfac = prefac * 0.666666666666666666666 * r2 / (4 * tauij * tauij);
-
-                            double fr = erf - prefac;
-
-                            double fpr = fr - postfac;
-
-                            Ep[i][ii].PEa1Tv1(-fr / (r1 * r2), mu[j][jj]);
-
-                            Ep[i][ii].PEa1Tv1(3 * work.dot(mu[j][jj]) * fpr / (r2 * r2 * r1), work);
-
-                            Ep[j][jj].PEa1Tv1(-fr / (r1 * r2), mu[i][ii]);
-                            Ep[j][jj].PEa1Tv1(3 * work.dot(mu[i][ii]) * fpr / (r2 * r2 * r1), work);
-                        }
-                    }
-                }
+            if (!calcDipoleField(molecules)) {
+                totalIterations += lastIterations;
+                return Double.NaN;
             }
 
             if (debugme) {
@@ -611,14 +644,15 @@ public class PNGCPM extends PotentialMolecular implements PotentialPolarizable {
                 }
             }
 
-            if (sumDeltaMu < 1e-20) break;
-            if (iter == maxIter - 1) {
+            if (sumDeltaMu < tolerance) break;
+            if (iter == maxIterations - 1) {
                 System.err.println("we were unable to converge");
                 System.err.println("sumDeltaMu " + sumDeltaMu);
                 System.err.println("sumMu " + sumMu);
                 throw new RuntimeException("bye");
             }
         }
+        totalIterations += lastIterations;
         UpolAtkins = 0;
         for (int i = 0; i < molecules.size(); i++) {
             for (int ii = 0; ii < molecules.get(i).getChildList().size(); ii++) {
@@ -637,6 +671,75 @@ public class PNGCPM extends PotentialMolecular implements PotentialPolarizable {
         return UpolAtkins;
     }
 
+    /**
+     * Computes the field at each polarizable site due to the current induced
+     * dipoles, storing it in Ep.
+     *
+     * @return false if any pair of polarizable sites overlaps
+     */
+    protected boolean calcDipoleField(IMoleculeList molecules) {
+        for (int i = 0; i < molecules.size(); i++) {
+            for (int ii = 0; ii < Ep[i].length; ii++) {
+                Ep[i][ii].E(0);
+            }
+        }
+        double sqrtpi = Math.sqrt(Math.PI);
+        for (int i = 0; i < molecules.size(); i++) {
+            IAtomList iLeafAtoms = molecules.get(i).getChildList();
+            for (int ii = 0; ii < iLeafAtoms.size(); ii++) {
+                GCPMAgent agenti = typeManager.get(iLeafAtoms.get(ii).getType());
+                if (agenti.alphaPerp == 0 && agenti.alphaPar == 0) continue;
+                Vector ri = iLeafAtoms.get(ii).getPosition();
+
+                for (int j = i + 1; j < molecules.size(); j++) {
+                    IAtomList jLeafAtoms = molecules.get(j).getChildList();
+                    Vector rj = jLeafAtoms.get(0).getPosition();
+                    work.Ev1Mv2(ri, rj);
+                    shift.Ea1Tv1(-1, work);
+                    boundary.nearestImage(work);
+                    shift.PE(work);
+
+                    for (int jj = 0; jj < jLeafAtoms.size(); jj++) {
+                        GCPMAgent agentj = typeManager.get(jLeafAtoms.get(jj).getType());
+                        if (agentj.alphaPerp == 0 && agentj.alphaPar == 0) continue;
+
+                        GCPMAgent agentij = getPairAgent(iLeafAtoms.get(ii).getType(), jLeafAtoms.get(jj).getType());
+                        double tauij = agentij.tau;
+                        rj = jLeafAtoms.get(jj).getPosition();
+
+                        work.Ev1Mv2(ri, rj);
+                        work.PE(shift);
+                        double r2 = work.squared();
+                        double r1 = Math.sqrt(r2);
+
+                        if (r2 < coreFac * agentij.sigma) {
+                            return false;
+                        }
+
+                        double erf = (1 - org.apache.commons.math3.special.Erf.erfc(r1 / (2 * tauij)));
+                        double exp = Math.exp(-r2 / (4 * tauij * tauij));
+
+                        double prefac = (r1 / (tauij * sqrtpi)) * exp;
+
+                        double postfac = prefac * 0.666666666666666666666 * r2 / (4 * tauij * tauij);
+
+                        double fr = erf - prefac;
+
+                        double fpr = fr - postfac;
+
+                        Ep[i][ii].PEa1Tv1(-fr / (r1 * r2), mu[j][jj]);
+
+                        Ep[i][ii].PEa1Tv1(3 * work.dot(mu[j][jj]) * fpr / (r2 * r2 * r1), work);
+
+                        Ep[j][jj].PEa1Tv1(-fr / (r1 * r2), mu[i][ii]);
+                        Ep[j][jj].PEa1Tv1(3 * work.dot(mu[i][ii]) * fpr / (r2 * r2 * r1), work);
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
     public double getLastPolarizationEnergy() {
         return UpolAtkins;
     }
@@ -29,6 +29,7 @@ public class OrientationCalcWater4P extends ConformationWaterTIP4P implements
         rotationTensor = (RotationTensor3D)space.makeRotationTensor();
         atomPositionCOM = new MoleculePositionCOM(space);
         initialized = false;
+        setOrientationWork = ThreadLocal.withInitial(() -> new SetOrientationWork(space));
         previousTensor = space.makeRotationTensor();
         workTensor = space.makeRotationTensor();
         double hMass = 1.0079;
@@ -246,8 +247,12 @@ public class OrientationCalcWater4P extends ConformationWaterTIP4P implements
     public void initializePositions(IAtomList childList) {
         super.initializePositions(childList);
         if (!initialized) {
-            com0.E(atomPositionCOM.position(childList.get(0).getParentGroup()));
-            initialized = true;
+            synchronized (this) {
+                if (!initialized) {
+                    com0.E(atomPositionCOM.position(childList.get(0).getParentGroup()));
+                    initialized = true;
+                }
+            }
         }
     }
     
@@ -257,7 +262,8 @@ public class OrientationCalcWater4P extends ConformationWaterTIP4P implements
     protected final Vector com0;
     protected final RotationTensor3D rotationTensor;
     protected final MoleculePositionCOM atomPositionCOM;
-    protected boolean initialized;
+    protected volatile boolean initialized;
+    protected transient ThreadLocal<SetOrientationWork> setOrientationWork;
     protected final RotationTensor previousTensor, workTensor;
     
     protected static void doTransform(IMolecule molecule, Vector r0, RotationTensor rotationTensor) {
@@ -294,19 +300,39 @@ public class OrientationCalcWater4P extends ConformationWaterTIP4P implements
         orientation.setDirections(xWork, yWork);
     }
 
+    /**
+     * Sets the orientation of the given molecule.  The work objects used here
+     * are per-thread, so the rigid integrators can call this concurrently for
+     * different molecules.
+     */
     public void setOrientation(IMolecule molecule,
             IOrientationFull3D orientation) {
-        xWork.E(atomPositionCOM.position(molecule));
+        if (setOrientationWork == null) {
+            // transient, so it is gone after deserialization
+            setOrientationWork = ThreadLocal.withInitial(() -> new SetOrientationWork(space));
+        }
+        SetOrientationWork work = setOrientationWork.get();
+        Vector com = work.positionCOM.position(molecule);
         IAtomList childList = molecule.getChildList();
         initializePositions(childList);
-        rotationTensor.setOrientation(orientation);
-        rotationTensor.invert();
+        work.rotationTensor.setOrientation(orientation);
+        work.rotationTensor.invert();
         for (int iChild = 0; iChild<childList.size(); iChild++) {
             IAtom a = childList.get(iChild);
             Vector r = a.getPosition();
             r.ME(com0);
-            rotationTensor.transform(r);
-            r.PE(xWork);
+            work.rotationTensor.transform(r);
+            r.PE(com);
+        }
+    }
+
+    protected static class SetOrientationWork {
+        public final MoleculePositionCOM positionCOM;
+        public final RotationTensor3D rotationTensor;
+
+        public SetOrientationWork(Space space) {
+            positionCOM = new MoleculePositionCOM(space);
+            rotationTensor = (RotationTensor3D)space.makeRotationTensor();
         }
     }
 }
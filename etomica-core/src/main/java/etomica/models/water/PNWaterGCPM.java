@@ -10,6 +10,7 @@ import etomica.box.Box;
 import etomica.chem.elements.Hydrogen;
 import etomica.chem.elements.Oxygen;
 import etomica.math.SpecialFunctions;
+import etomica.math.numerical.ConjugateGradient;
 import etomica.molecule.IMoleculeList;
 import etomica.molecule.MoleculePair;
 import etomica.potential.IPotentialMolecular;
@@ -58,6 +59,13 @@ public class PNWaterGCPM extends PotentialMolecular implements PotentialPolariza
     protected Component component;
     private double UpolAtkins;
     public boolean berr = true;
+    protected Solver solver;
+    protected final ConjugateGradient cg;
+    protected boolean warmStart;
+    protected double[][] dipoles;
+    protected double[] eqWork;
+    protected int lastIterations;
+    protected long totalIterations, solveCount, directFallbackCount;
 
     public PNWaterGCPM(Space space) {
         super(Integer.MAX_VALUE, space);
@@ -94,6 +102,12 @@ public class PNWaterGCPM extends PotentialMolecular implements PotentialPolariza
         Eq = new Matrix[0];
         A = new Matrix[0];
         pairPolarization = new double[10][10];
+
+        solver = Solver.DIRECT;
+        cg = new ConjugateGradient();
+        warmStart = false;
+        dipoles = new double[0][];
+        eqWork = new double[0];
     }
 
     public void setComponent(Component comp) {
@@ -420,30 +434,26 @@ public class PNWaterGCPM extends PotentialMolecular implements PotentialPolariza
         //For x to be P, the A of the Ax=b actually needs an extra factor of
         //alphaPol.  We'll add that bit in when we calculate UpolAtkins.
 
-        Matrix x = myA.solve(myEq);//myA*x=myEq
+        final double[] x = solve(myA, myEq, molCount);//myA*x=myEq
 
-        if (false) {
-            // this is (mathematically) what we want.  But Jama is slow.
-            UpolAtkins = -0.5 * (x.transpose().times(myEq)).get(0, 0) * alphaPol;
-        } else {
-            UpolAtkins = 0;
-            for (int i = 0; i < 3 * molCount; i++) {
-                UpolAtkins += x.get(i, 0) * myEq.get(i, 0);
-            }
-            UpolAtkins *= -0.5 * alphaPol;
+        UpolAtkins = 0;
+        for (int i = 0; i < 3 * molCount; i++) {
+            UpolAtkins += x[i] * myEq.get(i, 0);
         }
+        UpolAtkins *= -0.5 * alphaPol;
 
         // only needed for more complicated Eq8 from Cummings paper
         if (false) {
 
             // for the sake of clarity (over perf), just multiply x by alphaPol
             // (see comment above about A lacking alphaPol)
-            x.timesEquals(alphaPol);
-            Matrix Ep = myA.times(x).minus(x);
+            Matrix P = new Matrix(x, 3 * molCount);
+            P.timesEquals(alphaPol);
+            Matrix Ep = myA.times(P).minus(P);
             Ep.timesEquals(-1 / alphaPol);
 
-            double x2NormF = x.normF();
-            double UpolEquation8 = 2 * UpolAtkins - 0.5 * (x.transpose().times(Ep).get(0, 0)) + (0.5 / alphaPol) * (x2NormF * x2NormF);
+            double x2NormF = P.normF();
+            double UpolEquation8 = 2 * UpolAtkins - 0.5 * (P.transpose().times(Ep).get(0, 0)) + (0.5 / alphaPol) * (x2NormF * x2NormF);
 
             if (Math.abs(UpolAtkins - UpolEquation8) > 1.e-6) {
                 throw new RuntimeException("oops " + UpolAtkins + " " + UpolEquation8);
@@ -453,6 +463,130 @@ public class PNWaterGCPM extends PotentialMolecular implements PotentialPolariza
         return UpolAtkins;
     }
 
+    /**
+     * Solves myA*x=myEq for the induced dipoles (up to the factor of alphaPol)
+     * using the selected solver.  The returned array is reused for the next
+     * call with the same number of molecules, which provides the warm start
+     * for the iterative solver.
+     */
+    protected double[] solve(Matrix myA, Matrix myEq, int molCount) {
+        int n = 3 * molCount;
+        if (dipoles.length < molCount + 1) {
+            dipoles = Arrays.copyOf(dipoles, molCount + 1);
+        }
+        if (dipoles[molCount] == null) {
+            dipoles[molCount] = new double[n];
+        }
+        double[] x = dipoles[molCount];
+        solveCount++;
+        if (solver == Solver.CONJUGATE_GRADIENT) {
+            if (eqWork.length < n) {
+                eqWork = new double[n];
+            }
+            for (int i = 0; i < n; i++) {
+                eqWork[i] = myEq.get(i, 0);
+                if (!warmStart) x[i] = 0;
+            }
+            boolean converged = cg.solve(myA.getArray(), eqWork, x, n);
+            lastIterations = cg.getLastIterations();
+            totalIterations += lastIterations;
+            if (converged) {
+                return x;
+            }
+            // A might not be positive definite if molecules are very close;
+            // fall back to the direct solution
+            directFallbackCount++;
+        }
+        Matrix sol = myA.solve(myEq);
+        for (int i = 0; i < n; i++) {
+            x[i] = sol.get(i, 0);
+        }
+        return x;
+    }
+
+    /**
+     * Selects the method used to solve for the induced dipoles.  DIRECT
+     * (the default) uses an LU decomposition of the full 3Nx3N matrix, which
+     * is fine for a few molecules but scales as N^3.  CONJUGATE_GRADIENT
+     * scales as N^2 per iteration and starts from the dipoles of the previous
+     * call (see setWarmStart).
+     */
+    public void setSolver(Solver newSolver) {
+        solver = newSolver;
+    }
+
+    public Solver getSolver() {
+        return solver;
+    }
+
+    /**
+     * Sets whether the iterative solver starts from the dipoles found by the
+     * previous call with the same number of molecules (default false).  This
+     * helps when the potential is called for a sequence of similar
+     * configurations of the same molecules.
+     */
+    public void setWarmStart(boolean newWarmStart) {
+        warmStart = newWarmStart;
+    }
+
+    public boolean isWarmStart() {
+        return warmStart;
+    }
+
+    /**
+     * Sets the convergence tolerance (relative residual) for the iterative
+     * solver.
+     */
+    public void setSolverTolerance(double newTolerance) {
+        cg.setTolerance(newTolerance);
+    }
+
+    public double getSolverTolerance() {
+        return cg.getTolerance();
+    }
+
+    public void setSolverMaxIterations(int newMaxIterations) {
+        cg.setMaxIterations(newMaxIterations);
+    }
+
+    /**
+     * Returns the number of iterations taken by the last iterative solve.
+     */
+    public int getLastIterations() {
+        return lastIterations;
+    }
+
+    /**
+     * Returns the total number of iterations taken by the iterative solver
+     * since the statistics were last reset.
+     */
+    public long getTotalIterations() {
+        return totalIterations;
+    }
+
+    /**
+     * Returns the number of polarization solves since the statistics were
+     * last reset.
+     */
+    public long getSolveCount() {
+        return solveCount;
+    }
+
+    /**
+     * Returns the number of times the iterative solver failed to converge
+     * and the direct solution was used instead.
+     */
+    public long getDirectFallbackCount() {
+        return directFallbackCount;
+    }
+
+    public void resetSolverStatistics() {
+        lastIterations = 0;
+        totalIterations = 0;
+        solveCount = 0;
+        directFallbackCount = 0;
+    }
+
     public double getLastPolarizationEnergy() {
         return UpolAtkins;
     }
@@ -467,6 +601,8 @@ public class PNWaterGCPM extends PotentialMolecular implements PotentialPolariza
 
     public enum Component {TWO_BODY, INDUCTION, FULL}
 
+    public enum Solver {DIRECT, CONJUGATE_GRADIENT}
+
     public class PNWaterGCPMCached implements IPotentialMolecular {
 
         public double energy(IMoleculeList molecules) {
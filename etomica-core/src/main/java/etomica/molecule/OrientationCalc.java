@@ -23,7 +23,9 @@ public interface OrientationCalc {
     /**
      * Sets the orientation of the given molecule to be equal to the given
      * orientation.  This typically involves changing the position of the atoms
-     * without changing the molecules position.
+     * without changing the molecules position.  The rigid integrators may
+     * call this concurrently for different molecules when stepping in
+     * parallel.
      */
     public void setOrientation(IMolecule molecule, IOrientationFull3D orientation);
 }
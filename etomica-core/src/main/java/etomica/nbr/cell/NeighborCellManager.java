@@ -45,6 +45,8 @@ public class NeighborCellManager implements BoxCellManager, BoundaryEventListene
     protected final Vector v;
     protected final int[] numCells;
     protected boolean suppressBoxLengthWarning;
+    // the box length warning is printed only once for each manager
+    protected boolean boxLengthWarned;
     
     /**
      * Constructs manager for neighbor cells in the given box.  The number of
@@ -179,11 +181,12 @@ public class NeighborCellManager implements BoxCellManager, BoundaryEventListene
                 // and use 1 cell.
                 if (Debug.ON) System.err.println("bumping number of cells in direction "+i+" from "+numCells[i]+" to "+(cellRange*2+1));
                 numCells[i] = cellRange*2+1;
-                if (range > dimensions.getX(i)/2 && !suppressBoxLengthWarning) {
+                if (range > dimensions.getX(i)/2 && !suppressBoxLengthWarning && !boxLengthWarned) {
                     // box was too small for the potentials too.  doh.
                     // Perhaps the direction is not periodic or we're in the middle
                     // of multiple changes which will (in the end) be happy.
                     System.err.println("range is greater than half the box length in direction "+i);
+                    boxLengthWarned = true;
                 }
             }
             latticeNeedsUpdate = latticeNeedsUpdate || oldSize[i] != numCells[i];
@@ -254,6 +257,15 @@ public class NeighborCellManager implements BoxCellManager, BoundaryEventListene
         assignCell(atom);
     }
 
+    /**
+     * Stops listening to the box and its boundary and releases the atoms'
+     * cells.  The manager should not be used afterwards.
+     */
+    public void dispose() {
+        box.getBoundary().getEventManager().removeListener(this);
+        agentManager.dispose();
+    }
+
     public IListener<MCMoveEvent> makeMCMoveListener() {
         return new MyMCMoveListener(box,this);
     }
@@ -13,7 +13,9 @@ import etomica.molecule.IMoleculeList;
 import etomica.nbr.*;
 import etomica.potential.*;
 import etomica.simulation.Simulation;
+import etomica.space.Boundary;
 import etomica.space.Space;
+import etomica.space.Vector;
 import etomica.species.ISpecies;
 import etomica.util.Debug;
 
@@ -32,6 +34,8 @@ public class PotentialMasterCell extends PotentialMasterNbr {
     private final BoxAgentSourceCellManager cellManagerSource;
     private final BoxAgentManager<NeighborCellManager> neighborCellManagers;
     private final BoxAgentManager<NeighborIterator> neighborIterators;
+    private final Vector dr;
+    private Boundary boundary;
 
     /**
      * Creates PotentialMasterCell with default (1.0) range.  Range
@@ -58,6 +62,7 @@ public class PotentialMasterCell extends PotentialMasterNbr {
         this.cellManagerSource = boxAgentSource;
         this.neighborCellManagers = new BoxAgentManager<>(boxAgentSource, sim);
         this.neighborIterators = new BoxAgentManager<NeighborIterator>(sim, box -> new NeighborIteratorCell(neighborCellManagers.getAgent(box)));
+        dr = sim.getSpace().makeVector();
         setRange(range);
     }
 
@@ -135,6 +140,7 @@ public class PotentialMasterCell extends PotentialMasterNbr {
 
         setBoxForCriteria(box);
         setBoxForPotentials(box);
+        boundary = box.getBoundary();
 
         IAtomList atoms = box.getLeafList();
         for (int i = 0; i < atoms.size(); i++) {
@@ -170,6 +176,7 @@ public class PotentialMasterCell extends PotentialMasterNbr {
             calculate(box, pc, id.includeLrc);
 
         } else {
+            boundary = box.getBoundary();
             if (targetAtom != null) {
                 for (IPotentialAtomic potential : getRangedPotentials(targetAtom.getType())) {
                     if (potential != null) {
@@ -217,19 +224,33 @@ public class PotentialMasterCell extends PotentialMasterNbr {
                 (targetAtom, otherAtom) -> {
                     NeighborCriterion criterion = myCriteria[otherAtom.getType().getIndex()];
                     if (criterion != null && criterion.accept(targetAtom, otherAtom)) {
-                        pc.doCalculation(new AtomPair(targetAtom, otherAtom), potentials[otherAtom.getType().getIndex()]);
+                        calculatePair(targetAtom, otherAtom, pc, potentials[otherAtom.getType().getIndex()]);
                     }
                 },
                 (otherAtom, targetAtom) -> {
                     NeighborCriterion criterion = myCriteria[otherAtom.getType().getIndex()];
                     if (criterion != null && criterion.accept(otherAtom, targetAtom)) {
-                        pc.doCalculation(new AtomPair(otherAtom, targetAtom), potentials[otherAtom.getType().getIndex()]);
+                        calculatePair(otherAtom, targetAtom, pc, potentials[otherAtom.getType().getIndex()]);
                     }
                 }
         );
 
     }
 
+    /**
+     * Performs the calculation for the pair, as a separation if the
+     * calculation and potential allow it and otherwise as an AtomPair.
+     */
+    private void calculatePair(IAtom atom0, IAtom atom1, PotentialCalculation pc, IPotentialAtomic potential) {
+        if (PotentialCalculationPair.canCalculate(pc, potential)) {
+            dr.Ev1Mv2(atom1.getPosition(), atom0.getPosition());
+            boundary.nearestImage(dr);
+            ((PotentialCalculationPair) pc).doPairCalculation(atom0.getLeafIndex(), atom1.getLeafIndex(), dr, dr.squared(), (Potential2SoftSpherical) potential);
+        } else {
+            pc.doCalculation(new AtomPair(atom0, atom1), potential);
+        }
+    }
+
     private void calculate1Body(IAtom atom, PotentialCalculation pc) {
         List<IPotentialAtomic> potentials1 = rangedPotentials1Body[atom.getType().getIndex()];
         if (!potentials1.isEmpty()) {
@@ -44,6 +44,8 @@ public class NeighborCellManagerMolecular implements BoxCellManager, BoundaryEve
     protected double range;
     protected final MoleculeAgentManager agentManager;
     protected boolean doApplyPBC;
+    // the box length warning is printed only once for each manager
+    protected boolean boxLengthWarned;
     protected final Vector v;
     protected final int[] numCells;
     protected IMoleculePositionDefinition moleculeSite;
@@ -170,11 +172,12 @@ public class NeighborCellManagerMolecular implements BoxCellManager, BoundaryEve
                 // and use 1 cell.
                 if (Debug.ON) System.err.println("bumping number of cells in direction "+i+" from "+numCells[i]+" to "+(cellRange*2+1));
                 numCells[i] = cellRange*2+1;
-                if (range > dimensions.getX(i)/2) {
+                if (range > dimensions.getX(i)/2 && !boxLengthWarned) {
                     // box was too small for the potentials too.  doh.
                     // Perhaps the direction is not periodic or we're in the middle
                     // of multiple changes which will (in the end) be happy.
                     System.err.println("<NeighborCellManagerMolecular> range is greater than half the box length in direction "+i + "; " + dimensions.getX(i)/2);
+                    boxLengthWarned = true;
                 }
             }
             latticeNeedsUpdate = latticeNeedsUpdate || oldSize[i] != numCells[i];
@@ -14,7 +14,9 @@ import etomica.nbr.*;
 import etomica.nbr.cell.NeighborCellManager;
 import etomica.potential.*;
 import etomica.simulation.Simulation;
+import etomica.space.Boundary;
 import etomica.space.Space;
+import etomica.space.Vector;
 import etomica.species.ISpecies;
 import etomica.util.Debug;
 
@@ -31,6 +33,8 @@ public class PotentialMasterList extends PotentialMasterNbr {
     private final Space space;
     private final AtomSetSinglet atomSetSinglet;
     private final AtomPair atomPair;
+    private final Vector dr;
+    private Boundary boundary;
     private final NeighborListAgentSource neighborListAgentSource;
     private final BoxAgentManager<NeighborListManager> neighborListAgentManager;
     private double range;
@@ -57,6 +61,7 @@ public class PotentialMasterList extends PotentialMasterNbr {
         neighborListAgentManager = new BoxAgentManager<>(neighborListAgentSource, sim);
         atomSetSinglet = new AtomSetSinglet();
         atomPair = new AtomPair();
+        dr = _space.makeVector();
         cellRange = 2;
 
         // setRange last.  that should always be OK since anyone can call
@@ -318,6 +323,7 @@ public class PotentialMasterList extends PotentialMasterNbr {
     public void calculate(Box box, PotentialCalculation pc, boolean includeLrc) {
         // invoke setBox on all potentials
         setBoxForPotentials(box);
+        boundary = box.getBoundary();
         NeighborListManager nbrManager = neighborListAgentManager.getAgent(box);
         IAtomList atoms = box.getLeafList();
         for (int i = 0; i < atoms.size(); i++) {
@@ -359,6 +365,7 @@ public class PotentialMasterList extends PotentialMasterNbr {
             calculate(box, pc, id.includeLrc);
         } else {
             NeighborListManager neighborManager = neighborListAgentManager.getAgent(box);
+            boundary = box.getBoundary();
             if (id.direction() != IteratorDirective.Direction.UP) {
                 neighborManager.ensureDownLists();
             }
@@ -435,6 +442,10 @@ public class PotentialMasterList extends PotentialMasterNbr {
         for (int i = 0; i < potentials.length; i++) {
             if (potentials[i] == null) continue;
             IAtomList list = neighborManager.getUpList(atom)[i];
+            if (PotentialCalculationPair.canCalculate(pc, potentials[i])) {
+                calculatePairs(atom, list, true, (PotentialCalculationPair) pc, (Potential2SoftSpherical) potentials[i]);
+                continue;
+            }
             int nNeighbors = list.size();
             atomPair.atom0 = atom;
             for (int j = 0; j < nNeighbors; j++) {
@@ -444,6 +455,31 @@ public class PotentialMasterList extends PotentialMasterNbr {
         }
     }
 
+    /**
+     * Hands the pairs of the atom and its up (or down) neighbors to the
+     * calculation as separations.  The atom is the first of each pair with up
+     * neighbors and the second with down neighbors, as with an AtomPair.
+     */
+    private void calculatePairs(IAtom atom, IAtomList list, boolean up, PotentialCalculationPair pc, Potential2SoftSpherical potential) {
+        Vector r = atom.getPosition();
+        int index = atom.getLeafIndex();
+        int nNeighbors = list.size();
+        for (int j = 0; j < nNeighbors; j++) {
+            IAtom other = list.get(j);
+            if (up) {
+                dr.Ev1Mv2(other.getPosition(), r);
+            } else {
+                dr.Ev1Mv2(r, other.getPosition());
+            }
+            boundary.nearestImage(dr);
+            if (up) {
+                pc.doPairCalculation(index, other.getLeafIndex(), dr, dr.squared(), potential);
+            } else {
+                pc.doPairCalculation(other.getLeafIndex(), index, dr, dr.squared(), potential);
+            }
+        }
+    }
+
     private void calculate(IAtom atom, IteratorDirective.Direction direction, PotentialCalculation pc, NeighborListManager neighborManager) {
         calculate1Body(atom, pc, neighborManager);
 
@@ -452,6 +488,15 @@ public class PotentialMasterList extends PotentialMasterNbr {
             if (potentials[i] == null) continue;
             switch (potentials[i].nBody()) {
                 case 2:
+                    if (PotentialCalculationPair.canCalculate(pc, potentials[i])) {
+                        if (direction != IteratorDirective.Direction.DOWN) {
+                            calculatePairs(atom, neighborManager.getUpList(atom)[i], true, (PotentialCalculationPair) pc, (Potential2SoftSpherical) potentials[i]);
+                        }
+                        if (direction != IteratorDirective.Direction.UP) {
+                            calculatePairs(atom, neighborManager.getDownList(atom)[i], false, (PotentialCalculationPair) pc, (Potential2SoftSpherical) potentials[i]);
+                        }
+                        break;//switch
+                    }
                     if (direction != IteratorDirective.Direction.DOWN) {
                         IAtomList list = neighborManager.getUpList(atom)[i];
                         int nNeighbors = list.size();
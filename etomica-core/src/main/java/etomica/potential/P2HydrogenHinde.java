@@ -50,10 +50,8 @@ import etomica.space3d.Space3D;
 import etomica.units.BohrRadius;
 import etomica.units.Degree;
 import etomica.util.Constants;
+import etomica.util.TableCache;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
 
 public class P2HydrogenHinde implements IPotential {
     public static void main(String[] args) {
@@ -234,87 +232,49 @@ public class P2HydrogenHinde implements IPotential {
         return (vpot*1E-8*Constants.PLANCK_H*Constants.LIGHT_SPEED);
     }
 
-    protected void fillData() {                
-        FileReader fileReader = null;
-        String fileName = "P2HydrogenHinde_allCoefs.dat";
-        
-        try {
-            fileReader = new FileReader(fileName);
-        } catch (IOException e) {
-            throw new RuntimeException("Cannot open "+fileName+", caught IOException: " + e.getMessage());
-        }
-        try {
-            BufferedReader bufReader = new BufferedReader(fileReader);            
-            for (int i=0; i<3; i++) {
-                for (int j=0; j<3; j++) {
-                    for (int k=0; k<4; k++) {                        
-                        for (int l=0; l<18; l++) {
-                            String[] coefs = bufReader.readLine().trim().split(" +");
-                            for (int m=0; m<4; m++) {                                
-                                coef[l][i][j][k][m] = Double.valueOf(coefs[m]).doubleValue();
-                            }
+    protected void fillData() {
+        // the files are read as tables of numbers (in file order) that are
+        // cached in memory and on disk
+        double[] allCoefs = TableCache.getNumbers("P2HydrogenHinde_allCoefs.dat", P2HydrogenHinde.class);
+        int n = 0;
+        for (int i=0; i<3; i++) {
+            for (int j=0; j<3; j++) {
+                for (int k=0; k<4; k++) {
+                    for (int l=0; l<18; l++) {
+                        for (int m=0; m<4; m++) {
+                            coef[l][i][j][k][m] = allCoefs[n++];
                         }
                     }
                 }
-
             }
-            fileReader.close();
-        } catch(IOException e) {
-            throw new RuntimeException("Problem reading from "+fileName+", caught IOException: " + e.getMessage());
         }
 
-        
-        fileName = "P2HydrogenHinde_shortRange.dat";        
-        try {
-            fileReader = new FileReader(fileName);                              
-        }catch(IOException e) {
-            throw new RuntimeException("Cannot open "+fileName+", caught IOException: " + e.getMessage());
-        }
-        try {            
-            BufferedReader bufReader = new BufferedReader(fileReader);
-            for (int i=0; i<3; i++) {
-                for (int j=0; j<3; j++) {                    
-                    for (int k=0; k<4; k++) {
-                        String[] str = bufReader.readLine().trim().split(" +");
-                        arep[i][j][k] = Double.valueOf(str[0]).doubleValue();
-                        crep[i][j][k] = Double.valueOf(str[1]).doubleValue();
-                    }
+        double[] shortRange = TableCache.getNumbers("P2HydrogenHinde_shortRange.dat", P2HydrogenHinde.class);
+        n = 0;
+        for (int i=0; i<3; i++) {
+            for (int j=0; j<3; j++) {
+                for (int k=0; k<4; k++) {
+                    arep[i][j][k] = shortRange[n++];
+                    crep[i][j][k] = shortRange[n++];
                 }
             }
-            fileReader.close();
-        } catch(IOException e) {
-            throw new RuntimeException("Problem reading from "+fileName+", caught IOException: " + e.getMessage());
         }
-        
-        fileName = "P2HydrogenHinde_longRange.dat";
-        
-        try {
-            fileReader = new FileReader(fileName);
-        }catch(IOException e) {
-            throw new RuntimeException("Cannot open "+fileName+", caught IOException: " + e.getMessage());
-        }                    
-        try {            
-            BufferedReader bufReader = new BufferedReader(fileReader);
-            for (int i=0; i<3; i++) {
-                for (int j=0; j<3; j++) {
-                    String[] str0 = bufReader.readLine().trim().split(" +");
-                    c5[i][j] = Double.valueOf(str0[0]).doubleValue();
-                    String[] str1 = bufReader.readLine().trim().split(" +");
-                    c6[i][j][0] = Double.valueOf(str1[0]).doubleValue();
-                    c8[i][j][0] = Double.valueOf(str1[1]).doubleValue();
-                    cten[i][j] = Double.valueOf(str1[2]).doubleValue();                    
-                    for (int k=1; k<4; k++) {
-                        String[] str2 = bufReader.readLine().trim().split(" +");
-                        c6[i][j][k] = Double.valueOf(str2[0]).doubleValue();
-                        c8[i][j][k] = Double.valueOf(str2[1]).doubleValue();
-                    }
+
+        double[] longRange = TableCache.getNumbers("P2HydrogenHinde_longRange.dat", P2HydrogenHinde.class);
+        n = 0;
+        for (int i=0; i<3; i++) {
+            for (int j=0; j<3; j++) {
+                c5[i][j] = longRange[n++];
+                c6[i][j][0] = longRange[n++];
+                c8[i][j][0] = longRange[n++];
+                cten[i][j] = longRange[n++];
+                for (int k=1; k<4; k++) {
+                    c6[i][j][k] = longRange[n++];
+                    c8[i][j][k] = longRange[n++];
                 }
             }
-            fileReader.close();
-        } catch(IOException e) {
-            throw new RuntimeException("Problem reading from "+fileName+", caught IOException: " + e.getMessage());                    
         }
-    }    
+    }
     public double getRange() {        
         return Double.POSITIVE_INFINITY;
     }
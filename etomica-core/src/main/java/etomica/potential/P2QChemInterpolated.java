@@ -3,14 +3,12 @@
  * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
 
 package etomica.potential;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
 
 import Jama.Matrix;
 import etomica.space.Space;
 import etomica.space3d.Space3D;
 import etomica.util.ParameterBase;
+import etomica.util.TableCache;
 import etomica.math.numerical.AkimaSpline;
 
 /**
@@ -542,106 +540,37 @@ public class P2QChemInterpolated extends Potential2SoftSpherical {
 			}
 				
 	
-			double[] dataUSCF = new double[1000];
-			double[] dataR = new double[1000];
-			
-			int count = 0;
-			try{			    			
-    			FileReader fileReader = new FileReader(d+"u12NoDisp.dat");			
-    			BufferedReader bufReader = new BufferedReader(fileReader);
-    			String line;
-    			
-    			while ((line = bufReader.readLine()) != null) {
-    				
-    				dataUSCF[count] = Double.parseDouble(line.split(" +")[1]); 
-    				dataR[count] = Double.parseDouble(line.split(" +")[0]); 
-    				count++;
-    			}
-    		}catch (IOException e){	
-    			throw new RuntimeException(e);
-    		}
-    		
-    		uSCFData = new double[count];
-    		rData = new double[count];
-    		for (int n=0;n<count;n++) {
-    			uSCFData[n] = dataUSCF[n];
-    			rData[n] = dataR[n];
-    			//System.out.println(rData[n]+" "+uSCFData[n]);
-    		}
-    		//System.exit(0);
-			
-		
+			// each line starts with r (or r^2) and the value; the files are
+			// read as tables of numbers that are cached in memory and on disk
+			double[][] u12 = TableCache.getRows(d+"u12NoDisp.dat", null);
+			rData = column(u12, 0);
+			uSCFData = column(u12, 1);
+
     		// Clean: 
 			for (int i = 0; i< uSCFData.length; i++) {
 				if (uSCFData[i] > 1.05e+03) {
 					uSCFData[i] = Double.POSITIVE_INFINITY;
 		    	}
 			}
-				
-			double[] dataR2 = new double[1000];	
-			double[] dataC6 = new double[1000];
-			count = 0;
-			try{			    			
-    			FileReader fileReader = new FileReader(d+"C6.dat");			
-    			BufferedReader bufReader = new BufferedReader(fileReader);
-    			String line;
-    			while ((line = bufReader.readLine()) != null) {	
-    				dataC6[count] = Double.parseDouble(line.split(" +")[1]);  
-    				dataR2[count] = Double.parseDouble(line.split(" +")[0]);
-    				count++;
-    			}
-    		}catch (IOException e){	throw new RuntimeException(e);}
-			
-    		double[] dataC8 = new double[1000];
-			count = 0;
-			try{			    			
-    			FileReader fileReader = new FileReader(d+"C8.dat");			
-    			BufferedReader bufReader = new BufferedReader(fileReader);
-    			String line;
-    			while ((line = bufReader.readLine()) != null) {	
-    				dataC8[count] = Double.parseDouble(line.split(" +")[1]);  
-    				count++;
-    			}
-    		}catch (IOException e){	throw new RuntimeException(e);}
-    		
-    		double[] dataC10 = new double[1000];
-    		count = 0;
-			try{			    			
-    			FileReader fileReader = new FileReader(d+"C10.dat");			
-    			BufferedReader bufReader = new BufferedReader(fileReader);
-    			String line;
-    			while ((line = bufReader.readLine()) != null) {	
-    				dataC10[count] = Double.parseDouble(line.split(" +")[1]);  
-    				count++;
-    			}
-    		}catch (IOException e){	throw new RuntimeException(e);}
-    		
-    		double[] dataRc = new double[1000];
-    		count = 0;
-			try{			    			
-    			FileReader fileReader = new FileReader(d+"Rc.dat");			
-    			BufferedReader bufReader = new BufferedReader(fileReader);
-    			String line;
-    			while ((line = bufReader.readLine()) != null) {	
-    				dataRc[count] = Double.parseDouble(line.split(" +")[1]);  
-    				count++;
-    			}
-    		}catch (IOException e){	throw new RuntimeException(e);}
-			
-    		C6Data  = new double[count];
-    		C8Data  = new double[count];
-    		C10Data = new double[count];
-    		RcData  = new double[count];
-    		r2Data  = new double[count];
-    		for (int n=0;n<count;n++) {
-    			C6Data[n]  = dataC6[n];
-    			C8Data[n]  = dataC8[n];
-    			C10Data[n] = dataC10[n];
-    			RcData[n]  = dataRc[n];
-    			r2Data[n]  = dataR2[n];
-    		}
-    	
+
+			double[][] c6 = TableCache.getRows(d+"C6.dat", null);
+			r2Data  = column(c6, 0);
+			C6Data  = column(c6, 1);
+			C8Data  = column(TableCache.getRows(d+"C8.dat", null), 1);
+			C10Data = column(TableCache.getRows(d+"C10.dat", null), 1);
+			RcData  = column(TableCache.getRows(d+"Rc.dat", null), 1);
 	    }
+
+	/**
+	 * Returns column col of the given rows; any further columns are ignored.
+	 */
+	protected static double[] column(double[][] rows, int col) {
+		double[] x = new double[rows.length];
+		for (int n=0; n<x.length; n++) {
+			x[n] = rows[n][col];
+		}
+		return x;
+	}
    
 	protected int a1;	        
     protected int a2;   
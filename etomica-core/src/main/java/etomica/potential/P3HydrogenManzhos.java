@@ -13,11 +13,10 @@ import etomica.space3d.Space3D;
 import etomica.units.BohrRadius;
 import etomica.units.Kelvin;
 import etomica.util.Constants;
+import etomica.util.TableCache;
 
-import java.io.*;
-import java.net.URL;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
+import java.io.FileWriter;
+import java.io.IOException;
 
 public class P3HydrogenManzhos implements IPotential{
     public static void main(String[] args) {       
@@ -189,67 +188,35 @@ public class P3HydrogenManzhos implements IPotential{
         return (-1 + 2/(1+Math.exp(-2*x)));               
     }
     protected void getData() {
-        int t = 0;
-        InputStreamReader isr = null;
-        FileReader fileReader = null;
-        String fileName = "P3HydrogenManzhos_allData.dat";
-        URL url = getClass().getResource("/etomica/potential/" + fileName);
-        try {            
-            if (url.getProtocol().equals("jar")) {
-                URL myURL = new URL(url.getPath());
-                // myURL.getPath() will be something like
-                // jar:file:/usr/users/bob/ex_vir_hs.jar!/etomica/graph/model/impl/graph6fmt.zip
-                String jarFileName = myURL.getPath().split("!")[0];
-                JarFile jarFile = new JarFile(jarFileName);
-                // strip off leading slash
-                JarEntry jarEntry = jarFile.getJarEntry(myURL.getPath().split("!")[1].substring(1));
-                InputStream jis = jarFile.getInputStream(jarEntry);
-                isr = new InputStreamReader(jis);
-                t = 1;
-            }
-            else {              
-                fileReader = new FileReader(fileName);
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Cannot open "+fileName+", caught IOException: " + e.getMessage());
+        // the file is read as a table of numbers (in file order) that is
+        // cached in memory and on disk.  The table is taken from the working
+        // directory or, failing that, from the classpath.
+        double[] data = TableCache.getNumbers("P3HydrogenManzhos_allData.dat", P3HydrogenManzhos.class);
+        int n = 0;
+        for (int i=0; i<D; i++) {
+            xMinp[i] = data[n++];
         }
-        try {
-            BufferedReader bufReader = new BufferedReader((t == 0 || isr != null)?fileReader:isr);
-            String[] str0 = bufReader.readLine().trim().split(" +");
-            for (int i=0; i<D; i++) {                
-                xMinp[i] = Double.valueOf(str0[i]).doubleValue();
-            }
-            String[] str1 = bufReader.readLine().trim().split(" +");
-            for (int i=0; i<D; i++) {                
-                xMaxp[i] = Double.valueOf(str1[i]).doubleValue();
-            }
-            for (int i=0; i<d; i++) {
-                String[] str = bufReader.readLine().trim().split(" +");
-                for (int j=0; j<D; j++) {
-                    A[i][j] = Double.valueOf(str[j]).doubleValue();
-                }
-            }
-            for (int i=0; i<N; i++) {
-                String[] str = bufReader.readLine().trim().split(" +");
-                for (int j=0; j<d; j++) {
-                    w[i][j] = Double.valueOf(str[j]).doubleValue();
-                }
-            }
-            for (int i=0; i<N; i++) {
-                String[] str = bufReader.readLine().trim().split(" +");
-                cn[i] = Double.valueOf(str[0]).doubleValue();
-            }
-            for (int i=0; i<d; i++) {
-                String[] str = bufReader.readLine().trim().split(" +");
-                b[i] = Double.valueOf(str[0]).doubleValue();
+        for (int i=0; i<D; i++) {
+            xMaxp[i] = data[n++];
+        }
+        for (int i=0; i<d; i++) {
+            for (int j=0; j<D; j++) {
+                A[i][j] = data[n++];
             }
-            for (int i=0; i<N; i++) {
-                String[] str = bufReader.readLine().trim().split(" +");
-                dn[i] = Double.valueOf(str[0]).doubleValue();
+        }
+        for (int i=0; i<N; i++) {
+            for (int j=0; j<d; j++) {
+                w[i][j] = data[n++];
             }
-            fileReader.close();
-        } catch(IOException e) {
-            throw new RuntimeException("Problem reading from "+fileName+", caught IOException: " + e.getMessage());
+        }
+        for (int i=0; i<N; i++) {
+            cn[i] = data[n++];
+        }
+        for (int i=0; i<d; i++) {
+            b[i] = data[n++];
+        }
+        for (int i=0; i<N; i++) {
+            dn[i] = data[n++];
         }
     }
 
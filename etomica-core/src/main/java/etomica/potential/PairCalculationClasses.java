@@ -0,0 +1,35 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.potential;
+
+import etomica.atom.IAtomList;
+import etomica.space.Vector;
+
+/**
+ * Determines which PotentialCalculationPair classes define doPairCalculation
+ * at least as far down their hierarchy as doCalculation, so that a subclass
+ * that only overrides doCalculation is not bypassed.
+ */
+final class PairCalculationClasses {
+
+    private static final ClassValue<Boolean> PAIR = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                Class<?> calculation = type.getMethod("doCalculation", IAtomList.class, IPotentialAtomic.class).getDeclaringClass();
+                Class<?> pair = type.getMethod("doPairCalculation", int.class, int.class, Vector.class, double.class, Potential2SoftSpherical.class).getDeclaringClass();
+                return calculation.isAssignableFrom(pair);
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    private PairCalculationClasses() {}
+
+    static boolean isPairCalculation(Class<?> pcClass) {
+        return PAIR.get(pcClass);
+    }
+}
@@ -20,6 +20,21 @@ import etomica.space.Tensor;
  */
  
 public abstract class Potential2SoftSpherical extends Potential2 implements Potential2Soft {
+
+    // true for subclasses that take energy, virial and gradient from this class
+    private static final ClassValue<Boolean> SPHERICAL = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("energy", IAtomList.class).getDeclaringClass() == Potential2SoftSpherical.class
+                        && type.getMethod("virial", IAtomList.class).getDeclaringClass() == Potential2SoftSpherical.class
+                        && type.getMethod("gradient", IAtomList.class).getDeclaringClass() == Potential2SoftSpherical.class
+                        && type.getMethod("gradient", IAtomList.class, Tensor.class).getDeclaringClass() == Potential2SoftSpherical.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
    
     public Potential2SoftSpherical(Space space) {
         super(space);
@@ -115,6 +130,18 @@ public abstract class Potential2SoftSpherical extends Potential2 implements Pote
         return Double.POSITIVE_INFINITY;
     }
 
+    /**
+     * Returns true if the given potential is a Potential2SoftSpherical whose
+     * energy, virial and gradient for a pair of atoms are the ones defined
+     * here, given by u(r2) and du(r2) for the nearest-image separation.  A
+     * PotentialMaster may then hand the pair to a PotentialCalculationPair
+     * as a separation instead of as atoms.  Subclasses that override any of
+     * those methods are not spherical in this sense.
+     */
+    public static boolean isSpherical(IPotentialAtomic potential) {
+        return potential instanceof Potential2SoftSpherical && SPHERICAL.get(potential.getClass());
+    }
+
     public void setBox(Box box) {
         boundary = box.getBoundary();
     }
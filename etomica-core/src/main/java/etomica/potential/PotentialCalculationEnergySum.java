@@ -17,7 +17,7 @@ import etomica.space.Vector;
  *
  * @author David Kofke
  */
-public class PotentialCalculationEnergySum implements PotentialCalculation, PotentialCalculationMolecular, java.io.Serializable {
+public class PotentialCalculationEnergySum implements PotentialCalculationPair, PotentialCalculationMolecular, java.io.Serializable {
 
     public static boolean debug = false;
     
@@ -37,6 +37,18 @@ public class PotentialCalculationEnergySum implements PotentialCalculation, Pote
 	        debug = false;
 	    }
 	}
+
+    /**
+     * Adds to the energy sum the energy of the pair, u(r2).
+     */
+    public void doPairCalculation(int index0, int index1, Vector dr, double r2, Potential2SoftSpherical potential) {
+        sum += potential.u(r2);
+        if (debug && (Double.isInfinite(sum) || Double.isNaN(sum))) {
+            System.err.println("unhappy energy " + sum + " for atoms " + index0 + " " + index1);
+            System.err.println("distance " + Math.sqrt(r2));
+            debug = false;
+        }
+    }
 	
     /**
      * Adds to the energy sum the energy values obtained from application of the given potential to the
@@ -8,6 +8,7 @@ import etomica.atom.IAtomList;
 import etomica.space.Space;
 import etomica.space.Tensor;
 import etomica.space.Vector;
+import etomica.util.collections.IndexMap;
 
 /**
  * Sums the force on each iterated atom and adds it to the integrator agent
@@ -19,9 +20,11 @@ public class PotentialCalculationForcePressureSum extends PotentialCalculationFo
         
     private static final long serialVersionUID = 1L;
     protected final Tensor pressureTensor;
+    protected final Vector gradient0;
     
     public PotentialCalculationForcePressureSum(Space space) {
         pressureTensor = space.makeTensor();
+        gradient0 = space.makeVector();
     }
     
     /**
@@ -61,6 +64,20 @@ public class PotentialCalculationForcePressureSum extends PotentialCalculationFo
 		}
 	}
 
+    /**
+     * Adds the forces between the pair of atoms to the atoms' agents and
+     * their contribution to the pressure tensor.
+     */
+    public void doPairCalculation(int index0, int index1, Vector dr, double r2, Potential2SoftSpherical potential) {
+        if (r2 < 1.e-10) return;
+        double fr = potential.du(r2) / r2;
+        IndexMap<Vector> forces = integratorAgentManager.getAgents();
+        forces.get(index0).PEa1Tv1(fr, dr);
+        forces.get(index1).PEa1Tv1(-fr, dr);
+        gradient0.Ea1Tv1(-fr, dr);
+        pressureTensor.PEv1v2(gradient0, dr);
+    }
+
     /**
      * Returns the virial portion of pressure tensor calculated during the last
      * potential calculation.  In order to be valid, reset() must be called
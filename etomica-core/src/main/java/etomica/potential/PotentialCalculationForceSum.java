@@ -7,12 +7,13 @@ package etomica.potential;
 import etomica.atom.AtomLeafAgentManager;
 import etomica.atom.IAtomList;
 import etomica.space.Vector;
+import etomica.util.collections.IndexMap;
 
 /**
  * Sums the force on each iterated atom and adds it to the integrator agent
  * associated with the atom.
  */
-public class PotentialCalculationForceSum implements PotentialCalculation {
+public class PotentialCalculationForceSum implements PotentialCalculationPair {
         
     protected AtomLeafAgentManager<Vector> integratorAgentManager;
 
@@ -61,4 +62,16 @@ public class PotentialCalculationForceSum implements PotentialCalculation {
                 }
 		}
 	}
+
+    /**
+     * Adds the forces between the pair of atoms, taken from du(r2) of the
+     * potential, directly to the atoms' agents.
+     */
+    public void doPairCalculation(int index0, int index1, Vector dr, double r2, Potential2SoftSpherical potential) {
+        if (r2 < 1.e-10) return;
+        double fr = potential.du(r2) / r2;
+        IndexMap<Vector> forces = integratorAgentManager.getAgents();
+        forces.get(index0).PEa1Tv1(fr, dr);
+        forces.get(index1).PEa1Tv1(-fr, dr);
+    }
 }
@@ -0,0 +1,43 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.potential;
+
+import etomica.space.Vector;
+
+/**
+ * A PotentialCalculation that can also be performed on a pair of leaf atoms
+ * given only their indices and separation, for a spherical pair potential
+ * (see Potential2SoftSpherical.isSpherical).  PotentialMasters that iterate
+ * over neighbor pairs use doPairCalculation when they can, which spares them
+ * from filling an AtomPair and the potential from computing the separation
+ * again and returning its gradient as vectors.
+ * <p>
+ * doPairCalculation must have the same effect as doCalculation would for the
+ * pair.  A subclass that overrides doCalculation must also override
+ * doPairCalculation; if it does not, its doCalculation is used for all pairs.
+ */
+public interface PotentialCalculationPair extends PotentialCalculation {
+
+    /**
+     * Performs the calculation for a pair of atoms interacting with the given
+     * potential.
+     *
+     * @param index0    the leaf index of the first atom
+     * @param index1    the leaf index of the second atom
+     * @param dr        the nearest-image separation of the atoms, r1 - r0
+     * @param r2        the square of dr
+     * @param potential the potential between the atoms
+     */
+    void doPairCalculation(int index0, int index1, Vector dr, double r2, Potential2SoftSpherical potential);
+
+    /**
+     * Returns true if pairs of atoms interacting with the given potential can
+     * be handed to the given calculation through doPairCalculation.
+     */
+    static boolean canCalculate(PotentialCalculation pc, IPotentialAtomic potential) {
+        return pc instanceof PotentialCalculationPair && PairCalculationClasses.isPairCalculation(pc.getClass())
+                && Potential2SoftSpherical.isSpherical(potential);
+    }
+}
@@ -5,13 +5,14 @@
 package etomica.potential;
 
 import etomica.atom.IAtomList;
+import etomica.space.Vector;
 
 /**
  * Evaluates the virial summed over all iterated atoms.
  *
  * @author David Kofke
  */
-public class PotentialCalculationVirialSum implements PotentialCalculation {
+public class PotentialCalculationVirialSum implements PotentialCalculationPair {
 		
     /**
 	 * Adds to the virial sum the energy values obtained from application of the given potential to the
@@ -23,6 +24,13 @@ public class PotentialCalculationVirialSum implements PotentialCalculation {
         }
         sum += ((PotentialSoft)potential).virial(atoms);
 	}
+
+    /**
+     * Adds to the virial sum the virial of the pair, du(r2).
+     */
+    public void doPairCalculation(int index0, int index1, Vector dr, double r2, Potential2SoftSpherical potential) {
+        sum += potential.du(r2);
+    }
 	
 	/**
 	 * Sets the virial sum to zero, typically to begin a new virial-sum calculation.
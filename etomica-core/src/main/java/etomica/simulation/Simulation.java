@@ -47,11 +47,28 @@ public class Simulation {
      * @param space the space used to construct Vectors etc.
      */
     public Simulation(Space space) {
+        this(space, null);
+    }
+
+    /**
+     * Creates a new simulation using the given space and random number
+     * generator.  A subclass that is given its generator should pass it here
+     * rather than call setRandom later, since objects made in its constructor
+     * (MC moves, for instance) keep the generator they were given.
+     *
+     * @param space  the space used to construct Vectors etc.
+     * @param random the random number generator, or null for a new one with
+     *               seeds from RandomNumberGeneratorUnix
+     */
+    public Simulation(Space space, IRandom random) {
         this.space = space;
         boxes = new ArrayList<>();
         controller = new Controller();
-        seeds = RandomNumberGeneratorUnix.getRandSeedArray();
-        random = new RandomMersenneTwister(seeds);
+        if (random == null) {
+            seeds = RandomNumberGeneratorUnix.getRandSeedArray();
+            random = new RandomMersenneTwister(seeds);
+        }
+        this.random = random;
         eventManager = new SimulationEventManager(this);
         speciesList = new ArrayList<>();
         elementSymbolHash = new HashMap<>();
@@ -60,8 +77,9 @@ public class Simulation {
 
     /**
      * @return the seeds that were used for the random number generator at
-     * construction.  If the random number generator has been set manually
-     * since then, this method returns null.
+     * construction.  If the random number generator was given to the
+     * constructor or has been set manually since then, this method returns
+     * null.
      */
     public int[] getRandomSeeds() {
         return seeds;
@@ -69,6 +69,7 @@ public class TestLJGCMC3D extends Simulation {
         integrator.getMoveManager().addMCMove(mcMoveID);
         integrator.getMoveManager().setEquilibrating(false);
         ActivityIntegrate activityIntegrate = new ActivityIntegrate(integrator);
+        activityIntegrate.setCheckInterval(1000);
         activityIntegrate.setMaxSteps(numSteps);
         getController().addAction(activityIntegrate);
         mcMoveID.setSpecies(species);
@@ -119,6 +120,7 @@ public class TestLJGCMC3D extends Simulation {
         DataPumpListener pumpDensity = new DataPumpListener(densityMeter, densityAccumulator, 2 * numAtoms);
         sim.integrator.getEventManager().addListener(pumpDensity);
 
+        sim.getController().setHeadless(true);
         sim.getController().actionPerformed();
 
         double Z = ((DataDouble) ((DataGroup) pAccumulator.getData()).getData(pAccumulator.AVERAGE.index)).x * sim.box.getBoundary().volume() / (sim.box.getMoleculeList().size() * sim.integrator.getTemperature());
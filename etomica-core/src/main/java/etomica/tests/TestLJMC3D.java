@@ -60,6 +60,7 @@ public class TestLJMC3D extends Simulation {
         integrator.getMoveManager().addMCMove(mcMoveAtom);
         integrator.getMoveManager().setEquilibrating(false);
         ActivityIntegrate activityIntegrate = new ActivityIntegrate(integrator);
+        activityIntegrate.setCheckInterval(1000);
         activityIntegrate.setMaxSteps(numSteps);
         getController().addAction(activityIntegrate);
         box.setNMolecules(species, numAtoms);
@@ -105,6 +106,7 @@ public class TestLJMC3D extends Simulation {
         energyAccumulator.setBlockSize(50);
         sim.integrator.getEventManager().addListener(new IntegratorListenerAction(energyManager));
         
+        sim.getController().setHeadless(true);
         sim.getController().actionPerformed();
 
         double Z = ((DataDouble) ((DataGroup) pAccumulator.getData()).getData(pAccumulator.AVERAGE.index)).x * sim.box.getBoundary().volume() / (sim.box.getMoleculeList().size() * sim.integrator.getTemperature());
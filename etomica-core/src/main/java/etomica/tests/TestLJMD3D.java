@@ -54,6 +54,7 @@ public class TestLJMD3D extends Simulation {
         integrator = new IntegratorVelocityVerlet(this, potentialMaster, box);
         integrator.setTimeStep(0.02);
         ActivityIntegrate activityIntegrate = new ActivityIntegrate(integrator);
+        activityIntegrate.setCheckInterval(100);
         activityIntegrate.setMaxSteps(numSteps);
         getController().addAction(activityIntegrate);
         box.setNMolecules(species, numAtoms);
@@ -94,6 +95,7 @@ public class TestLJMD3D extends Simulation {
         sim.integrator.getEventManager().addListener(new IntegratorListenerAction(energyManager));
 
         long t1 = System.currentTimeMillis();
+        sim.getController().setHeadless(true);
         sim.getController().actionPerformed();
         long t2 = System.currentTimeMillis();
 
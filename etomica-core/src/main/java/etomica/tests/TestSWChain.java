@@ -70,6 +70,7 @@ public class TestSWChain extends Simulation {
         integrator.setTimeStep(timeStep);
         integrator.setIsothermal(true);
         ActivityIntegrate activityIntegrate = new ActivityIntegrate(integrator);
+        activityIntegrate.setCheckInterval(100);
         getController().addAction(activityIntegrate);
         activityIntegrate.setMaxSteps(nSteps);
         potentialMaster.setCellRange(2);
@@ -112,6 +113,7 @@ public class TestSWChain extends Simulation {
         energyAccumulator.setBlockSize(50);
         sim.integrator.getEventManager().addListener(energyPump);
         
+        sim.getController().setHeadless(true);
         sim.getController().actionPerformed();
         
         double Z = pMeter.getDataAsScalar()*sim.box.getBoundary().volume()/(sim.box.getMoleculeList().size()*sim.integrator.getTemperature());
@@ -0,0 +1,282 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.util;
+
+import etomica.util.random.IRandom;
+import etomica.util.random.RandomMersenneTwister;
+import etomica.util.random.RandomNumberGeneratorUnix;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs many short simulations (a parameter sweep, for instance) concurrently
+ * within one JVM, so that class loading and JIT compilation are paid once
+ * instead of once per run.  Each run gets its own parameter object, filled
+ * from a set of command-line style arguments (as for ParseArgs), and its own
+ * random number generator.  The runs are executed on a work-stealing
+ * (ForkJoin) pool, and each run's result is written to a single output as
+ * soon as the run finishes, as one line:
+ * <pre>
+ * index  seeds  args  result
+ * </pre>
+ * separated by tabs.  Tabs, newlines and backslashes within the args and
+ * result are written as \t, \n and \\ so that each run is one line.  Lines
+ * are in order of completion, not of index.  A run that throws (or fails
+ * with an Error) is reported with "ERROR" and the exception in place of the
+ * result; the other runs continue.
+ * <p>
+ * The random number generator for run i is seeded with the base seeds
+ * followed by i, so the runs are independent and any run can be reproduced.
+ * A job must use only the generator it is given and must not depend on
+ * static mutable state.  The generator must reach the simulation when it is
+ * constructed, by passing it to Simulation(Space, IRandom): calling setRandom
+ * afterwards is too late, because the simulation's constructor has already
+ * handed its own generator to the MC moves and integrators it built.
+ * <pre>
+ * public LJMC3D(LJParams params, IRandom random) {
+ *     super(Space3D.getInstance(), random);
+ *     ...
+ * }
+ *
+ * BatchRunner&lt;LJParams&gt; runner = new BatchRunner&lt;&gt;(LJParams::new, (params, random) -&gt; {
+ *     LJMC3D sim = new LJMC3D(params, random);
+ *     ...
+ *     return avgEnergy + " " + error;
+ * });
+ * runner.run(BatchRunner.readArgSets("sweep.txt"), new FileWriter("results.txt"));
+ * </pre>
+ */
+public class BatchRunner<P extends ParameterBase> {
+
+    /**
+     * Runs one simulation for the given parameters, using the given random
+     * number generator, and returns the result to write out.
+     */
+    public interface Job<P extends ParameterBase> {
+        String run(P params, IRandom random) throws Exception;
+    }
+
+    protected final Supplier<P> parameterFactory;
+    protected final Job<P> job;
+    protected int threadCount;
+    protected int[] seeds;
+
+    public BatchRunner(Supplier<P> parameterFactory, Job<P> job) {
+        this.parameterFactory = parameterFactory;
+        this.job = job;
+        threadCount = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Sets the number of runs to execute concurrently.  Default is the
+     * number of processors.
+     */
+    public void setThreadCount(int newThreadCount) {
+        if (newThreadCount < 1) {
+            throw new IllegalArgumentException("need at least one thread");
+        }
+        threadCount = newThreadCount;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Sets the base seeds for the runs' random number generators.  If not
+     * set (or null), seeds are taken from RandomNumberGeneratorUnix when run
+     * is called.
+     */
+    public void setSeeds(int[] newSeeds) {
+        seeds = newSeeds == null ? null : newSeeds.clone();
+    }
+
+    /**
+     * Returns the seeds used for run i with the given base seeds.
+     */
+    public static int[] runSeeds(int[] baseSeeds, int i) {
+        // etomica.util.Arrays hides java.util.Arrays
+        int[] s = java.util.Arrays.copyOf(baseSeeds, baseSeeds.length + 1);
+        s[baseSeeds.length] = i;
+        return s;
+    }
+
+    /**
+     * Executes a run for each set of arguments, writing each result to out
+     * as it completes, and returns the results in order (null for runs that
+     * failed).
+     *
+     * @throws IllegalArgumentException if a set of arguments asks for help
+     *                                  (-h or -help), since ParseArgs would print the usage and exit
+     */
+    public List<String> run(List<String[]> argSets, Writer out) {
+        for (int i = 0; i < argSets.size(); i++) {
+            String[] args = argSets.get(i);
+            if (asksForHelp(args)) {
+                throw new IllegalArgumentException("argument set " + i + " asks for help, which would exit the JVM");
+            }
+        }
+        int[] baseSeeds = seeds != null ? seeds : RandomNumberGeneratorUnix.getRandSeedArray();
+        List<Callable<String>> tasks = new ArrayList<>();
+        for (int i = 0; i < argSets.size(); i++) {
+            int index = i;
+            String[] args = argSets.get(i);
+            tasks.add(() -> runOne(index, args, runSeeds(baseSeeds, index), out));
+        }
+        ForkJoinPool pool = new ForkJoinPool(threadCount);
+        try {
+            List<String> results = new ArrayList<>();
+            for (Future<String> f : pool.invokeAll(tasks)) {
+                results.add(f.get());
+            }
+            return results;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        catch (ExecutionException e) {
+            // runOne handles exceptions from the job
+            throw new RuntimeException(e.getCause());
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    protected String runOne(int index, String[] args, int[] runSeeds, Writer out) {
+        String result;
+        boolean failed = false;
+        try {
+            P params = parameterFactory.get();
+            new ParseArgs(params).parseArgs(args);
+            result = job.run(params, new RandomMersenneTwister(runSeeds));
+        }
+        catch (Throwable e) {
+            result = "ERROR " + e;
+            failed = true;
+        }
+        StringBuilder line = new StringBuilder();
+        line.append(index).append('\t');
+        for (int j = 0; j < runSeeds.length; j++) {
+            if (j > 0) line.append(' ');
+            line.append(runSeeds[j]);
+        }
+        line.append('\t').append(escape(String.join(" ", args))).append('\t').append(escape(String.valueOf(result))).append('\n');
+        synchronized (out) {
+            try {
+                out.write(line.toString());
+                out.flush();
+            }
+            catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return failed ? null : result;
+    }
+
+    // ParseArgs prints the usage and calls System.exit for these
+    private static boolean asksForHelp(String[] args) {
+        return args.length == 1 && (args[0].equals("-h") || args[0].equals("-help"));
+    }
+
+    /**
+     * Escapes backslashes, tabs and line breaks so that s fits in one field
+     * of an output line.
+     */
+    public static String escape(String s) {
+        StringBuilder escaped = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Reads sets of arguments from the given file, one set per line.
+     * Arguments are separated by whitespace; double quotes group words into
+     * one argument (for array parameters).  Blank lines and lines starting
+     * with # are skipped.
+     *
+     * @throws IllegalArgumentException if a line asks for help (-h or -help)
+     */
+    public static List<String[]> readArgSets(String fileName) {
+        List<String[]> argSets = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.charAt(0) == '#') continue;
+                String[] args = splitArgs(line);
+                if (asksForHelp(args)) {
+                    throw new IllegalArgumentException(fileName + ": line \"" + line + "\" asks for help, which would exit the JVM");
+                }
+                argSets.add(args);
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Problem reading from " + fileName + ", caught IOException: " + e.getMessage());
+        }
+        return argSets;
+    }
+
+    /**
+     * Splits a line into arguments as a shell would for simple cases:
+     * whitespace separates arguments and double quotes group words.
+     */
+    public static String[] splitArgs(String line) {
+        List<String> args = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false, inArg = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                inArg = true;
+            }
+            else if (Character.isWhitespace(c) && !quoted) {
+                if (inArg) {
+                    args.add(current.toString());
+                    current.setLength(0);
+                    inArg = false;
+                }
+            }
+            else {
+                current.append(c);
+                inArg = true;
+            }
+        }
+        if (inArg) {
+            args.add(current.toString());
+        }
+        return args.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,319 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of numeric tables read from text files (potential coefficients,
+ * interpolation data and the like).  A table is the sequence of all numbers
+ * in the file, in order, so a file read line by line with split(" +") can
+ * instead be taken from the table with the same loops, or from getRows.
+ * <p>
+ * Parsed tables are kept in memory, so later constructions in the same JVM
+ * do not parse the file again, and are also written in binary form to a cache
+ * directory, so that later runs can read the binary file instead of parsing
+ * the text.  The text is still read on each call, and its SHA-256 hash is
+ * compared with the hash stored in the binary file (and used as the key in
+ * memory), so an edited file is always parsed again; hashing costs little
+ * next to parsing.  The cache directory is given by the etomica.tableCache
+ * system property (default ~/.etomica/tableCache); an empty value turns off
+ * the on-disk cache.  Problems with the on-disk cache are ignored and the
+ * text is parsed instead.
+ * <p>
+ * The returned arrays are shared by all callers and must not be modified.
+ */
+public final class TableCache {
+
+    /**
+     * Version of the binary format; files with a different version are
+     * ignored.
+     */
+    public static final int VERSION = 2;
+    private static final long MAGIC = 0x65746f6d54626c00L; // "etomTbl\0"
+    private static final int HASH_BYTES = 32;
+    private static final int HEADER_BYTES = 8 + 4 + HASH_BYTES + 4 + 4;
+
+    private static final Map<String, Table> tables = new ConcurrentHashMap<>();
+    private static volatile File cacheDir = defaultCacheDir();
+
+    private TableCache() {}
+
+    private static File defaultCacheDir() {
+        String dir = System.getProperty("etomica.tableCache");
+        if (dir == null) {
+            return new File(System.getProperty("user.home"), ".etomica" + File.separator + "tableCache");
+        }
+        return dir.isEmpty() ? null : new File(dir);
+    }
+
+    /**
+     * Sets the directory used for binary tables.  null turns off the on-disk
+     * cache.
+     */
+    public static void setCacheDir(File newCacheDir) {
+        cacheDir = newCacheDir;
+    }
+
+    public static File getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     * Returns all of the numbers in the given file.  The file is looked for
+     * first as a file (relative to the working directory) and then as a
+     * resource of cls (cls may be null).
+     */
+    public static double[] getNumbers(String fileName, Class<?> cls) {
+        return getTable(fileName, cls).numbers;
+    }
+
+    /**
+     * Returns the numbers in the given file, one array for each line that
+     * has any.  The file is found as for getNumbers.  The arrays are copies
+     * and may be modified.
+     */
+    public static double[][] getRows(String fileName, Class<?> cls) {
+        Table table = getTable(fileName, cls);
+        int[] lineStarts = table.lineStarts;
+        double[][] rows = new double[lineStarts.length][];
+        for (int i = 0; i < rows.length; i++) {
+            int end = i + 1 < lineStarts.length ? lineStarts[i + 1] : table.numbers.length;
+            rows[i] = java.util.Arrays.copyOfRange(table.numbers, lineStarts[i], end);
+        }
+        return rows;
+    }
+
+    private static Table getTable(String fileName, Class<?> cls) {
+        Source source;
+        try {
+            source = findSource(fileName, cls);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Cannot read " + fileName + ", caught IOException: " + e.getMessage());
+        }
+        return tables.computeIfAbsent(hex(source.hash), k -> load(source));
+    }
+
+    /**
+     * Drops the tables held in memory, so that the next request for each goes
+     * to the disk cache (or the source).  Meant for tests.
+     */
+    static void clearMemoryCache() {
+        tables.clear();
+    }
+
+    private static Source findSource(String fileName, Class<?> cls) throws IOException {
+        String name = new File(fileName).getName();
+        File file = new File(fileName);
+        if (file.exists()) {
+            return new Source(name, file.getCanonicalPath(), Files.readAllBytes(file.toPath()));
+        }
+        URL url = cls == null ? null : cls.getResource(fileName);
+        if (url == null) {
+            throw new IOException(fileName + " not found");
+        }
+        return new Source(name, url.toString(), read(url));
+    }
+
+    private static byte[] read(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        // don't hold a jar open in the URL cache
+        connection.setUseCaches(false);
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static byte[] hash(byte[] source) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(source);
+        }
+        catch (NoSuchAlgorithmException e) {
+            // every JVM has SHA-256
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static Table load(Source source) {
+        File dir = cacheDir;
+        // one binary file for each source location, holding the table for
+        // the contents it had when last parsed
+        String location = hex(java.util.Arrays.copyOf(hash(source.location.getBytes(StandardCharsets.UTF_8)), 12));
+        File file = dir == null ? null : new File(dir, source.name + "-" + location + ".bin");
+        if (file != null && file.exists()) {
+            Table table = readBinary(file, source.hash);
+            if (table != null) return table;
+        }
+        Table table = parseTable(source.bytes);
+        if (file != null) {
+            writeBinary(file, source.hash, table);
+        }
+        return table;
+    }
+
+    /**
+     * Returns all of the numbers in the text, which are separated by
+     * whitespace.
+     */
+    public static double[] parse(byte[] source) {
+        return parseTable(source).numbers;
+    }
+
+    private static Table parseTable(byte[] source) {
+        // java.util.Arrays is written out since etomica.util has an Arrays
+        double[] numbers = new double[256];
+        int[] lineStarts = new int[16];
+        int count = 0, lineCount = 0;
+        boolean newLine = true;
+        int i = 0;
+        while (i < source.length) {
+            while (i < source.length && source[i] <= ' ') {
+                if (source[i] == '\n') newLine = true;
+                i++;
+            }
+            int start = i;
+            while (i < source.length && source[i] > ' ') i++;
+            if (i == start) break;
+            if (newLine) {
+                if (lineCount == lineStarts.length) {
+                    lineStarts = java.util.Arrays.copyOf(lineStarts, 2 * lineCount);
+                }
+                lineStarts[lineCount++] = count;
+                newLine = false;
+            }
+            if (count == numbers.length) {
+                numbers = java.util.Arrays.copyOf(numbers, 2 * count);
+            }
+            numbers[count++] = Double.parseDouble(new String(source, start, i - start, StandardCharsets.US_ASCII));
+        }
+        return new Table(java.util.Arrays.copyOf(numbers, count), java.util.Arrays.copyOf(lineStarts, lineCount));
+    }
+
+    /**
+     * Returns the table in the given binary file, or null if the file is not
+     * valid or was made from text with a different hash.
+     */
+    private static Table readBinary(File file, byte[] sourceHash) {
+        try {
+            // the table is copied into an array anyway, so a plain read is
+            // as good as mapping the file
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            long size = bytes.length;
+            if (size < HEADER_BYTES) return null;
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.getLong() != MAGIC || buffer.getInt() != VERSION) return null;
+            byte[] hash = new byte[HASH_BYTES];
+            buffer.get(hash);
+            if (!MessageDigest.isEqual(hash, sourceHash)) return null;
+            int count = buffer.getInt();
+            int lineCount = buffer.getInt();
+            if (count < 0 || lineCount < 0 || size != HEADER_BYTES + 8L * count + 4L * lineCount) return null;
+            double[] numbers = new double[count];
+            buffer.asDoubleBuffer().get(numbers);
+            buffer.position(buffer.position() + 8 * count);
+            int[] lineStarts = new int[lineCount];
+            buffer.asIntBuffer().get(lineStarts);
+            return new Table(numbers, lineStarts);
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeBinary(File file, byte[] sourceHash, Table table) {
+        File tmp = null;
+        try {
+            File dir = file.getParentFile();
+            dir.mkdirs();
+            // write to a temporary file and rename, so that other processes
+            // never see a partial file
+            tmp = File.createTempFile(file.getName(), ".tmp", dir);
+            try (RandomAccessFile raf = new RandomAccessFile(tmp, "rw"); FileChannel channel = raf.getChannel()) {
+                double[] numbers = table.numbers;
+                int[] lineStarts = table.lineStarts;
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 8 * numbers.length + 4 * lineStarts.length);
+                buffer.putLong(MAGIC).putInt(VERSION).put(sourceHash).putInt(numbers.length).putInt(lineStarts.length);
+                buffer.asDoubleBuffer().put(numbers);
+                buffer.position(buffer.position() + 8 * numbers.length);
+                buffer.asIntBuffer().put(lineStarts);
+                buffer.rewind();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            try {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (IOException e) {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch (IOException e) {
+            // the cache is only an optimization
+            if (tmp != null) tmp.delete();
+        }
+    }
+
+    /**
+     * The numbers in a file, with the index of the first number on each line
+     * that has any.
+     */
+    private static class Table {
+        final double[] numbers;
+        final int[] lineStarts;
+
+        Table(double[] numbers, int[] lineStarts) {
+            this.numbers = numbers;
+            this.lineStarts = lineStarts;
+        }
+    }
+
+    /**
+     * Where a table comes from, and the contents it has now.
+     */
+    private static class Source {
+        final String name;
+        final String location;
+        final byte[] bytes;
+        final byte[] hash;
+
+        Source(String name, String location, byte[] bytes) {
+            this.name = name;
+            this.location = location;
+            this.bytes = bytes;
+            hash = TableCache.hash(bytes);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.action.activity;
+
+import etomica.integrator.Integrator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks that running with a check interval (and on a headless Controller)
+ * takes the same steps as the normal loop, and still pauses and halts.
+ */
+public class ActivityIntegrateTest {
+
+    @Test
+    public void testStepCount() {
+        for (int checkInterval : new int[]{1, 7, 1000, 5000}) {
+            for (long maxSteps : new long[]{0, 1, 1000, 1003}) {
+                StepCounter integrator = new StepCounter();
+                ActivityIntegrate ai = new ActivityIntegrate(integrator);
+                ai.setMaxSteps(maxSteps);
+                ai.setCheckInterval(checkInterval);
+                ai.actionPerformed();
+                String message = "interval " + checkInterval + ", " + maxSteps + " steps";
+                Assertions.assertEquals(maxSteps, integrator.getStepCount(), message);
+                Assertions.assertEquals(maxSteps, integrator.doStepCount, message);
+                Assertions.assertEquals(maxSteps, ai.getCurrentStep(), message);
+                Assertions.assertEquals(1, integrator.resetCount, message);
+            }
+        }
+    }
+
+    @Test
+    public void testHeadlessController() {
+        for (boolean headless : new boolean[]{false, true}) {
+            StepCounter integrator = new StepCounter();
+            ActivityIntegrate ai = new ActivityIntegrate(integrator);
+            ai.setMaxSteps(1003);
+            ai.setCheckInterval(100);
+            Controller controller = new Controller();
+            controller.setHeadless(headless);
+            controller.addAction(ai);
+            controller.actionPerformed();
+            Assertions.assertEquals(1003, integrator.getStepCount());
+            Assertions.assertEquals(Controller.ActionStatus.COMPLETED, controller.getActionStatus(ai));
+            // headless runs the activity on the thread that started the controller
+            Assertions.assertEquals(headless, integrator.stepThread == Thread.currentThread());
+        }
+    }
+
+    @Test
+    public void testHeadlessException() {
+        StepCounter integrator = new StepCounter() {
+            protected void doStepInternal() {
+                super.doStepInternal();
+                if (doStepCount == 50) throw new RuntimeException("oops");
+            }
+        };
+        ActivityIntegrate ai = new ActivityIntegrate(integrator);
+        ai.setCheckInterval(20);
+        Controller controller = new Controller();
+        controller.setHeadless(true);
+        controller.addAction(ai);
+        Assertions.assertThrows(RuntimeException.class, controller::actionPerformed);
+        Assertions.assertEquals(Controller.ActionStatus.FAILED, controller.getActionStatus(ai));
+        Assertions.assertEquals("oops", controller.getException(ai).getMessage());
+    }
+
+    @Test
+    public void testPauseAndHalt() throws InterruptedException {
+        for (boolean headless : new boolean[]{false, true}) {
+            int checkInterval = 100;
+            StepCounter integrator = new StepCounter();
+            ActivityIntegrate ai = new ActivityIntegrate(integrator);
+            ai.setCheckInterval(checkInterval);
+            Controller controller = new Controller();
+            controller.setHeadless(headless);
+            controller.addAction(ai);
+            Thread runner = new Thread(controller::actionPerformed);
+            runner.start();
+            waitForSteps(integrator, 1000);
+
+            controller.pause();
+            Assertions.assertTrue(controller.isPaused());
+            long paused = integrator.getStepCount();
+            // requests are only seen at the end of a block of steps
+            Assertions.assertEquals(0, paused % checkInterval);
+            Thread.sleep(50);
+            Assertions.assertEquals(paused, integrator.getStepCount());
+
+            controller.unPause();
+            waitForSteps(integrator, paused + 1000);
+
+            AtomicLong urgentStep = new AtomicLong(-1);
+            controller.doActionNow(() -> urgentStep.set(integrator.getStepCount()));
+            Assertions.assertEquals(0, urgentStep.get() % checkInterval);
+            Assertions.assertTrue(urgentStep.get() > paused);
+            waitForSteps(integrator, urgentStep.get() + 1000);
+
+            controller.halt();
+            runner.join(10000);
+            Assertions.assertFalse(runner.isAlive());
+            long halted = integrator.getStepCount();
+            Assertions.assertEquals(0, halted % checkInterval);
+            Assertions.assertEquals(halted, ai.getCurrentStep());
+            Assertions.assertEquals(Controller.ActionStatus.STOPPED, controller.getActionStatus(ai));
+        }
+    }
+
+    private static void waitForSteps(Integrator integrator, long steps) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 10000;
+        while (integrator.getStepCount() < steps) {
+            Assertions.assertTrue(System.currentTimeMillis() < timeout, "timed out waiting for " + steps + " steps");
+            Thread.sleep(1);
+        }
+    }
+
+    private static class StepCounter extends Integrator {
+        volatile long doStepCount;
+        int resetCount;
+        Thread stepThread;
+
+        protected void doStepInternal() {
+            doStepCount++;
+            stepThread = Thread.currentThread();
+        }
+
+        public void reset() {
+            super.reset();
+            resetCount++;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.box;
+
+import etomica.atom.IAtomList;
+import etomica.integrator.Integrator;
+import etomica.simulation.Simulation;
+import etomica.space3d.Space3D;
+import etomica.species.SpeciesSpheresMono;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BoxSnapshotPublisherTest {
+
+    private Box box;
+    private Integrator integrator;
+    private BoxSnapshotPublisher publisher;
+
+    @BeforeEach
+    public void setUp() {
+        Simulation sim = new Simulation(Space3D.getInstance());
+        SpeciesSpheresMono species = new SpeciesSpheresMono(sim, sim.getSpace());
+        sim.addSpecies(species);
+        box = new Box(sim.getSpace());
+        sim.addBox(box);
+        box.setNMolecules(species, 10);
+        IAtomList leafList = box.getLeafList();
+        // each step moves every atom to (step, step, step)
+        integrator = new Integrator() {
+            protected void doStepInternal() {
+                for (int i = 0; i < leafList.size(); i++) {
+                    leafList.get(i).getPosition().E(stepCount);
+                }
+            }
+        };
+        publisher = new BoxSnapshotPublisher(box);
+        integrator.getEventManager().addListener(publisher);
+        integrator.reset();
+    }
+
+    @Test
+    public void testPublish() {
+        integrator.doStep();
+        BoxSnapshotPublisher.Snapshot s = publisher.acquire();
+        Assertions.assertEquals(10, s.getAtomCount());
+        Assertions.assertEquals(30, s.getPositions().length);
+        Assertions.assertEquals(1, s.getStepCount());
+        Assertions.assertEquals(1.0, s.getPositions()[29]);
+        s.release();
+
+        publisher.setInterval(3);
+        integrator.doStep();
+        integrator.doStep();
+        Assertions.assertEquals(1, publisher.acquire().getStepCount());
+        integrator.doStep();
+        s = publisher.acquire();
+        Assertions.assertEquals(4, s.getStepCount());
+        Assertions.assertEquals(4.0, s.getPositions()[0]);
+    }
+
+    @Test
+    public void testHeldSnapshot() {
+        integrator.doStep();
+        BoxSnapshotPublisher.Snapshot held = publisher.acquire();
+        for (int i = 0; i < 5; i++) {
+            integrator.doStep();
+        }
+        // the held snapshot is unchanged while newer ones are published
+        Assertions.assertEquals(1, held.getStepCount());
+        Assertions.assertEquals(1.0, held.getPositions()[0]);
+        BoxSnapshotPublisher.Snapshot latest = publisher.acquire();
+        Assertions.assertEquals(6, latest.getStepCount());
+
+        // with every buffer held, new snapshots are skipped
+        integrator.doStep();
+        BoxSnapshotPublisher.Snapshot third = publisher.acquire();
+        Assertions.assertEquals(7, third.getStepCount());
+        integrator.doStep();
+        BoxSnapshotPublisher.Snapshot again = publisher.acquire();
+        Assertions.assertSame(third, again);
+        again.release();
+        held.release();
+        integrator.doStep();
+        BoxSnapshotPublisher.Snapshot s = publisher.acquire();
+        Assertions.assertEquals(9, s.getStepCount());
+        Assertions.assertEquals(9.0, s.getPositions()[0]);
+        Assertions.assertEquals(6, latest.getStepCount());
+    }
+}
@@ -0,0 +1,181 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.data.meter;
+
+import etomica.atom.AtomType;
+import etomica.box.Box;
+import etomica.config.ConfigurationLattice;
+import etomica.data.types.DataFunction;
+import etomica.integrator.IntegratorMC;
+import etomica.integrator.mcmove.MCMoveAtom;
+import etomica.lattice.LatticeCubicFcc;
+import etomica.nbr.cell.NeighborCellManager;
+import etomica.potential.P2LennardJones;
+import etomica.potential.P2SoftSphericalTruncated;
+import etomica.potential.PotentialMasterMonatomic;
+import etomica.simulation.Simulation;
+import etomica.space.Space;
+import etomica.space.Vector;
+import etomica.space3d.Space3D;
+import etomica.species.SpeciesSpheresMono;
+import etomica.util.random.RandomMersenneTwister;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MeterRDFCellsTest {
+
+    Space space;
+    Simulation sim;
+    Box box;
+    IntegratorMC integrator;
+    AtomType typeA, typeB;
+
+    /**
+     * Sets up a small two-component LJ liquid, with Monte Carlo to sample it.
+     */
+    @BeforeEach
+    public void setUp() {
+        space = Space3D.getInstance();
+        sim = new Simulation(space, new RandomMersenneTwister(1));
+        SpeciesSpheresMono speciesA = new SpeciesSpheresMono(sim, space);
+        SpeciesSpheresMono speciesB = new SpeciesSpheresMono(sim, space);
+        sim.addSpecies(speciesA);
+        sim.addSpecies(speciesB);
+        typeA = speciesA.getLeafType();
+        typeB = speciesB.getLeafType();
+        box = sim.makeBox();
+        box.setNMolecules(speciesA, 150);
+        box.setNMolecules(speciesB, 50);
+        box.setDensity(0.6);
+        new ConfigurationLattice(new LatticeCubicFcc(space), space).initializeCoordinates(box);
+
+        PotentialMasterMonatomic potentialMaster = new PotentialMasterMonatomic(sim);
+        P2SoftSphericalTruncated p2 = new P2SoftSphericalTruncated(space, new P2LennardJones(space), 3);
+        potentialMaster.addPotential(p2, new AtomType[]{typeA, typeA});
+        potentialMaster.addPotential(p2, new AtomType[]{typeA, typeB});
+        potentialMaster.addPotential(p2, new AtomType[]{typeB, typeB});
+        integrator = new IntegratorMC(sim, potentialMaster, box);
+        integrator.setTemperature(1.5);
+        MCMoveAtom move = new MCMoveAtom(sim.getRandom(), potentialMaster, space);
+        move.setStepSize(0.2);
+        integrator.getMoveManager().addMCMove(move);
+        integrator.reset();
+        run(2000);
+    }
+
+    private void run(int steps) {
+        for (int i = 0; i < steps; i++) {
+            integrator.doStep();
+        }
+    }
+
+    @Test
+    public void testMatchesMeterRDF() {
+        for (boolean parallel : new boolean[]{false, true}) {
+            MeterRDF meter = newMeter(new MeterRDF(space));
+            MeterRDFCells meterCells = newMeter(new MeterRDFCells(space));
+            meterCells.setParallel(parallel);
+            sample(meter, meterCells);
+            Assertions.assertArrayEquals(meter.gSum, meterCells.gSum);
+            Assertions.assertTrue(meter.gSum[meter.gSum.length - 1] > 0);
+            assertSameRDF(meter, meterCells);
+            meterCells.dispose();
+        }
+    }
+
+    @Test
+    public void testTypePairs() {
+        MeterRDFCells meterCells = newMeter(new MeterRDFCells(space));
+        MeterRDFCells.TypePairRDF rdfAB = meterCells.makeTypePairRDF(typeB, typeA);
+        MeterRDFCells.TypePairRDF rdfBB = meterCells.makeTypePairRDF(typeB, typeB);
+        MeterRDF meterAB = newMeter(new MeterRDF(space));
+        meterAB.setAtomTypes(typeA, typeB);
+        MeterRDF meterBB = newMeter(new MeterRDF(space));
+        meterBB.setAtomType(typeB);
+        MeterRDFCells meterCellsBB = newMeter(new MeterRDFCells(space));
+        meterCellsBB.setAtomType(typeB);
+        sample(meterAB, meterBB, meterCells, meterCellsBB);
+
+        double[] gAB = ((DataFunction) rdfAB.getData()).getData();
+        double[] gBB = ((DataFunction) rdfBB.getData()).getData();
+        double[] expectedAB = ((DataFunction) meterAB.getData()).getData();
+        double[] expectedBB = ((DataFunction) meterBB.getData()).getData();
+        for (int i = 0; i < gAB.length; i++) {
+            Assertions.assertEquals(expectedAB[i], gAB[i], 1e-10 * (1 + expectedAB[i]), "AB bin " + i);
+            Assertions.assertEquals(expectedBB[i], gBB[i], 1e-10 * (1 + expectedBB[i]), "BB bin " + i);
+        }
+        Assertions.assertArrayEquals(meterBB.gSum, meterCellsBB.gSum);
+        assertSameRDF(meterBB, meterCellsBB);
+        meterCells.dispose();
+        meterCellsBB.dispose();
+    }
+
+    /**
+     * Changing the box disposes the cell manager for the old box, so it no
+     * longer follows that box's boundary.
+     */
+    @Test
+    public void testBoxChange() {
+        MeterRDFCells meterCells = newMeter(new MeterRDFCells(space));
+        meterCells.actionPerformed();
+        NeighborCellManager oldManager = meterCells.cellManager;
+        Vector oldDimensions = space.makeVector();
+        oldDimensions.E(oldManager.getLattice().getDimensions());
+
+        Box box2 = sim.makeBox();
+        box2.setNMolecules(sim.getSpecies(0), 100);
+        box2.setDensity(0.6);
+        new ConfigurationLattice(new LatticeCubicFcc(space), space).initializeCoordinates(box2);
+        meterCells.setBox(box2);
+        Assertions.assertNull(meterCells.cellManager);
+
+        // the old manager would follow an inflation of the old box
+        box.setDensity(0.5);
+        Assertions.assertTrue(oldDimensions.equals(oldManager.getLattice().getDimensions()));
+
+        MeterRDF meter = newMeter(new MeterRDF(space));
+        meter.setBox(box2);
+        meterCells.reset();
+        sample(meter, meterCells);
+        Assertions.assertNotSame(oldManager, meterCells.cellManager);
+        Assertions.assertArrayEquals(meter.gSum, meterCells.gSum);
+
+        // setting the same box keeps the manager
+        NeighborCellManager manager = meterCells.cellManager;
+        meterCells.setBox(box2);
+        Assertions.assertSame(manager, meterCells.cellManager);
+        meterCells.dispose();
+    }
+
+    private <T extends MeterRDF> T newMeter(T meter) {
+        meter.setBox(box);
+        meter.getXDataSource().setXMax(3);
+        meter.getXDataSource().setNValues(150);
+        meter.reset();
+        return meter;
+    }
+
+    /**
+     * Samples each meter on several configurations.
+     */
+    private void sample(MeterRDF... meters) {
+        for (int i = 0; i < 5; i++) {
+            run(400);
+            for (MeterRDF meter : meters) {
+                meter.actionPerformed();
+            }
+        }
+    }
+
+    private static void assertSameRDF(MeterRDF meter, MeterRDF meterCells) {
+        double[] g = ((DataFunction) meter.getData()).getData();
+        double[] gCells = ((DataFunction) meterCells.getData()).getData();
+        Assertions.assertEquals(g.length, gCells.length);
+        for (int i = 0; i < g.length; i++) {
+            Assertions.assertEquals(g[i], gCells[i], 1e-10 * (1 + g[i]), "bin " + i);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.data.meter;
+
+import etomica.atom.IAtomList;
+import etomica.box.Box;
+import etomica.data.DataPump;
+import etomica.data.IData;
+import etomica.data.IDataInfo;
+import etomica.data.IDataSink;
+import etomica.data.types.DataFunction;
+import etomica.simulation.Simulation;
+import etomica.space.Space;
+import etomica.space.Vector;
+import etomica.space3d.Space3D;
+import etomica.species.SpeciesSpheresMono;
+import etomica.util.random.RandomMersenneTwister;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MeterStructureFactorFFTTest {
+
+    Space space;
+    Box box;
+
+    @BeforeEach
+    public void setUp() {
+        space = Space3D.getInstance();
+        Simulation sim = new Simulation(space, new RandomMersenneTwister(1));
+        SpeciesSpheresMono species = new SpeciesSpheresMono(sim, space);
+        sim.addSpecies(species);
+        box = sim.makeBox();
+        box.getBoundary().setBoxSize(Vector.of(10, 10, 10));
+        box.setNMolecules(species, 200);
+        IAtomList atoms = box.getLeafList();
+        for (int i = 0; i < atoms.size(); i++) {
+            for (int j = 0; j < 3; j++) {
+                atoms.get(i).getPosition().setX(j, (sim.getRandom().nextDouble() - 0.5) * 10);
+            }
+        }
+    }
+
+    /**
+     * Compares the average over each |k| with that of the direct sum over the
+     * same wave vectors.  With the default oversampling, aliasing errors stay
+     * within a couple percent all the way to the cutoff.
+     */
+    @Test
+    public void testMatchesDirectSum() {
+        double cutoff = 3;
+        MeterStructureFactorFFT meterFFT = new MeterStructureFactorFFT(space, box, cutoff);
+        // narrow shells, so each holds a single |k|
+        meterFFT.setBinWidth(0.01);
+        double[] sFFT = ((DataFunction) meterFFT.getData()).getData().clone();
+        double[] qFFT = meterFFT.getIndependentData(0).getData();
+
+        MeterStructureFactor meter = new MeterStructureFactor(space, box, cutoff);
+        double[] s = ((DataFunction) meter.getData()).getData();
+        double[] q = meter.getIndependentData(0).getData();
+        int nMatched = 0;
+        for (int i = 0; i < sFFT.length; i++) {
+            double sum = 0;
+            int count = 0;
+            for (int j = 0; j < s.length; j++) {
+                if (Math.abs(q[j] - qFFT[i]) < 1e-9) {
+                    sum += s[j];
+                    count++;
+                }
+            }
+            Assertions.assertTrue(count > 0, "no direct wave vectors for q=" + qFFT[i]);
+            Assertions.assertEquals(sum / count, sFFT[i], 0.02 * sum / count, "q=" + qFFT[i]);
+            nMatched += count;
+        }
+        Assertions.assertEquals(s.length, nMatched);
+    }
+
+    @Test
+    public void testBoxChange() {
+        MeterStructureFactorFFT meter = new MeterStructureFactorFFT(space, box, 2);
+        int[] infoCount = new int[1];
+        IDataSink sink = new IDataSink() {
+            public void putData(IData data) {
+                Assertions.assertEquals(meter.getDataInfo().getLength(), data.getLength());
+            }
+
+            public void putDataInfo(IDataInfo dataInfo) {
+                infoCount[0]++;
+            }
+        };
+        DataPump pump = new DataPump(meter, sink);
+        pump.actionPerformed();
+        Assertions.assertEquals(1, infoCount[0]);
+        int nShells = meter.getDataInfo().getLength();
+
+        // a small change keeps the shells, so the DataInfo is the same
+        double q0 = meter.getIndependentData(0).getValue(0);
+        box.getBoundary().setBoxSize(Vector.of(10.1, 10.1, 10.1));
+        pump.actionPerformed();
+        Assertions.assertEquals(1, infoCount[0]);
+        Assertions.assertEquals(nShells, meter.getDataInfo().getLength());
+        Assertions.assertEquals(q0 * 10 / 10.1, meter.getIndependentData(0).getValue(0), 1e-10);
+
+        // more shells; the sink must be told
+        box.getBoundary().setBoxSize(Vector.of(20, 20, 20));
+        pump.actionPerformed();
+        Assertions.assertEquals(2, infoCount[0]);
+        Assertions.assertTrue(meter.getDataInfo().getLength() > nShells);
+        Assertions.assertEquals(meter.getDataInfo().getLength(), meter.getIndependentData(0).getLength());
+    }
+}
@@ -0,0 +1,101 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.graphics;
+
+import etomica.action.XYZWriter;
+import etomica.atom.AtomType;
+import etomica.atom.IAtom;
+import etomica.box.Box;
+import etomica.chem.elements.ElementSimple;
+import etomica.config.Configuration;
+import etomica.config.ConfigurationFileXYZTrajectory;
+import etomica.config.ConfigurationLattice;
+import etomica.lattice.LatticeCubicFcc;
+import etomica.simulation.Simulation;
+import etomica.space.Vector;
+import etomica.space3d.Space3D;
+import etomica.species.SpeciesSpheresMono;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TrajectoryRendererTest {
+
+    @Test
+    public void testRenderTrajectory() throws IOException {
+        Simulation sim = new Simulation(Space3D.getInstance());
+        SpeciesSpheresMono species = new SpeciesSpheresMono(sim.getSpace(), new AtomType(new ElementSimple("A")));
+        sim.addSpecies(species);
+        Box box = sim.makeBox();
+        box.setNMolecules(species, 32);
+        new ConfigurationLattice(new LatticeCubicFcc(sim.getSpace()), sim.getSpace()).initializeCoordinates(box);
+
+        File dir = Files.createTempDirectory("trajectory").toFile();
+        try {
+            // write 3 frames, each shifted from the last
+            File xyzFile = new File(dir, "traj.xyz");
+            XYZWriter writer = new XYZWriter(box);
+            writer.setFile(xyzFile);
+            writer.setIsAppend(true);
+            List<Vector> lastFrame = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                lastFrame.clear();
+                for (IAtom a : box.getLeafList()) {
+                    a.getPosition().PE(0.25);
+                    Vector p = sim.getSpace().makeVector();
+                    p.E(a.getPosition());
+                    lastFrame.add(p);
+                }
+                writer.actionPerformed();
+            }
+
+            int nFrames = 0;
+            for (Configuration config : new ConfigurationFileXYZTrajectory(xyzFile.getPath())) {
+                config.initializeCoordinates(box);
+                nFrames++;
+            }
+            Assertions.assertEquals(3, nFrames);
+            for (int i = 0; i < lastFrame.size(); i++) {
+                Assertions.assertTrue(lastFrame.get(i).equals(box.getLeafList().get(i).getPosition()));
+            }
+
+            TrajectoryRenderer renderer = new TrajectoryRenderer(box, 200, 150);
+            renderer.setNumThreads(2);
+            String prefix = new File(dir, "frame").getPath();
+            Assertions.assertEquals(3, renderer.render(new ConfigurationFileXYZTrajectory(xyzFile.getPath()), prefix));
+
+            // the box holds the last frame, drawn the same way on this thread
+            BufferedImage expected = renderer.render();
+            for (int i = 0; i < 3; i++) {
+                BufferedImage image = ImageIO.read(new File(prefix + "0000" + i + ".png"));
+                Assertions.assertEquals(200, image.getWidth());
+                Assertions.assertEquals(150, image.getHeight());
+                int nBackground = 0;
+                for (int y = 0; y < image.getHeight(); y++) {
+                    for (int x = 0; x < image.getWidth(); x++) {
+                        if ((image.getRGB(x, y) & 0xFFFFFF) == 0) nBackground++;
+                        if (i == 2) {
+                            Assertions.assertEquals(expected.getRGB(x, y), image.getRGB(x, y));
+                        }
+                    }
+                }
+                Assertions.assertTrue(nBackground < image.getWidth() * image.getHeight());
+            }
+        }
+        finally {
+            for (File f : dir.listFiles()) {
+                f.delete();
+            }
+            dir.delete();
+        }
+    }
+}
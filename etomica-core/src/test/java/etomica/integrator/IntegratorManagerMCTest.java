@@ -0,0 +1,118 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.integrator;
+
+import etomica.action.activity.ActivityIntegrate;
+import etomica.util.random.RandomMersenneTwister;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class IntegratorManagerMCTest {
+
+    @Test
+    public void testParallelStepCount() {
+        CountingManager manager = new CountingManager();
+        manager.setGlobalMoveInterval(Double.POSITIVE_INFINITY);
+        manager.setBlockSteps(7);
+        manager.setParallel(true);
+        StepCounter a = new StepCounter(), b = new StepCounter();
+        manager.addIntegrator(a);
+        manager.addIntegrator(b);
+
+        ActivityIntegrate ai = new ActivityIntegrate(manager);
+        ai.setMaxSteps(20);
+        ai.actionPerformed();
+
+        // each doStep is one step of the manager and one block of the boxes
+        Assertions.assertEquals(20, manager.getStepCount());
+        Assertions.assertEquals(140, a.getStepCount());
+        Assertions.assertEquals(140, b.getStepCount());
+        Assertions.assertEquals(0, manager.globalMoves);
+    }
+
+    @Test
+    public void testParallelGlobalMoveRatio() {
+        CountingManager manager = new CountingManager();
+        manager.setGlobalMoveInterval(3);
+        manager.setBlockSteps(10);
+        manager.setParallel(true);
+        StepCounter a = new StepCounter(), b = new StepCounter();
+        manager.addIntegrator(a);
+        manager.addIntegrator(b);
+        manager.reset();
+        for (int i = 0; i < 100000; i++) {
+            manager.doStep();
+        }
+        // serially, there are (interval-1) steps of each box per global move
+        double ratio = a.getStepCount() / (double) manager.globalMoves;
+        Assertions.assertEquals(2, ratio, 0.1);
+        Assertions.assertEquals(a.getStepCount(), b.getStepCount());
+    }
+
+    @Test
+    public void testListenersOnCallingThread() {
+        IntegratorManagerMC manager = new IntegratorManagerMC(new RandomMersenneTwister(1));
+        manager.setGlobalMoveInterval(Double.POSITIVE_INFINITY);
+        manager.setBlockSteps(50);
+        manager.setParallel(true);
+        Set<Thread> listenerThreads = Collections.synchronizedSet(new HashSet<>());
+        for (int i = 0; i < 4; i++) {
+            StepCounter sub = new StepCounter();
+            sub.getEventManager().addListener(new IntegratorListener() {
+                public void integratorInitialized(IntegratorEvent e) {}
+
+                public void integratorStepStarted(IntegratorEvent e) {}
+
+                public void integratorStepFinished(IntegratorEvent e) {
+                    listenerThreads.add(Thread.currentThread());
+                }
+            });
+            manager.addIntegrator(sub);
+        }
+        manager.addIntegrator(new StepCounter());
+        manager.reset();
+        for (int i = 0; i < 10; i++) {
+            manager.doStep();
+        }
+        Assertions.assertEquals(Collections.singleton(Thread.currentThread()), listenerThreads);
+        for (Integrator sub : manager.getIntegrators()) {
+            Assertions.assertEquals(500, sub.getStepCount());
+        }
+    }
+
+    @Test
+    public void testSerialUnchanged() {
+        CountingManager manager = new CountingManager();
+        StepCounter a = new StepCounter();
+        manager.addIntegrator(a);
+        manager.reset();
+        for (int i = 0; i < 1000; i++) {
+            manager.doStep();
+        }
+        Assertions.assertEquals(1000, manager.getStepCount());
+        Assertions.assertEquals(1000, a.getStepCount() + manager.globalMoves);
+    }
+
+    private static class CountingManager extends IntegratorManagerMC {
+        int globalMoves;
+
+        CountingManager() {
+            super(new RandomMersenneTwister(2));
+        }
+
+        protected void doGlobalMoves() {
+            globalMoves++;
+        }
+    }
+
+    private static class StepCounter extends Integrator {
+        protected void doStepInternal() {
+        }
+    }
+}
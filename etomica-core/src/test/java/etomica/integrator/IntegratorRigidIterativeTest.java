@@ -0,0 +1,116 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.integrator;
+
+import etomica.atom.IAtomList;
+import etomica.box.Box;
+import etomica.config.ConfigurationLattice;
+import etomica.lattice.LatticeCubicFcc;
+import etomica.models.water.OrientationCalcWater4P;
+import etomica.models.water.P2WaterTIP4PSoft;
+import etomica.models.water.SpeciesWater4POriented;
+import etomica.molecule.MoleculePositionCOM;
+import etomica.potential.PotentialMaster;
+import etomica.simulation.Simulation;
+import etomica.space.BoundaryRectangularNonperiodic;
+import etomica.space.Space;
+import etomica.space3d.Space3D;
+import etomica.species.ISpecies;
+import etomica.units.Kelvin;
+import etomica.util.Constants;
+import etomica.util.random.RandomMersenneTwister;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Supplier;
+
+/**
+ * Checks that stepping the rigid-molecule integrators in parallel (including
+ * the force evaluation) follows the same trajectory as the serial step.
+ */
+public class IntegratorRigidIterativeTest {
+
+    private static final int STEPS = 20;
+
+    @Test
+    public void testParallelTrajectory() {
+        double[] serial = run(false, false);
+        double[] parallel = run(false, true);
+        assertSameTrajectory(serial, parallel);
+    }
+
+    @Test
+    public void testParallelTrajectoryMatrix() {
+        double[] serial = run(true, false);
+        double[] parallel = run(true, true);
+        assertSameTrajectory(serial, parallel);
+    }
+
+    private static void assertSameTrajectory(double[] serial, double[] parallel) {
+        Assertions.assertEquals(serial.length, parallel.length);
+        for (int i = 0; i < serial.length; i++) {
+            Assertions.assertEquals(serial[i], parallel[i], 1e-8, "coordinate " + i);
+        }
+    }
+
+    /**
+     * Runs a small TIP4P droplet and returns the final atom coordinates.
+     */
+    private static double[] run(boolean matrix, boolean parallel) {
+        Space space = Space3D.getInstance();
+        Simulation sim = new Simulation(space, new RandomMersenneTwister(1));
+        SpeciesWater4POriented species = new SpeciesWater4POriented(space, true);
+        sim.addSpecies(species);
+        Box box = new Box(new BoundaryRectangularNonperiodic(space), space);
+        sim.addBox(box);
+        box.setNMolecules(species, 32);
+        box.setDensity(0.7 / 18.0 * Constants.AVOGADRO / 1E24);
+        OrientationCalcWater4P calcer = new OrientationCalcWater4P(space);
+        species.setConformation(calcer);
+        new ConfigurationLattice(new LatticeCubicFcc(space), space).initializeCoordinates(box);
+
+        Supplier<PotentialMaster> potentialMasterFactory = () -> {
+            PotentialMaster pm = new PotentialMaster();
+            pm.addPotential(new P2WaterTIP4PSoft(space, Double.POSITIVE_INFINITY, new MoleculePositionCOM(space)),
+                    new ISpecies[]{species, species});
+            return pm;
+        };
+        PotentialMaster potentialMaster = potentialMasterFactory.get();
+
+        IntegratorMD integrator;
+        if (matrix) {
+            IntegratorRigidMatrixIterative integratorMatrix = new IntegratorRigidMatrixIterative(sim, potentialMaster, 0.002, 1, box);
+            integratorMatrix.setOrientationCalc(species, calcer);
+            integratorMatrix.setParallel(parallel);
+            if (parallel) {
+                integratorMatrix.setPotentialMasterFactory(potentialMasterFactory);
+            }
+            integrator = integratorMatrix;
+        }
+        else {
+            IntegratorRigidIterative integratorIterative = new IntegratorRigidIterative(sim, potentialMaster, 0.002, 1, box);
+            integratorIterative.setOrientationCalc(species, calcer);
+            integratorIterative.setParallel(parallel);
+            if (parallel) {
+                integratorIterative.setPotentialMasterFactory(potentialMasterFactory);
+            }
+            integrator = integratorIterative;
+        }
+        integrator.setTemperature(Kelvin.UNIT.toSim(298));
+        integrator.reset();
+        for (int i = 0; i < STEPS; i++) {
+            integrator.doStep();
+        }
+
+        IAtomList atoms = box.getLeafList();
+        double[] r = new double[3 * atoms.size()];
+        for (int i = 0; i < atoms.size(); i++) {
+            for (int j = 0; j < 3; j++) {
+                r[3 * i + j] = atoms.get(i).getPosition().getX(j);
+            }
+        }
+        return r;
+    }
+}
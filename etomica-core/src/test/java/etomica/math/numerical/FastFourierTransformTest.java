@@ -0,0 +1,165 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.math.numerical;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * Checks the static FFT routines against a direct discrete Fourier transform.
+ */
+public class FastFourierTransformTest {
+
+    private static final double EPSILON = 1e-10;
+
+    @Test
+    public void testFFT() {
+        int n = 16, offset = 3;
+        Random random = new Random(1);
+        double[] re = new double[offset + n + 2];
+        double[] im = new double[offset + n + 2];
+        for (int i = 0; i < re.length; i++) {
+            re[i] = random.nextDouble() - 0.5;
+            im[i] = random.nextDouble() - 0.5;
+        }
+        double[] re0 = re.clone(), im0 = im.clone();
+        double[][] expected = dft(slice(re, offset, n), slice(im, offset, n), new int[]{1, 1, n}, false);
+
+        FastFourierTransform.fft(re, im, offset, n, false);
+        assertArrayEquals(expected[0], slice(re, offset, n));
+        assertArrayEquals(expected[1], slice(im, offset, n));
+        // values outside the range are untouched
+        for (int i : new int[]{0, 1, 2, offset + n, offset + n + 1}) {
+            Assertions.assertEquals(re0[i], re[i]);
+            Assertions.assertEquals(im0[i], im[i]);
+        }
+
+        // the inverse is unscaled
+        FastFourierTransform.fft(re, im, offset, n, true);
+        for (int i = offset; i < offset + n; i++) {
+            Assertions.assertEquals(n * re0[i], re[i], EPSILON);
+            Assertions.assertEquals(n * im0[i], im[i], EPSILON);
+        }
+    }
+
+    @Test
+    public void testTransform3D() {
+        for (boolean parallel : new boolean[]{false, true}) {
+            int[] size = {4, 2, 8};
+            int n = size[0] * size[1] * size[2];
+            double[] re = randomArray(n, 2), im = randomArray(n, 3);
+            double[][] expected = dft(re, im, size, false);
+            double[] re0 = re.clone(), im0 = im.clone();
+
+            FastFourierTransform.transform3D(re, im, size[0], size[1], size[2], false, parallel);
+            assertArrayEquals(expected[0], re);
+            assertArrayEquals(expected[1], im);
+
+            FastFourierTransform.transform3D(re, im, size[0], size[1], size[2], true, parallel);
+            for (int i = 0; i < n; i++) {
+                Assertions.assertEquals(n * re0[i], re[i], EPSILON);
+                Assertions.assertEquals(n * im0[i], im[i], EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void testTransform3DLowDimension() {
+        // dimensions of 1 give the 1D and 2D transforms
+        int[] size = {1, 4, 8};
+        int n = size[1] * size[2];
+        double[] re = randomArray(n, 4), im = randomArray(n, 5);
+        double[][] expected = dft(re, im, size, false);
+        FastFourierTransform.transform3D(re, im, size[0], size[1], size[2], false, false);
+        assertArrayEquals(expected[0], re);
+        assertArrayEquals(expected[1], im);
+    }
+
+    @Test
+    public void testTransformReal3D() {
+        for (int[] size : new int[][]{{4, 2, 8}, {1, 1, 2}, {2, 4, 4}}) {
+            for (boolean parallel : new boolean[]{false, true}) {
+                int n = size[0] * size[1] * size[2];
+                double[] data = randomArray(n, 6);
+                double[][] expected = dft(data, new double[n], size, false);
+                int nzOut = size[2] / 2 + 1;
+                double[] outRe = new double[size[0] * size[1] * nzOut];
+                double[] outIm = new double[outRe.length];
+
+                FastFourierTransform.transformReal3D(data.clone(), size[0], size[1], size[2], outRe, outIm, parallel);
+                for (int ix = 0; ix < size[0]; ix++) {
+                    for (int iy = 0; iy < size[1]; iy++) {
+                        for (int iz = 0; iz < nzOut; iz++) {
+                            int i = (ix * size[1] + iy) * size[2] + iz;
+                            int j = (ix * size[1] + iy) * nzOut + iz;
+                            Assertions.assertEquals(expected[0][i], outRe[j], EPSILON);
+                            Assertions.assertEquals(expected[1][i], outIm[j], EPSILON);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBadSize() {
+        double[] x = new double[12];
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FastFourierTransform.transform3D(x, x.clone(), 1, 3, 4, false, false));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FastFourierTransform.transformReal3D(x, 2, 2, 1, x.clone(), x.clone(), false));
+    }
+
+    /**
+     * Direct O(n^2) transform of a grid with z varying fastest.
+     */
+    private static double[][] dft(double[] re, double[] im, int[] size, boolean inverse) {
+        int n = re.length;
+        double[] outRe = new double[n], outIm = new double[n];
+        double sign = inverse ? 1 : -1;
+        for (int k = 0; k < n; k++) {
+            int[] kIdx = unpack(k, size);
+            for (int j = 0; j < n; j++) {
+                int[] jIdx = unpack(j, size);
+                double phase = 0;
+                for (int d = 0; d < 3; d++) {
+                    phase += 2 * Math.PI * kIdx[d] * jIdx[d] / size[d];
+                }
+                double c = Math.cos(sign * phase), s = Math.sin(sign * phase);
+                outRe[k] += re[j] * c - im[j] * s;
+                outIm[k] += re[j] * s + im[j] * c;
+            }
+        }
+        return new double[][]{outRe, outIm};
+    }
+
+    private static int[] unpack(int i, int[] size) {
+        return new int[]{i / (size[1] * size[2]), (i / size[2]) % size[1], i % size[2]};
+    }
+
+    private static double[] randomArray(int n, long seed) {
+        Random random = new Random(seed);
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble() - 0.5;
+        }
+        return x;
+    }
+
+    private static double[] slice(double[] x, int offset, int n) {
+        double[] y = new double[n];
+        System.arraycopy(x, offset, y, 0, n);
+        return y;
+    }
+
+    private static void assertArrayEquals(double[] expected, double[] actual) {
+        Assertions.assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            Assertions.assertEquals(expected[i], actual[i], EPSILON, "index " + i);
+        }
+    }
+}
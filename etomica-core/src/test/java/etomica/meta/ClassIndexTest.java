@@ -0,0 +1,41 @@
+package etomica.meta;
+
+import etomica.action.IAction;
+import etomica.meta.wrappers.ObjectWrapper;
+import etomica.meta.wrappers.SimulationWrapper;
+import etomica.meta.wrappers.Wrapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClassIndexTest {
+
+    @Test
+    void testSubclasses() {
+        List<String> names = ClassIndex.getNamesOfSubtypes(Wrapper.class);
+        assertTrue(names.contains(ObjectWrapper.class.getName()));
+        assertTrue(names.contains(SimulationWrapper.class.getName()));
+        assertFalse(names.contains(Wrapper.class.getName()));
+        List<String> sorted = new ArrayList<>(names);
+        sorted.sort(null);
+        assertEquals(sorted, names);
+    }
+
+    /**
+     * Test classes are not in the build-time index, so this class is only found if the classpath
+     * elements without an index are scanned.
+     */
+    @Test
+    void testUnindexedClass() {
+        assertTrue(ClassIndex.getNamesOfSubtypes(IAction.class).contains(TestAction.class.getName()));
+        assertTrue(new ComponentIndex<>(IAction.class).getComponentSet().contains(TestAction.class));
+    }
+
+    public static class TestAction implements IAction {
+        public void actionPerformed() {
+        }
+    }
+}
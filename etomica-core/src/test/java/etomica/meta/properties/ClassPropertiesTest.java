@@ -0,0 +1,95 @@
+package etomica.meta.properties;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import etomica.meta.SimulationModel;
+import etomica.meta.annotations.IgnoreProperty;
+import etomica.meta.wrappers.ObjectWrapper;
+import etomica.meta.wrappers.Wrapper;
+import etomica.simulation.prototypes.HSMD3D;
+import org.apache.commons.lang3.reflect.MethodUtils;
+import org.junit.jupiter.api.Test;
+
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the cached property accessors against plain reflection, as the wrappers used to do it,
+ * for every object in a simulation's model.
+ */
+class ClassPropertiesTest {
+
+    @Test
+    void testMatchesReflection() throws Exception {
+        SimulationModel model = new SimulationModel(new HSMD3D());
+        int nWrappers = 0, nValues = 0;
+        for (Wrapper<?> wrapper : model.allWrappers()) {
+            if (wrapper.getClass() != ObjectWrapper.class) continue;
+            Object o = wrapper.getWrapped();
+            Map<String, PropertyDescriptor> expected = reflectedProperties(o.getClass());
+
+            List<Property> properties = new ArrayList<>(wrapper.getValueProperties());
+            properties.addAll(wrapper.getChildProperties());
+            List<String> names = new ArrayList<>();
+            for (Property p : properties) {
+                names.add(p.getName());
+            }
+            Collections.sort(names);
+            List<String> expectedNames = new ArrayList<>(expected.keySet());
+            Collections.sort(expectedNames);
+            assertEquals(expectedNames, names, o.getClass().getName());
+            nWrappers++;
+
+            for (Property p : properties) {
+                if (!(p instanceof InstanceProperty) || p.isIndexedProperty() || !p.canRead()) continue;
+                Object expectedValue;
+                try {
+                    expectedValue = expected.get(p.getName()).getReadMethod().invoke(o);
+                } catch (Exception e) {
+                    // InstanceProperty has always returned null for a reader that fails
+                    expectedValue = null;
+                }
+                Object value = p.invokeReader();
+                String message = o.getClass().getName() + "." + p.getName();
+                if (!Objects.deepEquals(expectedValue, value)) {
+                    // getters that make a new object each time
+                    assertNotNull(value, message);
+                    assertNotNull(expectedValue, message);
+                    assertFalse(expectedValue instanceof Number || expectedValue instanceof String
+                            || expectedValue instanceof Boolean || expectedValue instanceof Enum, message);
+                    assertEquals(expectedValue.getClass(), value.getClass(), message);
+                }
+                nValues++;
+            }
+        }
+        assertTrue(nWrappers > 10);
+        assertTrue(nValues > 50);
+    }
+
+    /**
+     * The properties that the wrappers found by reflection before ClassProperties cached them.
+     */
+    private static Map<String, PropertyDescriptor> reflectedProperties(Class<?> cls) throws Exception {
+        Map<String, PropertyDescriptor> properties = new HashMap<>();
+        for (PropertyDescriptor pd : Introspector.getBeanInfo(cls).getPropertyDescriptors()) {
+            Method method = pd instanceof IndexedPropertyDescriptor ? ((IndexedPropertyDescriptor) pd).getIndexedReadMethod() : pd.getReadMethod();
+            if (pd.getName().equalsIgnoreCase("class") || method == null
+                    || MethodUtils.getAnnotation(method, IgnoreProperty.class, true, true) != null
+                    || MethodUtils.getAnnotation(method, JsonIgnore.class, true, true) != null
+                    || pd.getName().toLowerCase().endsWith("dimension")) {
+                continue;
+            }
+            properties.put(pd.getName(), pd);
+        }
+        return properties;
+    }
+}
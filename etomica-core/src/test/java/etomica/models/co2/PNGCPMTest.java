@@ -0,0 +1,121 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.models.co2;
+
+import etomica.atom.AtomType;
+import etomica.atom.IAtomList;
+import etomica.box.Box;
+import etomica.chem.elements.Carbon;
+import etomica.chem.elements.IElement;
+import etomica.chem.elements.Oxygen;
+import etomica.models.co2.PNGCPM.GCPMAgent;
+import etomica.molecule.IMolecule;
+import etomica.molecule.IMoleculeList;
+import etomica.simulation.Simulation;
+import etomica.space.Space;
+import etomica.space.Vector;
+import etomica.space3d.Space3D;
+import etomica.species.SpeciesSpheresHetero;
+import etomica.units.Electron;
+import etomica.units.Kelvin;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class PNGCPMTest {
+    private static final double EPSILON = 1e-8;
+    private Space space;
+    private Box box;
+    private Map<AtomType, GCPMAgent> typeManager;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        space = Space3D.getInstance();
+        Simulation sim = new Simulation(space);
+        SpeciesSpheresHetero speciesCO2 = new SpeciesSpheresHetero(space, new IElement[]{Carbon.INSTANCE, Oxygen.INSTANCE});
+        speciesCO2.setChildCount(new int[]{1, 2});
+        sim.addSpecies(speciesCO2);
+        box = new Box(space);
+        sim.addBox(box);
+        box.setNMolecules(speciesCO2, 3);
+        box.getBoundary().setBoxSize(Vector.of(new double[]{100, 100, 100}));
+
+        typeManager = new HashMap<>();
+        double qC = Electron.UNIT.toSim(0.6642);
+        typeManager.put(speciesCO2.getAtomType(0), new GCPMAgent(3.193, Kelvin.UNIT.toSim(71.34), 0.61 / 1.0483, 15.5, qC, 4.05, 1.95, 0.0) {
+            protected final Vector r = space.makeVector();
+
+            public Vector getParallelAxis(IMolecule mol) {
+                IAtomList atoms = mol.getChildList();
+                r.Ev1Mv2(atoms.get(2).getPosition(), atoms.get(1).getPosition());
+                r.normalize();
+                return r;
+            }
+        });
+        double qO = -0.5 * qC;
+        typeManager.put(speciesCO2.getAtomType(1), new GCPMAgent(3.193 * 1.0483, Kelvin.UNIT.toSim(67.72), 0.61, 15.5, qO, 0, 0, 0));
+
+        placeMolecules(0);
+    }
+
+    /**
+     * Places the three molecules in a triangle with different orientations,
+     * the third molecule displaced along z by dz.
+     */
+    private void placeMolecules(double dz) {
+        IMoleculeList molecules = box.getMoleculeList();
+        place(molecules.get(0), Vector.of(new double[]{0, 0, 0}), Vector.of(new double[]{1, 0, 0}));
+        place(molecules.get(1), Vector.of(new double[]{0, 0, 4}), Vector.of(new double[]{0, 1, 1}));
+        place(molecules.get(2), Vector.of(new double[]{3.5, 0, 2 + dz}), Vector.of(new double[]{1, 1, 0}));
+    }
+
+    private void place(IMolecule molecule, Vector center, Vector axis) {
+        axis.normalize();
+        IAtomList atoms = molecule.getChildList();
+        atoms.get(0).getPosition().E(center);
+        atoms.get(1).getPosition().E(center);
+        atoms.get(1).getPosition().PEa1Tv1(-1.161, axis);
+        atoms.get(2).getPosition().E(center);
+        atoms.get(2).getPosition().PEa1Tv1(1.161, axis);
+    }
+
+    private PNGCPM makePotential() {
+        PNGCPM potential = new PNGCPM(space, typeManager, 2);
+        potential.setBox(box);
+        return potential;
+    }
+
+    @Test
+    public void testWarmStart() throws Exception {
+        IMoleculeList molecules = box.getMoleculeList();
+        PNGCPM warm = makePotential();
+        warm.setWarmStart(true);
+        // converge the dipoles for the starting configuration
+        warm.energy(molecules);
+
+        // then solve for a slightly different configuration, from those dipoles and from zero
+        placeMolecules(0.01);
+        double uWarm = warm.energy(molecules);
+        PNGCPM cold = makePotential();
+        double uCold = cold.energy(molecules);
+
+        Assertions.assertEquals(uCold, uWarm, Math.abs(uCold) * EPSILON);
+        for (int i = 0; i < molecules.size(); i++) {
+            for (int j = 0; j < molecules.get(i).getChildList().size(); j++) {
+                for (int k = 0; k < 3; k++) {
+                    Assertions.assertEquals(cold.mu[i][j].getX(k), warm.mu[i][j].getX(k), EPSILON);
+                }
+            }
+        }
+        Assertions.assertTrue(cold.getLastIterations() > 0);
+        Assertions.assertTrue(warm.getLastIterations() < cold.getLastIterations(),
+                "warm " + warm.getLastIterations() + " cold " + cold.getLastIterations());
+        Assertions.assertEquals(2, warm.getSolveCount());
+    }
+
+}
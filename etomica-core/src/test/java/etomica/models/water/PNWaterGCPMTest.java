@@ -41,4 +41,20 @@ public class PNWaterGCPMTest {
         Assertions.assertEquals(-14.868663567298231, potential.energy(molecules), EPSILON);
     }
 
+    @Test
+    public void testEnergyConjugateGradient() throws Exception {
+        PNWaterGCPM potential = new PNWaterGCPM(Space3D.getInstance());
+        potential.setBox(new Box(Space3D.getInstance()));
+        potential.setSolver(PNWaterGCPM.Solver.CONJUGATE_GRADIENT);
+        potential.setWarmStart(true);
+        Assertions.assertEquals(-14.868663567298231, potential.energy(molecules), EPSILON);
+        int coldIterations = potential.getLastIterations();
+        Assertions.assertTrue(coldIterations > 0);
+        // starting from the converged dipoles, the solver should have little left to do
+        Assertions.assertEquals(-14.868663567298231, potential.energy(molecules), EPSILON);
+        Assertions.assertTrue(potential.getLastIterations() <= coldIterations);
+        Assertions.assertEquals(2, potential.getSolveCount());
+        Assertions.assertEquals(0, potential.getDirectFallbackCount());
+    }
+
 }
@@ -0,0 +1,43 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.nbr.cell;
+
+import etomica.box.Box;
+import etomica.simulation.Simulation;
+import etomica.space.BoundaryRectangularPeriodic;
+import etomica.space3d.Space3D;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+public class NeighborCellManagerTest {
+
+    @Test
+    public void testBoxLengthWarningOnce() {
+        Simulation sim = new Simulation(Space3D.getInstance());
+        Box box = sim.makeBox(new BoundaryRectangularPeriodic(sim.getSpace(), 5));
+        PrintStream oldErr = System.err;
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        try {
+            System.setErr(new PrintStream(err, true));
+            // the range is more than half the box length in every direction
+            NeighborCellManager manager = new NeighborCellManager(box, 4);
+            manager.assignCellAll();
+            manager.setCellRange(3);
+            manager.setPotentialRange(4.5);
+        }
+        finally {
+            System.setErr(oldErr);
+        }
+        String[] lines = err.toString().split("\n");
+        int warnings = 0;
+        for (String line : lines) {
+            if (line.startsWith("range is greater than half the box length")) warnings++;
+        }
+        Assertions.assertEquals(1, warnings);
+    }
+}
@@ -0,0 +1,160 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.potential;
+
+import etomica.atom.AtomLeafAgentManager;
+import etomica.atom.AtomType;
+import etomica.atom.IAtom;
+import etomica.atom.IAtomList;
+import etomica.box.Box;
+import etomica.chem.elements.ElementSimple;
+import etomica.config.ConfigurationLattice;
+import etomica.lattice.LatticeCubicFcc;
+import etomica.nbr.cell.PotentialMasterCell;
+import etomica.nbr.list.PotentialMasterList;
+import etomica.simulation.Simulation;
+import etomica.space.Space;
+import etomica.space.Vector;
+import etomica.space3d.Space3D;
+import etomica.species.SpeciesSpheresMono;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the pair calculations PotentialMasters do with separations give
+ * the same results as the calculations done with AtomPairs.
+ */
+class PotentialCalculationPairTest {
+
+    private static final double EPSILON = 1e-10;
+    private Simulation sim;
+    private Space space;
+    private Box box;
+    private AtomType leafType;
+    private P2SoftSphericalTruncated p2;
+
+    @BeforeEach
+    void setup() {
+        space = Space3D.getInstance();
+        sim = new Simulation(space);
+        SpeciesSpheresMono species = new SpeciesSpheresMono(space, new AtomType(new ElementSimple("A")));
+        species.setIsDynamic(true);
+        sim.addSpecies(species);
+        leafType = species.getLeafType();
+        box = sim.makeBox();
+        box.getBoundary().setBoxSize(Vector.of(6, 6, 6));
+        box.setNMolecules(species, 108);
+        new ConfigurationLattice(new LatticeCubicFcc(space), space).initializeCoordinates(box);
+        // move the atoms off the lattice so that the forces are not zero
+        for (IAtom atom : box.getLeafList()) {
+            for (int i = 0; i < 3; i++) {
+                atom.getPosition().setX(i, atom.getPosition().getX(i) + 0.1 * sim.getRandom().nextGaussian());
+            }
+        }
+        p2 = new P2SoftSphericalTruncated(space, new P2LennardJones(space), 2.5);
+    }
+
+    @Test
+    void testSpherical() {
+        assertTrue(Potential2SoftSpherical.isSpherical(p2));
+        Potential2SoftSpherical p2Energy = new P2LennardJones(space) {
+            @Override
+            public double energy(IAtomList atoms) {
+                return 2 * super.energy(atoms);
+            }
+        };
+        assertFalse(Potential2SoftSpherical.isSpherical(p2Energy));
+
+        assertTrue(PotentialCalculationPair.canCalculate(new PotentialCalculationEnergySum(), p2));
+        assertFalse(PotentialCalculationPair.canCalculate(new PotentialCalculationEnergySum(), p2Energy));
+        assertFalse(PotentialCalculationPair.canCalculate(new PotentialCalculationEnergySumBigDecimal(20), p2));
+    }
+
+    @Test
+    void testPotentialMasterList() {
+        PotentialMasterList pm = new PotentialMasterList(sim, 3, space);
+        pm.addPotential(p2, new AtomType[]{leafType, leafType});
+        pm.getNeighborManager(box).reset();
+        checkCalculations(pm);
+    }
+
+    @Test
+    void testPotentialMasterCell() {
+        PotentialMasterCell pm = new PotentialMasterCell(sim, 2.5, space);
+        pm.setCellRange(2);
+        pm.addPotential(p2, new AtomType[]{leafType, leafType});
+        pm.getNbrCellManager(box).assignCellAll();
+        checkCalculations(pm);
+    }
+
+    private void checkCalculations(PotentialMaster pm) {
+        IteratorDirective id = new IteratorDirective();
+
+        PotentialCalculationEnergySum energy = new PotentialCalculationEnergySum();
+        PotentialCalculationEnergySum energyPairs = new PotentialCalculationEnergySum() {
+            @Override
+            public void doCalculation(IAtomList atoms, IPotentialAtomic potential) {
+                super.doCalculation(atoms, potential);
+            }
+        };
+        pm.calculate(box, id, energy);
+        pm.calculate(box, id, energyPairs);
+        assertTrue(energy.getSum() != 0);
+        assertEquals(energyPairs.getSum(), energy.getSum(), EPSILON);
+
+        PotentialCalculationVirialSum virial = new PotentialCalculationVirialSum();
+        PotentialCalculationVirialSum virialPairs = new PotentialCalculationVirialSum() {
+            @Override
+            public void doCalculation(IAtomList atoms, IPotentialAtomic potential) {
+                super.doCalculation(atoms, potential);
+            }
+        };
+        pm.calculate(box, id, virial);
+        pm.calculate(box, id, virialPairs);
+        assertEquals(virialPairs.getSum(), virial.getSum(), EPSILON);
+
+        AtomLeafAgentManager<Vector> forces = new AtomLeafAgentManager<>(a -> space.makeVector(), box);
+        AtomLeafAgentManager<Vector> forcesPairs = new AtomLeafAgentManager<>(a -> space.makeVector(), box);
+        PotentialCalculationForcePressureSum force = new PotentialCalculationForcePressureSum(space);
+        PotentialCalculationForcePressureSum forcePairs = new PotentialCalculationForcePressureSum(space) {
+            @Override
+            public void doCalculation(IAtomList atoms, IPotentialAtomic potential) {
+                super.doCalculation(atoms, potential);
+            }
+        };
+        force.setAgentManager(forces);
+        forcePairs.setAgentManager(forcesPairs);
+        force.reset();
+        forcePairs.reset();
+        pm.calculate(box, id, force);
+        pm.calculate(box, id, forcePairs);
+        for (IAtom atom : box.getLeafList()) {
+            Vector f = forces.getAgent(atom);
+            Vector fPairs = forcesPairs.getAgent(atom);
+            assertTrue(f.squared() > 0);
+            for (int i = 0; i < 3; i++) {
+                assertEquals(fPairs.getX(i), f.getX(i), EPSILON);
+            }
+        }
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(forcePairs.getPressureTensor().component(i, j), force.getPressureTensor().component(i, j), EPSILON);
+            }
+        }
+
+        // forces on a single atom, from its up and down neighbors
+        IAtom atom = box.getLeafList().get(7);
+        IteratorDirective idAtom = new IteratorDirective(null, atom);
+        force.reset();
+        forcePairs.reset();
+        pm.calculate(box, idAtom, force);
+        pm.calculate(box, idAtom, forcePairs);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(forcesPairs.getAgent(atom).getX(i), forces.getAgent(atom).getX(i), EPSILON);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.util;
+
+import etomica.atom.AtomType;
+import etomica.atom.IAtom;
+import etomica.box.Box;
+import etomica.chem.elements.ElementSimple;
+import etomica.config.ConfigurationLattice;
+import etomica.integrator.IntegratorMC;
+import etomica.integrator.mcmove.MCMoveAtom;
+import etomica.lattice.LatticeCubicFcc;
+import etomica.potential.PotentialMasterMonatomic;
+import etomica.simulation.Simulation;
+import etomica.space3d.Space3D;
+import etomica.species.SpeciesSpheresMono;
+import etomica.util.random.IRandom;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+public class BatchRunnerTest {
+
+    public static class TestParams extends ParameterBase {
+        public int n = 1;
+        public double x = 0;
+        public double[] y = new double[0];
+    }
+
+    /**
+     * Ideal gas sampled with atom displacements; the moves are made in the
+     * constructor, with the simulation's random number generator.
+     */
+    public static class TestSim extends Simulation {
+        public final IntegratorMC integrator;
+
+        public TestSim(TestParams params, IRandom random) {
+            super(Space3D.getInstance(), random);
+            SpeciesSpheresMono species = new SpeciesSpheresMono(space, new AtomType(new ElementSimple("A")));
+            addSpecies(species);
+            Box box = makeBox();
+            box.setNMolecules(species, 4 * params.n);
+            new ConfigurationLattice(new LatticeCubicFcc(space), space).initializeCoordinates(box);
+            PotentialMasterMonatomic potentialMaster = new PotentialMasterMonatomic(this);
+            integrator = new IntegratorMC(this, potentialMaster, box);
+            integrator.getMoveManager().addMCMove(new MCMoveAtom(getRandom(), potentialMaster, space));
+        }
+
+        public String run(int steps) {
+            integrator.reset();
+            for (int i = 0; i < steps; i++) {
+                integrator.doStep();
+            }
+            double sum = 0;
+            for (IAtom atom : box().getLeafList()) {
+                sum += atom.getPosition().getX(0);
+            }
+            return Double.toString(sum);
+        }
+    }
+
+    @Test
+    public void testSplitArgs() {
+        String[] args = BatchRunner.splitArgs("  -n 3 -y \"0.5 1.5\"  -x -2 ");
+        Assertions.assertArrayEquals(new String[]{"-n", "3", "-y", "0.5 1.5", "-x", "-2"}, args);
+    }
+
+    @Test
+    public void testRun() {
+        List<String[]> argSets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            argSets.add(new String[]{"-n", "" + i, "-x", "" + (0.5 * i)});
+        }
+        argSets.add(new String[]{"-bogus", "1"});
+        BatchRunner<TestParams> runner = new BatchRunner<>(TestParams::new,
+                (params, random) -> params.n + " " + params.x + " " + random.nextInt(1000000));
+        runner.setThreadCount(4);
+        runner.setSeeds(new int[]{1, 2, 3});
+        StringWriter out = new StringWriter();
+        List<String> results = runner.run(argSets, out);
+        Assertions.assertEquals(argSets.size(), results.size());
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertTrue(results.get(i).startsWith(i + " " + (0.5 * i) + " "));
+        }
+        Assertions.assertNull(results.get(20));
+        String[] lines = out.toString().split("\n");
+        Assertions.assertEquals(argSets.size(), lines.length);
+
+        // the same seeds give the same results, regardless of scheduling
+        runner.setThreadCount(1);
+        Assertions.assertEquals(results, runner.run(argSets, new StringWriter()));
+    }
+
+    @Test
+    public void testRandomAtConstruction() {
+        List<String[]> argSets = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            argSets.add(new String[]{"-n", "1"});
+        }
+        BatchRunner<TestParams> runner = new BatchRunner<>(TestParams::new,
+                (params, random) -> new TestSim(params, random).run(200));
+        runner.setThreadCount(3);
+        runner.setSeeds(new int[]{4, 5});
+        List<String> results = runner.run(argSets, new StringWriter());
+        // runs with the same parameters are independent...
+        Assertions.assertEquals(argSets.size(), new HashSet<>(results).size());
+        // ...and reproducible
+        runner.setThreadCount(1);
+        Assertions.assertEquals(results, runner.run(argSets, new StringWriter()));
+    }
+
+    @Test
+    public void testFailures() {
+        List<String[]> argSets = new ArrayList<>();
+        argSets.add(new String[]{"-n", "1"});
+        argSets.add(new String[]{"-n", "2"});
+        argSets.add(new String[]{"-n", "3"});
+        BatchRunner<TestParams> runner = new BatchRunner<>(TestParams::new, (params, random) -> {
+            if (params.n == 2) throw new StackOverflowError();
+            return "line\twith\ttabs\nand a newline";
+        });
+        runner.setThreadCount(2);
+        StringWriter out = new StringWriter();
+        List<String> results = runner.run(argSets, out);
+        Assertions.assertNotNull(results.get(0));
+        Assertions.assertNull(results.get(1));
+        Assertions.assertNotNull(results.get(2));
+        String[] lines = out.toString().split("\n");
+        Assertions.assertEquals(3, lines.length);
+        for (String line : lines) {
+            String[] fields = line.split("\t");
+            Assertions.assertEquals(4, fields.length);
+            if (!fields[3].startsWith("ERROR")) {
+                Assertions.assertEquals("line\\twith\\ttabs\\nand a newline", fields[3]);
+            }
+        }
+
+        argSets.add(new String[]{"-h"});
+        Assertions.assertThrows(IllegalArgumentException.class, () -> runner.run(argSets, new StringWriter()));
+    }
+}
@@ -0,0 +1,128 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class TableCacheTest {
+
+    @Test
+    public void testParse() {
+        double[] x = TableCache.parse("  1.5 -2\n3e-2\t4.0E+1 \n\n".getBytes());
+        Assertions.assertArrayEquals(new double[]{1.5, -2, 0.03, 40}, x);
+    }
+
+    @Test
+    public void testEditedSource() throws IOException {
+        File dir = Files.createTempDirectory("tableCache").toFile();
+        File oldDir = TableCache.getCacheDir();
+        try {
+            TableCache.setCacheDir(dir);
+            File source = new File(dir, "table.dat");
+            try (FileWriter writer = new FileWriter(source)) {
+                writer.write("1 2\n3 4.25\n");
+            }
+            long modified = source.lastModified();
+            Assertions.assertArrayEquals(new double[]{1, 2, 3, 4.25}, TableCache.getNumbers(source.getPath(), null));
+            TableCache.clearMemoryCache();
+
+            // same path, size and time, but different contents: the binary
+            // file does not match and the new contents are read
+            try (FileWriter writer = new FileWriter(source)) {
+                writer.write("9 2\n3 4.25\n");
+            }
+            source.setLastModified(modified);
+            Assertions.assertArrayEquals(new double[]{9, 2, 3, 4.25}, TableCache.getNumbers(source.getPath(), null));
+            // the new contents are also read without clearing the memory cache
+            try (FileWriter writer = new FileWriter(source)) {
+                writer.write("7 2\n3 4.25\n");
+            }
+            source.setLastModified(modified);
+            Assertions.assertArrayEquals(new double[]{7, 2, 3, 4.25}, TableCache.getNumbers(source.getPath(), null));
+            TableCache.clearMemoryCache();
+            Assertions.assertArrayEquals(new double[]{7, 2, 3, 4.25}, TableCache.getNumbers(source.getPath(), null));
+            for (File f : dir.listFiles()) {
+                f.delete();
+            }
+        }
+        finally {
+            TableCache.setCacheDir(oldDir);
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testRows() throws IOException {
+        File dir = Files.createTempDirectory("tableCache").toFile();
+        File oldDir = TableCache.getCacheDir();
+        try {
+            TableCache.setCacheDir(dir);
+            File source = new File(dir, "rows.dat");
+            try (FileWriter writer = new FileWriter(source)) {
+                writer.write("1 2 3\n\n  4 5 6\n7 8\n");
+            }
+            double[][] expected = new double[][]{{1, 2, 3}, {4, 5, 6}, {7, 8}};
+            double[][] rows = TableCache.getRows(source.getPath(), null);
+            Assertions.assertEquals(expected.length, rows.length);
+            for (int i = 0; i < rows.length; i++) {
+                Assertions.assertArrayEquals(expected[i], rows[i]);
+            }
+            // and again from the binary file
+            TableCache.clearMemoryCache();
+            rows = TableCache.getRows(source.getPath(), null);
+            Assertions.assertEquals(expected.length, rows.length);
+            for (int i = 0; i < rows.length; i++) {
+                Assertions.assertArrayEquals(expected[i], rows[i]);
+            }
+            for (File f : dir.listFiles()) {
+                f.delete();
+            }
+        }
+        finally {
+            TableCache.setCacheDir(oldDir);
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testDiskCache() throws IOException {
+        File dir = Files.createTempDirectory("tableCache").toFile();
+        File oldDir = TableCache.getCacheDir();
+        try {
+            TableCache.setCacheDir(dir);
+            File source = new File(dir, "table.dat");
+            try (FileWriter writer = new FileWriter(source)) {
+                writer.write("1 2\n3 4.25\n");
+            }
+            double[] x = TableCache.getNumbers(source.getPath(), null);
+            Assertions.assertArrayEquals(new double[]{1, 2, 3, 4.25}, x);
+            // same contents gives the same (shared) table
+            Assertions.assertSame(x, TableCache.getNumbers(source.getPath(), null));
+            File[] binaries = dir.listFiles((d, name) -> name.endsWith(".bin"));
+            Assertions.assertEquals(1, binaries.length);
+
+            // a changed file is parsed again, and its binary file replaced
+            try (FileWriter writer = new FileWriter(source)) {
+                writer.write("5 6\n");
+            }
+            Assertions.assertArrayEquals(new double[]{5, 6}, TableCache.getNumbers(source.getPath(), null));
+            binaries = dir.listFiles((d, name) -> name.endsWith(".bin"));
+            Assertions.assertEquals(1, binaries.length);
+            for (File f : dir.listFiles()) {
+                f.delete();
+            }
+        }
+        finally {
+            TableCache.setCacheDir(oldDir);
+            dir.delete();
+        }
+    }
+}
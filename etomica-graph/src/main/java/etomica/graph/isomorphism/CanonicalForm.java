@@ -0,0 +1,295 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.graph.isomorphism;
+
+import java.util.Arrays;
+
+import etomica.graph.model.Edge;
+import etomica.graph.model.Graph;
+import etomica.graph.model.Node;
+import etomica.graph.model.impl.MetadataImpl;
+
+/**
+ * Canonical form of a graph: two graphs have equal canonical forms if and only
+ * if they are isomorphic (under the same node and edge compatibility rules as
+ * Match), so isomorph elimination can be done with a hash lookup instead of
+ * pairwise matching.
+ *
+ * The form is computed nauty-style.  Nodes are partitioned by colour (and by
+ * type when root points are special), and the partition is refined until
+ * nodes in the same cell have the same number of edges of each colour to each
+ * cell.  If the partition is not discrete, each node of the first non-trivial
+ * cell is individualized in turn and the search continues; each leaf gives a
+ * labelling of the nodes, and the smallest encoding of the relabelled graph
+ * is the canonical form.  A leaf whose encoding equals the best one found
+ * reveals an automorphism, and the search jumps back to where that leaf's
+ * path diverged from the best one, since the rest of that subtree is an image
+ * of one already searched.
+ */
+public final class CanonicalForm {
+
+  private final int[] code;
+  private final int hash;
+
+  private CanonicalForm(int[] code) {
+
+    this.code = code;
+    this.hash = Arrays.hashCode(code);
+  }
+
+  /**
+   * Returns the canonical form of the given graph.  Coefficients and factors
+   * are not part of the form.
+   */
+  public static CanonicalForm of(Graph g) {
+
+    return new CanonicalForm(new Search(g).run());
+  }
+
+  @Override
+  public boolean equals(Object other) {
+
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof CanonicalForm)) {
+      return false;
+    }
+    CanonicalForm o = (CanonicalForm) other;
+    return hash == o.hash && Arrays.equals(code, o.code);
+  }
+
+  @Override
+  public int hashCode() {
+
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+
+    return Arrays.toString(code);
+  }
+
+  private static int nodeLabel(Node node) {
+
+    return MetadataImpl.rootPointsSpecial ? (node.getType() << 16) | node.getColor() : node.getColor();
+  }
+
+  private static int edgeLabel(Edge edge) {
+
+    // 0 is reserved for "no edge"
+    return 1 + (MetadataImpl.rootPointsSpecial ? (edge.getType() << 16) | edge.getColor() : edge.getColor());
+  }
+
+  private static int compare(int[] a, int[] b) {
+
+    for (int i = 0; i < a.length; i++) {
+      if (a[i] != b[i]) {
+        return a[i] < b[i] ? -1 : 1;
+      }
+    }
+    return 0;
+  }
+
+  private static final class Search {
+
+    private final int n;
+    private final int[] nodeLabels;
+    // edge labels, indexed [from][to]; 0 if there is no edge
+    private final int[][] edgeLabels;
+    private final int[] path;
+    private int[] best, bestPath;
+    private int bestDepth;
+
+    Search(Graph g) {
+
+      n = g.nodeCount();
+      nodeLabels = new int[n];
+      edgeLabels = new int[n][n];
+      for (byte i = 0; i < n; i++) {
+        nodeLabels[i] = nodeLabel(g.getNode(i));
+        for (byte j = 0; j < n; j++) {
+          if (i != j && g.hasEdge(i, j)) {
+            edgeLabels[i][j] = edgeLabel(g.getEdge(i, j));
+          }
+        }
+      }
+      path = new int[n];
+    }
+
+    int[] run() {
+
+      // initial cells from the node labels; a node's cell index is the
+      // number of nodes that sort before it, so a cell of size m occupies
+      // indices [c, c+m)
+      int[] cells = new int[n];
+      for (int i = 0; i < n; i++) {
+        for (int j = 0; j < n; j++) {
+          if (nodeLabels[j] < nodeLabels[i]) {
+            cells[i]++;
+          }
+        }
+      }
+      refine(cells);
+      search(cells, 0);
+      return best;
+    }
+
+    /**
+     * Searches the subtree below the given (refined) partition.  Returns
+     * the depth that the search should return to; if that is less than
+     * depth, the caller should abandon its remaining children.
+     */
+    private int search(int[] cells, int depth) {
+
+      int target = -1;
+      for (int c = 0; c < n && target < 0; c++) {
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+          if (cells[i] == c) {
+            size++;
+          }
+        }
+        if (size > 1) {
+          target = c;
+        }
+      }
+      if (target < 0) {
+        return leaf(cells, depth);
+      }
+      int[] childCells = new int[n];
+      for (int v = 0; v < n; v++) {
+        if (cells[v] != target) {
+          continue;
+        }
+        // individualize v: it keeps the cell index and the rest of its
+        // cell moves up by one
+        for (int i = 0; i < n; i++) {
+          childCells[i] = cells[i] == target && i != v ? target + 1 : cells[i];
+        }
+        refine(childCells);
+        path[depth] = v;
+        int jump = search(childCells, depth + 1);
+        if (jump < depth) {
+          return jump;
+        }
+      }
+      return depth;
+    }
+
+    private int leaf(int[] cells, int depth) {
+
+      // cells[v] is now the new label of node v
+      int[] inverse = new int[n];
+      for (int v = 0; v < n; v++) {
+        inverse[cells[v]] = v;
+      }
+      int[] code = new int[1 + n + n * n];
+      code[0] = n;
+      for (int i = 0; i < n; i++) {
+        int vi = inverse[i];
+        code[1 + i] = nodeLabels[vi];
+        for (int j = 0; j < n; j++) {
+          code[1 + n + i * n + j] = edgeLabels[vi][inverse[j]];
+        }
+      }
+      if (best == null) {
+        best = code;
+        bestPath = path.clone();
+        bestDepth = depth;
+        return depth;
+      }
+      int cmp = compare(code, best);
+      if (cmp < 0) {
+        best = code;
+        bestPath = path.clone();
+        bestDepth = depth;
+        return depth;
+      }
+      if (cmp == 0) {
+        // automorphism; everything below the point where our path left the
+        // best one is an image of something already searched
+        int common = 0;
+        while (common < depth && common < bestDepth && path[common] == bestPath[common]) {
+          common++;
+        }
+        return common;
+      }
+      return depth;
+    }
+
+    /**
+     * Refines the partition until it is equitable.  Each node's signature
+     * is its cell followed by the sorted list of (cell, edge label out,
+     * edge label in) over the nodes it is bonded to; cells are split by
+     * signature, keeping the order of the existing cells.
+     */
+    private void refine(int[] cells) {
+
+      long[][] signatures = new long[n][];
+      int nCells = countCells(cells);
+      while (nCells < n) {
+        for (int v = 0; v < n; v++) {
+          int degree = 0;
+          for (int u = 0; u < n; u++) {
+            if (edgeLabels[v][u] != 0 || edgeLabels[u][v] != 0) {
+              degree++;
+            }
+          }
+          long[] sig = new long[1 + degree];
+          sig[0] = cells[v];
+          int k = 1;
+          for (int u = 0; u < n; u++) {
+            if (edgeLabels[v][u] != 0 || edgeLabels[u][v] != 0) {
+              sig[k++] = ((long) cells[u] << 48) | ((long) edgeLabels[v][u] << 24) | edgeLabels[u][v];
+            }
+          }
+          Arrays.sort(sig, 1, sig.length);
+          signatures[v] = sig;
+        }
+        int[] newCells = new int[n];
+        for (int v = 0; v < n; v++) {
+          for (int u = 0; u < n; u++) {
+            if (compareSignatures(signatures[u], signatures[v]) < 0) {
+              newCells[v]++;
+            }
+          }
+        }
+        int newNCells = countCells(newCells);
+        System.arraycopy(newCells, 0, cells, 0, n);
+        if (newNCells == nCells) {
+          break;
+        }
+        nCells = newNCells;
+      }
+    }
+
+    private int countCells(int[] cells) {
+
+      boolean[] used = new boolean[n];
+      int count = 0;
+      for (int v = 0; v < n; v++) {
+        if (!used[cells[v]]) {
+          used[cells[v]] = true;
+          count++;
+        }
+      }
+      return count;
+    }
+
+    private static int compareSignatures(long[] a, long[] b) {
+
+      // the cell comes first, so the order of existing cells is kept
+      int len = Math.min(a.length, b.length);
+      for (int i = 0; i < len; i++) {
+        if (a[i] != b[i]) {
+          return a[i] < b[i] ? -1 : 1;
+        }
+      }
+      return Integer.compare(a.length, b.length);
+    }
+  }
+}
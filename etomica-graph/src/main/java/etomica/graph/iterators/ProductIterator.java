@@ -0,0 +1,74 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.graph.iterators;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import etomica.graph.model.Graph;
+import etomica.graph.model.GraphIterator;
+
+/**
+ * Iterator that combines each graph from a source iterator with each of its
+ * partners, one product at a time.  Products that are null (combinations that
+ * are not allowed) are skipped.
+ */
+public abstract class ProductIterator implements GraphIterator {
+
+  private final Iterator<Graph> source;
+  private Graph current;
+  private Iterator<Graph> partners;
+  private Graph next;
+
+  public ProductIterator(Iterator<Graph> source) {
+
+    this.source = source;
+  }
+
+  /**
+   * Returns the graphs that should be combined with the given graph from the
+   * source.
+   */
+  protected abstract Iterator<Graph> partners(Graph g);
+
+  /**
+   * Returns the combination of the two graphs, or null if there is none.
+   */
+  protected abstract Graph product(Graph g, Graph partner);
+
+  public boolean hasNext() {
+
+    while (next == null) {
+      if (partners != null && partners.hasNext()) {
+        next = product(current, partners.next());
+      }
+      else if (source.hasNext()) {
+        current = source.next();
+        partners = partners(current);
+      }
+      else {
+        current = null;
+        partners = null;
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public Graph next() {
+
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Graph g = next;
+    next = null;
+    return g;
+  }
+
+  public void remove() {
+
+    // no-op
+  }
+}
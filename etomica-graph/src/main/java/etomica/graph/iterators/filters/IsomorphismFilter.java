@@ -4,8 +4,12 @@
 
 package etomica.graph.iterators.filters;
 
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Set;
 
+import etomica.graph.isomorphism.CanonicalForm;
 import etomica.graph.isomorphism.Match;
 import etomica.graph.model.Graph;
 import etomica.graph.model.GraphIterator;
@@ -13,11 +17,16 @@ import etomica.graph.model.GraphIterator;
 public class IsomorphismFilter extends GlobalFilter {
 
   public static boolean DEBUG_MODE = true;
+  // when true, isomorphs are found by looking up the canonical form of each
+  // graph; otherwise each graph is matched against every graph in its bucket
+  public static boolean USE_CANONICAL_FORM = true;
   private static int DEBUG_FREQUENCY = 2500;
 
   private int countSeen = 0;
   private int countDiscarded = 0;
   private long debugStart = System.nanoTime();
+  // canonical form index for each bucket
+  private final Map<Set<Graph>, Map<CanonicalForm, Graph>> canonicalIndex = new IdentityHashMap<Set<Graph>, Map<CanonicalForm, Graph>>();
 
   public IsomorphismFilter(GraphIterator iterator) {
     this(iterator, null);
@@ -29,6 +38,9 @@ public class IsomorphismFilter extends GlobalFilter {
 
   protected boolean accept(Graph g1, Set<Graph> set) {
 
+    if (USE_CANONICAL_FORM) {
+      return acceptCanonical(g1, set);
+    }
     boolean result = true;
     if (!set.isEmpty()) {
       for (Graph isoGraph : set) {
@@ -62,6 +74,50 @@ public class IsomorphismFilter extends GlobalFilter {
     return result;
   }
 
+  /**
+   * Same as the pairwise test in accept, but the isomorph (if any) is found
+   * by hashing the canonical form of g1.
+   */
+  private boolean acceptCanonical(Graph g1, Set<Graph> set) {
+
+    Map<CanonicalForm, Graph> index = canonicalIndex.get(set);
+    if (index == null) {
+      index = new HashMap<CanonicalForm, Graph>();
+      canonicalIndex.put(set, index);
+    }
+    CanonicalForm form = CanonicalForm.of(g1);
+    Graph isoGraph = index.get(form);
+    boolean result = true;
+    if (isoGraph != null) {
+      countDiscarded++;
+      if (isoGraph.compareTo(g1) >= 0) {
+        isoGraph.coefficient().add(g1.coefficient());
+        result = false;
+        if (isoGraph.coefficient().getNumerator() == 0) {
+          countDiscarded++;
+          set.remove(isoGraph);
+          index.remove(form);
+        }
+      }
+      else {
+        set.remove(isoGraph);
+        index.remove(form);
+        g1.coefficient().add(isoGraph.coefficient());
+        result = g1.coefficient().getNumerator() != 0;
+        if (!result) {
+          countDiscarded++;
+        }
+      }
+    }
+    if (result) {
+      // the caller adds g1 to the set
+      index.put(form, g1);
+    }
+    countSeen++;
+    debugReport();
+    return result;
+  }
+
   private void debugReport() {
 
     if (!DEBUG_MODE || (countSeen % DEBUG_FREQUENCY != 0)) {
@@ -57,6 +57,11 @@ public class GraphFactory {
     return new GraphImpl(nodeCount, rootNodeCount, store);
   }
 
+  public static Graph createGraph(byte nodeCount, Bitmap store, Coefficient coefficient) {
+
+    return new GraphImpl(nodeCount, (byte) 0, store, coefficient);
+  }
+
   public static Graph createGraph(byte nodeCount) {
 
     return new GraphImpl(nodeCount);
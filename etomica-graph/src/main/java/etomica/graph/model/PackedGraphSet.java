@@ -0,0 +1,804 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.graph.model;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import etomica.graph.model.impl.CoefficientImpl;
+
+/**
+ * Set of graphs held in primitive arrays rather than as Graph objects.  For
+ * each graph, only the node count, the node colors and types, the edge bits
+ * (as in BitmapOfLong), the edge colors, the coefficient and the factors are
+ * kept, with colors and types stored as one-byte indices into a palette.  A
+ * graph with 9 nodes takes roughly 100 bytes, compared with a few kB for a
+ * GraphImpl with its nodes, edges and metadata.
+ *
+ * Two graphs are the same element if all of the data above is the same.
+ * Graph.equals is not used, since GraphImpl compares coefficients by
+ * identity.  Adding a graph that is already in the set leaves the set
+ * unchanged; graphs that only differ by a relabeling of their nodes are
+ * different elements (use IsoFree first to merge them).
+ *
+ * The iterator (and get) return flyweight views that read the packed arrays.
+ * Node and edge counts, edge bits, colors, types, the coefficient and the
+ * factors are read directly; the other Graph methods work on a copy that
+ * the view builds the first time one of them is called.  Views are read
+ * only: their mutators (and those of their coefficient) throw
+ * UnsupportedOperationException, and the nodes and edges they return are
+ * copies.  Use copy() for a graph that can be changed.  This makes the set
+ * suitable for holding large, finished sets of diagrams; sets whose graphs
+ * are modified in place, or that are used as keys by identity, should stay
+ * as ordinary sets.
+ *
+ * Graphs cannot be removed, other than by clearing the set.  The set is not
+ * thread-safe; contains uses the same scratch space as add.
+ */
+public class PackedGraphSet extends AbstractSet<Graph> {
+
+  private static final int MAX_PALETTE = 256;
+
+  private int size;
+  private byte[] nodeCounts;
+  // start of each graph's data in the packed arrays; the data for graph i
+  // runs up to the start for graph i+1.  The space after the last graph is
+  // used to pack a graph for lookup.
+  private int[] nodeStart, wordStart, edgeStart, factorStart;
+  private byte[] nodeColors, nodeTypes;
+  private long[] edgeBits;
+  // one color per edge that is present, in edge id order
+  private byte[] edgeColors;
+  private int[] numerators, denominators;
+  private int[] factors;
+  // coefficients that have overflowed to floating point; denominator is 0
+  private final Map<Integer, Coefficient> overflowCoefficients = new HashMap<Integer, Coefficient>();
+  private Coefficient packedOverflow;
+  private char[] palette;
+  private int paletteSize;
+  private final Map<Character, Byte> paletteIndex = new HashMap<Character, Byte>();
+  // open-addressing hash table of graph index + 1 (0 for an empty slot)
+  private int[] table;
+  private int[] hashes;
+
+  public PackedGraphSet() {
+
+    this(16);
+  }
+
+  public PackedGraphSet(int initialCapacity) {
+
+    initialCapacity = Math.max(1, initialCapacity);
+    nodeCounts = new byte[initialCapacity + 1];
+    nodeStart = new int[initialCapacity + 2];
+    wordStart = new int[initialCapacity + 2];
+    edgeStart = new int[initialCapacity + 2];
+    factorStart = new int[initialCapacity + 2];
+    numerators = new int[initialCapacity + 1];
+    denominators = new int[initialCapacity + 1];
+    hashes = new int[initialCapacity + 1];
+    nodeColors = new byte[8 * initialCapacity];
+    nodeTypes = new byte[8 * initialCapacity];
+    edgeBits = new long[initialCapacity];
+    edgeColors = new byte[8 * initialCapacity];
+    factors = new int[0];
+    palette = new char[16];
+    table = new int[tableSize(initialCapacity)];
+  }
+
+  public PackedGraphSet(Collection<? extends Graph> graphs) {
+
+    this(graphs.size());
+    addAll(graphs);
+  }
+
+  public int size() {
+
+    return size;
+  }
+
+  public void clear() {
+
+    size = 0;
+    overflowCoefficients.clear();
+    Arrays.fill(table, 0);
+  }
+
+  /**
+   * Adds a packed copy of the given graph, unless the set already holds a
+   * graph with the same content.
+   *
+   * @return true if the graph was added
+   */
+  public boolean add(Graph g) {
+
+    pack(g, true);
+    int hash = packedHash();
+    if (find(hash) >= 0) {
+      return false;
+    }
+    if (2 * (size + 1) > table.length) {
+      rehash(2 * table.length);
+    }
+    hashes[size] = hash;
+    if (packedOverflow != null) {
+      overflowCoefficients.put(size, packedOverflow);
+    }
+    insert(size, hash);
+    size++;
+    return true;
+  }
+
+  public boolean contains(Object o) {
+
+    if (!(o instanceof Graph) || !pack((Graph) o, false)) {
+      return false;
+    }
+    return find(packedHash()) >= 0;
+  }
+
+  /**
+   * Returns the index of the graph in the set with the same content as the
+   * given graph, or -1 if there is none.
+   */
+  public int indexOf(Graph g) {
+
+    if (!pack(g, false)) {
+      return -1;
+    }
+    return find(packedHash());
+  }
+
+  /**
+   * Returns a read-only view of graph i.
+   */
+  public Graph get(int i) {
+
+    checkIndex(i);
+    return new GraphView(i);
+  }
+
+  public Iterator<Graph> iterator() {
+
+    return new Iterator<Graph>() {
+      private int next = 0;
+
+      public boolean hasNext() {
+
+        return next < size;
+      }
+
+      public Graph next() {
+
+        if (next >= size) {
+          throw new NoSuchElementException();
+        }
+        return new GraphView(next++);
+      }
+    };
+  }
+
+  public byte nodeCount(int i) {
+
+    checkIndex(i);
+    return nodeCounts[i];
+  }
+
+  public int edgeCount(int i) {
+
+    checkIndex(i);
+    return edgeStart[i + 1] - edgeStart[i];
+  }
+
+  public boolean hasEdge(int i, byte edgeId) {
+
+    checkIndex(i);
+    return edgeId < edgeBitCount(nodeCounts[i]) && testEdgeBit(wordStart[i], edgeId);
+  }
+
+  public char getNodeColor(int i, byte node) {
+
+    checkIndex(i);
+    return palette[nodeColors[nodeStart[i] + node] & 0xff];
+  }
+
+  public char getNodeType(int i, byte node) {
+
+    checkIndex(i);
+    return palette[nodeTypes[nodeStart[i] + node] & 0xff];
+  }
+
+  /**
+   * Returns the value of the coefficient of graph i.
+   */
+  public double getCoefficientValue(int i) {
+
+    checkIndex(i);
+    if (denominators[i] == 0) {
+      return overflowCoefficients.get(i).getValue();
+    }
+    return ((double) numerators[i]) / denominators[i];
+  }
+
+  /**
+   * Shrinks the internal arrays to what is needed by the graphs in the set.
+   */
+  public void trimToSize() {
+
+    int nNodes = nodeStart[size], nWords = wordStart[size], nEdges = edgeStart[size], nFactors = factorStart[size];
+    nodeCounts = Arrays.copyOf(nodeCounts, size + 1);
+    nodeStart = Arrays.copyOf(nodeStart, size + 2);
+    wordStart = Arrays.copyOf(wordStart, size + 2);
+    edgeStart = Arrays.copyOf(edgeStart, size + 2);
+    factorStart = Arrays.copyOf(factorStart, size + 2);
+    numerators = Arrays.copyOf(numerators, size + 1);
+    denominators = Arrays.copyOf(denominators, size + 1);
+    hashes = Arrays.copyOf(hashes, size + 1);
+    nodeColors = Arrays.copyOf(nodeColors, nNodes);
+    nodeTypes = Arrays.copyOf(nodeTypes, nNodes);
+    edgeBits = Arrays.copyOf(edgeBits, nWords);
+    edgeColors = Arrays.copyOf(edgeColors, nEdges);
+    factors = Arrays.copyOf(factors, nFactors);
+  }
+
+  /**
+   * Packs the given graph into the slot after the last graph.  If
+   * addColors is false and the graph has a color or type that is not in the
+   * palette (so that it cannot be in the set), returns false.
+   */
+  private boolean pack(Graph g, boolean addColors) {
+
+    byte n = g.nodeCount();
+    int nEdges = g.edgeCount();
+    int nBits = edgeBitCount(n);
+    int nWords = (nBits + Bitmap.SZ_LONG - 1) / Bitmap.SZ_LONG;
+    int[] gFactors = g.factors();
+    ensureCapacity(n, nWords, nEdges, gFactors.length);
+
+    nodeCounts[size] = n;
+    int nodeOffset = nodeStart[size];
+    for (byte i = 0; i < n; i++) {
+      Node node = g.getNode(i);
+      int color = paletteIndex(node.getColor(), addColors);
+      int type = paletteIndex(node.getType(), addColors);
+      if (color < 0 || type < 0) {
+        return false;
+      }
+      nodeColors[nodeOffset + i] = (byte) color;
+      nodeTypes[nodeOffset + i] = (byte) type;
+    }
+    int wordOffset = wordStart[size];
+    Arrays.fill(edgeBits, wordOffset, wordOffset + nWords, 0);
+    int edgeOffset = edgeStart[size];
+    for (int edgeId = 0; edgeId < nBits; edgeId++) {
+      if (!g.hasEdge((byte) edgeId)) continue;
+      edgeBits[wordOffset + edgeId / Bitmap.SZ_LONG] |= Bitmap.LONG_ONE << (edgeId % Bitmap.SZ_LONG);
+      int color = paletteIndex(g.getEdge((byte) edgeId).getColor(), addColors);
+      if (color < 0) {
+        return false;
+      }
+      edgeColors[edgeOffset++] = (byte) color;
+    }
+    Coefficient c = g.coefficient();
+    if (c.hasOverflow()) {
+      numerators[size] = 0;
+      denominators[size] = 0;
+      packedOverflow = c.copy();
+    }
+    else {
+      numerators[size] = c.getNumerator();
+      denominators[size] = c.getDenominator();
+      packedOverflow = null;
+    }
+    System.arraycopy(gFactors, 0, factors, factorStart[size], gFactors.length);
+
+    nodeStart[size + 1] = nodeOffset + n;
+    wordStart[size + 1] = wordOffset + nWords;
+    edgeStart[size + 1] = edgeOffset;
+    factorStart[size + 1] = factorStart[size] + gFactors.length;
+    return true;
+  }
+
+  private int packedHash() {
+
+    int i = size;
+    int h = nodeCounts[i];
+    for (int k = nodeStart[i]; k < nodeStart[i + 1]; k++) {
+      h = 31 * h + nodeColors[k];
+      h = 31 * h + nodeTypes[k];
+    }
+    for (int k = wordStart[i]; k < wordStart[i + 1]; k++) {
+      h = 31 * h + Long.hashCode(edgeBits[k]);
+    }
+    for (int k = edgeStart[i]; k < edgeStart[i + 1]; k++) {
+      h = 31 * h + edgeColors[k];
+    }
+    if (denominators[i] == 0) {
+      h = 31 * h + Double.hashCode(packedOverflow.getValue());
+    }
+    else {
+      h = 31 * h + numerators[i];
+      h = 31 * h + denominators[i];
+    }
+    for (int k = factorStart[i]; k < factorStart[i + 1]; k++) {
+      h = 31 * h + factors[k];
+    }
+    return h;
+  }
+
+  /**
+   * Returns the index of the graph with the same content as the packed
+   * graph, or -1.
+   */
+  private int find(int hash) {
+
+    int mask = table.length - 1;
+    for (int slot = mix(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+      int j = table[slot] - 1;
+      if (hashes[j] == hash && samePacked(j)) {
+        return j;
+      }
+    }
+    return -1;
+  }
+
+  private void insert(int i, int hash) {
+
+    int mask = table.length - 1;
+    int slot = mix(hash) & mask;
+    while (table[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    table[slot] = i + 1;
+  }
+
+  private void rehash(int newLength) {
+
+    table = new int[newLength];
+    for (int i = 0; i < size; i++) {
+      insert(i, hashes[i]);
+    }
+  }
+
+  /**
+   * Returns true if graph j has the same content as the packed graph.
+   */
+  private boolean samePacked(int j) {
+
+    int i = size;
+    if (nodeCounts[i] != nodeCounts[j] || numerators[i] != numerators[j] || denominators[i] != denominators[j]
+        || edgeStart[i + 1] - edgeStart[i] != edgeStart[j + 1] - edgeStart[j]
+        || factorStart[i + 1] - factorStart[i] != factorStart[j + 1] - factorStart[j]) {
+      return false;
+    }
+    if (denominators[i] == 0 && packedOverflow.getValue() != overflowCoefficients.get(j).getValue()) {
+      return false;
+    }
+    return rangeEquals(nodeColors, nodeStart[i], nodeColors, nodeStart[j], nodeCounts[i])
+        && rangeEquals(nodeTypes, nodeStart[i], nodeTypes, nodeStart[j], nodeCounts[i])
+        && rangeEquals(edgeColors, edgeStart[i], edgeColors, edgeStart[j], edgeStart[i + 1] - edgeStart[i])
+        && rangeEquals(edgeBits, wordStart[i], wordStart[j], wordStart[i + 1] - wordStart[i])
+        && rangeEquals(factors, factorStart[i], factorStart[j], factorStart[i + 1] - factorStart[i]);
+  }
+
+  private static boolean rangeEquals(byte[] a, int aStart, byte[] b, int bStart, int length) {
+
+    for (int k = 0; k < length; k++) {
+      if (a[aStart + k] != b[bStart + k]) return false;
+    }
+    return true;
+  }
+
+  private static boolean rangeEquals(long[] a, int aStart, int bStart, int length) {
+
+    for (int k = 0; k < length; k++) {
+      if (a[aStart + k] != a[bStart + k]) return false;
+    }
+    return true;
+  }
+
+  private static boolean rangeEquals(int[] a, int aStart, int bStart, int length) {
+
+    for (int k = 0; k < length; k++) {
+      if (a[aStart + k] != a[bStart + k]) return false;
+    }
+    return true;
+  }
+
+  private static int mix(int hash) {
+
+    return hash ^ (hash >>> 16);
+  }
+
+  private static int tableSize(int capacity) {
+
+    int n = 16;
+    while (n < 2 * capacity) {
+      n <<= 1;
+    }
+    return n;
+  }
+
+  private static int edgeBitCount(byte n) {
+
+    return n * (n - 1) / 2;
+  }
+
+  private boolean testEdgeBit(int wordOffset, int edgeId) {
+
+    return (edgeBits[wordOffset + edgeId / Bitmap.SZ_LONG] & (Bitmap.LONG_ONE << (edgeId % Bitmap.SZ_LONG))) != 0;
+  }
+
+  private void checkIndex(int i) {
+
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+    }
+  }
+
+  /**
+   * Returns the palette index of the given color or type, adding it if
+   * needed and allowed.  Returns -1 if it is not in the palette and cannot
+   * be added.
+   */
+  private int paletteIndex(char c, boolean add) {
+
+    Byte index = paletteIndex.get(c);
+    if (index == null) {
+      if (!add) {
+        return -1;
+      }
+      if (paletteSize == MAX_PALETTE) {
+        throw new IllegalStateException("more than " + MAX_PALETTE + " distinct colors and types");
+      }
+      if (paletteSize == palette.length) {
+        palette = Arrays.copyOf(palette, 2 * palette.length);
+      }
+      palette[paletteSize] = c;
+      index = (byte) paletteSize;
+      paletteIndex.put(c, index);
+      paletteSize++;
+    }
+    return index & 0xff;
+  }
+
+  /**
+   * Makes room to pack a graph with the given sizes after the last graph.
+   */
+  private void ensureCapacity(int nNodes, int nWords, int nEdges, int nFactors) {
+
+    if (size + 1 >= nodeCounts.length) {
+      int capacity = Math.max(size + 2, nodeCounts.length + (nodeCounts.length >> 1));
+      nodeCounts = Arrays.copyOf(nodeCounts, capacity);
+      nodeStart = Arrays.copyOf(nodeStart, capacity + 1);
+      wordStart = Arrays.copyOf(wordStart, capacity + 1);
+      edgeStart = Arrays.copyOf(edgeStart, capacity + 1);
+      factorStart = Arrays.copyOf(factorStart, capacity + 1);
+      numerators = Arrays.copyOf(numerators, capacity);
+      denominators = Arrays.copyOf(denominators, capacity);
+      hashes = Arrays.copyOf(hashes, capacity);
+    }
+    nodeColors = grow(nodeColors, nodeStart[size] + nNodes);
+    nodeTypes = grow(nodeTypes, nodeStart[size] + nNodes);
+    edgeColors = grow(edgeColors, edgeStart[size] + nEdges);
+    if (wordStart[size] + nWords > edgeBits.length) {
+      edgeBits = Arrays.copyOf(edgeBits, Math.max(wordStart[size] + nWords, edgeBits.length + (edgeBits.length >> 1)));
+    }
+    if (factorStart[size] + nFactors > factors.length) {
+      factors = Arrays.copyOf(factors, Math.max(factorStart[size] + nFactors, factors.length + (factors.length >> 1)));
+    }
+  }
+
+  private static byte[] grow(byte[] array, int needed) {
+
+    if (needed <= array.length) {
+      return array;
+    }
+    return Arrays.copyOf(array, Math.max(needed, array.length + (array.length >> 1)));
+  }
+
+  /**
+   * Read-only view of one graph in the set.
+   */
+  private class GraphView implements Graph {
+
+    private final int index;
+    private Graph graph;
+
+    private GraphView(int index) {
+
+      this.index = index;
+    }
+
+    /**
+     * Returns a copy of the graph, built the first time it is needed, for
+     * the methods that are not read from the packed arrays.
+     */
+    private Graph graph() {
+
+      if (graph == null) {
+        graph = copy();
+      }
+      return graph;
+    }
+
+    public Graph copy() {
+
+      byte n = nodeCounts[index];
+      Bitmap store = getStore();
+      Graph g = GraphFactory.createGraph(n, store, coefficient().copy());
+      int nodeOffset = nodeStart[index];
+      for (byte k = 0; k < n; k++) {
+        Node node = g.getNode(k);
+        node.setType(palette[nodeTypes[nodeOffset + k] & 0xff]);
+        node.setColor(palette[nodeColors[nodeOffset + k] & 0xff]);
+      }
+      int edgeOffset = edgeStart[index];
+      int nBits = edgeBitCount(n);
+      for (int edgeId = 0; edgeId < nBits; edgeId++) {
+        if (testEdgeBit(wordStart[index], edgeId)) {
+          g.getEdge((byte) edgeId).setColor(palette[edgeColors[edgeOffset++] & 0xff]);
+        }
+      }
+      int[] f = factors();
+      g.setNumFactors(f.length);
+      g.addFactors(f);
+      g.createReverseEdges();
+      return g;
+    }
+
+    public Coefficient coefficient() {
+
+      return new CoefficientView(index);
+    }
+
+    public int[] factors() {
+
+      return Arrays.copyOfRange(factors, factorStart[index], factorStart[index + 1]);
+    }
+
+    public Bitmap getStore() {
+
+      byte n = nodeCounts[index];
+      Bitmap store = BitmapFactory.createBitmap(n, false);
+      int nBits = edgeBitCount(n);
+      for (int edgeId = 0; edgeId < nBits; edgeId++) {
+        if (testEdgeBit(wordStart[index], edgeId)) {
+          store.setBit(edgeId);
+        }
+      }
+      return store;
+    }
+
+    public byte nodeCount() {
+
+      return nodeCounts[index];
+    }
+
+    public byte edgeCount() {
+
+      return (byte) (edgeStart[index + 1] - edgeStart[index]);
+    }
+
+    public boolean hasEdge(byte edgeId) {
+
+      int nBits = edgeBitCount(nodeCounts[index]);
+      return testEdgeBit(wordStart[index], edgeId % nBits);
+    }
+
+    public boolean hasEdge(byte fromNode, byte toNode) {
+
+      return hasEdge(getEdgeId(fromNode, toNode));
+    }
+
+    public byte getEdgeId(byte fromNode, byte toNode) {
+
+      return graph().getEdgeId(fromNode, toNode);
+    }
+
+    public byte getFromNode(byte edgeId) {
+
+      return graph().getFromNode(edgeId);
+    }
+
+    public byte getToNode(byte edgeId) {
+
+      return graph().getToNode(edgeId);
+    }
+
+    public Node getNode(byte node) {
+
+      return graph().getNode(node).copy();
+    }
+
+    public Edge getEdge(byte edgeId) {
+
+      Edge edge = graph().getEdge(edgeId);
+      return edge == null ? null : edge.copy();
+    }
+
+    public Edge getEdge(byte fromNode, byte toNode) {
+
+      return getEdge(getEdgeId(fromNode, toNode));
+    }
+
+    public List<Edge> edges() {
+
+      return graph().copy().edges();
+    }
+
+    public List<Node> nodes() {
+
+      return graph().copy().nodes();
+    }
+
+    public byte getOutDegree(byte node) {
+
+      return graph().getOutDegree(node);
+    }
+
+    public byte getOutNode(byte node, byte index) {
+
+      return graph().getOutNode(node, index);
+    }
+
+    public String getSignature() {
+
+      return graph().getSignature();
+    }
+
+    public String edgesToString() {
+
+      return graph().edgesToString();
+    }
+
+    public String nodesToString() {
+
+      return graph().nodesToString();
+    }
+
+    public String toSVG(int dim) {
+
+      return graph().toSVG(dim);
+    }
+
+    public void visitEdges(EdgeVisitor visitor) {
+
+      graph().copy().visitEdges(visitor);
+    }
+
+    public void visitNodes(NodeVisitor visitor) {
+
+      graph().copy().visitNodes(visitor);
+    }
+
+    public int compareTo(Graph other) {
+
+      return graph().compareTo(other);
+    }
+
+    public String toString() {
+
+      return graph().toString();
+    }
+
+    public void addFactors(int[] newFactors) {
+
+      throw new UnsupportedOperationException("graphs in a PackedGraphSet are read only");
+    }
+
+    public void setNumFactors(int numFactors) {
+
+      throw new UnsupportedOperationException("graphs in a PackedGraphSet are read only");
+    }
+
+    public void deleteEdge(byte edgeId) {
+
+      throw new UnsupportedOperationException("graphs in a PackedGraphSet are read only");
+    }
+
+    public void deleteEdge(byte fromNode, byte toNode) {
+
+      throw new UnsupportedOperationException("graphs in a PackedGraphSet are read only");
+    }
+
+    public void putEdge(byte edgeId) {
+
+      throw new UnsupportedOperationException("graphs in a PackedGraphSet are read only");
+    }
+
+    public void putEdge(byte fromNode, byte toNode) {
+
+      throw new UnsupportedOperationException("graphs in a PackedGraphSet are read only");
+    }
+
+    public void createReverseEdges() {
+
+      throw new UnsupportedOperationException("graphs in a PackedGraphSet are read only");
+    }
+  }
+
+  /**
+   * Read-only view of the coefficient of one graph in the set.
+   */
+  private class CoefficientView implements Coefficient {
+
+    private final int index;
+
+    private CoefficientView(int index) {
+
+      this.index = index;
+    }
+
+    public boolean hasOverflow() {
+
+      return denominators[index] == 0;
+    }
+
+    public int getNumerator() {
+
+      if (hasOverflow()) return overflowCoefficients.get(index).getNumerator();
+      return numerators[index];
+    }
+
+    public int getDenominator() {
+
+      if (hasOverflow()) return overflowCoefficients.get(index).getDenominator();
+      return denominators[index];
+    }
+
+    public double getValue() {
+
+      return getCoefficientValue(index);
+    }
+
+    public Coefficient copy() {
+
+      if (hasOverflow()) return overflowCoefficients.get(index).copy();
+      // set the numerator and denominator rather than using the constructor,
+      // which would reduce the fraction
+      Coefficient c = new CoefficientImpl(1);
+      c.setNumerator(numerators[index]);
+      c.setDenominator(denominators[index]);
+      return c;
+    }
+
+    public String toString() {
+
+      return copy().toString();
+    }
+
+    public void add(Coefficient value) {
+
+      throw new UnsupportedOperationException("graphs in a PackedGraphSet are read only");
+    }
+
+    public void multiply(Coefficient value) {
+
+      throw new UnsupportedOperationException("graphs in a PackedGraphSet are read only");
+    }
+
+    public void divide(Coefficient value) {
+
+      throw new UnsupportedOperationException("graphs in a PackedGraphSet are read only");
+    }
+
+    public void setDenominator(int value) {
+
+      throw new UnsupportedOperationException("graphs in a PackedGraphSet are read only");
+    }
+
+    public void setNumerator(int value) {
+
+      throw new UnsupportedOperationException("graphs in a PackedGraphSet are read only");
+    }
+  }
+}
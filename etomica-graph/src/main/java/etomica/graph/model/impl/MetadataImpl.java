@@ -6,15 +6,17 @@ package etomica.graph.model.impl;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import etomica.graph.model.Metadata;
 
 public class MetadataImpl implements Metadata {
 
-  private static final Map<String, Metadata> stock = new HashMap<String, Metadata>();
+  // graphs may be built on several threads (see ParallelProduct), and
+  // compatibility tests rely on there being one instance per type and color
+  private static final Map<String, Metadata> stock = new ConcurrentHashMap<String, Metadata>();
   public static Comparator<Metadata> metaDataComparator = null;
   private char type;
   private char color;
@@ -37,10 +39,15 @@ public class MetadataImpl implements Metadata {
   public static Metadata getStockComponent(char type, char color) {
 
     String key = "" + type + color;
-    if (!stock.containsKey(key)) {
-      stock.put(key, new MetadataImpl(type, color));
+    Metadata metadata = stock.get(key);
+    if (metadata == null) {
+      metadata = new MetadataImpl(type, color);
+      Metadata old = stock.putIfAbsent(key, metadata);
+      if (old != null) {
+        metadata = old;
+      }
     }
-    return stock.get(key);
+    return metadata;
   }
 
   public char getColor() {
@@ -13,7 +13,7 @@ import etomica.graph.model.GraphIterator;
 import java.util.HashSet;
 import java.util.Set;
 
-public class IsoFree implements Unary {
+public class IsoFree implements Unary, StreamingUnary {
 
   public Set<Graph> apply(Set<Graph> argument, Parameters params) {
 
@@ -26,6 +26,17 @@ public class IsoFree implements Unary {
     return result;
   }
 
+  /**
+   * Returns the isomorph-free graphs from the argument.  Only one graph from
+   * each set of isomorphs is held while the argument is consumed, but nothing
+   * is returned until the argument has been exhausted.  The argument's graphs
+   * are not copied and their coefficients may be modified.
+   */
+  public GraphIterator apply(GraphIterator argument, Parameters params) {
+
+    return new IsomorphismFilter(argument, null);
+  }
+
   public static class IsoFreeParams extends GlobalFilter.SignatureMaker implements Parameters {
   }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.graph.operations;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import etomica.graph.isomorphism.CanonicalForm;
+import etomica.graph.model.Graph;
+
+/**
+ * Collects graphs into an isomorph-free set as they are produced, merging the
+ * coefficients of isomorphs the same way IsomorphismFilter does.  As there,
+ * graphs are only compared with graphs that have the same signature, which
+ * includes the factors and root nodes that the canonical form leaves out
+ * (unless root points are special).  Only one
+ * graph is kept for each isomorph, so the memory needed is set by the size of
+ * the result rather than the number of graphs added.  Graphs may be added
+ * from several threads at once.
+ *
+ * Graphs added to the accumulator are owned by it; their coefficients are
+ * updated as isomorphs are added.  Graphs whose coefficients add up to zero
+ * are kept until the result is taken, so that the graph kept for each
+ * isomorph is the same (the greatest under compareTo, as in
+ * IsomorphismFilter) whatever order the graphs were added in.
+ */
+public class IsoFreeAccumulator {
+
+  private final ConcurrentHashMap<Key, Graph> graphs = new ConcurrentHashMap<Key, Graph>();
+
+  public void add(Graph g) {
+
+    // the canonical form is the expensive part, so it is computed outside of
+    // the map's lock
+    graphs.compute(new Key(g.getSignature(), CanonicalForm.of(g)), (key, isoGraph) -> {
+      if (isoGraph == null) {
+        return g;
+      }
+      // keep the graph IsomorphismFilter would keep (the greater one)
+      Graph keep = isoGraph;
+      if (isoGraph.compareTo(g) >= 0) {
+        isoGraph.coefficient().add(g.coefficient());
+      }
+      else {
+        g.coefficient().add(isoGraph.coefficient());
+        keep = g;
+      }
+      return keep;
+    });
+  }
+
+  public void addAll(Iterator<Graph> iterator) {
+
+    while (iterator.hasNext()) {
+      add(iterator.next());
+    }
+  }
+
+  /**
+   * Returns the number of graphs in the result so far.
+   */
+  public int size() {
+
+    int n = 0;
+    for (Graph g : graphs.values()) {
+      if (g.coefficient().getNumerator() != 0) {
+        n++;
+      }
+    }
+    return n;
+  }
+
+  /**
+   * Returns the isomorph-free set of graphs collected so far, without the
+   * graphs whose coefficients add up to zero.
+   */
+  public Set<Graph> getResult() {
+
+    Set<Graph> result = new HashSet<Graph>();
+    for (Graph g : graphs.values()) {
+      if (g.coefficient().getNumerator() != 0) {
+        result.add(g);
+      }
+    }
+    return result;
+  }
+
+  private static final class Key {
+
+    private final String signature;
+    private final CanonicalForm form;
+
+    Key(String signature, CanonicalForm form) {
+
+      this.signature = signature;
+      this.form = form;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key o = (Key) other;
+      return form.equals(o.form) && signature.equals(o.signature);
+    }
+
+    @Override
+    public int hashCode() {
+
+      return 31 * form.hashCode() + signature.hashCode();
+    }
+  }
+}
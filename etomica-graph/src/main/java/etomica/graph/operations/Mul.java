@@ -5,31 +5,38 @@
 package etomica.graph.operations;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
+import etomica.graph.iterators.ProductIterator;
 import etomica.graph.model.Edge;
 import etomica.graph.model.Graph;
 import etomica.graph.model.GraphFactory;
+import etomica.graph.model.GraphIterator;
 import etomica.graph.model.Node;
 import static etomica.graph.model.Metadata.*;
 
-public class Mul implements Binary {
+public class Mul implements Binary, StreamingBinary {
 
   public Set<Graph> apply(Set<Graph> left, Set<Graph> right, Parameters params) {
     assert(params instanceof MulParameters);
-    Unary isoFree = new IsoFree();
-    Set<Graph> result = new HashSet<Graph>();
-    for (Graph lg : left) {
-      for (Graph rg : right) {
-        Graph graph = apply(lg, rg, (MulParameters)params);
-        if (graph != null) {
-          result.add(graph);
-        }
+    // isomorphs are merged as the products are generated, so the full
+    // product is never held in memory
+    return new ParallelProduct(this).apply(left, right, params);
+  }
+
+  public GraphIterator apply(GraphIterator left, final Set<Graph> right, final Parameters params) {
+    assert(params instanceof MulParameters);
+    return new ProductIterator(left) {
+      protected Iterator<Graph> partners(Graph g) {
+        return right.iterator();
       }
-    }
-    return isoFree.apply(result, null);
+
+      protected Graph product(Graph g, Graph partner) {
+        return apply(g, partner, (MulParameters)params);
+      }
+    };
   }
 
   public Graph apply(Graph left, Graph right, MulParameters params) {
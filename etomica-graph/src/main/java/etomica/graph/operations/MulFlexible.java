@@ -4,15 +4,20 @@
 
 package etomica.graph.operations;
 
+import etomica.graph.iterators.ChainedIterator;
+import etomica.graph.iterators.ProductIterator;
 import etomica.graph.model.Graph;
 import etomica.graph.model.GraphFactory;
+import etomica.graph.model.GraphIterator;
 import etomica.graph.model.Metadata;
 import etomica.graph.model.Node;
 import etomica.graph.model.impl.MetadataImpl;
 import etomica.graph.operations.Mul.MulParameters;
 import etomica.graph.property.NumFieldNodes;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -35,7 +40,7 @@ import static etomica.graph.model.Metadata.TYPE_NODE_ROOT;
  *
  * @author Andrew Schultz
  */
-public class MulFlexible implements Binary {
+public class MulFlexible implements Binary, StreamingBinary {
 
     @SuppressWarnings("unchecked")
     public Set<Graph> apply(Set<Graph> argument, Set<Graph> argument2, Parameters params) {
@@ -80,6 +85,61 @@ public class MulFlexible implements Binary {
         return result;
     }
 
+    /**
+     * Returns the isomorph-free product of the two sets; the result is the same
+     * as isoFree.apply(apply(argument, argument2, params), null), but the
+     * products are computed in parallel and isomorphs are merged as they are
+     * generated, so the full product is never held in memory.
+     */
+    public Set<Graph> applyIsoFree(Set<Graph> argument, Set<Graph> argument2, Parameters params) {
+
+        // same factor order as apply(Set, Set, Parameters)
+        if (argument.size() > argument2.size()) {
+            Set<Graph> foo = argument;
+            argument = argument2;
+            argument2 = foo;
+        }
+        return new ParallelProduct(this).apply(argument, argument2, params);
+    }
+
+    /**
+     * Returns the products of the graphs from argument with those in argument2
+     * as they are generated.  Unlike the Set version, argument is always the
+     * first factor of each product.
+     */
+    public GraphIterator apply(GraphIterator argument, Set<Graph> argument2, Parameters params) {
+        assert (params instanceof MulFlexibleParameters);
+        final MulFlexibleParameters mfp = (MulFlexibleParameters) params;
+        final int maxNField = mfp.nFieldPoints;
+        final List<List<Graph>> sets2 = new ArrayList<List<Graph>>(maxNField + 1);
+        for (int i = 0; i <= maxNField; i++) {
+            sets2.add(new ArrayList<Graph>());
+        }
+        for (Graph g : argument2) {
+            int numField2 = NumFieldNodes.value(g);
+            if (numField2 <= maxNField) {
+                sets2.get(numField2).add(g);
+            }
+        }
+        return new ProductIterator(argument) {
+            protected Iterator<Graph> partners(Graph g) {
+                // look only at graphs from argument2 that will result in a
+                // product with less than the max # of field nodes
+                int numField1 = NumFieldNodes.value(g);
+                ChainedIterator partners = new ChainedIterator();
+                for (int i = 0; i <= maxNField - numField1; i++) {
+                    partners.chainIterator(sets2.get(i).iterator());
+                }
+                partners.start();
+                return partners;
+            }
+
+            protected Graph product(Graph g, Graph partner) {
+                return apply(g, partner, mfp);
+            }
+        };
+    }
+
     public Graph apply(Graph g1, Graph g2, MulFlexibleParameters params) {
 
         Graph result;
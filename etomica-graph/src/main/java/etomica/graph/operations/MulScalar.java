@@ -9,13 +9,14 @@ import java.util.Set;
 
 import etomica.graph.model.Coefficient;
 import etomica.graph.model.Graph;
+import etomica.graph.model.GraphIterator;
 
 /**
  * Multiply graphs by a scalar (coefficient)
  * 
  * @author Andrew Schultz
  */
-public class MulScalar implements Unary {
+public class MulScalar implements Unary, StreamingUnary {
 
   public Set<Graph> apply(Set<Graph> argument, Parameters params) {
     assert (params instanceof MulScalarParameters);
@@ -27,6 +28,26 @@ public class MulScalar implements Unary {
     return result;
   }
 
+  public GraphIterator apply(final GraphIterator argument, final Parameters params) {
+    assert (params instanceof MulScalarParameters);
+    return new GraphIterator() {
+      public boolean hasNext() {
+        return argument.hasNext();
+      }
+
+      public Graph next() {
+        // the argument's graphs are ours to modify, so no copy is needed
+        Graph g = argument.next();
+        g.coefficient().multiply(((MulScalarParameters) params).factor());
+        return g;
+      }
+
+      public void remove() {
+        // no-op
+      }
+    };
+  }
+
   public Graph apply(Graph argument, MulScalarParameters params) {
     Graph result = argument.copy();
     Coefficient c = result.coefficient();
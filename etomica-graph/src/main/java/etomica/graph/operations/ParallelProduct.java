@@ -0,0 +1,85 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.graph.operations;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import etomica.graph.iterators.IteratorWrapper;
+import etomica.graph.model.Graph;
+import etomica.graph.model.GraphIterator;
+
+/**
+ * Applies a streaming binary operation (typically a product) and returns the
+ * isomorph-free result.  The larger argument is split into chunks that are
+ * streamed through the operation on the fork-join common pool, and each
+ * result graph goes straight into an IsoFreeAccumulator, so the full
+ * (pre-isomorph-elimination) product is never held in memory.
+ *
+ * The result is the same as IsoFree applied to the product, e.g.
+ * isoFree.apply(mulFlex.apply(left, right, mfp), null), apart from which
+ * graph is kept to represent each set of isomorphs.  The operation must return
+ * new graphs, since their coefficients are updated as isomorphs are merged.
+ */
+public class ParallelProduct implements Binary {
+
+  protected final StreamingBinary op;
+  protected boolean isParallel;
+
+  public ParallelProduct(StreamingBinary op) {
+
+    this.op = op;
+    isParallel = true;
+  }
+
+  /**
+   * Sets whether chunks of the left argument are processed in parallel.
+   * Default is true.
+   */
+  public void setParallel(boolean newIsParallel) {
+
+    isParallel = newIsParallel;
+  }
+
+  public boolean isParallel() {
+
+    return isParallel;
+  }
+
+  public Set<Graph> apply(final Set<Graph> left, final Set<Graph> right, final Parameters params) {
+
+    IsoFreeAccumulator accumulator = new IsoFreeAccumulator();
+    // split whichever argument is larger; the order of the factors is kept
+    final boolean splitLeft = left.size() >= right.size();
+    Set<Graph> split = splitLeft ? left : right;
+    // a few chunks per worker lets the pool balance graphs with many or few
+    // partners
+    int nChunks = isParallel ? Math.max(1, Math.min(split.size(), 4 * ForkJoinPool.getCommonPoolParallelism())) : 1;
+    final List<Set<Graph>> chunks = new ArrayList<Set<Graph>>(nChunks);
+    for (int i = 0; i < nChunks; i++) {
+      chunks.add(new HashSet<Graph>());
+    }
+    int count = 0;
+    for (Graph g : split) {
+      chunks.get(count % nChunks).add(g);
+      count++;
+    }
+    IntStream range = IntStream.range(0, nChunks);
+    if (nChunks > 1) {
+      range = range.parallel();
+    }
+    range.forEach(iChunk -> {
+      Set<Graph> chunk = chunks.get(iChunk);
+      GraphIterator product = splitLeft ? op.apply(new IteratorWrapper(chunk.iterator()), right, params)
+                                        : op.apply(new IteratorWrapper(left.iterator()), chunk, params);
+      accumulator.addAll(product);
+    });
+    return accumulator.getResult();
+  }
+}
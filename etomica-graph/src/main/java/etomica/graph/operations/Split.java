@@ -5,17 +5,20 @@
 package etomica.graph.operations;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
+import etomica.graph.iterators.ProductIterator;
 import etomica.graph.iterators.RangePermutator;
 import etomica.graph.model.Edge;
 import etomica.graph.model.Graph;
+import etomica.graph.model.GraphIterator;
 import etomica.graph.model.GraphList;
 import etomica.graph.model.Permutator;
 import etomica.graph.property.Property;
 
-public class Split implements Unary {
+public class Split implements Unary, StreamingUnary {
 
   protected final IsoFree isoFree = new IsoFree();
 
@@ -54,6 +57,27 @@ public class Split implements Unary {
     return result;
   }
 
+  /**
+   * Returns the split graphs as each graph from the argument is split.  As
+   * with the Set version, the argument is assumed to be isomorph-free, so
+   * only the graphs split from the same graph need to be checked for
+   * isomorphs.
+   */
+  public GraphIterator apply(GraphIterator argument, final Parameters params) {
+
+    assert (params instanceof SplitParameters);
+    return new ProductIterator(argument) {
+      protected Iterator<Graph> partners(Graph g) {
+        Set<Graph> newSet = apply(g, (SplitParameters) params);
+        return newSet.size() == 1 ? newSet.iterator() : isoFree.apply(newSet, null).iterator();
+      }
+
+      protected Graph product(Graph g, Graph partner) {
+        return partner;
+      }
+    };
+  }
+
   public Set<Graph> apply(Graph graph, SplitParameters params) {
     Property dp = params.getDiscardProperty();
 
@@ -0,0 +1,20 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.graph.operations;
+
+import java.util.Set;
+
+import etomica.graph.model.Graph;
+import etomica.graph.model.GraphIterator;
+
+/**
+ * A binary operation that consumes its left argument one graph at a time and
+ * produces its result lazily.  The right argument is traversed once for each
+ * graph on the left and is not modified.
+ */
+public interface StreamingBinary {
+
+  public GraphIterator apply(GraphIterator left, Set<Graph> right, Parameters params);
+}
@@ -0,0 +1,18 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.graph.operations;
+
+import etomica.graph.model.GraphIterator;
+
+/**
+ * A unary operation that consumes its argument one graph at a time and
+ * produces its result lazily, so that neither needs to be held in memory as a
+ * whole.  Graphs taken from the argument may be modified or returned as part
+ * of the result.
+ */
+public interface StreamingUnary {
+
+  public GraphIterator apply(GraphIterator argument, Parameters params);
+}
@@ -0,0 +1,90 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.graph;
+
+import java.util.Random;
+
+import etomica.graph.isomorphism.CanonicalForm;
+import etomica.graph.isomorphism.Match;
+import etomica.graph.iterators.DefaultIterator;
+import etomica.graph.iterators.filters.IsomorphismFilter;
+import etomica.graph.model.Graph;
+import etomica.graph.model.GraphFactory;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CanonicalFormTest {
+
+  @Test
+  public void testIsoFreeCounts() {
+
+    for (byte n = 2; n <= 6; n++) {
+      IsomorphismFilter filter = new IsomorphismFilter(new DefaultIterator(n));
+      int count = 0;
+      while (filter.hasNext()) {
+        filter.next();
+        count++;
+      }
+      assertEquals(Match.ISMORPHS_COUNT[n - 1], count);
+    }
+  }
+
+  @Test
+  public void testAgreesWithMatch() {
+
+    Random random = new Random(1);
+    for (int trial = 0; trial < 2000; trial++) {
+      byte n = (byte) (3 + random.nextInt(5));
+      Graph g1 = randomGraph(n, random);
+      Graph g2;
+      if (random.nextBoolean()) {
+        // relabelled copy of g1
+        int[] p = new int[n];
+        for (int i = 0; i < n; i++) {
+          p[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+          int k = random.nextInt(i + 1);
+          int t = p[i];
+          p[i] = p[k];
+          p[k] = t;
+        }
+        g2 = GraphFactory.createGraph(n);
+        for (byte i = 0; i < n; i++) {
+          g2.getNode((byte) p[i]).setColor(g1.getNode(i).getColor());
+          for (byte j = (byte) (i + 1); j < n; j++) {
+            if (g1.hasEdge(i, j)) {
+              g2.putEdge((byte) p[i], (byte) p[j]);
+              g2.getEdge((byte) p[i], (byte) p[j]).setColor(g1.getEdge(i, j).getColor());
+            }
+          }
+        }
+      }
+      else {
+        g2 = randomGraph(n, random);
+      }
+      boolean match = g1.getSignature().equals(g2.getSignature()) && Match.match(g1, g2, false);
+      assertEquals(match, CanonicalForm.of(g1).equals(CanonicalForm.of(g2)));
+    }
+  }
+
+  private static Graph randomGraph(byte n, Random random) {
+
+    Graph g = GraphFactory.createGraph(n);
+    for (byte i = 0; i < n; i++) {
+      g.getNode(i).setColor(random.nextInt(3) == 0 ? 'B' : 'A');
+    }
+    for (byte i = 0; i < n; i++) {
+      for (byte j = (byte) (i + 1); j < n; j++) {
+        if (random.nextBoolean()) {
+          g.putEdge(i, j);
+          g.getEdge(i, j).setColor(random.nextBoolean() ? 'A' : 'B');
+        }
+      }
+    }
+    return g;
+  }
+}
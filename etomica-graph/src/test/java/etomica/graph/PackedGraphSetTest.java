@@ -0,0 +1,189 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.graph;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import etomica.graph.iterators.DefaultIterator;
+import etomica.graph.model.Graph;
+import etomica.graph.model.GraphFactory;
+import etomica.graph.model.PackedGraphSet;
+import org.junit.jupiter.api.Test;
+
+import static etomica.graph.model.Metadata.TYPE_NODE_ROOT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PackedGraphSetTest {
+
+  @Test
+  public void testRoundTrip() {
+
+    Random random = new Random(1);
+    List<Graph> graphs = new ArrayList<Graph>();
+    for (byte n = 1; n <= 5; n++) {
+      DefaultIterator iterator = new DefaultIterator(n, (byte) 1);
+      while (iterator.hasNext()) {
+        Graph g = iterator.next();
+        for (byte i = 0; i < n; i++) {
+          g.getNode(i).setColor(random.nextBoolean() ? 'A' : 'B');
+        }
+        for (byte i = 0; i < n; i++) {
+          for (byte j = (byte) (i + 1); j < n; j++) {
+            if (g.hasEdge(i, j)) {
+              g.getEdge(i, j).setColor(random.nextBoolean() ? 'f' : 'e');
+            }
+          }
+        }
+        g.coefficient().setNumerator(random.nextInt(21) - 10);
+        g.coefficient().setDenominator(1 + random.nextInt(5));
+        g.setNumFactors(2);
+        g.addFactors(new int[]{random.nextInt(3), random.nextInt(3)});
+        graphs.add(g);
+      }
+    }
+    // start small so that the arrays have to grow
+    PackedGraphSet set = new PackedGraphSet(1);
+    set.addAll(graphs);
+    assertEquals(graphs.size(), set.size());
+    Iterator<Graph> packed = set.iterator();
+    for (int i = 0; i < graphs.size(); i++) {
+      Graph g = graphs.get(i);
+      Graph view = packed.next();
+      assertEquals(g.toString(), view.toString());
+      assertEquals(g.getSignature(), view.getSignature());
+      assertEquals(g.getNode((byte) 0).getType(), TYPE_NODE_ROOT);
+      assertEquals(view.getNode((byte) 0).getType(), set.getNodeType(i, (byte) 0));
+      assertEquals(g.edgeCount(), set.edgeCount(i));
+      assertEquals(g.coefficient().getValue(), set.getCoefficientValue(i));
+    }
+    set.trimToSize();
+    assertEquals(graphs.get(graphs.size() - 1).toString(), set.get(graphs.size() - 1).toString());
+  }
+
+  @Test
+  public void testLargeGraph() {
+
+    // more than 64 edge bits, so the edges span two words
+    byte n = 13;
+    Graph g = new DefaultIterator(n).next();
+    for (byte i = 0; i < n; i++) {
+      for (byte j = (byte) (i + 1); j < n; j++) {
+        if ((i + j) % 3 == 0) {
+          g.putEdge(i, j);
+        }
+      }
+    }
+    PackedGraphSet set = new PackedGraphSet();
+    set.add(g);
+    assertEquals(g.toString(), set.get(0).toString());
+  }
+
+  @Test
+  public void testDuplicates() {
+
+    Graph g = ring((byte) 4);
+    g.getNode((byte) 1).setColor('B');
+    g.getEdge((byte) 0, (byte) 1).setColor('f');
+    g.coefficient().setNumerator(3);
+    g.coefficient().setDenominator(2);
+    g.setNumFactors(2);
+    g.addFactors(new int[]{1, 2});
+
+    PackedGraphSet set = new PackedGraphSet();
+    assertTrue(set.add(g));
+    // a separate instance with the same content is the same element
+    assertFalse(set.add(g.copy()));
+    assertEquals(1, set.size());
+    assertTrue(set.contains(g.copy()));
+    assertEquals(0, set.indexOf(g.copy()));
+    // a view of an element is in the set
+    assertTrue(set.contains(set.get(0)));
+
+    Graph coefficient = g.copy();
+    coefficient.coefficient().setNumerator(5);
+    Graph edgeColor = g.copy();
+    edgeColor.getEdge((byte) 1, (byte) 2).setColor('f');
+    Graph nodeColor = g.copy();
+    nodeColor.getNode((byte) 2).setColor('B');
+    Graph factors = g.copy();
+    factors.addFactors(new int[]{1, 0});
+    Graph edges = g.copy();
+    edges.deleteEdge((byte) 2, (byte) 3);
+    Graph[] different = new Graph[]{coefficient, edgeColor, nodeColor, factors, edges};
+    for (Graph d : different) {
+      assertFalse(set.contains(d));
+      assertTrue(set.add(d));
+      assertFalse(set.add(d.copy()));
+    }
+    assertEquals(1 + different.length, set.size());
+    assertEquals(-1, set.indexOf(ring((byte) 3)));
+
+    // an unseen color cannot be in the set, and looking it up leaves the set alone
+    Graph unseen = g.copy();
+    unseen.getNode((byte) 3).setColor('Z');
+    assertFalse(set.contains(unseen));
+    assertEquals(1 + different.length, set.size());
+    assertEquals(g.toString(), set.get(0).toString());
+  }
+
+  @Test
+  public void testManyDuplicates() {
+
+    // enough graphs that the hash table has to grow
+    PackedGraphSet set = new PackedGraphSet(1);
+    List<Graph> graphs = new ArrayList<Graph>();
+    for (byte n = 1; n <= 5; n++) {
+      DefaultIterator iterator = new DefaultIterator(n);
+      while (iterator.hasNext()) {
+        graphs.add(iterator.next());
+      }
+    }
+    set.addAll(graphs);
+    for (Graph g : graphs) {
+      assertFalse(set.add(g.copy()));
+    }
+    assertEquals(graphs.size(), set.size());
+    for (int i = 0; i < graphs.size(); i++) {
+      assertEquals(i, set.indexOf(graphs.get(i)));
+    }
+  }
+
+  @Test
+  public void testReadOnlyView() {
+
+    PackedGraphSet set = new PackedGraphSet();
+    set.add(ring((byte) 4));
+    Graph view = set.get(0);
+    assertThrows(UnsupportedOperationException.class, () -> view.putEdge((byte) 0, (byte) 2));
+    assertThrows(UnsupportedOperationException.class, () -> view.deleteEdge((byte) 0, (byte) 1));
+    assertThrows(UnsupportedOperationException.class, () -> view.coefficient().setNumerator(2));
+    // nodes and edges are copies, so changing them does not change the set
+    view.getNode((byte) 0).setColor('B');
+    view.getEdge((byte) 0, (byte) 1).setColor('f');
+    assertTrue(set.contains(ring((byte) 4)));
+
+    Graph copy = view.copy();
+    copy.putEdge((byte) 0, (byte) 2);
+    assertEquals(5, copy.edgeCount());
+    assertEquals(4, view.edgeCount());
+    assertTrue(view.hasEdge((byte) 0, (byte) 1));
+    assertFalse(view.hasEdge((byte) 0, (byte) 2));
+  }
+
+  private static Graph ring(byte n) {
+
+    Graph g = GraphFactory.createGraph(n);
+    for (byte i = 0; i < n; i++) {
+      g.putEdge(i, (byte) ((i + 1) % n));
+    }
+    return g;
+  }
+}
@@ -0,0 +1,182 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package etomica.graph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import etomica.graph.isomorphism.CanonicalForm;
+import etomica.graph.iterators.DefaultIterator;
+import etomica.graph.iterators.IteratorWrapper;
+import etomica.graph.model.BitmapFactory;
+import etomica.graph.model.Graph;
+import etomica.graph.model.GraphFactory;
+import etomica.graph.model.GraphIterator;
+import etomica.graph.operations.IsoFree;
+import etomica.graph.operations.IsoFreeAccumulator;
+import etomica.graph.operations.MulFlexible;
+import etomica.graph.operations.MulFlexible.MulFlexibleParameters;
+import etomica.graph.operations.MulScalar;
+import etomica.graph.operations.MulScalarParameters;
+import etomica.graph.operations.ParallelProduct;
+import etomica.graph.model.impl.CoefficientImpl;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ParallelProductTest {
+
+  @Test
+  public void testMulFlexible() {
+
+    Set<Graph> a = rooted((byte) 3);
+    Set<Graph> b = rooted((byte) 2);
+    b.addAll(rooted((byte) 3));
+    MulFlexibleParameters mfp = MulFlexibleParameters.makeParameters(new char[0], (byte) 5);
+    MulFlexible mulFlex = new MulFlexible();
+    Set<Graph> expected = new IsoFree().apply(mulFlex.apply(a, b, mfp), null);
+    assertSame(expected, mulFlex.applyIsoFree(a, b, mfp));
+
+    ParallelProduct serial = new ParallelProduct(mulFlex);
+    serial.setParallel(false);
+    assertSame(expected, serial.apply(a, b, mfp));
+  }
+
+  @Test
+  public void testMixedRoots() {
+
+    // the same graph with one root point and with none differ only in node
+    // type, which the canonical form ignores; they must not be merged
+    Graph rooted = GraphFactory.createGraph((byte) 2, (byte) 1, BitmapFactory.createBitmap((byte) 2, false));
+    rooted.putEdge((byte) 0, (byte) 1);
+    Graph unrooted = GraphFactory.createGraph((byte) 2, (byte) 0, BitmapFactory.createBitmap((byte) 2, false));
+    unrooted.putEdge((byte) 0, (byte) 1);
+    IsoFreeAccumulator accumulator = new IsoFreeAccumulator();
+    accumulator.add(rooted.copy());
+    accumulator.add(unrooted.copy());
+    assertEquals(2, accumulator.size());
+    Set<Graph> both = new HashSet<Graph>();
+    both.add(rooted);
+    both.add(unrooted);
+    assertSame(new IsoFree().apply(both, null), accumulator.getResult());
+
+    // products of sets with different numbers of root points
+    Set<Graph> a = rooted((byte) 2);
+    a.addAll(unrooted((byte) 2));
+    Set<Graph> b = rooted((byte) 2);
+    b.addAll(unrooted((byte) 3));
+    MulFlexibleParameters mfp = MulFlexibleParameters.makeParameters(new char[0], (byte) 5);
+    MulFlexible mulFlex = new MulFlexible();
+    Set<Graph> expected = new IsoFree().apply(mulFlex.apply(a, b, mfp), null);
+    assertSame(expected, mulFlex.applyIsoFree(a, b, mfp));
+  }
+
+  @Test
+  public void testCancellation() {
+
+    // three labelings of the same graph, in increasing order.  The last two
+    // cancel, so that dropping them as soon as they cancel would leave the
+    // first one in the result instead of the greatest.
+    byte[][] edges = new byte[][]{{0, 1}, {1, 2}, {0, 2}};
+    Graph[] graphs = new Graph[3];
+    for (int i = 0; i < 3; i++) {
+      graphs[i] = GraphFactory.createGraph((byte) 3);
+      graphs[i].putEdge(edges[i][0], edges[i][1]);
+    }
+    Arrays.sort(graphs);
+    Graph greatest = graphs[2];
+    graphs[0].coefficient().setNumerator(2);
+    graphs[1].coefficient().setNumerator(1);
+    graphs[2].coefficient().setNumerator(-1);
+    int[][] orders = new int[][]{{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+    for (int[] order : orders) {
+      IsoFreeAccumulator accumulator = new IsoFreeAccumulator();
+      for (int i : order) {
+        accumulator.add(graphs[i].copy());
+      }
+      // the sum survives even when the pair cancels first, and the labeling
+      // kept is the greatest (as in IsomorphismFilter) whatever the order
+      assertEquals(1, accumulator.size());
+      Graph g = accumulator.getResult().iterator().next();
+      assertEquals("2", g.coefficient().toString());
+      assertEquals(0, g.compareTo(greatest));
+    }
+
+    IsoFreeAccumulator accumulator = new IsoFreeAccumulator();
+    accumulator.add(graphs[1].copy());
+    accumulator.add(graphs[2].copy());
+    assertEquals(0, accumulator.size());
+    assertEquals(0, accumulator.getResult().size());
+  }
+
+  @Test
+  public void testStreaming() {
+
+    Set<Graph> a = rooted((byte) 3);
+    Set<Graph> b = rooted((byte) 3);
+    MulFlexibleParameters mfp = MulFlexibleParameters.makeParameters(new char[0], (byte) 4);
+    MulFlexible mulFlex = new MulFlexible();
+    MulScalarParameters msp = new MulScalarParameters(new CoefficientImpl(-1, 2));
+    MulScalar mulScalar = new MulScalar();
+    Set<Graph> expected = new IsoFree().apply(mulScalar.apply(mulFlex.apply(a, b, mfp), msp), null);
+
+    GraphIterator iterator = new IsoFree().apply(mulScalar.apply(mulFlex.apply(new IteratorWrapper(a.iterator()), b, mfp), msp), null);
+    Set<Graph> streamed = new HashSet<Graph>();
+    while (iterator.hasNext()) {
+      streamed.add(iterator.next());
+    }
+    assertSame(expected, streamed);
+  }
+
+  /**
+   * Returns the isomorph-free graphs with the given number of nodes and one
+   * root node.
+   */
+  private static Set<Graph> rooted(byte n) {
+
+    Set<Graph> set = new HashSet<Graph>();
+    DefaultIterator iterator = new DefaultIterator(n, (byte) 1);
+    while (iterator.hasNext()) {
+      set.add(iterator.next());
+    }
+    return new IsoFree().apply(set, null);
+  }
+
+  /**
+   * Returns the isomorph-free graphs with the given number of nodes and no
+   * root nodes.
+   */
+  private static Set<Graph> unrooted(byte n) {
+
+    Set<Graph> set = new HashSet<Graph>();
+    DefaultIterator iterator = new DefaultIterator(n, (byte) 0);
+    while (iterator.hasNext()) {
+      set.add(iterator.next());
+    }
+    return new IsoFree().apply(set, null);
+  }
+
+  private static void assertSame(Set<Graph> expected, Set<Graph> actual) {
+
+    assertEquals(coefficients(expected), coefficients(actual));
+  }
+
+  /**
+   * Returns the coefficient of each graph, keyed by its signature and
+   * canonical form (graphs IsoFree would not merge have different keys).
+   */
+  private static Map<String, String> coefficients(Set<Graph> set) {
+
+    Map<String, String> map = new HashMap<String, String>();
+    for (Graph g : set) {
+      String old = map.put(g.getSignature() + " " + CanonicalForm.of(g), g.coefficient().toString());
+      assertEquals(null, old);
+    }
+    return map;
+  }
+}
@@ -5,6 +5,7 @@
 package g3dsys.control;
 
 import g3dsys.images.Ball;
+import g3dsys.images.BallBatch;
 import g3dsys.images.Bond;
 import g3dsys.images.Figure;
 import g3dsys.images.ImageShell;
@@ -80,7 +81,7 @@ class FigureManager {
   /** Dispatches draw commands to all stored Figures */
   public synchronized void draw() {
     for (int j=0; j<idMax+1; j++) {
-      if(figs[j] instanceof Ball && wireframe) continue;
+      if((figs[j] instanceof Ball || figs[j] instanceof BallBatch) && wireframe) continue;
       figs[j].draw();
     }
   }
@@ -0,0 +1,153 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+
+package g3dsys.images;
+
+import org.jmol.g3d.Graphics3D;
+import org.jmol.util.Point3f;
+import org.jmol.util.Point3i;
+
+/**
+ * Class for drawing many spheres (atoms) as a single Figure.  Positions,
+ * diameters and colors are kept in packed arrays instead of a Ball per
+ * sphere, so large systems can be drawn without the overhead of one Figure
+ * per atom.
+ * <p>
+ * Spheres outside the display (or outside the slab/depth planes) are
+ * skipped before they are rasterized.  Spheres no larger than the level of
+ * detail diameter (in pixels) are drawn as flat discs, which is cheaper for
+ * spheres more than a few pixels across.  This is off by default.
+ * <p>
+ * Frames are filled by one thread (beginFrame, add, endFrame) while the
+ * previous frame is drawn by another.  Three buffers are used, so neither
+ * thread waits for the other: the thread filling a frame never touches the
+ * frame being drawn or the latest complete frame.
+ */
+
+public class BallBatch extends Figure {
+
+  private static class Frame {
+    float[] xyz = new float[0];
+    float[] d = new float[0];
+    short[] c = new short[0];
+    int n;
+  }
+
+  private final Frame[] frames = {new Frame(), new Frame(), new Frame()};
+  private Frame filling, latest, drawing;
+  private boolean pending;
+  private int lodDiameter = 0;
+  private final Point3f p = Point3f.new3(0,0,0);
+  private final Point3i s = Point3i.new3(0,0,0);
+
+  public BallBatch(g3dsys.control.G3DSys g) {
+    super(g);
+    latest = frames[0];
+  }
+
+  /**
+   * Starts a new frame, with room for n spheres.  Spheres are then added
+   * with add and the frame is made available for drawing by endFrame.
+   */
+  public void beginFrame(int n) {
+    synchronized (this) {
+      for (int i=0; i<frames.length; i++) {
+        if (frames[i] != latest && frames[i] != drawing) {
+          filling = frames[i];
+          break;
+        }
+      }
+    }
+    if (filling.d.length < n) {
+      filling.xyz = new float[3*n];
+      filling.d = new float[n];
+      filling.c = new short[n];
+    }
+    filling.n = 0;
+  }
+
+  /**
+   * Adds a sphere to the frame being filled.  No more than the number of
+   * spheres given to beginFrame may be added.
+   */
+  public void add(float x, float y, float z, float diameter, short color) {
+    Frame f = filling;
+    int i = f.n++;
+    f.xyz[3*i] = x;
+    f.xyz[3*i+1] = y;
+    f.xyz[3*i+2] = z;
+    f.d[i] = diameter;
+    f.c[i] = color;
+  }
+
+  /**
+   * Makes the frame being filled the one that will be drawn.
+   */
+  public synchronized void endFrame() {
+    latest = filling;
+    filling = null;
+    pending = true;
+  }
+
+  /**
+   * @return true if the latest frame has not been drawn yet; a thread
+   * filling frames can skip a frame in that case
+   */
+  public synchronized boolean isFramePending() { return pending; }
+
+  /** @return the number of spheres in the latest frame */
+  public synchronized int getCount() { return latest.n; }
+
+  /**
+   * Sets the level of detail diameter: spheres no larger than this (in
+   * pixels) are drawn as flat discs.  0 (the default) draws all spheres
+   * shaded.
+   */
+  public void setLODDiameter(int d) { lodDiameter = d; }
+  /** @return the level of detail diameter, in pixels */
+  public int getLODDiameter() { return lodDiameter; }
+
+  public void draw() {
+    draw(0, 0, 0);
+  }
+
+  /**
+   * Draws the latest frame with all spheres shifted by (dx, dy, dz); used
+   * for drawing periodic images.
+   */
+  public void draw(float dx, float dy, float dz) {
+    if(!drawme) return;
+    Frame f;
+    synchronized (this) {
+      f = latest;
+      drawing = f;
+      pending = false;
+    }
+    Graphics3D g3d = _gsys.getG3D();
+    float[] xyz = f.xyz;
+    boolean first = true, colorOK = false;
+    short lastColor = 0;
+    for (int i=0; i<f.n; i++) {
+      p.set(xyz[3*i]+dx, xyz[3*i+1]+dy, xyz[3*i+2]+dz);
+      _gsys.screenSpace(p, s);
+      if (g3d.isClippedZ(s.z)) continue;
+      int diam = _gsys.perspective(s.z, f.d[i]);
+      if (g3d.isClippedXY(diam, s.x, s.y)) continue;
+      short c = f.c[i];
+      if (first || c != lastColor) {
+        colorOK = g3d.setColix(c);
+        lastColor = c;
+        first = false;
+      }
+      if (!colorOK) continue;
+      if (diam <= lodDiameter) {
+        g3d.fillSphereFlat(diam, s.x, s.y, s.z);
+      }
+      else {
+        g3d.fillSphereXYZ(diam, s.x, s.y, s.z);
+      }
+    }
+  }
+
+}
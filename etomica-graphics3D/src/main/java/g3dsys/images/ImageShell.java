@@ -138,6 +138,10 @@ public class ImageShell extends Figure {
           _gsys.screenSpace(p, s);
           g3d.fillSphereI(_gsys.perspective(s.z, ((Ball)f).getD()), s);
         }
+        else if(f instanceof BallBatch) {
+          if(wireframe) continue; //skip spheres in wireframe mode
+          ((BallBatch)f).draw(dx, dy, dz);
+        }
         else if(f instanceof g3dsys.images.Box) {
         }
         else if(f instanceof g3dsys.images.Line) {
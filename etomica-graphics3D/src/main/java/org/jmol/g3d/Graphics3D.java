@@ -691,6 +691,73 @@ final public class Graphics3D extends GData {
           null, null, -1, null, addAllPixels);
   }
 
+  /**
+   * fills a sphere as a flat disc in the sphere's normal shade, at the depth
+   * of its center.  This skips the per-pixel shading and depth of
+   * fillSphereXYZ, which makes it cheaper for spheres more than a few pixels
+   * across.  Spheres larger than MAX_FLAT_DIAMETER, or translucent ones, are
+   * drawn by fillSphereXYZ.
+   *
+   * @param diameter pixel count
+   * @param x center x
+   * @param y center y
+   * @param z center z
+   */
+  public void fillSphereFlat(int diameter, int x, int y, int z) {
+    if (diameter > MAX_FLAT_DIAMETER || !addAllPixels) {
+      fillSphereXYZ(diameter, x, y, z);
+      return;
+    }
+    switch (diameter) {
+    case 1:
+      plotPixelClippedArgb(argbCurrent, x, y, z);
+      return;
+    case 0:
+      return;
+    }
+    if (isClippedZ(z) || isClippedXY(diameter, x, y))
+      return;
+    int argb = (shadesCurrent == null ? argbCurrent
+        : shadesCurrent[Shader.shadeIndexNormal]);
+    int[] halfWidths = flatHalfWidths[diameter];
+    int r = diameter >> 1;
+    // plain opaque pass: write the buffers directly
+    boolean direct = !isPass2 && pixel.getClass() == Pixelator.class;
+    for (int dy = -r; dy <= r; dy++) {
+      int yy = y + dy;
+      if (yy < 0 || yy >= height)
+        continue;
+      int half = halfWidths[dy + r];
+      int x0 = Math.max(x - half, 0);
+      int x1 = Math.min(x + half, width - 1);
+      int offset = yy * width;
+      for (int i = offset + x0, iEnd = offset + x1; i <= iEnd; i++) {
+        if (z < zbuf[i]) {
+          if (direct) {
+            zbuf[i] = z;
+            pbuf[i] = argb;
+          } else {
+            addPixel(i, z, argb);
+          }
+        }
+      }
+    }
+  }
+
+  private final static int MAX_FLAT_DIAMETER = 32;
+  // half width of each row of a flat disc, indexed by diameter and row
+  private final static int[][] flatHalfWidths = new int[MAX_FLAT_DIAMETER + 1][];
+  static {
+    for (int d = 0; d <= MAX_FLAT_DIAMETER; d++) {
+      int r = d >> 1;
+      int r2 = r * r + r;
+      flatHalfWidths[d] = new int[2 * r + 1];
+      for (int dy = -r; dy <= r; dy++) {
+        flatHalfWidths[d][dy + r] = (int) Math.sqrt(r2 - dy * dy);
+      }
+    }
+  }
+
   private int saveAmbient, saveDiffuse;
 
   public void volumeRender(boolean TF) {
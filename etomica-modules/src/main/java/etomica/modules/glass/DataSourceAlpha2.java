@@ -25,9 +25,11 @@ public class DataSourceAlpha2 implements IDataSource, ConfigurationStorage.Confi
     protected double[] msdSum, m4dSum;
     protected final DataTag tTag, tag;
     protected long[] nSamples;
+    protected final MultipleTauCorrelator correlator;
 
     public DataSourceAlpha2(ConfigurationStorage configStorage) {
         this.configStorage = configStorage;
+        correlator = configStorage instanceof MultipleTauCorrelator ? (MultipleTauCorrelator) configStorage : null;
         msdSum = new double[0];
         m4dSum = new double[0];
         nSamples = new long[0];
@@ -62,7 +64,7 @@ public class DataSourceAlpha2 implements IDataSource, ConfigurationStorage.Confi
     public IData getData() {
         if (configStorage.getLastConfigIndex() < 1) return data;
         double[] y = data.getData();
-        int nAtoms = configStorage.getSavedConfig(0).length;
+        int nAtoms = configStorage.getBox().getLeafList().size();
         // (3/5) for 3D; (1/2) for 2D
         double fac = configStorage.getBox().getSpace().D() == 2 ? 0.5 : 0.6;
         for (int i = 0; i < msdSum.length; i++) {
@@ -85,14 +87,19 @@ public class DataSourceAlpha2 implements IDataSource, ConfigurationStorage.Confi
     public void newConfigruation() {
         reset(); // reallocates if needed
         long step = configStorage.getSavedSteps()[0];
-        Vector[] positions = configStorage.getSavedConfig(0);
+        Vector[] positions = correlator == null ? configStorage.getSavedConfig(0) : null;
         for (int i = 1; i < msdSum.length; i++) {
             if (step % (1L << (i - 1)) == 0) {
-                Vector[] iPositions = configStorage.getSavedConfig(i);
-                for (int j = 0; j < positions.length; j++) {
-                    double d2 = positions[j].Mv1Squared(iPositions[j]);
-                    msdSum[i - 1] += d2;
-                    m4dSum[i - 1] += d2 * d2;
+                if (correlator != null) {
+                    msdSum[i - 1] += correlator.getMSDSum(i, null);
+                    m4dSum[i - 1] += correlator.getM4DSum(i, null);
+                } else {
+                    Vector[] iPositions = configStorage.getSavedConfig(i);
+                    for (int j = 0; j < positions.length; j++) {
+                        double d2 = positions[j].Mv1Squared(iPositions[j]);
+                        msdSum[i - 1] += d2;
+                        m4dSum[i - 1] += d2 * d2;
+                    }
                 }
                 nSamples[i - 1]++;
             }
@@ -34,9 +34,13 @@ public class DataSourceFs implements IDataSource, ConfigurationStorage.Configura
     protected Vector dr, q;
     protected AtomType type;
     protected Space space;
+    protected final MultipleTauCorrelator correlator;
+    protected int qIndex;
 
     public DataSourceFs(ConfigurationStorage configStorage) {
         this.configStorage = configStorage;
+        correlator = configStorage instanceof MultipleTauCorrelator ? (MultipleTauCorrelator) configStorage : null;
+        qIndex = -1;
         space = configStorage.getBox().getSpace();
         fsSum = new double[0];
         nSamples = new long[0];
@@ -53,6 +57,12 @@ public class DataSourceFs implements IDataSource, ConfigurationStorage.Configura
         for (int i = 0; i < q.getD(); i++) {
             this.q.setX(i, q.getX(i));
         }
+        if (correlator != null && qIndex >= 0) {
+            // stop the correlator from computing the old wave vector
+            correlator.removeWaveVector(qIndex);
+        }
+        // registered with the correlator at the next configuration
+        qIndex = -1;
     }
 
 
@@ -84,7 +94,7 @@ public class DataSourceFs implements IDataSource, ConfigurationStorage.Configura
     public IData getData() {
         if (configStorage.getLastConfigIndex() < 1) return data;
         double[] y = data.getData();
-        int nAtoms = configStorage.getSavedConfig(0).length;
+        int nAtoms = configStorage.getBox().getLeafList().size();
         if(type != null){
             Box box = configStorage.getBox();
             nAtoms = box.getNMolecules(type.getSpecies());
@@ -114,17 +124,24 @@ public class DataSourceFs implements IDataSource, ConfigurationStorage.Configura
     public void newConfigruation() {
         reset(); // reallocates if needed
         long step = configStorage.getSavedSteps()[0];
-        Vector[] positions = configStorage.getSavedConfig(0);
+        if (correlator != null && qIndex < 0) {
+            qIndex = correlator.addWaveVector(q);
+        }
+        Vector[] positions = correlator == null ? configStorage.getSavedConfig(0) : null;
         Box box = configStorage.getBox();
         IAtomList atoms = box.getLeafList();
         for (int i = 1; i < fsSum.length; i++) {
             if (step % (1L << (i - 1)) == 0) {
-                Vector[] iPositions = configStorage.getSavedConfig(i);
-                for (int j = 0; j < positions.length; j++) {
-                    IAtom jAtom = atoms.get(j);
-                    if(type == null || jAtom.getType() == type){
-                        dr.Ev1Mv2(positions[j], iPositions[j]);
-                        fsSum[i-1] += Math.cos(q.dot(dr));
+                if (correlator != null) {
+                    fsSum[i-1] += correlator.getFsSum(i, qIndex, type);
+                } else {
+                    Vector[] iPositions = configStorage.getSavedConfig(i);
+                    for (int j = 0; j < positions.length; j++) {
+                        IAtom jAtom = atoms.get(j);
+                        if(type == null || jAtom.getType() == type){
+                            dr.Ev1Mv2(positions[j], iPositions[j]);
+                            fsSum[i-1] += Math.cos(q.dot(dr));
+                        }
                     }
                 }
                 nSamples[i - 1]++;
@@ -30,6 +30,7 @@ public class DataSourceMSD implements IDataSource, ConfigurationStorage.Configur
     protected long[] nSamples;
     protected final AtomType type;
     protected List<MSDSink> msdSinks;
+    protected final MultipleTauCorrelator correlator;
 
     public DataSourceMSD(ConfigurationStorage configStorage) {
         this(configStorage, null);
@@ -38,6 +39,7 @@ public class DataSourceMSD implements IDataSource, ConfigurationStorage.Configur
     public DataSourceMSD(ConfigurationStorage configStorage, AtomType type) {
         this.configStorage = configStorage;
         this.type = type;
+        correlator = configStorage instanceof MultipleTauCorrelator ? (MultipleTauCorrelator) configStorage : null;
         msdSum = new double[0];
         msd2Sum = new double[0];
         msdSumBlock = new double[0];
@@ -105,17 +107,22 @@ public class DataSourceMSD implements IDataSource, ConfigurationStorage.Configur
         reset(); // reallocates if needed
         int blockSize = 1;
         long step = configStorage.getSavedSteps()[0];
-        Vector[] positions = configStorage.getSavedConfig(0);
         IAtomList atoms = configStorage.getBox().getLeafList();
         for (int i = 1; i <= msdSum.length; i++) {
             if (step % (1L << (i - 1)) == 0) {
-                Vector[] iPositions = configStorage.getSavedConfig(i);
                 double iSum = 0;
                 int iSamples = 0;
-                for (int j = 0; j < positions.length; j++) {
-                    if (type != null && atoms.get(j).getType() != type) continue;
-                    iSum += positions[j].Mv1Squared(iPositions[j]);
-                    iSamples++;
+                if (correlator != null) {
+                    iSum = correlator.getMSDSum(i, type);
+                    iSamples = correlator.getAtomCount(type);
+                } else {
+                    Vector[] positions = configStorage.getSavedConfig(0);
+                    Vector[] iPositions = configStorage.getSavedConfig(i);
+                    for (int j = 0; j < positions.length; j++) {
+                        if (type != null && atoms.get(j).getType() != type) continue;
+                        iSum += positions[j].Mv1Squared(iPositions[j]);
+                        iSamples++;
+                    }
                 }
                 double iAvg = iSum/iSamples;
                 msdSumBlock[i-1] += iAvg;
@@ -32,9 +32,11 @@ public class DataSourceVAC implements IDataSource, ConfigurationStorage.Configur
     protected long[] nSamples;
     protected AtomType type;
     protected Space space;
+    protected final MultipleTauCorrelator correlator;
 
     public DataSourceVAC(ConfigurationStorage configStorage) {
         this.configStorage = configStorage;
+        correlator = configStorage instanceof MultipleTauCorrelator ? (MultipleTauCorrelator) configStorage : null;
         space = configStorage.getBox().getSpace();
         vacSum = new double[0];
         vac2Sum = new double[0];
@@ -74,7 +76,7 @@ public class DataSourceVAC implements IDataSource, ConfigurationStorage.Configur
         if (configStorage.getLastConfigIndex() < 1) return data;
         double[] y = data.getData();
         double[] yErr = errData.getData();
-        int nAtoms = configStorage.getSavedConfig(0).length;
+        int nAtoms = configStorage.getBox().getLeafList().size();
         if(type != null){
             Box box = configStorage.getBox();
             nAtoms = box.getNMolecules(type.getSpecies());
@@ -106,18 +108,23 @@ public class DataSourceVAC implements IDataSource, ConfigurationStorage.Configur
     public void newConfigruation() {
         reset(); // reallocates if needed
         long step = configStorage.getSavedSteps()[0];
-        Vector[] velocities = configStorage.getSavedVel(0);
+        Vector[] velocities = correlator == null ? configStorage.getSavedVel(0) : null;
         Box box = configStorage.getBox();
         IAtomList atoms = box.getLeafList();
         for (int i = 1; i < vacSum.length; i++) {
             if (step % (1L << (i - 1)) == 0) {
-                Vector[] iVelocities = configStorage.getSavedVel(i);
-                for (int j = 0; j < velocities.length; j++) {
-                    IAtom jAtom = atoms.get(j);
-                    if(type == null || jAtom.getType() == type){
-                        double vaci = velocities[j].dot(iVelocities[j]);
-                        vacSum[i-1] += vaci;
-                        vac2Sum[i-1] += vaci*vaci;
+                if (correlator != null) {
+                    vacSum[i-1] += correlator.getVACSum(i, type);
+                    vac2Sum[i-1] += correlator.getVAC2Sum(i, type);
+                } else {
+                    Vector[] iVelocities = configStorage.getSavedVel(i);
+                    for (int j = 0; j < velocities.length; j++) {
+                        IAtom jAtom = atoms.get(j);
+                        if(type == null || jAtom.getType() == type){
+                            double vaci = velocities[j].dot(iVelocities[j]);
+                            vacSum[i-1] += vaci;
+                            vac2Sum[i-1] += vaci*vaci;
+                        }
                     }
                 }
                 nSamples[i - 1]++;
@@ -162,7 +162,8 @@ public class GlassProd {
 
 
         //MSD
-        ConfigurationStorage configStorageMSD = new ConfigurationStorage(sim.box, ConfigurationStorage.StorageType.MSD);
+        ConfigurationStorage configStorageMSD = params.doMultipleTau ? new MultipleTauCorrelator(sim.box)
+                : new ConfigurationStorage(sim.box, ConfigurationStorage.StorageType.MSD);
         configStorageMSD.setEnabled(true);
         DataSourceMSD meterMSD = new DataSourceMSD(configStorageMSD);
         configStorageMSD.addListener(meterMSD);
@@ -206,11 +207,20 @@ public class GlassProd {
 
         AccumulatorAverageFixed accSFac = new AccumulatorAverageFixed(1);  // just average, no uncertainty
         accSFac.setPushInterval(1);
-        MeterStructureFactor meterSFac = new MeterStructureFactor(sim.getSpace(), sim.box, 15);
+        double vB = sim.getSpace().powerD(sim.sigmaB);
+        IDataSource meterSFac;
+        if (params.sfacFFT) {
+            // direct summation is O(N Nk); use the mesh for large systems
+            MeterStructureFactorFFT meterSFacFFT = new MeterStructureFactorFFT(sim.getSpace(), sim.box, 15);
+            meterSFacFFT.setAtomTypeFactor(sim.speciesB.getAtomType(0), vB);
+            meterSFac = meterSFacFFT;
+        } else {
+            MeterStructureFactor meterSFacDirect = new MeterStructureFactor(sim.getSpace(), sim.box, 15);
+            meterSFacDirect.setAtomTypeFactor(sim.speciesB.getAtomType(0), vB);
+            meterSFac = meterSFacDirect;
+        }
         DataPumpListener pumpSFac = new DataPumpListener(meterSFac, accSFac, 1000);
         sim.integrator.getEventManager().addListener(pumpSFac);
-        double vB = sim.getSpace().powerD(sim.sigmaB);
-        meterSFac.setAtomTypeFactor(sim.speciesB.getAtomType(0), vB);
 
 
         sim.integrator.getEventManager().addListener(configStorageMSD);
@@ -232,7 +242,7 @@ public class GlassProd {
         DataGroup dataSF = (DataGroup)accSFac.getData();
         IData dataSFAvg = dataSF.getData(accSFac.AVERAGE.index);
         int nSF  = dataSFAvg.getLength();
-        IData xData = meterSFac.getIndependentData(0);
+        IData xData = ((DataSourceIndependent) meterSFac).getIndependentData(0);
         for(int i=0;i<nSF; i++){
             System.out.println(xData.getValue(i) + " "+ dataSFAvg.getValue(i));
         }
@@ -418,5 +428,7 @@ public class GlassProd {
         public int log2StepMin = 5;
         public double temperatureMelt = 0;
         public double qx = 7.0;
+        public boolean sfacFFT = false;
+        public boolean doMultipleTau = false;
     }
 }
\ No newline at end of file
@@ -0,0 +1,452 @@
+/* This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/. */
+package etomica.modules.glass;
+
+import etomica.atom.AtomType;
+import etomica.atom.IAtomKinetic;
+import etomica.atom.IAtomList;
+import etomica.box.Box;
+import etomica.integrator.Integrator;
+import etomica.integrator.IntegratorEvent;
+import etomica.integrator.IntegratorMD;
+import etomica.space.Vector;
+
+import java.util.Arrays;
+
+/**
+ * Configuration storage for MSD-style (log2) time correlations that keeps
+ * each level as a packed array of unwrapped coordinates (and velocities)
+ * rather than as Vector objects.  Level j (j >= 1) holds the configuration
+ * from the most recent step that is a multiple of 2^(j-1), so memory is
+ * O(N log T).
+ * <p>
+ * Each time a configuration is stored, the displacements for all lags that
+ * are due are visited once, and the sums needed for the MSD, alpha2, the
+ * velocity autocorrelation and the self intermediate scattering function (for
+ * each registered wave vector) are accumulated for all atoms and for each
+ * atom type.  Listeners (DataSourceMSD, DataSourceAlpha2, DataSourceVAC and
+ * DataSourceFs) then read the sums rather than walking the configurations
+ * themselves.
+ * <p>
+ * Consumers that need the configurations themselves can still call
+ * getSavedConfig and getSavedVel; the Vectors are filled from the packed
+ * arrays on demand (in the same frame as ConfigurationStorage uses).
+ */
+public class MultipleTauCorrelator extends ConfigurationStorage {
+
+    protected final int D;
+    protected int numAtoms;
+    // levels[0] is the current configuration; all positions are unwrapped
+    protected double[][] levels, levelVels;
+    protected double[] lastWrapped;
+    protected int[] atomSlot;
+    protected int[] slotCount;
+    // null for unused slots; waveVectorUsers counts the registrations of each
+    protected double[][] waveVectors;
+    protected int[] waveVectorUsers;
+    protected long correlatedStep;
+    // incremented whenever the stored configurations change
+    protected long version;
+
+    // sums from the latest configuration, indexed by [lag][slot], where
+    // slot 0 is all atoms and slot t+1 is atoms with type index t
+    protected double[][] d2Sum, d4Sum, vacSum, vac2Sum;
+    // [lag][wave vector][slot]
+    protected double[][][] fsSum;
+    protected boolean[] lagSampled;
+
+    protected Vector[][] materialized, materializedVel;
+    protected long[] materializedVersion, materializedVelVersion;
+
+    public MultipleTauCorrelator(Box box) {
+        this(box, true);
+    }
+
+    public MultipleTauCorrelator(Box box, boolean doVelocities) {
+        super(box, StorageType.MSD);
+        D = box.getSpace().D();
+        doVel = doVelocities;
+        waveVectors = new double[0][];
+        waveVectorUsers = new int[0];
+        correlatedStep = -1;
+    }
+
+    public void reset() {
+        super.reset();
+        levels = null;
+        levelVels = null;
+        correlatedStep = -1;
+    }
+
+    /**
+     * Registers a wave vector for the self intermediate scattering function
+     * and returns its index.  Registering a wave vector that is already
+     * registered returns the existing index.  If this is called while
+     * listeners are being notified, the sums for the current configuration
+     * are computed right away.  Each call should be matched by a call to
+     * removeWaveVector once the wave vector is no longer needed.
+     */
+    public int addWaveVector(Vector q) {
+        double[] qArray = new double[D];
+        q.assignTo(qArray);
+        int free = -1;
+        for (int i = 0; i < waveVectors.length; i++) {
+            if (Arrays.equals(waveVectors[i], qArray)) {
+                waveVectorUsers[i]++;
+                return i;
+            }
+            if (waveVectors[i] == null && free < 0) free = i;
+        }
+        if (free < 0) {
+            free = waveVectors.length;
+            waveVectors = Arrays.copyOf(waveVectors, free + 1);
+            waveVectorUsers = Arrays.copyOf(waveVectorUsers, free + 1);
+        }
+        waveVectors[free] = qArray;
+        waveVectorUsers[free] = 1;
+        if (correlatedStep >= 0 && correlatedStep == savedSteps[0]) {
+            correlateFs(free);
+        }
+        return free;
+    }
+
+    /**
+     * Drops one registration of the wave vector with the given index (from
+     * addWaveVector).  Once all registrations are dropped, the wave vector is
+     * no longer correlated and its index may be reused.
+     */
+    public void removeWaveVector(int qIndex) {
+        if (qIndex >= waveVectors.length || waveVectors[qIndex] == null) {
+            throw new IllegalArgumentException("wave vector " + qIndex + " is not registered");
+        }
+        waveVectorUsers[qIndex]--;
+        if (waveVectorUsers[qIndex] == 0) {
+            waveVectors[qIndex] = null;
+        }
+    }
+
+    /**
+     * Returns the number of distinct wave vectors currently registered.
+     */
+    public int getWaveVectorCount() {
+        int n = 0;
+        for (double[] q : waveVectors) {
+            if (q != null) n++;
+        }
+        return n;
+    }
+
+    @Override
+    public void integratorStepStarted(IntegratorEvent e) {
+        if (!enabled) return;
+        intervalCountdown--;
+        if (intervalCountdown > 0) return;
+        intervalCountdown = interval;
+        IAtomList atoms = box.getLeafList();
+        if (levels == null) {
+            numAtoms = atoms.size();
+            levels = new double[1][numAtoms * D];
+            levelVels = new double[1][doVel ? numAtoms * D : 0];
+            lastWrapped = new double[numAtoms * D];
+            initSlots(atoms);
+        } else if (stepCount == 1) {
+            savedSteps[1] = savedSteps[0];
+            savedTimes[1] = savedTimes[0];
+            addLevel();
+            System.arraycopy(levels[0], 0, levels[1], 0, levels[0].length);
+            System.arraycopy(levelVels[0], 0, levelVels[1], 0, levelVels[0].length);
+        }
+
+        savedSteps[0] = stepCount;
+        Integrator integrator = e.getIntegrator();
+        savedTimes[0] = integrator instanceof IntegratorMD ? ((IntegratorMD) integrator).getCurrentTime() : integrator.getStepCount();
+        Vector boxDim = box.getBoundary().getBoxSize();
+        double[] x = levels[0];
+        double[] v = levelVels[0];
+        for (int i = 0; i < numAtoms; i++) {
+            Vector p = atoms.get(i).getPosition();
+            for (int k = 0; k < D; k++) {
+                double pk = p.getX(k);
+                if (stepCount == 0) {
+                    x[i * D + k] = pk;
+                } else {
+                    // unwrap with respect to the previous configuration
+                    double L = boxDim.getX(k);
+                    double d = pk - lastWrapped[i * D + k];
+                    x[i * D + k] += d - Math.round(d / L) * L;
+                }
+                lastWrapped[i * D + k] = pk;
+            }
+            if (doVel) {
+                Vector vi = ((IAtomKinetic) atoms.get(i)).getVelocity();
+                for (int k = 0; k < D; k++) {
+                    v[i * D + k] = vi.getX(k);
+                }
+            }
+        }
+
+        version++;
+        correlate();
+        for (ConfigurationStorageListener csl : listeners) {
+            csl.newConfigruation();
+        }
+
+        // copy our new config forward to each power of 2 that divides the step
+        for (int j = 1, d = 1; d < stepCount + 1 && stepCount % d == 0; j++, d *= 2) {
+            if (levels.length <= j + 1) {
+                // the top level always keeps the first configuration
+                addLevel();
+                savedSteps[j + 1] = savedSteps[j];
+                savedTimes[j + 1] = savedTimes[j];
+                double[] top = levels[j + 1];
+                levels[j + 1] = levels[j];
+                levels[j] = top;
+                double[] topVel = levelVels[j + 1];
+                levelVels[j + 1] = levelVels[j];
+                levelVels[j] = topVel;
+            }
+            savedSteps[j] = savedSteps[0];
+            savedTimes[j] = savedTimes[0];
+            System.arraycopy(levels[0], 0, levels[j], 0, levels[0].length);
+            System.arraycopy(levelVels[0], 0, levelVels[j], 0, levelVels[0].length);
+        }
+        version++;
+
+        stepCount++;
+    }
+
+    protected void addLevel() {
+        int n = levels.length;
+        levels = Arrays.copyOf(levels, n + 1);
+        levels[n] = new double[numAtoms * D];
+        levelVels = Arrays.copyOf(levelVels, n + 1);
+        levelVels[n] = new double[doVel ? numAtoms * D : 0];
+    }
+
+    protected void initSlots(IAtomList atoms) {
+        int maxType = -1;
+        for (int i = 0; i < numAtoms; i++) {
+            maxType = Math.max(maxType, atoms.get(i).getType().getIndex());
+        }
+        slotCount = new int[maxType + 2];
+        atomSlot = new int[numAtoms];
+        for (int i = 0; i < numAtoms; i++) {
+            atomSlot[i] = atoms.get(i).getType().getIndex() + 1;
+            slotCount[atomSlot[i]]++;
+        }
+        slotCount[0] = numAtoms;
+    }
+
+    /**
+     * Visits each atom once for each lag that is due at this step and
+     * accumulates all of the sums.
+     */
+    protected void correlate() {
+        int nLags = levels.length;
+        int nSlots = slotCount.length;
+        int nq = waveVectors.length;
+        if (d2Sum == null || d2Sum.length < nLags || fsSum[0].length != nq) {
+            d2Sum = new double[nLags][nSlots];
+            d4Sum = new double[nLags][nSlots];
+            vacSum = new double[nLags][nSlots];
+            vac2Sum = new double[nLags][nSlots];
+            fsSum = new double[nLags][nq][nSlots];
+            lagSampled = new boolean[nLags];
+        }
+        double[] x0 = levels[0];
+        double[] v0 = levelVels[0];
+        double[] dr = new double[D];
+        for (int j = 1; j < nLags; j++) {
+            lagSampled[j] = stepCount % (1L << (j - 1)) == 0;
+            if (!lagSampled[j]) continue;
+            double[] xj = levels[j];
+            double[] vj = levelVels[j];
+            double[] d2 = d2Sum[j], d4 = d4Sum[j], vac = vacSum[j], vac2 = vac2Sum[j];
+            double[][] fs = fsSum[j];
+            Arrays.fill(d2, 0);
+            Arrays.fill(d4, 0);
+            Arrays.fill(vac, 0);
+            Arrays.fill(vac2, 0);
+            for (double[] f : fs) Arrays.fill(f, 0);
+            for (int i = 0; i < numAtoms; i++) {
+                int s = atomSlot[i];
+                double r2 = 0;
+                for (int k = 0; k < D; k++) {
+                    dr[k] = x0[i * D + k] - xj[i * D + k];
+                    r2 += dr[k] * dr[k];
+                }
+                d2[s] += r2;
+                d4[s] += r2 * r2;
+                for (int iq = 0; iq < nq; iq++) {
+                    double[] q = waveVectors[iq];
+                    if (q == null) continue;
+                    double qdr = 0;
+                    for (int k = 0; k < D; k++) {
+                        qdr += q[k] * dr[k];
+                    }
+                    fs[iq][s] += Math.cos(qdr);
+                }
+                if (doVel) {
+                    double vv = 0;
+                    for (int k = 0; k < D; k++) {
+                        vv += v0[i * D + k] * vj[i * D + k];
+                    }
+                    vac[s] += vv;
+                    vac2[s] += vv * vv;
+                }
+            }
+            // slot 0 is the sum over all types
+            for (int s = 1; s < nSlots; s++) {
+                d2[0] += d2[s];
+                d4[0] += d4[s];
+                vac[0] += vac[s];
+                vac2[0] += vac2[s];
+                for (double[] f : fs) f[0] += f[s];
+            }
+        }
+        correlatedStep = savedSteps[0];
+    }
+
+    protected void correlateFs(int iq) {
+        if (fsSum[0].length <= iq) {
+            for (int j = 0; j < fsSum.length; j++) {
+                fsSum[j] = Arrays.copyOf(fsSum[j], iq + 1);
+                fsSum[j][iq] = new double[slotCount.length];
+            }
+        }
+        double[] q = waveVectors[iq];
+        double[] x0 = levels[0];
+        for (int j = 1; j < levels.length; j++) {
+            if (!lagSampled[j]) continue;
+            double[] xj = levels[j];
+            double[] fs = fsSum[j][iq];
+            Arrays.fill(fs, 0);
+            for (int i = 0; i < numAtoms; i++) {
+                double qdr = 0;
+                for (int k = 0; k < D; k++) {
+                    qdr += q[k] * (x0[i * D + k] - xj[i * D + k]);
+                }
+                fs[atomSlot[i]] += Math.cos(qdr);
+            }
+            for (int s = 1; s < fs.length; s++) {
+                fs[0] += fs[s];
+            }
+        }
+    }
+
+    protected int slot(AtomType type) {
+        return type == null ? 0 : type.getIndex() + 1;
+    }
+
+    /**
+     * Returns true if the given lag (an index for getSavedConfig) was
+     * correlated for the latest configuration.
+     */
+    public boolean isLagSampled(int lag) {
+        return lag < lagSampled.length && lagSampled[lag];
+    }
+
+    /**
+     * Returns the number of atoms of the given type (or all atoms if type is
+     * null).
+     */
+    public int getAtomCount(AtomType type) {
+        int s = slot(type);
+        return s < slotCount.length ? slotCount[s] : 0;
+    }
+
+    /**
+     * Returns the sum of squared displacements between the latest
+     * configuration and the configuration at the given lag for atoms of the
+     * given type (or all atoms if type is null).
+     */
+    public double getMSDSum(int lag, AtomType type) {
+        int s = slot(type);
+        return s < slotCount.length ? d2Sum[lag][s] : 0;
+    }
+
+    /**
+     * Returns the sum of squared squared displacements (r^4), as
+     * getMSDSum.
+     */
+    public double getM4DSum(int lag, AtomType type) {
+        int s = slot(type);
+        return s < slotCount.length ? d4Sum[lag][s] : 0;
+    }
+
+    /**
+     * Returns the sum of v(0).v(t) for the given lag and type.  Velocities
+     * are only correlated if the correlator was constructed to do so.
+     */
+    public double getVACSum(int lag, AtomType type) {
+        int s = slot(type);
+        return s < slotCount.length ? vacSum[lag][s] : 0;
+    }
+
+    /**
+     * Returns the sum of (v(0).v(t))^2 for the given lag and type.
+     */
+    public double getVAC2Sum(int lag, AtomType type) {
+        int s = slot(type);
+        return s < slotCount.length ? vac2Sum[lag][s] : 0;
+    }
+
+    /**
+     * Returns the sum of cos(q.dr) for the wave vector with the given index
+     * (from addWaveVector), lag and type.
+     */
+    public double getFsSum(int lag, int qIndex, AtomType type) {
+        int s = slot(type);
+        return s < slotCount.length ? fsSum[lag][qIndex][s] : 0;
+    }
+
+    public Vector[] getSavedConfig(int idx) {
+        if (materialized == null || materialized.length < levels.length) {
+            materialized = Arrays.copyOf(materialized == null ? new Vector[0][] : materialized, levels.length);
+            materializedVersion = Arrays.copyOf(materializedVersion == null ? new long[0] : materializedVersion, levels.length);
+            Arrays.fill(materializedVersion, -1);
+        }
+        if (materialized[idx] == null) {
+            materialized[idx] = box.getSpace().makeVectorArray(numAtoms);
+        }
+        if (materializedVersion[idx] != version) {
+            // shift into the frame of the current (wrapped) configuration
+            double[] x = levels[idx];
+            double[] x0 = levels[0];
+            for (int i = 0; i < numAtoms; i++) {
+                Vector r = materialized[idx][i];
+                for (int k = 0; k < D; k++) {
+                    r.setX(k, x[i * D + k] - x0[i * D + k] + lastWrapped[i * D + k]);
+                }
+            }
+            materializedVersion[idx] = version;
+        }
+        return materialized[idx];
+    }
+
+    public Vector[] getSavedVel(int idx) {
+        if (!doVel) {
+            throw new IllegalStateException("velocities are not stored");
+        }
+        if (materializedVel == null || materializedVel.length < levels.length) {
+            materializedVel = Arrays.copyOf(materializedVel == null ? new Vector[0][] : materializedVel, levels.length);
+            materializedVelVersion = Arrays.copyOf(materializedVelVersion == null ? new long[0] : materializedVelVersion, levels.length);
+            Arrays.fill(materializedVelVersion, -1);
+        }
+        if (materializedVel[idx] == null) {
+            materializedVel[idx] = box.getSpace().makeVectorArray(numAtoms);
+        }
+        if (materializedVelVersion[idx] != version) {
+            double[] v = levelVels[idx];
+            for (int i = 0; i < numAtoms; i++) {
+                Vector vi = materializedVel[idx][i];
+                for (int k = 0; k < D; k++) {
+                    vi.setX(k, v[i * D + k]);
+                }
+            }
+            materializedVelVersion[idx] = version;
+        }
+        return materializedVel[idx];
+    }
+}
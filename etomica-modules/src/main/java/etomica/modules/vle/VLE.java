@@ -15,6 +15,7 @@ import etomica.graphics.DeviceSlider;
 import etomica.graphics.DisplayPlot;
 import etomica.graphics.DisplayTextBoxesCAE;
 import etomica.graphics.SimulationGraphic;
+import etomica.integrator.Integrator;
 import etomica.integrator.mcmove.MCMove;
 import etomica.integrator.mcmove.MCMoveStepTracker;
 import etomica.integrator.IntegratorListenerAction;
@@ -139,7 +140,7 @@ public class VLE extends SimulationGraphic {
         historyDensityLiquid.setTimeDataSource(stepCounter);
         fork.addDataSink(historyDensityLiquid);
         IntegratorListenerAction pumpLiquidDensityListener = new IntegratorListenerAction(pumpLiquidDensity);
-        sim.integratorLiquid.getEventManager().addListener(pumpLiquidDensityListener);
+        listenerIntegrator(sim, sim.integratorLiquid).getEventManager().addListener(pumpLiquidDensityListener);
         pumpLiquidDensityListener.setInterval(100);
         
         MeterDensity meterDensityVapor = new MeterDensity(sim.getSpace());
@@ -156,7 +157,7 @@ public class VLE extends SimulationGraphic {
         historyDensityVapor.setTimeDataSource(stepCounter);
         fork.addDataSink(historyDensityVapor);
         IntegratorListenerAction pumpVaporDensityListener = new IntegratorListenerAction(pumpVaporDensity);
-        sim.integratorVapor.getEventManager().addListener(pumpVaporDensityListener);
+        listenerIntegrator(sim, sim.integratorVapor).getEventManager().addListener(pumpVaporDensityListener);
         pumpVaporDensityListener.setInterval(100);
         
 
@@ -209,7 +210,7 @@ public class VLE extends SimulationGraphic {
             historyNMoleculesLiquid.setTimeDataSource(stepCounter);
             DataPump pumpNMoleculesLiquid = new DataPump(meterNMoleculesLiquid, historyNMoleculesLiquid);
             IntegratorListenerAction pumpNMoleculesLiquidListener = new IntegratorListenerAction(pumpNMoleculesLiquid);
-            sim.integratorLiquid.getEventManager().addListener(pumpNMoleculesLiquidListener);
+            listenerIntegrator(sim, sim.integratorLiquid).getEventManager().addListener(pumpNMoleculesLiquidListener);
             pumpNMoleculesLiquidListener.setInterval(100);
             getController().getDataStreamPumps().add(pumpNMoleculesLiquid);
             MeterNMolecules meterNMoleculesVapor = new MeterNMolecules();
@@ -218,7 +219,7 @@ public class VLE extends SimulationGraphic {
             historyNMoleculesVapor.setTimeDataSource(stepCounter);
             DataPump pumpNMoleculesVapor = new DataPump(meterNMoleculesVapor, historyNMoleculesVapor);
             IntegratorListenerAction pumpNMoleculesVaporListener = new IntegratorListenerAction(pumpNMoleculesVapor);
-            sim.integratorVapor.getEventManager().addListener(pumpNMoleculesVaporListener);
+            listenerIntegrator(sim, sim.integratorVapor).getEventManager().addListener(pumpNMoleculesVaporListener);
             pumpNMoleculesVaporListener.setInterval(100);
             getController().getDataStreamPumps().add(pumpNMoleculesVapor);
             
@@ -271,7 +272,7 @@ public class VLE extends SimulationGraphic {
         historyPressureLiquid.addDataSink(plotHistoryPressure.getDataSet().makeDataSink());
         plotHistoryPressure.setLegend(new DataTag[]{meterPressureLiquid.getTag()}, "Liquid (MPa)");
         IntegratorListenerAction pumpPressureLiquidListener = new IntegratorListenerAction(pumpPressureLiquid);
-        sim.integratorLiquid.getEventManager().addListener(pumpPressureLiquidListener);
+        listenerIntegrator(sim, sim.integratorLiquid).getEventManager().addListener(pumpPressureLiquidListener);
         pumpPressureLiquidListener.setInterval(500);
         
         DisplayTextBoxesCAE displayPressureVapor = new DisplayTextBoxesCAE();
@@ -283,12 +284,25 @@ public class VLE extends SimulationGraphic {
         plotHistoryPressure.setLegend(new DataTag[]{meterPressureVapor.getTag()}, "Vapor (MPa)");
         add(plotHistoryPressure);
         IntegratorListenerAction pumpPressureVaporListener = new IntegratorListenerAction(pumpPressureVapor);
-        sim.integratorVapor.getEventManager().addListener(pumpPressureVaporListener);
+        listenerIntegrator(sim, sim.integratorVapor).getEventManager().addListener(pumpPressureVaporListener);
         pumpPressureVaporListener.setInterval(500);
     }
     
+    /**
+     * Returns the integrator that should run a listener for the given box
+     * integrator.  When the boxes are integrated in parallel, listeners go on
+     * the GEMC integrator so that the box integrators can run concurrently.
+     */
+    private static Integrator listenerIntegrator(VLESim sim, Integrator boxIntegrator) {
+        return sim.integratorGEMC.isParallel() ? sim.integratorGEMC : boxIntegrator;
+    }
+
+    /**
+     * Pass -parallel to integrate the liquid and vapor boxes concurrently.
+     */
     public static void main(String[] args) {
-    	VLESim sim = new VLESim();
+        boolean parallel = args.length > 0 && args[0].equals("-parallel");
+        VLESim sim = new VLESim(parallel);
         VLE vle = new VLE(sim, sim.getSpace());
         vle.makeAndDisplayFrame();
     }
@@ -33,6 +33,10 @@ import etomica.units.Debye;
 import etomica.units.Kelvin;
 import etomica.util.IEvent;
 import etomica.util.IListener;
+import etomica.util.random.IRandom;
+import etomica.util.random.RandomMersenneTwister;
+
+import java.util.Arrays;
 
 public class VLESim extends Simulation {
 
@@ -43,6 +47,8 @@ public class VLESim extends Simulation {
     public final ActivityIntegrate activityIntegrate;
     protected final P2LJQ p2LJQ;
     protected final P2SoftTruncated p2Truncated;
+    protected final P2LJQ p2LJQVapor;
+    protected final P2SoftTruncated p2TruncatedVapor;
     protected double sigma;
     protected double temperature;
     protected double epsilon;
@@ -50,6 +56,16 @@ public class VLESim extends Simulation {
     protected double density;
     
     public VLESim() {
+        this(false);
+    }
+
+    /**
+     * @param parallel if true, the liquid and vapor boxes are given their own
+     *                 potentials and random number generators and their
+     *                 displacement moves are run concurrently between
+     *                 exchange moves.
+     */
+    public VLESim(boolean parallel) {
         super(Space3D.getInstance());
         boolean doNBR = false;
         int initNumMolecules = 200;
@@ -74,50 +90,71 @@ public class VLESim extends Simulation {
         config.initializeCoordinates(boxVapor);
 
         final double range = 15.0;
-        PotentialMaster potentialMaster = new PotentialMasterMonatomic(this);
-        if (doNBR) {
-            potentialMaster = new PotentialMasterCell(this, range, space);
-            ((PotentialMasterCell) potentialMaster).setCellRange(2);
-        }
+        PotentialMaster potentialMaster = makePotentialMaster(doNBR, range);
         p2LJQ = new P2LJQ(space, sigma, epsilon, moment);
         p2LJQ.setTemperature(temperature);
         p2Truncated = new P2SoftTruncated(p2LJQ, range, space);
 //        ((P2SoftSphericalTruncatedBox)potential).setTruncationFactor(0.35);
         potentialMaster.addPotential(p2Truncated, new AtomType[]{species.getLeafType(), species.getLeafType()});
 
-        integratorLiquid = new IntegratorMC(potentialMaster, random, temperature, boxLiquid);
+        // when the boxes are integrated concurrently, the vapor box needs its
+        // own potentials and random number generator
+        PotentialMaster potentialMasterVapor = potentialMaster;
+        IRandom randomLiquid = random, randomVapor = random;
+        if (parallel) {
+            potentialMasterVapor = makePotentialMaster(doNBR, range);
+            p2LJQVapor = new P2LJQ(space, sigma, epsilon, moment);
+            p2LJQVapor.setTemperature(temperature);
+            p2TruncatedVapor = new P2SoftTruncated(p2LJQVapor, range, space);
+            potentialMasterVapor.addPotential(p2TruncatedVapor, new AtomType[]{species.getLeafType(), species.getLeafType()});
+            int[] seeds = getRandomSeeds();
+            int[] boxSeeds = Arrays.copyOf(seeds, seeds.length + 1);
+            boxSeeds[seeds.length] = 1;
+            randomLiquid = new RandomMersenneTwister(boxSeeds);
+            boxSeeds[seeds.length] = 2;
+            randomVapor = new RandomMersenneTwister(boxSeeds);
+        }
+        else {
+            p2LJQVapor = p2LJQ;
+            p2TruncatedVapor = p2Truncated;
+        }
+
+        integratorLiquid = new IntegratorMC(potentialMaster, randomLiquid, temperature, boxLiquid);
         integratorLiquid.getMoveManager().setEquilibrating(true);
-        MCMoveAtom atomMove = new MCMoveAtom(random, potentialMaster, space, 0.5, 5.0, true);
+        MCMoveAtom atomMove = new MCMoveAtom(randomLiquid, potentialMaster, space, 0.5, 5.0, true);
         integratorLiquid.getMoveManager().addMCMove(atomMove);
-        MCMoveRotate rotateMove = new MCMoveRotate(potentialMaster, random, space);
+        MCMoveRotate rotateMove = new MCMoveRotate(potentialMaster, randomLiquid, space);
         integratorLiquid.getMoveManager().addMCMove(rotateMove);
 //        ((MCMoveStepTracker)atomMove.getTracker()).setNoisyAdjustment(true);
 
-        integratorVapor = new IntegratorMC(potentialMaster, random, temperature, boxVapor);
+        integratorVapor = new IntegratorMC(potentialMasterVapor, randomVapor, temperature, boxVapor);
         integratorVapor.getMoveManager().setEquilibrating(true);
-        atomMove = new MCMoveAtom(random, potentialMaster, space, 0.5, 5.0, true);
+        atomMove = new MCMoveAtom(randomVapor, potentialMasterVapor, space, 0.5, 5.0, true);
         integratorVapor.getMoveManager().addMCMove(atomMove);
-        rotateMove = new MCMoveRotate(potentialMaster, random, space);
+        rotateMove = new MCMoveRotate(potentialMasterVapor, randomVapor, space);
         integratorVapor.getMoveManager().addMCMove(rotateMove);
 //        ((MCMoveStepTracker)atomMove.getTracker()).setNoisyAdjustment(true);
 
+        integratorGEMC = new IntegratorManagerMC(random);
         if (!doNBR) {
+            // box integrators with listeners are stepped on the calling
+            // thread, so in parallel mode the listeners go on integratorGEMC
             BoxImposePbc pbc = new BoxImposePbc(boxLiquid, space);
             IntegratorListenerAction pbcListener = new IntegratorListenerAction(pbc);
-            integratorLiquid.getEventManager().addListener(pbcListener);
+            (parallel ? integratorGEMC : integratorLiquid).getEventManager().addListener(pbcListener);
             pbcListener.setInterval(100);
             pbc = new BoxImposePbc(boxVapor, space);
             pbcListener = new IntegratorListenerAction(pbc);
-            integratorVapor.getEventManager().addListener(pbcListener);
+            (parallel ? integratorGEMC : integratorVapor).getEventManager().addListener(pbcListener);
             pbcListener.setInterval(100);
         }
 
-        integratorGEMC = new IntegratorManagerMC(random);
         integratorGEMC.setTemperature(temperature);
         integratorGEMC.getMoveManager().setEquilibrating(true);
         integratorGEMC.setGlobalMoveInterval(2);
         integratorGEMC.addIntegrator(integratorLiquid);
         integratorGEMC.addIntegrator(integratorVapor);
+        integratorGEMC.setParallel(parallel);
         final MCMoveVolumeExchangeVLE volumeExchange = new MCMoveVolumeExchangeVLE(
                 potentialMaster, random, space, integratorLiquid, integratorVapor);
         volumeExchange.setStepSize(0.05);
@@ -136,8 +173,10 @@ public class VLESim extends Simulation {
                 if (((MCMoveEvent) event).getMCMove() == volumeExchange) {
                     if (boxLiquid.getBoundary().getBoxSize().getX(0) * 0.499 < range) {
                         p2Truncated.setTruncationRadius(0.499 * boxLiquid.getBoundary().getBoxSize().getX(0));
+                        p2TruncatedVapor.setTruncationRadius(0.499 * boxLiquid.getBoundary().getBoxSize().getX(0));
                     } else {
                         p2Truncated.setTruncationRadius(range);
+                        p2TruncatedVapor.setTruncationRadius(range);
                     }
                 }
             }
@@ -148,10 +187,19 @@ public class VLESim extends Simulation {
 
         if (doNBR) {
             ((PotentialMasterCell) potentialMaster).getBoxCellManager(boxLiquid).assignCellAll();
-            ((PotentialMasterCell) potentialMaster).getBoxCellManager(boxVapor).assignCellAll();
+            ((PotentialMasterCell) potentialMasterVapor).getBoxCellManager(boxVapor).assignCellAll();
             integratorLiquid.getMoveEventManager().addListener(((NeighborCellManager) ((PotentialMasterCell) potentialMaster).getBoxCellManager(boxLiquid)).makeMCMoveListener());
-            integratorVapor.getMoveEventManager().addListener((((NeighborCellManager) ((PotentialMasterCell) potentialMaster).getBoxCellManager(boxVapor)).makeMCMoveListener()));
+            integratorVapor.getMoveEventManager().addListener((((NeighborCellManager) ((PotentialMasterCell) potentialMasterVapor).getBoxCellManager(boxVapor)).makeMCMoveListener()));
+        }
+    }
+
+    protected PotentialMaster makePotentialMaster(boolean doNBR, double range) {
+        if (doNBR) {
+            PotentialMasterCell potentialMasterCell = new PotentialMasterCell(this, range, space);
+            potentialMasterCell.setCellRange(2);
+            return potentialMasterCell;
         }
+        return new PotentialMasterMonatomic(this);
     }
 
     public static void main(String[] args) {
@@ -165,7 +213,9 @@ public class VLESim extends Simulation {
     public void setSigma(double newSigma) {
         sigma = newSigma;
         p2LJQ.setSigma(sigma);
+        p2LJQVapor.setSigma(sigma);
         p2Truncated.setTruncationRadius(4.0*sigma);
+        p2TruncatedVapor.setTruncationRadius(4.0*sigma);
         integratorLiquid.reset();
         integratorVapor.reset();
     }
@@ -176,6 +226,7 @@ public class VLESim extends Simulation {
     
     public void setEpsilon(double newEpsilon) {
         p2LJQ.setEpsilon(newEpsilon);
+        p2LJQVapor.setEpsilon(newEpsilon);
         integratorLiquid.reset();
         integratorVapor.reset();
     }
@@ -186,6 +237,7 @@ public class VLESim extends Simulation {
     
     public void setMoment(double newQ) {
         p2LJQ.setQuadrupolarMomentSquare(newQ*newQ);
+        p2LJQVapor.setQuadrupolarMomentSquare(newQ*newQ);
         integratorLiquid.reset();
         integratorVapor.reset();
     }
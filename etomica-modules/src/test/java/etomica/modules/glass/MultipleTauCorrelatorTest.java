@@ -0,0 +1,135 @@
+package etomica.modules.glass;
+
+import etomica.atom.IAtom;
+import etomica.atom.IAtomKinetic;
+import etomica.atom.IAtomList;
+import etomica.box.Box;
+import etomica.data.types.DataFunction;
+import etomica.integrator.Integrator;
+import etomica.simulation.Simulation;
+import etomica.space.Space;
+import etomica.space.Vector;
+import etomica.space3d.Space3D;
+import etomica.species.SpeciesSpheresMono;
+import etomica.util.random.IRandom;
+import etomica.util.random.RandomMersenneTwister;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultipleTauCorrelatorTest {
+
+    Box box;
+    Integrator integrator;
+
+    @BeforeEach
+    void setUp() {
+        Space space = Space3D.getInstance();
+        Simulation sim = new Simulation(space, new RandomMersenneTwister(1));
+        SpeciesSpheresMono species = new SpeciesSpheresMono(sim, space);
+        species.setIsDynamic(true);
+        sim.addSpecies(species);
+        box = sim.makeBox();
+        box.getBoundary().setBoxSize(Vector.of(5, 5, 5));
+        box.setNMolecules(species, 20);
+        integrator = new RandomWalk(box, sim.getRandom());
+        integrator.reset();
+    }
+
+    /**
+     * The sums from the correlator should match walking the configurations
+     * saved by ConfigurationStorage.
+     */
+    @Test
+    void testMatchesConfigurationStorage() {
+        ConfigurationStorage storage = new ConfigurationStorage(box, ConfigurationStorage.StorageType.MSD);
+        MultipleTauCorrelator correlator = new MultipleTauCorrelator(box);
+        DataSourceMSD msd = new DataSourceMSD(storage);
+        DataSourceMSD msdTau = new DataSourceMSD(correlator);
+        DataSourceFs fs = new DataSourceFs(storage);
+        DataSourceFs fsTau = new DataSourceFs(correlator);
+        storage.addListener(msd);
+        storage.addListener(fs);
+        correlator.addListener(msdTau);
+        correlator.addListener(fsTau);
+        integrator.getEventManager().addListener(storage);
+        integrator.getEventManager().addListener(correlator);
+
+        for (int i = 0; i < 100; i++) {
+            integrator.doStep();
+        }
+        assertArraysEqual(((DataFunction) msd.getData()).getData(), ((DataFunction) msdTau.getData()).getData());
+        assertArraysEqual(((DataFunction) fs.getData()).getData(), ((DataFunction) fsTau.getData()).getData());
+    }
+
+    @Test
+    void testSetQUnregisters() {
+        MultipleTauCorrelator correlator = new MultipleTauCorrelator(box);
+        DataSourceFs fs = new DataSourceFs(correlator);
+        DataSourceFs fs2 = new DataSourceFs(correlator);
+        correlator.addListener(fs);
+        correlator.addListener(fs2);
+        integrator.getEventManager().addListener(correlator);
+
+        integrator.doStep();
+        // both use the default wave vector
+        assertEquals(1, correlator.getWaveVectorCount());
+
+        fs.setQ(Vector.of(0, 3, 0));
+        integrator.doStep();
+        assertEquals(2, correlator.getWaveVectorCount());
+
+        // the old wave vector is dropped once neither source uses it
+        fs2.setQ(Vector.of(0, 3, 0));
+        integrator.doStep();
+        assertEquals(1, correlator.getWaveVectorCount());
+        fs2.setQ(Vector.of(0, 0, 2));
+        fs.setQ(Vector.of(0, 0, 2));
+        integrator.doStep();
+        assertEquals(1, correlator.getWaveVectorCount());
+    }
+
+    private static void assertArraysEqual(double[] expected, double[] actual) {
+        assertEquals(expected.length, actual.length);
+        int nCompared = 0;
+        for (int i = 0; i < expected.length; i++) {
+            // lags that have not been sampled yet are NaN in both
+            if (Double.isNaN(expected[i])) {
+                assertTrue(Double.isNaN(actual[i]), "lag " + i);
+                continue;
+            }
+            assertEquals(expected[i], actual[i], 1e-9 * Math.max(1, Math.abs(expected[i])), "lag " + i);
+            nCompared++;
+        }
+        assertTrue(nCompared > 3);
+    }
+
+    /**
+     * Moves each atom a small random distance, keeping it in the box, and
+     * gives it a random velocity.
+     */
+    private static class RandomWalk extends Integrator {
+        final Box box;
+        final IRandom random;
+
+        RandomWalk(Box box, IRandom random) {
+            this.box = box;
+            this.random = random;
+        }
+
+        protected void doStepInternal() {
+            IAtomList atoms = box.getLeafList();
+            for (int i = 0; i < atoms.size(); i++) {
+                IAtom atom = atoms.get(i);
+                Vector r = atom.getPosition();
+                Vector v = ((IAtomKinetic) atom).getVelocity();
+                for (int k = 0; k < 3; k++) {
+                    r.setX(k, r.getX(k) + 0.4 * (random.nextDouble() - 0.5));
+                    v.setX(k, random.nextDouble() - 0.5);
+                }
+                r.PE(box.getBoundary().centralImage(r));
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package etomica.modules.vle;
+
+import etomica.action.activity.ActivityIntegrate;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VLESimTest {
+
+    @Test
+    void testParallel() {
+        VLESim sim = new VLESim(true);
+        assertTrue(sim.integratorGEMC.isParallel());
+        // box integrators with listeners would run on this thread, one after the other
+        assertFalse(sim.integratorLiquid.getEventManager().hasListeners());
+        assertFalse(sim.integratorVapor.getEventManager().hasListeners());
+        // at the default interval of 2, nearly every parallel step is a global
+        // move and 200 steps often include no block at all.  At 20, about 1 step
+        // in 6 is a block.
+        sim.integratorGEMC.setGlobalMoveInterval(20);
+        int nMolecules = sim.boxLiquid.getMoleculeList().size() + sim.boxVapor.getMoleculeList().size();
+        ActivityIntegrate ai = new ActivityIntegrate(sim.integratorGEMC);
+        ai.setMaxSteps(200);
+        ai.actionPerformed();
+
+        assertEquals(200, sim.integratorGEMC.getStepCount());
+        assertTrue(sim.integratorLiquid.getStepCount() > 0);
+        assertEquals(sim.integratorLiquid.getStepCount(), sim.integratorVapor.getStepCount());
+        assertEquals(nMolecules, sim.boxLiquid.getMoleculeList().size() + sim.boxVapor.getMoleculeList().size());
+    }
+}
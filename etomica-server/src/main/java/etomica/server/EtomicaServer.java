@@ -3,6 +3,7 @@ package etomica.server;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.codahale.metrics.MetricRegistry;
 import com.google.inject.AbstractModule;
 import com.google.inject.Injector;
 import com.google.inject.Provides;
@@ -10,6 +11,7 @@ import etomica.data.IDataSource;
 import etomica.meta.ComponentIndex;
 import etomica.meta.DataSourceIndex;
 import etomica.server.health.BasicHealthCheck;
+import etomica.server.resources.BinaryConfigurationWebsocket;
 import etomica.server.resources.ConfigurationWebsocket;
 import etomica.server.resources.EchoServer;
 import etomica.server.resources.data.DataStreamWebsocket;
@@ -73,6 +75,7 @@ public class EtomicaServer extends Application<EtomicaServerConfig> {
         WebsocketBundle wsBundle = new WebsocketBundle(wsConfigurator);
         wsBundle.addEndpoint(EchoServer.class);
         wsBundle.addEndpoint(ConfigurationWebsocket.class);
+        wsBundle.addEndpoint(BinaryConfigurationWebsocket.class);
         wsBundle.addEndpoint(DataStreamWebsocket.class);
 
         bootstrap.addBundle(wsBundle);
@@ -167,6 +170,11 @@ public class EtomicaServer extends Application<EtomicaServerConfig> {
             return new ScheduledThreadPoolExecutor(3);
         }
 
+        @Provides @Singleton
+        MetricRegistry provideMetricRegistry(Environment environment) {
+            return environment.metrics();
+        }
+
         @Provides @Singleton
         ObjectMapper provideObjectMapper() {
             return mapper;
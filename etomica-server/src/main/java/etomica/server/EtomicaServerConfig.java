@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import io.dropwizard.Configuration;
 import org.hibernate.validator.constraints.NotEmpty;
 
+import javax.validation.constraints.Min;
+
 public class EtomicaServerConfig extends Configuration {
 
     @JsonProperty
@@ -17,4 +19,34 @@ public class EtomicaServerConfig extends Configuration {
     public void setHello(String hello) {
         this.hello = hello;
     }
+
+    /**
+     * Number of threads used to run simulations; 0 means one per processor.
+     */
+    @JsonProperty
+    @Min(0)
+    private int schedulerThreads = 0;
+
+    /**
+     * Target length of a simulation's time slice, in milliseconds.
+     */
+    @JsonProperty
+    @Min(1)
+    private long sliceMillis = 50;
+
+    public int getSchedulerThreads() {
+        return schedulerThreads;
+    }
+
+    public void setSchedulerThreads(int schedulerThreads) {
+        this.schedulerThreads = schedulerThreads;
+    }
+
+    public long getSliceMillis() {
+        return sliceMillis;
+    }
+
+    public void setSliceMillis(long sliceMillis) {
+        this.sliceMillis = sliceMillis;
+    }
 }
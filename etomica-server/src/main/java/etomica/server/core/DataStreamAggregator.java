@@ -0,0 +1,243 @@
+package etomica.server.core;
+
+import etomica.data.IData;
+import etomica.data.IDataInfo;
+import etomica.data.types.DataDoubleArray;
+import etomica.data.types.DataFunction;
+import etomica.server.representations.DataStreamUpdate;
+
+import java.util.Arrays;
+
+/**
+ * Tracks what one client has been sent from a data stream, so that only changes need to be
+ * sent.  For data that is a function of x (an AccumulatorHistory, for instance), points
+ * added since the last update are sent as an APPEND update; points that scrolled off the
+ * front are dropped by the client using the update's firstX.  If the series changed in any
+ * other way (a history that collapsed or was reset), a FULL update is sent.  Other data is
+ * sent as a VALUES update, only when it changes.
+ * <p>
+ * If a resolution is given, full series longer than that are downsampled to that many
+ * points, and appended points are downsampled in proportion, so that the client's series
+ * stays at about that many points.  While a series grows, the points the client kept from
+ * earlier are denser than that; once the client has twice the resolution, a full update is
+ * sent to downsample the series again.
+ * <p>
+ * capture must be called while the simulation is not running (the data objects are reused
+ * by the simulation); nextUpdate can then be called from any thread, one at a time.
+ */
+public class DataStreamAggregator {
+
+    public enum Method {
+        LTTB,
+        MINMAX
+    }
+
+    private final int resolution;
+    private final Method method;
+
+    private IDataInfo info;
+    private boolean isFunction, monotonic;
+    private double[] x = new double[0], y = new double[0];
+    private int n;
+
+    private IDataInfo sentInfo;
+    private boolean sentFunction;
+    private double[] sentX = new double[0], sentValues;
+    private int sentN;
+    private long seq;
+    private boolean needFull = true;
+    private double pointBudget;
+    // x values the client has, when downsampling
+    private double[] clientX = new double[0];
+    private int clientN;
+
+    /**
+     * @param resolution number of points a client wants to keep for a series; 0 for no
+     *                   downsampling
+     */
+    public DataStreamAggregator(int resolution, Method method) {
+        this.resolution = resolution;
+        this.method = method;
+    }
+
+    /**
+     * Forces the next update to be a full update.
+     */
+    public void requestFull() {
+        needFull = true;
+    }
+
+    /**
+     * Copies the given data.  Points of a function with NaN x or y (unfilled history
+     * entries) are skipped.
+     */
+    public void capture(IData data, IDataInfo dataInfo) {
+        info = dataInfo;
+        DataDoubleArray xData = null;
+        if (data instanceof DataFunction && dataInfo instanceof DataFunction.DataInfoFunction) {
+            DataFunction.DataInfoFunction functionInfo = (DataFunction.DataInfoFunction) dataInfo;
+            if (functionInfo.getXDataSource() != null && functionInfo.getXDataSource().getIndependentArrayDimension() == 1) {
+                xData = functionInfo.getXDataSource().getIndependentData(0);
+            }
+        }
+        isFunction = xData != null && xData.getLength() == data.getLength();
+        int length = data.getLength();
+        if (x.length < length) {
+            x = new double[length];
+            y = new double[length];
+        }
+        n = 0;
+        monotonic = true;
+        for (int i = 0; i < length; i++) {
+            double yi = data.getValue(i);
+            if (isFunction) {
+                double xi = xData.getValue(i);
+                if (Double.isNaN(xi) || Double.isNaN(yi)) continue;
+                if (n > 0 && xi <= x[n - 1]) monotonic = false;
+                x[n] = xi;
+            }
+            y[n++] = yi;
+        }
+    }
+
+    /**
+     * Returns the update for the data last captured, or null if the client is up to date.
+     */
+    public DataStreamUpdate nextUpdate() {
+        if (info == null) return null;
+        IDataInfo newInfo = needFull || info != sentInfo ? info : null;
+        if (!isFunction) {
+            if (newInfo == null && !sentFunction && sentValues != null
+                    && sentValues.length == n && equals(sentValues, y, n)) {
+                return null;
+            }
+            sentValues = Arrays.copyOf(y, n);
+            sentInfo = info;
+            sentFunction = false;
+            sentN = 0;
+            needFull = false;
+            return new DataStreamUpdate(DataStreamUpdate.Type.VALUES, ++seq, Double.NaN, null, sentValues.clone(), newInfo);
+        }
+
+        boolean full = newInfo != null || !sentFunction || !monotonic || (n == 0 && sentN > 0);
+        int k = -1;
+        if (!full && sentN > 0) {
+            // points the client has that scrolled off the front
+            int dropped = n == 0 ? sentN : countLess(sentX, sentN, x[0]);
+            k = lastIndexOf(x, n, sentX[sentN - 1]);
+            if (k < 0 || k + 1 != sentN - dropped || x[0] != sentX[dropped]) {
+                full = true;
+            }
+        }
+
+        int nNew = full ? 0 : n - (k + 1);
+        int target = nNew;
+        if (!full && resolution > 0 && n > resolution) {
+            // the client's share of new points; fractions carry over to the next update
+            double budget = pointBudget + (double) nNew * resolution / n;
+            target = (int) budget;
+            if (target > 0 && clientN - countLess(clientX, clientN, x[0]) + target > 2 * resolution) {
+                full = true;
+            } else {
+                pointBudget = budget - target;
+            }
+        }
+
+        DataStreamUpdate update;
+        if (full) {
+            int[] keep = downsample(x, y, n, resolution);
+            double[] keepX = select(x, keep);
+            update = new DataStreamUpdate(DataStreamUpdate.Type.FULL, ++seq, n > 0 ? x[0] : Double.NaN,
+                    keepX, select(y, keep), info);
+            pointBudget = 0;
+            if (resolution > 0) {
+                clientX = keepX.clone();
+                clientN = keepX.length;
+            }
+        } else {
+            if (nNew == 0) return null;
+            if (target == 0) {
+                // these points are dropped; they still count as sent
+                update = null;
+            } else {
+                double[] newX = Arrays.copyOfRange(x, k + 1, n);
+                double[] newY = Arrays.copyOfRange(y, k + 1, n);
+                int[] keep = downsample(newX, newY, nNew, target);
+                double[] keepX = select(newX, keep);
+                update = new DataStreamUpdate(DataStreamUpdate.Type.APPEND, ++seq, x[0],
+                        keepX, select(newY, keep), null);
+                if (resolution > 0) {
+                    appendClient(x[0], keepX);
+                }
+            }
+        }
+        if (sentX.length < n) {
+            sentX = new double[x.length];
+        }
+        System.arraycopy(x, 0, sentX, 0, n);
+        sentN = n;
+        sentInfo = info;
+        sentFunction = true;
+        sentValues = null;
+        needFull = false;
+        return update;
+    }
+
+    /**
+     * Updates clientX as the client applies an APPEND update.
+     */
+    private void appendClient(double firstX, double[] newX) {
+        int dropped = countLess(clientX, clientN, firstX);
+        clientN -= dropped;
+        if (clientX.length < clientN + newX.length) {
+            clientX = Arrays.copyOfRange(clientX, dropped, dropped + 2 * (clientN + newX.length));
+        } else {
+            System.arraycopy(clientX, dropped, clientX, 0, clientN);
+        }
+        System.arraycopy(newX, 0, clientX, clientN, newX.length);
+        clientN += newX.length;
+    }
+
+    private int[] downsample(double[] xs, double[] ys, int count, int target) {
+        if (target <= 0 || count <= target) {
+            return Downsampling.lttb(xs, ys, count, count);
+        }
+        return method == Method.MINMAX ? Downsampling.minMax(ys, count, target) : Downsampling.lttb(xs, ys, count, target);
+    }
+
+    private static double[] select(double[] values, int[] indices) {
+        double[] s = new double[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            s[i] = values[indices[i]];
+        }
+        return s;
+    }
+
+    private static boolean equals(double[] a, double[] b, int count) {
+        for (int i = 0; i < count; i++) {
+            if (Double.doubleToLongBits(a[i]) != Double.doubleToLongBits(b[i])) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of values (sorted increasing) less than v.
+     */
+    private static int countLess(double[] values, int count, double v) {
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < v) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the index of v in values (sorted increasing), or -1.
+     */
+    private static int lastIndexOf(double[] values, int count, double v) {
+        int i = countLess(values, count, v);
+        return i < count && values[i] == v ? i : -1;
+    }
+}
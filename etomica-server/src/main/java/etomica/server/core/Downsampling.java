@@ -0,0 +1,113 @@
+package etomica.server.core;
+
+import java.util.Arrays;
+
+/**
+ * Methods for reducing a series of (x, y) points to fewer points for plotting.  Each returns
+ * the indices of the points to keep, in increasing order.
+ */
+public final class Downsampling {
+
+    private Downsampling() {}
+
+    /**
+     * Largest-Triangle-Three-Buckets (Steinarsson, 2013): the first and last points are
+     * kept, and the rest are divided into threshold-2 buckets, from each of which the point
+     * making the largest triangle with the point kept from the previous bucket and the
+     * average of the next bucket is kept.  This keeps the visual shape of the series.
+     *
+     * @param n number of points in x and y to consider
+     * @param threshold number of points to keep
+     */
+    public static int[] lttb(double[] x, double[] y, int n, int threshold) {
+        if (threshold >= n || threshold <= 0) {
+            return all(n);
+        }
+        if (threshold < 3) {
+            return threshold == 1 ? new int[]{n - 1} : new int[]{0, n - 1};
+        }
+        int[] keep = new int[threshold];
+        double bucketSize = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        keep[0] = 0;
+        for (int i = 0; i < threshold - 2; i++) {
+            int start = (int) (i * bucketSize) + 1;
+            int end = (int) ((i + 1) * bucketSize) + 1;
+            // average of the next bucket (just the last point for the last bucket)
+            int nextStart = end;
+            int nextEnd = Math.min((int) ((i + 2) * bucketSize) + 1, n);
+            if (i == threshold - 3) {
+                nextStart = n - 1;
+                nextEnd = n;
+            }
+            double avgX = 0, avgY = 0;
+            for (int j = nextStart; j < nextEnd; j++) {
+                avgX += x[j];
+                avgY += y[j];
+            }
+            avgX /= nextEnd - nextStart;
+            avgY /= nextEnd - nextStart;
+
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int j = start; j < end; j++) {
+                double area = Math.abs((x[a] - avgX) * (y[j] - y[a]) - (x[a] - x[j]) * (avgY - y[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = j;
+                }
+            }
+            keep[i + 1] = maxIndex;
+            a = maxIndex;
+        }
+        keep[threshold - 1] = n - 1;
+        return keep;
+    }
+
+    /**
+     * Divides the points into threshold/2 buckets and keeps the minimum and maximum y of
+     * each, so that spikes are never lost.  With a threshold of 1, only the last point is
+     * kept (as with lttb).
+     *
+     * @param n number of points in y to consider
+     * @param threshold number of points to keep (at most)
+     */
+    public static int[] minMax(double[] y, int n, int threshold) {
+        if (threshold >= n || threshold <= 0) {
+            return all(n);
+        }
+        if (threshold == 1) {
+            return new int[]{n - 1};
+        }
+        int nBuckets = threshold / 2;
+        int[] keep = new int[2 * nBuckets];
+        int nKeep = 0;
+        double bucketSize = (double) n / nBuckets;
+        for (int i = 0; i < nBuckets; i++) {
+            int start = (int) (i * bucketSize);
+            int end = Math.min((int) ((i + 1) * bucketSize), n);
+            if (end <= start) continue;
+            int iMin = start, iMax = start;
+            for (int j = start + 1; j < end; j++) {
+                if (y[j] < y[iMin]) iMin = j;
+                if (y[j] > y[iMax]) iMax = j;
+            }
+            if (iMin == iMax) {
+                keep[nKeep++] = iMin;
+            }
+            else {
+                keep[nKeep++] = Math.min(iMin, iMax);
+                keep[nKeep++] = Math.max(iMin, iMax);
+            }
+        }
+        return Arrays.copyOf(keep, nKeep);
+    }
+
+    private static int[] all(int n) {
+        int[] keep = new int[n];
+        for (int i = 0; i < n; i++) {
+            keep[i] = i;
+        }
+        return keep;
+    }
+}
@@ -0,0 +1,375 @@
+package etomica.server.core;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import etomica.action.IAction;
+import etomica.action.activity.ActivityIntegrate;
+import etomica.exception.ConfigurationOverlapException;
+import etomica.integrator.Integrator;
+import etomica.server.EtomicaServerConfig;
+import etomica.simulation.Simulation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the server's simulations on a fixed pool of worker threads, instead of a Controller
+ * thread per simulation, so that many simulations cannot oversubscribe the host.
+ * <p>
+ * A running simulation is advanced in time slices: a worker takes the simulation from the
+ * ready queue, calls its integrator's doStep for a batch of steps, and puts it back.  The
+ * batch size adapts so that a slice takes about the configured slice time.  The queue is
+ * ordered by CPU time used divided by priority, so a simulation with priority 2 gets about
+ * twice the CPU time of one with priority 1 when both are running.
+ * <p>
+ * Only the integrator of the simulation's (first) ActivityIntegrate is run, for at most the
+ * ActivityIntegrate's maxSteps; other actions held by the Controller are not performed.
+ * The integrator is reset before the first slice, honoring the ActivityIntegrate's
+ * ignoreOverlap setting.  A simulation that throws anything (including an Error) is marked
+ * FAILED and dropped from the queue; the worker carries on with the others.
+ * Anything that reads or changes a simulation from another thread must do so through
+ * doActionNow, which runs between slices.
+ * <p>
+ * Steps and slices are recorded in the metric registry, as a Meter named
+ * etomica.server.core.SimulationScheduler.{id}.steps and a Timer named ...{id}.slices.
+ */
+@Singleton
+public class SimulationScheduler {
+
+    public static final int DEFAULT_PRIORITY = 5;
+    public static final int MAX_PRIORITY = 10;
+
+    public enum State {
+        STOPPED,
+        RUNNING,
+        PAUSED,
+        FINISHED,
+        FAILED
+    }
+
+    private final MetricRegistry metrics;
+    private final long sliceNanos;
+    private final Map<Simulation, Entry> entries = new ConcurrentHashMap<>();
+    private final PriorityBlockingQueue<Entry> ready = new PriorityBlockingQueue<>(16,
+            (a, b) -> Double.compare(a.pass, b.pass));
+    private final Thread[] workers;
+    // pass of the most recently started slice; entries joining the queue start here
+    private volatile double currentPass;
+
+    private final Logger log = LoggerFactory.getLogger(SimulationScheduler.class);
+
+    @Inject
+    public SimulationScheduler(EtomicaServerConfig config, MetricRegistry metrics) {
+        this(config.getSchedulerThreads(), config.getSliceMillis(), metrics);
+    }
+
+    /**
+     * @param nThreads number of worker threads; 0 uses one per processor
+     * @param sliceMillis target time for a slice, in milliseconds
+     */
+    public SimulationScheduler(int nThreads, long sliceMillis, MetricRegistry metrics) {
+        this.metrics = metrics;
+        this.sliceNanos = TimeUnit.MILLISECONDS.toNanos(sliceMillis);
+        if (nThreads <= 0) {
+            nThreads = Runtime.getRuntime().availableProcessors();
+        }
+        workers = new Thread[nThreads];
+        for (int i = 0; i < nThreads; i++) {
+            workers[i] = new Thread(this::work, "Scheduler worker " + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    /**
+     * Makes the scheduler aware of the simulation, using the given id for its metrics.
+     * Does not start it.
+     */
+    public void register(UUID id, Simulation sim) {
+        entries.computeIfAbsent(sim, s -> new Entry(id, s));
+    }
+
+    private Entry entry(Simulation sim) {
+        Entry e = entries.get(sim);
+        if (e == null) {
+            throw new IllegalArgumentException("Simulation is not registered with the scheduler");
+        }
+        return e;
+    }
+
+    /**
+     * Starts (or resumes) running the simulation.
+     */
+    public void start(Simulation sim) {
+        Entry e = entry(sim);
+        synchronized (e) {
+            if (e.state == State.RUNNING) return;
+            if (e.state == State.FINISHED || e.state == State.FAILED) {
+                throw new IllegalStateException("Simulation has " + e.state.name().toLowerCase());
+            }
+            e.state = State.RUNNING;
+            enqueue(e);
+        }
+    }
+
+    /**
+     * Pauses the simulation.  A slice in progress is completed.
+     */
+    public void pause(Simulation sim) {
+        Entry e = entry(sim);
+        synchronized (e) {
+            if (e.state == State.RUNNING) {
+                e.state = State.PAUSED;
+            }
+        }
+    }
+
+    /**
+     * Stops the simulation and forgets it.  A slice in progress is completed.
+     */
+    public void remove(Simulation sim) {
+        Entry e = entries.remove(sim);
+        if (e == null) return;
+        synchronized (e) {
+            e.state = State.STOPPED;
+        }
+        ready.remove(e);
+        String prefix = MetricRegistry.name(SimulationScheduler.class, e.id.toString());
+        metrics.removeMatching((name, metric) -> name.startsWith(prefix + "."));
+    }
+
+    public void setPriority(Simulation sim, int priority) {
+        if (priority < 1 || priority > MAX_PRIORITY) {
+            throw new IllegalArgumentException("priority must be from 1 to " + MAX_PRIORITY);
+        }
+        entry(sim).priority = priority;
+    }
+
+    public int getPriority(Simulation sim) {
+        return entry(sim).priority;
+    }
+
+    public State getState(Simulation sim) {
+        Entry e = entries.get(sim);
+        return e == null ? State.STOPPED : e.state;
+    }
+
+    /**
+     * Returns the simulation's state, priority, step count and step rate, read
+     * together, so that a simulation removed in the meantime cannot fail part
+     * way through.  A simulation that is not registered is STOPPED.
+     */
+    public Status getStatus(Simulation sim) {
+        Entry e = entries.get(sim);
+        if (e == null) {
+            return new Status(State.STOPPED, DEFAULT_PRIORITY, 0, 0);
+        }
+        return new Status(e.state, e.priority, e.stepCount, e.steps.getOneMinuteRate());
+    }
+
+    public boolean isRunning(Simulation sim) {
+        return getState(sim) == State.RUNNING;
+    }
+
+    /**
+     * Returns the exception that stopped the simulation, if it failed.
+     */
+    public Throwable getException(Simulation sim) {
+        return entry(sim).exception;
+    }
+
+    /**
+     * Returns the number of integrator steps taken by the simulation.
+     */
+    public long getStepCount(Simulation sim) {
+        return entry(sim).stepCount;
+    }
+
+    /**
+     * Returns the step rate (steps per second) averaged over the last minute.
+     */
+    public double getStepRate(Simulation sim) {
+        return entry(sim).steps.getOneMinuteRate();
+    }
+
+    /**
+     * Performs the action while the simulation is not running a slice.  The
+     * calling thread waits for a slice in progress to finish.
+     */
+    public void doActionNow(Simulation sim, IAction action) {
+        Entry e = entries.get(sim);
+        if (e == null) {
+            action.actionPerformed();
+            return;
+        }
+        e.lock.lock();
+        try {
+            action.actionPerformed();
+        } finally {
+            e.lock.unlock();
+        }
+    }
+
+    private void enqueue(Entry e) {
+        if (e.queued) return;
+        // don't let a simulation that was paused (or new) catch up on time it didn't use
+        e.pass = Math.max(e.pass, currentPass);
+        e.queued = true;
+        ready.add(e);
+    }
+
+    private void work() {
+        while (true) {
+            Entry e;
+            try {
+                e = ready.take();
+            } catch (InterruptedException ex) {
+                return;
+            }
+            synchronized (e) {
+                e.queued = false;
+                if (e.state != State.RUNNING) continue;
+            }
+            currentPass = e.pass;
+            try {
+                e.runSlice(sliceNanos);
+            } catch (Throwable ex) {
+                // an Error must not take the worker down with it
+                log.warn("Simulation " + e.id + " failed", ex);
+                e.exception = ex;
+                synchronized (e) {
+                    e.state = State.FAILED;
+                }
+            }
+            synchronized (e) {
+                if (e.state == State.RUNNING) {
+                    enqueue(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Snapshot of a simulation's scheduling state.
+     */
+    public static final class Status {
+        private final State state;
+        private final int priority;
+        private final long stepCount;
+        private final double stepRate;
+
+        Status(State state, int priority, long stepCount, double stepRate) {
+            this.state = state;
+            this.priority = priority;
+            this.stepCount = stepCount;
+            this.stepRate = stepRate;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        public long getStepCount() {
+            return stepCount;
+        }
+
+        /**
+         * Returns the step rate (steps per second) averaged over the last minute.
+         */
+        public double getStepRate() {
+            return stepRate;
+        }
+    }
+
+    private class Entry {
+        final UUID id;
+        final Simulation sim;
+        final ReentrantLock lock = new ReentrantLock(true);
+        final Meter steps;
+        final Timer slices;
+        volatile State state = State.STOPPED;
+        volatile int priority = DEFAULT_PRIORITY;
+        volatile long stepCount;
+        volatile Throwable exception;
+        // accessed only by the worker running the slice, or while not queued
+        double pass;
+        boolean queued;
+        boolean initialized;
+        long batchSteps = 1;
+
+        Entry(UUID id, Simulation sim) {
+            this.id = id;
+            this.sim = sim;
+            steps = metrics.meter(MetricRegistry.name(SimulationScheduler.class, id.toString(), "steps"));
+            slices = metrics.timer(MetricRegistry.name(SimulationScheduler.class, id.toString(), "slices"));
+        }
+
+        void runSlice(long sliceNanos) {
+            lock.lock();
+            try {
+                ActivityIntegrate ai = null;
+                for (IAction action : sim.getController().getAllActions()) {
+                    if (action instanceof ActivityIntegrate) {
+                        ai = (ActivityIntegrate) action;
+                        break;
+                    }
+                }
+                if (ai == null) {
+                    throw new IllegalStateException("Simulation has no ActivityIntegrate");
+                }
+                Integrator integrator = ai.getIntegrator();
+                if (!initialized) {
+                    try {
+                        integrator.reset();
+                    } catch (ConfigurationOverlapException ex) {
+                        if (!ai.isIgnoreOverlap()) {
+                            throw ex;
+                        }
+                    }
+                    integrator.resetStepCount();
+                    initialized = true;
+                }
+
+                long n = Math.min(batchSteps, ai.getMaxSteps() - stepCount);
+                long t0 = System.nanoTime();
+                for (long i = 0; i < n; i++) {
+                    integrator.doStep();
+                }
+                long dt = Math.max(System.nanoTime() - t0, 1);
+                stepCount += n;
+                steps.mark(n);
+                slices.update(dt, TimeUnit.NANOSECONDS);
+                pass += dt / (double) priority;
+
+                // aim for the target slice time, but don't change too fast
+                double target = (double) n * sliceNanos / dt;
+                batchSteps = Math.max(1, Math.min(2 * batchSteps, (long) target));
+
+                if (stepCount >= ai.getMaxSteps()) {
+                    synchronized (this) {
+                        if (state == State.RUNNING) state = State.FINISHED;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
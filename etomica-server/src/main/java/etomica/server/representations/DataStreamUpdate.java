@@ -0,0 +1,70 @@
+package etomica.server.representations;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import etomica.data.IDataInfo;
+
+/**
+ * An update to a client's copy of a data stream.  A FULL update replaces the client's series
+ * with the given (x, y) points; an APPEND update first drops the client's points with x less
+ * than firstX, then appends the given points; a VALUES update replaces the client's values
+ * (for data that is not a function of x).  Updates are numbered consecutively, so a client
+ * that sees a gap can ask for a full update.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DataStreamUpdate {
+
+    public enum Type {
+        FULL,
+        APPEND,
+        VALUES
+    }
+
+    private final Type type;
+    private final long seq;
+    private final double firstX;
+    private final double[] x;
+    private final double[] y;
+    private final IDataInfo dataInfo;
+
+    public DataStreamUpdate(Type type, long seq, double firstX, double[] x, double[] y, IDataInfo dataInfo) {
+        this.type = type;
+        this.seq = seq;
+        this.firstX = firstX;
+        this.x = x;
+        this.y = y;
+        this.dataInfo = dataInfo;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public double getFirstX() {
+        return firstX;
+    }
+
+    /**
+     * x values of the points; null for VALUES updates.
+     */
+    public double[] getX() {
+        return x;
+    }
+
+    /**
+     * y values of the points, or the values for VALUES updates.
+     */
+    public double[] getY() {
+        return y;
+    }
+
+    /**
+     * Info for the stream, included with the first update and whenever it changes.
+     */
+    public IDataInfo getDataInfo() {
+        return dataInfo;
+    }
+}
@@ -0,0 +1,216 @@
+package etomica.server.resources;
+
+import com.codahale.metrics.annotation.Metered;
+import com.codahale.metrics.annotation.Timed;
+import etomica.box.BoxSnapshotPublisher;
+import etomica.integrator.Integrator;
+import etomica.meta.SimulationModel;
+import etomica.server.core.SimulationScheduler;
+import etomica.server.dao.SimulationStore;
+import etomica.server.serializers.ConfigurationFrameEncoder;
+import etomica.simulation.Simulation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.websocket.*;
+import javax.websocket.server.PathParam;
+import javax.websocket.server.ServerEndpoint;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams atom coordinates as binary frames (see ConfigurationFrameEncoder for the format).
+ * Coordinates are read from BoxSnapshotPublishers added to the simulation's integrator, so
+ * the simulation is never paused for a frame; encoding and sending happen on the executor.
+ * Each client gets its own publishers, so each client adds one snapshot copy per box.
+ * If the previous frame has not been sent yet (a slow client), the new frame is dropped
+ * rather than queued.  The resolution of delta frames can be given with a "quantum" query
+ * parameter; the connection is closed (CANNOT_ACCEPT) if it is not a positive number.
+ */
+@ServerEndpoint(
+        value="/simulations/{id}/configuration/binary"
+)
+@Metered
+@Timed
+public class BinaryConfigurationWebsocket {
+    private static final float DEFAULT_QUANTUM = 0.001f;
+
+    private final SimulationStore simStore;
+    private final ScheduledThreadPoolExecutor executor;
+    private final SimulationScheduler scheduler;
+
+    private final Logger log = LoggerFactory.getLogger(BinaryConfigurationWebsocket.class);
+
+    @Inject
+    public BinaryConfigurationWebsocket(SimulationStore store, ScheduledThreadPoolExecutor executor, SimulationScheduler scheduler) {
+        this.simStore = store;
+        this.executor = executor;
+        this.scheduler = scheduler;
+    }
+
+    @OnOpen
+    public void onOpen(final Session session, @PathParam("id") String id) {
+        session.setMaxIdleTimeout(0);
+
+        float quantum = DEFAULT_QUANTUM;
+        List<String> quantumParam = session.getRequestParameterMap().get("quantum");
+        if (quantumParam != null && !quantumParam.isEmpty()) {
+            try {
+                quantum = Float.parseFloat(quantumParam.get(0));
+            } catch (NumberFormatException e) {
+                quantum = Float.NaN;
+            }
+            if (!(quantum > 0) || Float.isInfinite(quantum)) {
+                // a zero quantum would make every delta overflow into an exception
+                close(session, new CloseReason(CloseReason.CloseCodes.CANNOT_ACCEPT,
+                        "quantum must be a positive number"));
+                return;
+            }
+        }
+
+        SimulationModel model = simStore.get(UUID.fromString(id));
+        Simulation sim = model.getSimulation();
+        FrameStream stream = new FrameStream(session, sim, scheduler, quantum);
+        session.getUserProperties().put("stream", stream);
+
+        ScheduledFuture<?> task = executor.scheduleWithFixedDelay(stream::sendFrame, 0, 33, TimeUnit.MILLISECONDS);
+        session.getUserProperties().put("task", task);
+    }
+
+    @OnClose
+    public void onClose(Session session) {
+        log.warn("Closing websocket");
+        stop(session);
+    }
+
+    @OnError
+    public void onError(Session session, Throwable reason) {
+        log.warn("Error in websocket", reason);
+        stop(session);
+    }
+
+    /**
+     * Stops the session's stream, if it was started (a rejected session has none).
+     */
+    private static void stop(Session session) {
+        ScheduledFuture<?> task = (ScheduledFuture<?>) session.getUserProperties().remove("task");
+        if (task != null) {
+            task.cancel(false);
+        }
+        FrameStream stream = (FrameStream) session.getUserProperties().remove("stream");
+        if (stream != null) {
+            stream.dispose();
+        }
+    }
+
+    private void close(Session session, CloseReason reason) {
+        try {
+            session.close(reason);
+        } catch (IOException e) {
+            log.warn("Unable to close websocket", e);
+        }
+    }
+
+    /**
+     * State of one client's stream.
+     */
+    private static class FrameStream {
+        private final Logger log = LoggerFactory.getLogger(BinaryConfigurationWebsocket.class);
+        private final Session session;
+        private final Simulation sim;
+        private final SimulationScheduler scheduler;
+        private final Integrator integrator;
+        private final BoxSnapshotPublisher[] publishers;
+        private final ConfigurationFrameEncoder encoder;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final long[] lastSequence;
+        private float[][] coords;
+        private double[][] boxSizes;
+
+        FrameStream(Session session, Simulation sim, SimulationScheduler scheduler, float quantum) {
+            this.session = session;
+            this.sim = sim;
+            this.scheduler = scheduler;
+            this.integrator = sim.getIntegrator();
+            this.encoder = new ConfigurationFrameEncoder(sim.getSpace().D(), quantum);
+            publishers = new BoxSnapshotPublisher[sim.getBoxCount()];
+            lastSequence = new long[publishers.length];
+            coords = new float[publishers.length][];
+            boxSizes = new double[publishers.length][];
+            for (int i = 0; i < publishers.length; i++) {
+                publishers[i] = new BoxSnapshotPublisher(sim.getBox(i));
+                publishers[i].setMinPeriod(30);
+            }
+            // the integrator's listener list must only be changed between steps
+            scheduler.doActionNow(sim, () -> {
+                for (BoxSnapshotPublisher p : publishers) {
+                    // take the first snapshot now, so that a paused simulation is shown
+                    p.publish(integrator.getStepCount());
+                    integrator.getEventManager().addListener(p);
+                }
+            });
+        }
+
+        void dispose() {
+            scheduler.doActionNow(sim, () -> {
+                for (BoxSnapshotPublisher p : publishers) {
+                    integrator.getEventManager().removeListener(p);
+                }
+            });
+        }
+
+        void sendFrame() {
+            boolean changed = false;
+            for (int i = 0; i < publishers.length; i++) {
+                changed |= publishers[i].getLatestSequence() != lastSequence[i];
+            }
+            if (!changed) {
+                return;
+            }
+            if (!sending.compareAndSet(false, true)) {
+                // the client hasn't taken the last frame; drop this one
+                return;
+            }
+
+            try {
+                for (int i = 0; i < publishers.length; i++) {
+                    BoxSnapshotPublisher.Snapshot snapshot = publishers[i].acquire();
+                    try {
+                        double[] positions = snapshot.getPositions();
+                        if (coords[i] == null || coords[i].length != positions.length) {
+                            coords[i] = new float[positions.length];
+                        }
+                        for (int j = 0; j < positions.length; j++) {
+                            coords[i][j] = (float) positions[j];
+                        }
+                        boxSizes[i] = snapshot.getBoxSize().clone();
+                        lastSequence[i] = snapshot.getSequence();
+                    } finally {
+                        snapshot.release();
+                    }
+                }
+
+                ByteBuffer frame = encoder.encode(coords, boxSizes);
+                session.getAsyncRemote().sendBinary(frame, result -> {
+                    if (!result.isOK()) {
+                        encoder.requestKeyFrame();
+                    }
+                    sending.set(false);
+                });
+            } catch (RuntimeException e) {
+                // an exception escaping this task would cancel the stream for good;
+                // start over with a key frame on the next tick instead
+                log.warn("Unable to send configuration frame", e);
+                encoder.requestKeyFrame();
+                sending.set(false);
+            }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import etomica.meta.SimulationModel;
 import etomica.meta.wrappers.SimulationWrapper;
+import etomica.server.core.SimulationScheduler;
 import etomica.server.dao.SimulationStore;
 import etomica.server.representations.ConfigurationUpdate;
 import etomica.simulation.Simulation;
@@ -38,14 +39,16 @@ public class ConfigurationWebsocket {
     private final SimulationStore simStore;
     private final ObjectMapper mapper;
     private final ScheduledThreadPoolExecutor executor;
+    private final SimulationScheduler scheduler;
 
     private final Logger log = LoggerFactory.getLogger(ConfigurationWebsocket.class);
 
     @Inject
-    public ConfigurationWebsocket(SimulationStore store, ObjectMapper mapper, ScheduledThreadPoolExecutor executor) {
+    public ConfigurationWebsocket(SimulationStore store, ObjectMapper mapper, ScheduledThreadPoolExecutor executor, SimulationScheduler scheduler) {
         this.simStore = store;
         this.mapper = mapper;
         this.executor = executor;
+        this.scheduler = scheduler;
     }
 
     @OnOpen
@@ -57,12 +60,12 @@ public class ConfigurationWebsocket {
         SimulationWrapper wrapper = (SimulationWrapper) model.getWrapper(sim);
 
         Runnable sendConfigurationUpdate = () -> {
-            if(sim.getController().isPaused() || !sim.getController().isActive()) {
+            if(!scheduler.isRunning(sim)) {
                 return;
             }
 
 
-            sim.getController().doActionNow(() -> {
+            scheduler.doActionNow(sim, () -> {
                 Boundary[] boundaries = new Boundary[sim.getBoxCount()];
                 for (int i = 0; i < sim.getBoxCount(); i++) {
                     boundaries[i] = sim.getBox(i).getBoundary();
@@ -1,14 +1,16 @@
 package etomica.server.resources;
 
-import etomica.action.activity.Controller;
-import etomica.meta.SimulationModel;
+import com.codahale.metrics.annotation.Timed;
+import etomica.server.core.SimulationScheduler;
 import etomica.server.dao.SimulationStore;
 import etomica.server.representations.StatusAction;
+import etomica.simulation.Simulation;
 
 import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -18,28 +20,33 @@ import java.util.UUID;
 public class ControlResource {
 
     private final SimulationStore simStore;
+    private final SimulationScheduler scheduler;
 
     @Inject
-    public ControlResource(SimulationStore simStore) {
+    public ControlResource(SimulationStore simStore, SimulationScheduler scheduler) {
         this.simStore = simStore;
+        this.scheduler = scheduler;
     }
 
     @PUT
+    @Timed
     public void doCommand(@PathParam("id") String id, StatusAction action) {
-        Controller controller = simStore.get(UUID.fromString(id)).getSimulation().getController();
+        Simulation sim = simStore.get(UUID.fromString(id)).getSimulation();
         switch (action.getStatus()) {
             case START:
-                if(!controller.isActive()) {
-                    new Thread(controller::actionPerformed).start();
-                } else if(controller.isPaused()) {
-                    controller.unPause();
+                if(!scheduler.isRunning(sim)) {
+                    try {
+                        scheduler.start(sim);
+                    } catch (IllegalStateException e) {
+                        throw new WebApplicationException(e.getMessage(), Response.Status.CONFLICT);
+                    }
                 } else {
                     throw new WebApplicationException(Response.Status.CONFLICT);
                 }
                 break;
             case PAUSE:
-                if(controller.isActive() && !controller.isPaused()) {
-                    controller.pause();
+                if(scheduler.isRunning(sim)) {
+                    scheduler.pause(sim);
                 } else {
                     throw new WebApplicationException(Response.Status.CONFLICT);
                 }
@@ -51,5 +58,37 @@ public class ControlResource {
 
     }
 
+    @GET
+    @Timed
+    public Map<String, Object> status(@PathParam("id") String id) {
+        return status(scheduler, simStore.get(UUID.fromString(id)).getSimulation());
+    }
+
+    /**
+     * Sets the simulation's share of CPU time, relative to other simulations (1 to 10).
+     */
+    @PUT
+    @Path("/priority")
+    @Timed
+    public void setPriority(@PathParam("id") String id, int priority) {
+        try {
+            scheduler.setPriority(simStore.get(UUID.fromString(id)).getSimulation(), priority);
+        } catch (IllegalArgumentException e) {
+            throw new WebApplicationException(e.getMessage(), Response.Status.BAD_REQUEST);
+        }
+    }
+
+    static Map<String, Object> status(SimulationScheduler scheduler, Simulation sim) {
+        // one snapshot, so that a simulation removed meanwhile just shows as stopped
+        SimulationScheduler.Status status = scheduler.getStatus(sim);
+        Map<String, Object> map = new HashMap<>();
+        map.put("state", status.getState());
+        if (status.getState() != SimulationScheduler.State.STOPPED) {
+            map.put("priority", status.getPriority());
+            map.put("steps", status.getStepCount());
+            map.put("stepsPerSecond", status.getStepRate());
+        }
+        return map;
+    }
 
 }
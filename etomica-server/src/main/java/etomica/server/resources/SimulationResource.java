@@ -3,6 +3,7 @@ package etomica.server.resources;
 import etomica.data.DataDump;
 import etomica.data.DataPipeForked;
 import etomica.meta.SimulationModel;
+import etomica.server.core.SimulationScheduler;
 import etomica.server.dao.DataStreamStore;
 import etomica.server.dao.SimulationStore;
 import etomica.server.representations.SimClassInfo;
@@ -26,11 +27,13 @@ import java.util.UUID;
 public class SimulationResource {
     private final SimulationStore simStore;
     private final DataStreamStore dataStore;
+    private final SimulationScheduler scheduler;
 
     @Inject
-    public SimulationResource(SimulationStore simStore, DataStreamStore dataStore) {
+    public SimulationResource(SimulationStore simStore, DataStreamStore dataStore, SimulationScheduler scheduler) {
         this.simStore = simStore;
         this.dataStore = dataStore;
+        this.scheduler = scheduler;
     }
 
     @GET
@@ -55,6 +58,7 @@ public class SimulationResource {
             Simulation sim = (Simulation) Class.forName(constructionParams.className).newInstance();
             SimulationModel model = new SimulationModel(sim);
             simStore.put(id, model);
+            scheduler.register(id, sim);
 
             model.getAllIdsOfType(DataPipeForked.class).stream()
                     .map(model::getWrapperById)
@@ -76,7 +80,7 @@ public class SimulationResource {
     public void deleteInstance(@PathParam("simId") String simId) {
         UUID id = UUID.fromString(simId);
         SimulationModel model = simStore.get(id);
-        model.getSimulation().getController().halt();
+        scheduler.remove(model.getSimulation());
         simStore.remove(id);
     }
 
@@ -1,6 +1,8 @@
 package etomica.server.resources;
 
+import com.codahale.metrics.annotation.Timed;
 import etomica.meta.ComponentIndex;
+import etomica.server.core.SimulationScheduler;
 import etomica.server.dao.SimulationStore;
 import etomica.server.representations.SimClassInfo;
 import etomica.simulation.Simulation;
@@ -21,11 +23,13 @@ public class SimulationsIndexResource {
 
     private final ComponentIndex<Simulation> simIndex;
     private final SimulationStore simStore;
+    private final SimulationScheduler scheduler;
 
     @Inject
-    public SimulationsIndexResource(ComponentIndex<Simulation> simIndex, SimulationStore simStore) {
+    public SimulationsIndexResource(ComponentIndex<Simulation> simIndex, SimulationStore simStore, SimulationScheduler scheduler) {
         this.simIndex = simIndex;
         this.simStore = simStore;
+        this.scheduler = scheduler;
     }
 
     @GET
@@ -53,4 +57,18 @@ public class SimulationsIndexResource {
             return map;
         }).collect(Collectors.toList());
     }
+
+    /**
+     * Scheduling state and step rate of every simulation instance.
+     */
+    @GET
+    @Path("/metrics")
+    @Timed
+    public List<Map<String, Object>> getMetrics() {
+        return this.simStore.entrySet().stream().map((e) -> {
+            Map<String, Object> map = ControlResource.status(scheduler, e.getValue().getSimulation());
+            map.put("id", e.getKey());
+            return map;
+        }).collect(Collectors.toList());
+    }
 }
@@ -6,9 +6,13 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import etomica.data.*;
 import etomica.meta.SimulationModel;
+import etomica.server.core.DataStreamAggregator;
+import etomica.server.core.SimulationScheduler;
 import etomica.server.dao.DataStreamStore;
 import etomica.server.dao.SimulationStore;
 import etomica.server.representations.DataAndInfo;
+import etomica.server.representations.DataStreamUpdate;
+import etomica.server.serializers.DataStreamUpdateEncoder;
 import etomica.simulation.Simulation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,12 +21,14 @@ import javax.inject.Inject;
 import javax.websocket.*;
 import javax.websocket.server.PathParam;
 import javax.websocket.server.ServerEndpoint;
+import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.UUID;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @ServerEndpoint(
         value="/simulations/{simId}/data/{dataId}",
@@ -35,15 +41,17 @@ public class DataStreamWebsocket {
     private final DataStreamStore dataStore;
     private final ObjectMapper mapper;
     private final ScheduledThreadPoolExecutor executor;
+    private final SimulationScheduler scheduler;
 
     private final Logger log = LoggerFactory.getLogger(DataStreamWebsocket.class);
 
     @Inject
-    public DataStreamWebsocket(SimulationStore simStore, DataStreamStore dataStore, ObjectMapper mapper, ScheduledThreadPoolExecutor executor) {
+    public DataStreamWebsocket(SimulationStore simStore, DataStreamStore dataStore, ObjectMapper mapper, ScheduledThreadPoolExecutor executor, SimulationScheduler scheduler) {
         this.simStore = simStore;
         this.dataStore = dataStore;
         this.mapper = mapper;
         this.executor = executor;
+        this.scheduler = scheduler;
     }
 
     @OnOpen
@@ -55,22 +63,26 @@ public class DataStreamWebsocket {
         Simulation sim = model.getSimulation();
         DataStreamStore.DataPlumbing dataPlumbing = dataStore.get(UUID.fromString(dataId));
         DataDump dump = dataPlumbing.getDump();
-        final DataAndInfo dataAndInfo = new DataAndInfo();
-
-        Runnable sendData = () -> {
-            if(sim.getController().isPaused() || !sim.getController().isActive()) {
-                return;
-            }
-
-            sim.getController().doActionNow(() -> {
-                IData data = dump.getData();
-                dataAndInfo.setData(dump.getData());
-                dataAndInfo.setDataInfo(dump.getDataInfo());
-                if(data != null) {
-                    session.getAsyncRemote().sendObject(dataAndInfo);
+        Runnable sendData;
+        if (getParameter(session, "incremental") != null) {
+            sendData = incrementalSender(session, sim, dump);
+        } else {
+            final DataAndInfo dataAndInfo = new DataAndInfo();
+            sendData = () -> {
+                if(!scheduler.isRunning(sim)) {
+                    return;
                 }
-            });
-        };
+
+                scheduler.doActionNow(sim, () -> {
+                    IData data = dump.getData();
+                    dataAndInfo.setData(dump.getData());
+                    dataAndInfo.setDataInfo(dump.getDataInfo());
+                    if(data != null) {
+                        session.getAsyncRemote().sendObject(dataAndInfo);
+                    }
+                });
+            };
+        }
 
         ScheduledFuture<?> task = executor.scheduleWithFixedDelay(sendData, 0, 333, TimeUnit.MILLISECONDS);
         session.getUserProperties().put("task", task);
@@ -78,6 +90,83 @@ public class DataStreamWebsocket {
 //        model.getSimulation().getIntegrator().getEventManager().addListener(dataPlumbing.getPump());
     }
 
+    /**
+     * Makes the sender for clients that asked for incremental updates (an "incremental"
+     * query parameter).  Each tick sends a DataStreamUpdate with only what changed since the
+     * last one, as JSON or, with encoding=binary, as encoded by DataStreamUpdateEncoder.
+     * Series are downsampled to the "resolution" query parameter, if given, using the
+     * "downsample" method (lttb, the default, or minmax).  Ticks are skipped while the
+     * previous update is still being sent.  A client can send "full" to get a full update.
+     */
+    private Runnable incrementalSender(Session session, Simulation sim, DataDump dump) {
+        String resolution = getParameter(session, "resolution");
+        String method = getParameter(session, "downsample");
+        boolean binary = "binary".equals(getParameter(session, "encoding"));
+        DataStreamAggregator aggregator = new DataStreamAggregator(
+                resolution == null ? 0 : Integer.parseInt(resolution),
+                method == null ? DataStreamAggregator.Method.LTTB : DataStreamAggregator.Method.valueOf(method.toUpperCase())
+        );
+        session.getUserProperties().put("aggregator", aggregator);
+        AtomicBoolean sending = new AtomicBoolean();
+
+        return () -> {
+            if (!sending.compareAndSet(false, true)) {
+                return;
+            }
+            DataStreamUpdate update;
+            try {
+                synchronized (aggregator) {
+                    scheduler.doActionNow(sim, () -> {
+                        if (dump.getData() != null) {
+                            aggregator.capture(dump.getData(), dump.getDataInfo());
+                        }
+                    });
+                    update = aggregator.nextUpdate();
+                }
+            } catch (RuntimeException e) {
+                sending.set(false);
+                throw e;
+            }
+            if (update == null) {
+                sending.set(false);
+                return;
+            }
+            SendHandler handler = result -> {
+                if (!result.isOK()) {
+                    synchronized (aggregator) {
+                        aggregator.requestFull();
+                    }
+                }
+                sending.set(false);
+            };
+            if (binary) {
+                session.getAsyncRemote().sendBinary(DataStreamUpdateEncoder.encode(update), handler);
+            } else {
+                try {
+                    session.getAsyncRemote().sendText(mapper.writeValueAsString(update), handler);
+                } catch (JsonProcessingException e) {
+                    sending.set(false);
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+    }
+
+    @OnMessage
+    public void onMessage(Session session, String message) {
+        DataStreamAggregator aggregator = (DataStreamAggregator) session.getUserProperties().get("aggregator");
+        if (aggregator != null && message.trim().equals("full")) {
+            synchronized (aggregator) {
+                aggregator.requestFull();
+            }
+        }
+    }
+
+    private static String getParameter(Session session, String name) {
+        List<String> values = session.getRequestParameterMap().get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
     @OnClose
     public void onClose(Session session) {
         log.warn("Closing websocket");
@@ -0,0 +1,202 @@
+package etomica.server.serializers;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Encodes atom coordinates as compact binary frames for streaming to a client.
+ * Each encoder holds the state of one client (the coordinates that client has
+ * reconstructed), so each websocket session needs its own instance.
+ * <p>
+ * A key frame holds every coordinate as float32.  A delta frame holds, for
+ * each coordinate, the change from the client's previous value as an int16
+ * count of quanta; since the change is taken from the reconstructed value, the
+ * quantization error does not accumulate.  Changes too large for an int16
+ * (an atom wrapped through a periodic boundary, for instance) are sent as
+ * exceptions with their full float32 value.  A key frame is sent first, when
+ * the number of atoms in a box changes, after a failed send (see
+ * requestKeyFrame) and periodically.
+ * <p>
+ * All values are little-endian, so the client can view the arrays directly
+ * with Float32Array and Int16Array.  The layout is
+ * <pre>
+ * int32 type (0 = key, 1 = delta), int32 sequence, int32 nBoxes, int32 D, float32 quantum
+ * for each box:
+ *   float32 boxSize[D], int32 nAtoms
+ *   key:   float32 coords[nAtoms*D]
+ *   delta: int16 deltas[nAtoms*D], padded to a multiple of 4 bytes,
+ *          int32 nExceptions, then for each: int32 index, float32 value
+ * </pre>
+ */
+public class ConfigurationFrameEncoder {
+
+    public static final int KEY_FRAME = 0, DELTA_FRAME = 1;
+
+    private final int D;
+    private float quantum;
+    private int keyFrameInterval;
+    private float[][] sent;
+    private int sequence;
+    private int framesSinceKey;
+    private boolean needKeyFrame;
+    private int[] exceptions;
+    private ByteBuffer buffer;
+
+    /**
+     * @param D dimension of the space
+     * @param quantum resolution of the delta frames, in simulation length units
+     * @throws IllegalArgumentException if quantum is not positive and finite
+     */
+    public ConfigurationFrameEncoder(int D, float quantum) {
+        checkQuantum(quantum);
+        this.D = D;
+        this.quantum = quantum;
+        keyFrameInterval = 300;
+        needKeyFrame = true;
+        exceptions = new int[16];
+        buffer = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public float getQuantum() {
+        return quantum;
+    }
+
+    /**
+     * Sets the resolution of the delta frames.  The next frame will be a key
+     * frame.
+     *
+     * @throws IllegalArgumentException if newQuantum is not positive and finite
+     */
+    public void setQuantum(float newQuantum) {
+        checkQuantum(newQuantum);
+        quantum = newQuantum;
+        needKeyFrame = true;
+    }
+
+    private static void checkQuantum(float quantum) {
+        if (!(quantum > 0) || Float.isInfinite(quantum)) {
+            throw new IllegalArgumentException("quantum must be positive and finite: " + quantum);
+        }
+    }
+
+    public int getKeyFrameInterval() {
+        return keyFrameInterval;
+    }
+
+    /**
+     * Sets the number of frames after which a key frame is sent even if a
+     * delta frame would do.  Default is 300 (10s at 30 frames/s).
+     */
+    public void setKeyFrameInterval(int newKeyFrameInterval) {
+        keyFrameInterval = newKeyFrameInterval;
+    }
+
+    /**
+     * Forces the next frame to be a key frame.  This should be called if a
+     * frame might not have reached the client.
+     */
+    public void requestKeyFrame() {
+        needKeyFrame = true;
+    }
+
+    /**
+     * Encodes the given coordinates and box sizes.  coords[i] holds the coordinates of the
+     * leaf atoms in box i, with coordinate d of atom j at j*D+d (as in
+     * BoxSnapshotPublisher.Snapshot.getPositions, in single precision).  The returned buffer is reused by the next call, so it must be sent
+     * (or copied) before encoding again.
+     */
+    public ByteBuffer encode(float[][] coords, double[][] boxSizes) {
+        boolean key = needKeyFrame || framesSinceKey >= keyFrameInterval || sent == null || sent.length != coords.length;
+        if (!key) {
+            for (int i = 0; i < coords.length; i++) {
+                if (sent[i].length != coords[i].length) {
+                    key = true;
+                    break;
+                }
+            }
+        }
+
+        buffer.clear();
+        ByteBuffer b = ensureRemaining(20);
+        b.putInt(key ? KEY_FRAME : DELTA_FRAME).putInt(sequence++).putInt(coords.length).putInt(D).putFloat(quantum);
+
+        if (key) {
+            if (sent == null || sent.length != coords.length) {
+                sent = new float[coords.length][];
+            }
+            for (int i = 0; i < coords.length; i++) {
+                b = ensureRemaining(4 * D + 4 + 4 * coords[i].length);
+                putBoxHeader(b, boxSizes[i], coords[i].length / D);
+                for (float x : coords[i]) {
+                    b.putFloat(x);
+                }
+                if (sent[i] == null || sent[i].length != coords[i].length) {
+                    sent[i] = coords[i].clone();
+                }
+                else {
+                    System.arraycopy(coords[i], 0, sent[i], 0, coords[i].length);
+                }
+            }
+            framesSinceKey = 0;
+            needKeyFrame = false;
+        }
+        else {
+            float invQuantum = 1 / quantum;
+            for (int i = 0; i < coords.length; i++) {
+                b = ensureRemaining(4 * D + 4 + 2 * coords[i].length + 2 + 4);
+                putBoxHeader(b, boxSizes[i], coords[i].length / D);
+                float[] c = coords[i], s = sent[i];
+                int nExceptions = 0;
+                for (int j = 0; j < c.length; j++) {
+                    int q = Math.round((c[j] - s[j]) * invQuantum);
+                    if (q > Short.MAX_VALUE || q < -Short.MAX_VALUE) {
+                        if (nExceptions == exceptions.length) {
+                            exceptions = Arrays.copyOf(exceptions, 2 * nExceptions);
+                        }
+                        exceptions[nExceptions++] = j;
+                        s[j] = c[j];
+                        q = 0;
+                    }
+                    else {
+                        // track what the client reconstructs
+                        s[j] += q * quantum;
+                    }
+                    b.putShort((short) q);
+                }
+                if ((c.length & 1) == 1) {
+                    b.putShort((short) 0);
+                }
+                b = ensureRemaining(4 + 8 * nExceptions);
+                b.putInt(nExceptions);
+                for (int k = 0; k < nExceptions; k++) {
+                    b.putInt(exceptions[k]).putFloat(c[exceptions[k]]);
+                }
+            }
+            framesSinceKey++;
+        }
+        b.flip();
+        return b;
+    }
+
+    private void putBoxHeader(ByteBuffer b, double[] boxSize, int nAtoms) {
+        for (int d = 0; d < D; d++) {
+            b.putFloat((float) boxSize[d]);
+        }
+        b.putInt(nAtoms);
+    }
+
+    /**
+     * Returns the buffer, grown (keeping its contents) if needed to hold n
+     * more bytes.
+     */
+    private ByteBuffer ensureRemaining(int n) {
+        if (buffer.remaining() < n) {
+            ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(buffer.position() + n, 2 * buffer.capacity())).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            newBuffer.put(buffer);
+            buffer = newBuffer;
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,35 @@
+package etomica.server.serializers;
+
+import etomica.server.representations.DataStreamUpdate;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Encodes a DataStreamUpdate in binary.  All values are little-endian and the arrays are
+ * 8-byte aligned, so the client can view them directly with Float64Array.  The layout is
+ * <pre>
+ * int32 type (0 = full, 1 = append, 2 = values), int32 n, int64 seq, float64 firstX,
+ * float64 x[n] (absent for values), float64 y[n]
+ * </pre>
+ * The data info is not included; it can be fetched from the data stream resource.
+ */
+public final class DataStreamUpdateEncoder {
+
+    private DataStreamUpdateEncoder() {}
+
+    public static ByteBuffer encode(DataStreamUpdate update) {
+        double[] x = update.getX(), y = update.getY();
+        int n = y.length;
+        ByteBuffer b = ByteBuffer.allocate(24 + 8 * n * (x == null ? 1 : 2)).order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(update.getType().ordinal()).putInt(n).putLong(update.getSeq()).putDouble(update.getFirstX());
+        if (x != null) {
+            b.asDoubleBuffer().put(x);
+            b.position(b.position() + 8 * n);
+        }
+        b.asDoubleBuffer().put(y);
+        b.position(b.position() + 8 * n);
+        b.flip();
+        return b;
+    }
+}
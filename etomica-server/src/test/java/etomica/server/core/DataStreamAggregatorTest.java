@@ -0,0 +1,367 @@
+package etomica.server.core;
+
+import etomica.data.AccumulatorHistory;
+import etomica.data.history.History;
+import etomica.data.history.HistoryCollapsingDiscard;
+import etomica.data.history.HistoryComplete;
+import etomica.data.history.HistoryScrolling;
+import etomica.data.types.DataDouble;
+import etomica.data.types.DataDoubleArray;
+import etomica.server.representations.DataStreamUpdate;
+import etomica.units.dimensions.Null;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataStreamAggregatorTest {
+
+    private final Random random = new Random(1);
+
+    @Test
+    void testScrolling() {
+        AccumulatorHistory history = makeHistory(new HistoryScrolling(50));
+        DataStreamAggregator aggregator = new DataStreamAggregator(0, DataStreamAggregator.Method.LTTB);
+        Client client = new Client();
+        for (int i = 0; i < 200; i++) {
+            addValue(history);
+            aggregator.capture(history.getData(), history.getDataInfo());
+            DataStreamUpdate update = client.apply(aggregator.nextUpdate());
+            assertEquals(i == 0 ? DataStreamUpdate.Type.FULL : DataStreamUpdate.Type.APPEND, update.getType(), "tick " + i);
+            assertEquals(1, i == 0 ? 1 : update.getX().length);
+            assertSeries(history, client);
+        }
+        // nothing new
+        aggregator.capture(history.getData(), history.getDataInfo());
+        assertNull(aggregator.nextUpdate());
+    }
+
+    @Test
+    void testSeveralPointsPerTick() {
+        AccumulatorHistory history = makeHistory(new HistoryScrolling(50));
+        DataStreamAggregator aggregator = new DataStreamAggregator(0, DataStreamAggregator.Method.LTTB);
+        Client client = new Client();
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < 7; j++) {
+                addValue(history);
+            }
+            aggregator.capture(history.getData(), history.getDataInfo());
+            client.apply(aggregator.nextUpdate());
+            assertSeries(history, client);
+        }
+        assertEquals(1, client.nFull);
+    }
+
+    @Test
+    void testCollapsing() {
+        AccumulatorHistory history = makeHistory(new HistoryCollapsingDiscard(32));
+        DataStreamAggregator aggregator = new DataStreamAggregator(0, DataStreamAggregator.Method.LTTB);
+        Client client = new Client();
+        for (int i = 0; i < 300; i++) {
+            addValue(history);
+            aggregator.capture(history.getData(), history.getDataInfo());
+            client.apply(aggregator.nextUpdate());
+            assertSeries(history, client);
+        }
+        // each collapse needs a full update; in between, points are appended
+        assertTrue(client.nFull > 1 && client.nFull < 20, "full updates: " + client.nFull);
+        assertTrue(client.nAppend > 50, "append updates: " + client.nAppend);
+    }
+
+    @Test
+    void testReset() {
+        AccumulatorHistory history = makeHistory(new HistoryScrolling(50));
+        DataStreamAggregator aggregator = new DataStreamAggregator(0, DataStreamAggregator.Method.LTTB);
+        Client client = new Client();
+        for (int i = 0; i < 10; i++) {
+            addValue(history);
+        }
+        aggregator.capture(history.getData(), history.getDataInfo());
+        client.apply(aggregator.nextUpdate());
+
+        history.reset();
+        aggregator.capture(history.getData(), history.getDataInfo());
+        DataStreamUpdate update = client.apply(aggregator.nextUpdate());
+        assertEquals(DataStreamUpdate.Type.FULL, update.getType());
+        assertSeries(history, client);
+
+        // the time source keeps counting, so new points follow the old x values; they must not be appended
+        for (int i = 0; i < 5; i++) {
+            addValue(history);
+        }
+        aggregator.capture(history.getData(), history.getDataInfo());
+        client.apply(aggregator.nextUpdate());
+        assertSeries(history, client);
+        assertEquals(5, client.x.size());
+    }
+
+    @Test
+    void testResetRefilled() {
+        // a reset followed by more points than were sent before, all before the next tick
+        AccumulatorHistory history = makeHistory(new HistoryScrolling(50));
+        DataStreamAggregator aggregator = new DataStreamAggregator(0, DataStreamAggregator.Method.LTTB);
+        Client client = new Client();
+        for (int i = 0; i < 10; i++) {
+            addValue(history);
+        }
+        aggregator.capture(history.getData(), history.getDataInfo());
+        client.apply(aggregator.nextUpdate());
+
+        history.reset();
+        for (int i = 0; i < 20; i++) {
+            addValue(history);
+        }
+        aggregator.capture(history.getData(), history.getDataInfo());
+        DataStreamUpdate update = client.apply(aggregator.nextUpdate());
+        assertEquals(DataStreamUpdate.Type.FULL, update.getType());
+        assertSeries(history, client);
+    }
+
+    @Test
+    void testNewDataInfo() {
+        AccumulatorHistory history = makeHistory(new HistoryScrolling(50));
+        DataStreamAggregator aggregator = new DataStreamAggregator(0, DataStreamAggregator.Method.LTTB);
+        Client client = new Client();
+        addValue(history);
+        aggregator.capture(history.getData(), history.getDataInfo());
+        assertNotNull(client.apply(aggregator.nextUpdate()).getDataInfo());
+        addValue(history);
+        aggregator.capture(history.getData(), history.getDataInfo());
+        assertNull(client.apply(aggregator.nextUpdate()).getDataInfo());
+
+        // AccumulatorHistory makes new data and info when its history is reallocated
+        history.getHistory().setHistoryLength(100);
+        addValue(history);
+        aggregator.capture(history.getData(), history.getDataInfo());
+        DataStreamUpdate update = client.apply(aggregator.nextUpdate());
+        assertEquals(DataStreamUpdate.Type.FULL, update.getType());
+        assertNotNull(update.getDataInfo());
+        assertSeries(history, client);
+
+        aggregator.requestFull();
+        aggregator.capture(history.getData(), history.getDataInfo());
+        update = client.apply(aggregator.nextUpdate());
+        assertEquals(DataStreamUpdate.Type.FULL, update.getType());
+        assertNotNull(update.getDataInfo());
+        assertSeries(history, client);
+    }
+
+    @Test
+    void testResolution() {
+        int resolution = 20;
+        AccumulatorHistory history = makeHistory(new HistoryScrolling(200));
+        for (DataStreamAggregator.Method method : DataStreamAggregator.Method.values()) {
+            history.reset();
+            DataStreamAggregator aggregator = new DataStreamAggregator(resolution, method);
+            Client client = new Client();
+            int ticksSinceUpdate = 0;
+            for (int i = 0; i < 2000; i++) {
+                addValue(history);
+                aggregator.capture(history.getData(), history.getDataInfo());
+                ticksSinceUpdate = client.apply(aggregator.nextUpdate()) == null ? ticksSinceUpdate + 1 : 0;
+
+                // the client has a subset of the series, and about resolution points of it.
+                // Points that scrolled off are only dropped with the next update, so the client
+                // may still have those (one per tick) before the series.
+                double[] x = xValues(history), y = yValues(history);
+                int nStale = 0;
+                while (nStale < client.x.size() && client.x.get(nStale) < x[0]) nStale++;
+                assertTrue(nStale <= ticksSinceUpdate, method + " tick " + i + ": " + nStale + " stale");
+                for (int j = nStale; j < client.x.size(); j++) {
+                    int k = Arrays.binarySearch(x, client.x.get(j));
+                    assertTrue(k >= 0, method + " tick " + i);
+                    assertEquals(y[k], (double) client.y.get(j));
+                }
+                assertTrue(client.x.size() <= 2 * resolution + 1, method + " tick " + i + ": " + client.x.size());
+                if (i >= 1000) {
+                    assertTrue(client.x.size() >= 0.75 * resolution && client.x.size() <= 1.25 * resolution,
+                            method + " tick " + i + ": " + client.x.size());
+                }
+            }
+            // the first, and then a few to thin out the points kept while the history filled
+            assertTrue(client.nFull > 1 && client.nFull <= 4, method + " full updates: " + client.nFull);
+        }
+    }
+
+    @Test
+    void testResolutionGrowing() {
+        // a series that is downsampled in full, and then appended to
+        AccumulatorHistory history = makeHistory(new HistoryComplete(100));
+        DataStreamAggregator aggregator = new DataStreamAggregator(10, DataStreamAggregator.Method.LTTB);
+        Client client = new Client();
+        for (int i = 0; i < 50; i++) {
+            addValue(history);
+        }
+        aggregator.capture(history.getData(), history.getDataInfo());
+        DataStreamUpdate update = client.apply(aggregator.nextUpdate());
+        assertEquals(DataStreamUpdate.Type.FULL, update.getType());
+        assertEquals(10, update.getX().length);
+        assertEquals(0, update.getX()[0]);
+        assertEquals(49, update.getX()[9]);
+
+        // 50 more points, with 50 of 100 sent, thins to 5
+        for (int i = 0; i < 50; i++) {
+            addValue(history);
+        }
+        aggregator.capture(history.getData(), history.getDataInfo());
+        update = client.apply(aggregator.nextUpdate());
+        assertEquals(DataStreamUpdate.Type.APPEND, update.getType());
+        assertEquals(5, update.getX().length);
+        assertEquals(15, client.x.size());
+
+        // the client's series is downsampled again before it grows past twice the resolution
+        int nFull = client.nFull;
+        for (int i = 0; i < 10000; i++) {
+            addValue(history);
+            aggregator.capture(history.getData(), history.getDataInfo());
+            client.apply(aggregator.nextUpdate());
+            assertTrue(client.x.size() <= 20, "tick " + i + ": " + client.x.size());
+        }
+        assertTrue(client.nFull > nFull && client.nFull < nFull + 10, "full updates: " + client.nFull);
+        assertEquals(xValues(history)[0], (double) client.x.get(0));
+    }
+
+    @Test
+    void testValues() {
+        DataStreamAggregator aggregator = new DataStreamAggregator(0, DataStreamAggregator.Method.LTTB);
+        DataDouble data = new DataDouble();
+        DataDouble.DataInfoDouble info = new DataDouble.DataInfoDouble("value", Null.DIMENSION);
+        data.x = 1;
+        aggregator.capture(data, info);
+        DataStreamUpdate update = aggregator.nextUpdate();
+        assertEquals(DataStreamUpdate.Type.VALUES, update.getType());
+        assertArrayEquals(new double[]{1}, update.getY());
+        assertSame(info, update.getDataInfo());
+
+        aggregator.capture(data, info);
+        assertNull(aggregator.nextUpdate());
+
+        data.x = 2;
+        aggregator.capture(data, info);
+        update = aggregator.nextUpdate();
+        assertArrayEquals(new double[]{2}, update.getY());
+        assertNull(update.getDataInfo());
+
+        // NaN is unchanged from NaN
+        data.x = Double.NaN;
+        aggregator.capture(data, info);
+        assertNotNull(aggregator.nextUpdate());
+        aggregator.capture(data, info);
+        assertNull(aggregator.nextUpdate());
+
+        aggregator.requestFull();
+        aggregator.capture(data, info);
+        assertSame(info, aggregator.nextUpdate().getDataInfo());
+
+        DataDoubleArray array = new DataDoubleArray(3);
+        array.E(new double[]{1, 2, 3});
+        aggregator.capture(array, new DataDoubleArray.DataInfoDoubleArray("array", Null.DIMENSION, new int[]{3}));
+        update = aggregator.nextUpdate();
+        assertArrayEquals(new double[]{1, 2, 3}, update.getY());
+        assertNotNull(update.getDataInfo());
+    }
+
+    @Test
+    void testSequence() {
+        AccumulatorHistory history = makeHistory(new HistoryScrolling(50));
+        DataStreamAggregator aggregator = new DataStreamAggregator(0, DataStreamAggregator.Method.LTTB);
+        long lastSeq = 0;
+        for (int i = 0; i < 20; i++) {
+            if (i % 3 == 0) addValue(history);
+            aggregator.capture(history.getData(), history.getDataInfo());
+            DataStreamUpdate update = aggregator.nextUpdate();
+            if (update != null) {
+                assertEquals(lastSeq + 1, update.getSeq());
+                lastSeq = update.getSeq();
+            }
+        }
+        assertEquals(7, lastSeq);
+    }
+
+    private static AccumulatorHistory makeHistory(History h) {
+        AccumulatorHistory history = new AccumulatorHistory(h);
+        history.putDataInfo(new DataDouble.DataInfoDouble("value", Null.DIMENSION));
+        return history;
+    }
+
+    private void addValue(AccumulatorHistory history) {
+        DataDouble d = new DataDouble();
+        d.x = random.nextDouble();
+        history.putData(d);
+    }
+
+    private static double[] xValues(AccumulatorHistory history) {
+        return filled(history)[0];
+    }
+
+    private static double[] yValues(AccumulatorHistory history) {
+        return filled(history)[1];
+    }
+
+    /**
+     * Returns the x and y values of the filled entries (unfilled entries are NaN).
+     */
+    private static double[][] filled(AccumulatorHistory history) {
+        double[] x = history.getHistory().getXValues(), y = history.getHistory().getHistory();
+        double[][] xy = new double[2][x.length];
+        int n = 0;
+        for (int i = 0; i < x.length; i++) {
+            if (Double.isNaN(x[i]) || Double.isNaN(y[i])) continue;
+            xy[0][n] = x[i];
+            xy[1][n++] = y[i];
+        }
+        return new double[][]{Arrays.copyOf(xy[0], n), Arrays.copyOf(xy[1], n)};
+    }
+
+    /**
+     * Checks that the client has exactly the (filled part of the) series.
+     */
+    private static void assertSeries(AccumulatorHistory history, Client client) {
+        double[] x = xValues(history), y = yValues(history);
+        assertEquals(x.length, client.x.size());
+        for (int i = 0; i < x.length; i++) {
+            assertEquals(x[i], (double) client.x.get(i), "x " + i);
+            assertEquals(y[i], (double) client.y.get(i), "y " + i);
+        }
+    }
+
+    /**
+     * A client's copy of a series, kept as described by DataStreamUpdate.
+     */
+    private static class Client {
+        final List<Double> x = new ArrayList<>(), y = new ArrayList<>();
+        long seq;
+        int nFull, nAppend;
+
+        DataStreamUpdate apply(DataStreamUpdate update) {
+            if (update == null) return null;
+            assertEquals(seq + 1, update.getSeq());
+            seq = update.getSeq();
+            switch (update.getType()) {
+                case FULL:
+                    x.clear();
+                    y.clear();
+                    nFull++;
+                    break;
+                case APPEND:
+                    while (!x.isEmpty() && x.get(0) < update.getFirstX()) {
+                        x.remove(0);
+                        y.remove(0);
+                    }
+                    nAppend++;
+                    break;
+                default:
+                    fail("unexpected " + update.getType());
+            }
+            for (int i = 0; i < update.getX().length; i++) {
+                x.add(update.getX()[i]);
+                y.add(update.getY()[i]);
+            }
+            return update;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package etomica.server.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DownsamplingTest {
+
+    private static final int N = 1000;
+
+    @Test
+    void testLTTB() {
+        double[] x = new double[N], y = new double[N];
+        Random random = new Random(1);
+        for (int i = 0; i < N; i++) {
+            x[i] = i;
+            y[i] = random.nextDouble();
+        }
+        y[437] = 20;
+        int threshold = 50;
+        int[] keep = Downsampling.lttb(x, y, N, threshold);
+        assertEquals(threshold, keep.length);
+        assertIncreasing(keep);
+        assertEquals(0, keep[0]);
+        assertEquals(N - 1, keep[threshold - 1]);
+        // one point from each bucket
+        double bucketSize = (double) (N - 2) / (threshold - 2);
+        for (int i = 0; i < threshold - 2; i++) {
+            assertTrue(keep[i + 1] >= (int) (i * bucketSize) + 1 && keep[i + 1] < (int) ((i + 1) * bucketSize) + 1,
+                    "bucket " + i);
+        }
+        assertTrue(contains(keep, 437), "spike kept");
+    }
+
+    @Test
+    void testLTTBSmallThresholds() {
+        double[] x = {0, 1, 2, 3}, y = {1, 5, 2, 3};
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Downsampling.lttb(x, y, 4, 4));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Downsampling.lttb(x, y, 4, 10));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Downsampling.lttb(x, y, 4, 0));
+        assertArrayEquals(new int[]{0, 1, 3}, Downsampling.lttb(x, y, 4, 3));
+        assertArrayEquals(new int[]{0, 3}, Downsampling.lttb(x, y, 4, 2));
+        assertArrayEquals(new int[]{3}, Downsampling.lttb(x, y, 4, 1));
+        // only the first n points are considered
+        assertArrayEquals(new int[]{0, 1, 2}, Downsampling.lttb(x, y, 3, 3));
+    }
+
+    @Test
+    void testMinMax() {
+        double[] y = new double[N];
+        Random random = new Random(2);
+        for (int i = 0; i < N; i++) {
+            y[i] = random.nextDouble();
+        }
+        y[123] = -5;
+        y[876] = 7;
+        for (int threshold : new int[]{2, 3, 10, 51, 100, 999}) {
+            int[] keep = Downsampling.minMax(y, N, threshold);
+            assertTrue(keep.length <= threshold, "threshold " + threshold + ": " + keep.length);
+            assertTrue(keep.length >= threshold - 1, "threshold " + threshold + ": " + keep.length);
+            assertIncreasing(keep);
+            assertTrue(contains(keep, 123), "min kept");
+            assertTrue(contains(keep, 876), "max kept");
+        }
+    }
+
+    @Test
+    void testMinMaxBuckets() {
+        double[] y = {3, 1, 2, 2, 5, 4, 0, 0};
+        assertArrayEquals(new int[]{0, 1, 4, 6}, Downsampling.minMax(y, 8, 4));
+        assertArrayEquals(new int[]{0, 1, 2, 4, 5, 6}, Downsampling.minMax(y, 8, 7));
+        // a flat bucket contributes one point
+        assertArrayEquals(new int[]{0, 4, 5}, Downsampling.minMax(new double[]{1, 1, 1, 1, 5, 0}, 6, 4));
+        assertArrayEquals(new int[]{4, 6}, Downsampling.minMax(y, 8, 2));
+        assertArrayEquals(new int[]{4, 6}, Downsampling.minMax(y, 8, 3));
+    }
+
+    @Test
+    void testMinMaxSmallThresholds() {
+        double[] y = {1, 5, 2, 3};
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Downsampling.minMax(y, 4, 4));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Downsampling.minMax(y, 4, 0));
+        assertArrayEquals(new int[]{0, 1}, Downsampling.minMax(y, 4, 2));
+        assertArrayEquals(new int[]{3}, Downsampling.minMax(y, 4, 1));
+    }
+
+    private static void assertIncreasing(int[] keep) {
+        for (int i = 1; i < keep.length; i++) {
+            assertTrue(keep[i] > keep[i - 1], Arrays.toString(keep));
+        }
+    }
+
+    private static boolean contains(int[] keep, int i) {
+        return Arrays.stream(keep).anyMatch(k -> k == i);
+    }
+}
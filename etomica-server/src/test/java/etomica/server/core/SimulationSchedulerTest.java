@@ -0,0 +1,196 @@
+package etomica.server.core;
+
+import com.codahale.metrics.MetricRegistry;
+import etomica.action.activity.ActivityIntegrate;
+import etomica.exception.ConfigurationOverlapException;
+import etomica.integrator.Integrator;
+import etomica.simulation.Simulation;
+import etomica.space3d.Space3D;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationSchedulerTest {
+
+    private final SimulationScheduler scheduler = new SimulationScheduler(1, 5, new MetricRegistry());
+
+    @Test
+    void testPriorityOrdering() throws InterruptedException {
+        Simulation low = makeSim(new SpinIntegrator(), false);
+        Simulation high = makeSim(new SpinIntegrator(), false);
+        scheduler.setPriority(low, 1);
+        scheduler.setPriority(high, 4);
+        scheduler.start(low);
+        scheduler.start(high);
+        Thread.sleep(1500);
+        scheduler.pause(low);
+        scheduler.pause(high);
+
+        // steps cost the same, so the step ratio follows the priority ratio
+        double ratio = scheduler.getStepCount(high) / (double) scheduler.getStepCount(low);
+        assertTrue(ratio > 2.5 && ratio < 6, "step ratio " + ratio);
+    }
+
+    @Test
+    void testLateStartDoesNotCatchUp() throws InterruptedException {
+        Simulation first = makeSim(new SpinIntegrator(), false);
+        Simulation second = makeSim(new SpinIntegrator(), false);
+        scheduler.start(first);
+        Thread.sleep(300);
+        long firstSteps = scheduler.getStepCount(first);
+        scheduler.start(second);
+        Thread.sleep(600);
+        scheduler.pause(first);
+        scheduler.pause(second);
+
+        // the newcomer shares the worker; it does not get the first one's head start back
+        long firstLater = scheduler.getStepCount(first) - firstSteps;
+        long secondSteps = scheduler.getStepCount(second);
+        assertTrue(firstLater > 0);
+        assertTrue(secondSteps < 2 * firstLater, secondSteps + " vs " + firstLater);
+    }
+
+    @Test
+    void testPauseResume() throws InterruptedException {
+        Simulation sim = makeSim(new SpinIntegrator(), false);
+        scheduler.start(sim);
+        waitFor(() -> scheduler.getStepCount(sim) > 0);
+        scheduler.pause(sim);
+        assertEquals(SimulationScheduler.State.PAUSED, scheduler.getState(sim));
+        // let a slice in progress finish
+        Thread.sleep(50);
+        long paused = scheduler.getStepCount(sim);
+        Thread.sleep(100);
+        assertEquals(paused, scheduler.getStepCount(sim));
+
+        scheduler.start(sim);
+        assertEquals(SimulationScheduler.State.RUNNING, scheduler.getState(sim));
+        waitFor(() -> scheduler.getStepCount(sim) > paused);
+        scheduler.remove(sim);
+    }
+
+    @Test
+    void testStatus() {
+        Simulation sim = makeSim(new SpinIntegrator(), false);
+        scheduler.setPriority(sim, 7);
+        scheduler.start(sim);
+        waitFor(() -> scheduler.getStepCount(sim) > 0);
+        SimulationScheduler.Status status = scheduler.getStatus(sim);
+        assertEquals(SimulationScheduler.State.RUNNING, status.getState());
+        assertEquals(7, status.getPriority());
+        assertTrue(status.getStepCount() > 0);
+
+        // a removed simulation is reported as stopped rather than failing
+        scheduler.remove(sim);
+        status = scheduler.getStatus(sim);
+        assertEquals(SimulationScheduler.State.STOPPED, status.getState());
+        assertThrows(IllegalArgumentException.class, () -> scheduler.getPriority(sim));
+    }
+
+    @Test
+    void testDoActionNow() {
+        SpinIntegrator integrator = new SpinIntegrator();
+        Simulation sim = makeSim(integrator, false);
+        scheduler.start(sim);
+        waitFor(() -> scheduler.getStepCount(sim) > 0);
+        long[] counts = new long[2];
+        Thread caller = Thread.currentThread();
+        scheduler.doActionNow(sim, () -> {
+            assertSame(caller, Thread.currentThread());
+            counts[0] = integrator.getStepCount();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            counts[1] = integrator.getStepCount();
+        });
+        // no slice ran while the action had the simulation
+        assertEquals(counts[0], counts[1]);
+        waitFor(() -> integrator.getStepCount() > counts[1]);
+        scheduler.remove(sim);
+    }
+
+    @Test
+    void testErrorFailsSimulationOnly() {
+        SpinIntegrator failing = new SpinIntegrator() {
+            protected void doStepInternal() {
+                if (stepCount == 10) throw new AssertionError("boom");
+                super.doStepInternal();
+            }
+        };
+        Simulation bad = makeSim(failing, false);
+        Simulation good = makeSim(new SpinIntegrator(), false);
+        scheduler.start(bad);
+        waitFor(() -> scheduler.getState(bad) == SimulationScheduler.State.FAILED);
+        assertTrue(scheduler.getException(bad) instanceof AssertionError);
+
+        // the only worker is still alive
+        scheduler.start(good);
+        waitFor(() -> scheduler.getStepCount(good) > 0);
+        scheduler.remove(good);
+    }
+
+    @Test
+    void testIgnoreOverlap() {
+        Simulation ignoring = makeSim(new OverlapIntegrator(), true);
+        scheduler.start(ignoring);
+        waitFor(() -> scheduler.getStepCount(ignoring) > 0);
+        scheduler.remove(ignoring);
+
+        Simulation strict = makeSim(new OverlapIntegrator(), false);
+        scheduler.start(strict);
+        waitFor(() -> scheduler.getState(strict) == SimulationScheduler.State.FAILED);
+        assertTrue(scheduler.getException(strict) instanceof ConfigurationOverlapException);
+    }
+
+    @Test
+    void testMaxSteps() {
+        Simulation sim = makeSim(new SpinIntegrator(), false);
+        ((ActivityIntegrate) sim.getController().getAllActions()[0]).setMaxSteps(1234);
+        scheduler.start(sim);
+        waitFor(() -> scheduler.getState(sim) == SimulationScheduler.State.FINISHED);
+        assertEquals(1234, scheduler.getStepCount(sim));
+    }
+
+    private Simulation makeSim(Integrator integrator, boolean ignoreOverlap) {
+        Simulation sim = new Simulation(Space3D.getInstance());
+        sim.getController().addAction(new ActivityIntegrate(integrator, 0, ignoreOverlap));
+        scheduler.register(UUID.randomUUID(), sim);
+        return sim;
+    }
+
+    private static void waitFor(BooleanSupplier condition) {
+        long end = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > end) {
+                fail("timed out");
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Takes about 20 microseconds per step.
+     */
+    private static class SpinIntegrator extends Integrator {
+        protected void doStepInternal() {
+            long end = System.nanoTime() + 20000;
+            while (System.nanoTime() < end) ;
+        }
+    }
+
+    private static class OverlapIntegrator extends SpinIntegrator {
+        public void reset() {
+            super.reset();
+            throw new ConfigurationOverlapException(null);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package etomica.server.resources;
+
+import com.codahale.metrics.MetricRegistry;
+import etomica.meta.SimulationModel;
+import etomica.server.core.SimulationScheduler;
+import etomica.server.dao.SimulationStore;
+import etomica.simulation.prototypes.HSMC2D;
+import org.junit.jupiter.api.Test;
+
+import javax.websocket.CloseReason;
+import javax.websocket.Session;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryConfigurationWebsocketTest {
+
+    @Test
+    void testRejectsBadQuantum() {
+        for (String quantum : new String[]{"0", "-0.01", "NaN", "Infinity", "abc"}) {
+            // nothing else is touched when the quantum is rejected
+            BinaryConfigurationWebsocket websocket = new BinaryConfigurationWebsocket(null, null, null);
+            Map<String, Object> closed = new HashMap<>();
+            Session session = session(Collections.singletonMap("quantum", Collections.singletonList(quantum)), closed, null);
+            websocket.onOpen(session, UUID.randomUUID().toString());
+            CloseReason reason = (CloseReason) closed.get("reason");
+            assertNotNull(reason, quantum);
+            assertEquals(CloseReason.CloseCodes.CANNOT_ACCEPT, reason.getCloseCode());
+
+            // closing a rejected session has no stream to stop
+            websocket.onClose(session);
+            assertTrue(session.getUserProperties().isEmpty());
+        }
+    }
+
+    @Test
+    void testStreamSurvivesFailedSend() throws InterruptedException {
+        HSMC2D sim = new HSMC2D();
+        sim.integrator.reset();
+        SimulationStore store = new SimulationStore();
+        UUID id = UUID.randomUUID();
+        store.put(id, new SimulationModel(sim));
+        SimulationScheduler scheduler = new SimulationScheduler(1, 5, new MetricRegistry());
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        try {
+            BinaryConfigurationWebsocket websocket = new BinaryConfigurationWebsocket(store, executor, scheduler);
+            AtomicInteger sends = new AtomicInteger();
+            Session session = session(Collections.emptyMap(), new HashMap<>(), sends);
+            websocket.onOpen(session, id.toString());
+            ScheduledFuture<?> task = (ScheduledFuture<?>) session.getUserProperties().get("task");
+            waitFor(() -> sends.get() > 0);
+
+            // a new snapshot is still sent after the failure
+            Thread.sleep(50);
+            scheduler.doActionNow(sim, () -> sim.integrator.doStep());
+            waitFor(() -> sends.get() > 1);
+            assertFalse(task.isDone());
+
+            websocket.onClose(session);
+            assertTrue(task.isDone());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > end) {
+                fail("timed out");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Returns a session with the given query parameters that records the reason it is
+     * closed with.  Sending fails, and is counted in sends if that is not null.
+     */
+    private static Session session(Map<String, List<String>> parameters, Map<String, Object> closed, AtomicInteger sends) {
+        Map<String, Object> userProperties = new HashMap<>();
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getRequestParameterMap":
+                            return parameters;
+                        case "getUserProperties":
+                            return userProperties;
+                        case "close":
+                            closed.put("reason", args == null ? null : args[0]);
+                            return null;
+                        case "setMaxIdleTimeout":
+                            return null;
+                        case "getAsyncRemote":
+                            if (sends != null) sends.incrementAndGet();
+                            throw new IllegalStateException("not connected");
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,211 @@
+package etomica.server.serializers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationFrameEncoderTest {
+
+    private static final float QUANTUM = 0.001f;
+    private static final double L = 10;
+
+    private ConfigurationFrameEncoder encoder;
+    private Decoder decoder;
+    private Random random;
+
+    @BeforeEach
+    void setUp() {
+        encoder = new ConfigurationFrameEncoder(3, QUANTUM);
+        decoder = new Decoder();
+        random = new Random(1);
+    }
+
+    @Test
+    void testRoundTrip() {
+        // odd numbers of coordinates, so delta frames need padding
+        float[][] coords = {randomCoords(101), randomCoords(7)};
+        encoder.setKeyFrameInterval(50);
+        for (int frame = 0; frame < 200; frame++) {
+            decode(coords);
+            int expectedType = frame % 51 == 0 ? ConfigurationFrameEncoder.KEY_FRAME : ConfigurationFrameEncoder.DELTA_FRAME;
+            assertEquals(expectedType, decoder.type, "frame " + frame);
+            assertEquals(frame, decoder.sequence);
+            assertClose(coords);
+            for (float[] c : coords) {
+                move(c, 0.05f);
+            }
+        }
+    }
+
+    @Test
+    void testDeltaSmallerThanKey() {
+        float[][] coords = {randomCoords(1000)};
+        int keySize = encoder.encode(coords, boxSizes(1)).remaining();
+        move(coords[0], 0.05f);
+        int deltaSize = encoder.encode(coords, boxSizes(1)).remaining();
+        assertTrue(deltaSize < 0.6 * keySize, deltaSize + " vs " + keySize);
+    }
+
+    @Test
+    void testWrapException() {
+        float[][] coords = {randomCoords(10)};
+        decode(coords);
+        // jump one atom further than an int16 count of quanta can hold (32.767), as a wrap
+        // through the boundary of a larger box would
+        coords[0][4] -= 40;
+        move(coords[0], 0.01f);
+        decode(coords);
+        assertEquals(ConfigurationFrameEncoder.DELTA_FRAME, decoder.type);
+        assertEquals(1, decoder.nExceptions);
+        assertClose(coords);
+    }
+
+    @Test
+    void testKeyFrames() {
+        float[][] coords = {randomCoords(10)};
+        decode(coords);
+        decode(coords);
+        assertEquals(ConfigurationFrameEncoder.DELTA_FRAME, decoder.type);
+
+        encoder.requestKeyFrame();
+        decode(coords);
+        assertEquals(ConfigurationFrameEncoder.KEY_FRAME, decoder.type);
+
+        encoder.setQuantum(0.01f);
+        move(coords[0], 0.05f);
+        decode(coords);
+        assertEquals(ConfigurationFrameEncoder.KEY_FRAME, decoder.type);
+        move(coords[0], 0.05f);
+        decode(coords);
+        assertEquals(ConfigurationFrameEncoder.DELTA_FRAME, decoder.type);
+        assertEquals(0.01f, decoder.quantum);
+        assertClose(coords);
+
+        // a change in the number of atoms
+        coords[0] = randomCoords(11);
+        decode(coords);
+        assertEquals(ConfigurationFrameEncoder.KEY_FRAME, decoder.type);
+        assertClose(coords);
+
+        // a change in the number of boxes
+        coords = new float[][]{coords[0], randomCoords(3)};
+        decode(coords);
+        assertEquals(ConfigurationFrameEncoder.KEY_FRAME, decoder.type);
+        assertClose(coords);
+    }
+
+    @Test
+    void testBadQuantum() {
+        assertThrows(IllegalArgumentException.class, () -> new ConfigurationFrameEncoder(3, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ConfigurationFrameEncoder(3, -0.1f));
+        assertThrows(IllegalArgumentException.class, () -> new ConfigurationFrameEncoder(3, Float.NaN));
+        assertThrows(IllegalArgumentException.class, () -> encoder.setQuantum(Float.POSITIVE_INFINITY));
+        assertEquals(QUANTUM, encoder.getQuantum());
+    }
+
+    private void decode(float[][] coords) {
+        double[][] boxSizes = boxSizes(coords.length);
+        decoder.decode(encoder.encode(coords, boxSizes));
+        assertEquals(coords.length, decoder.coords.length);
+        for (int i = 0; i < coords.length; i++) {
+            assertArrayEquals(new float[]{(float) L, (float) L, (float) L}, decoder.boxSizes[i]);
+        }
+    }
+
+    /**
+     * Checks that the decoded coordinates are within half a quantum (plus float rounding)
+     * of the given ones.
+     */
+    private void assertClose(float[][] coords) {
+        float quantum = decoder.quantum;
+        for (int i = 0; i < coords.length; i++) {
+            assertEquals(coords[i].length, decoder.coords[i].length);
+            for (int j = 0; j < coords[i].length; j++) {
+                assertEquals(coords[i][j], decoder.coords[i][j], 0.5 * quantum + 1e-5, "box " + i + " coordinate " + j);
+            }
+        }
+    }
+
+    private float[] randomCoords(int nAtoms) {
+        float[] c = new float[3 * nAtoms];
+        for (int j = 0; j < c.length; j++) {
+            c[j] = (float) ((random.nextDouble() - 0.5) * L);
+        }
+        return c;
+    }
+
+    private void move(float[] c, float step) {
+        for (int j = 0; j < c.length; j++) {
+            c[j] += (float) ((random.nextDouble() - 0.5) * step);
+        }
+    }
+
+    private static double[][] boxSizes(int nBoxes) {
+        double[][] boxSizes = new double[nBoxes][];
+        for (int i = 0; i < nBoxes; i++) {
+            boxSizes[i] = new double[]{L, L, L};
+        }
+        return boxSizes;
+    }
+
+    /**
+     * Reconstructs coordinates from frames as a client would.
+     */
+    private static class Decoder {
+        int type, sequence, nExceptions;
+        float quantum;
+        float[][] coords;
+        float[][] boxSizes;
+
+        void decode(ByteBuffer frame) {
+            ByteBuffer b = frame.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            type = b.getInt();
+            sequence = b.getInt();
+            int nBoxes = b.getInt();
+            int D = b.getInt();
+            quantum = b.getFloat();
+            if (type == ConfigurationFrameEncoder.KEY_FRAME) {
+                coords = new float[nBoxes][];
+            }
+            else {
+                assertEquals(ConfigurationFrameEncoder.DELTA_FRAME, type);
+                assertEquals(coords.length, nBoxes);
+            }
+            boxSizes = new float[nBoxes][D];
+            nExceptions = 0;
+            for (int i = 0; i < nBoxes; i++) {
+                for (int d = 0; d < D; d++) {
+                    boxSizes[i][d] = b.getFloat();
+                }
+                int n = b.getInt() * D;
+                if (type == ConfigurationFrameEncoder.KEY_FRAME) {
+                    coords[i] = new float[n];
+                    for (int j = 0; j < n; j++) {
+                        coords[i][j] = b.getFloat();
+                    }
+                }
+                else {
+                    assertEquals(coords[i].length, n);
+                    for (int j = 0; j < n; j++) {
+                        coords[i][j] += b.getShort() * quantum;
+                    }
+                    if ((n & 1) == 1) {
+                        assertEquals(0, b.getShort());
+                    }
+                    int nBoxExceptions = b.getInt();
+                    for (int k = 0; k < nBoxExceptions; k++) {
+                        int j = b.getInt();
+                        coords[i][j] = b.getFloat();
+                    }
+                    nExceptions += nBoxExceptions;
+                }
+            }
+            assertEquals(0, b.remaining());
+        }
+    }
+}